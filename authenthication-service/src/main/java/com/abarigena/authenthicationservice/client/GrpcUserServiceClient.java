@@ -0,0 +1,99 @@
+package com.abarigena.authenthicationservice.client;
+
+import com.abarigena.dto.AuthRequest;
+import com.abarigena.dto.PasswordUpdateRequest;
+import com.abarigena.dto.RevokedTokenDto;
+import com.abarigena.dto.UserCredentialsDto;
+import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserImportResult;
+import com.abarigena.dto.grpc.FindByEmailRequest;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.dto.grpc.UserRecord;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реализация {@link UserServiceClient} поверх внутреннего gRPC API сервиса пользователей.
+ * Поиск по email выполняется через gRPC; регистрация, импорт, учетные данные для входа, обновление
+ * хэша пароля и отзывы токенов остаются на Feign.
+ * Если gRPC сервер недоступен или не поддерживает вызов, запрос выполняется через Feign.
+ */
+public class GrpcUserServiceClient implements UserServiceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcUserServiceClient.class);
+
+    private final UserInfoServiceGrpc.UserInfoServiceBlockingStub stub;
+    private final UserServiceClient feignClient;
+    private final long deadlineMillis;
+
+    public GrpcUserServiceClient(UserInfoServiceGrpc.UserInfoServiceBlockingStub stub,
+                                 UserServiceClient feignClient, long deadlineMillis) {
+        this.stub = stub;
+        this.feignClient = feignClient;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    @Override
+    public UserDto registerUser(AuthRequest request) {
+        return feignClient.registerUser(request);
+    }
+
+    @Override
+    public UserCredentialsDto findCredentials(String email, boolean withRoles) {
+        return feignClient.findCredentials(email, withRoles);
+    }
+
+    @Override
+    public List<UserImportResult> importUsers(List<AuthRequest> users) {
+        return feignClient.importUsers(users);
+    }
+
+    @Override
+    public void updatePassword(String userId, PasswordUpdateRequest request) {
+        feignClient.updatePassword(userId, request);
+    }
+
+    @Override
+    public void revokeToken(RevokedTokenDto revocation) {
+        feignClient.revokeToken(revocation);
+    }
+
+    @Override
+    public boolean isTokenRevoked(String jti) {
+        return feignClient.isTokenRevoked(jti);
+    }
+
+    @Override
+    public List<RevokedTokenDto> findRevocations(long since, int limit) {
+        return feignClient.findRevocations(since, limit);
+    }
+
+    @Override
+    public UserDto findByEmail(String email) {
+        try {
+            UserRecord user = stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .findByEmail(FindByEmailRequest.newBuilder().setEmail(email).build());
+
+            return UserDto.builder()
+                    .id(user.getId())
+                    .email(user.getEmail())
+                    .password(user.getPassword())
+                    .username(user.getUsername())
+                    .roles(new HashSet<>(user.getRolesList()))
+                    .build();
+        } catch (StatusRuntimeException e) {
+            Status.Code code = e.getStatus().getCode();
+            if (code != Status.Code.UNAVAILABLE && code != Status.Code.UNIMPLEMENTED) {
+                throw e;
+            }
+            logger.warn("gRPC недоступен ({}), поиск пользователя {} через Feign", code, email);
+            return feignClient.findByEmail(email);
+        }
+    }
+}
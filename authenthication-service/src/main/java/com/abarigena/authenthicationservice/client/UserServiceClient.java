@@ -1,18 +1,39 @@
 package com.abarigena.authenthicationservice.client;
 
 import com.abarigena.authenthicationservice.config.ServiceAuthConfig;
+import com.abarigena.common.feign.PooledFeignClientConfig;
 import com.abarigena.dto.AuthRequest;
+import com.abarigena.dto.PasswordUpdateRequest;
+import com.abarigena.dto.RevokedTokenDto;
+import com.abarigena.dto.UserCredentialsDto;
 import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserImportResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 /**
  * Клиент для взаимодействия с сервисом пользователей.
- * Используется для регистрации пользователей и поиска по электронной почте.
+ * Используется для регистрации и импорта пользователей, поиска по электронной почте, получения учетных данных
+ * для входа, обновления хэша пароля и для общего списка отозванных токенов.
+ * <p>
+ * Feign-реализация не является основной: при включенном {@code user-service.grpc.enabled}
+ * вместо нее внедряется {@link GrpcUserServiceClient}.
+ * </p>
+ * <p>
+ * Вызовы защищены таймаутами, ограничением параллелизма и circuit breaker (resilience4j).
+ * Запасной реализации намеренно нет: учетные данные из устаревшего кэша для входа не используются,
+ * при отказе сервиса пользователей запрос быстро завершается ошибкой.
+ * </p>
  */
-@FeignClient(name = "user-service", configuration = ServiceAuthConfig.class)
+@FeignClient(name = "user-service", configuration = {ServiceAuthConfig.class, PooledFeignClientConfig.class},
+        qualifiers = "feignUserServiceClient", primary = false)
 public interface UserServiceClient {
 
     /**
@@ -32,4 +53,60 @@ public interface UserServiceClient {
      */
     @GetMapping("/users/{email}")
     UserDto findByEmail(@PathVariable("email") String email);
-}
\ No newline at end of file
+
+    /**
+     * Запрашивает учетные данные пользователя для входа: ID, хэш пароля и, если нужно, роли.
+     *
+     * @param email электронная почта пользователя, без учета регистра.
+     * @param withRoles нужно ли возвращать роли пользователя.
+     * @return объект {@link UserCredentialsDto} с учетными данными.
+     */
+    @GetMapping("/users/credentials")
+    UserCredentialsDto findCredentials(@RequestParam("email") String email,
+                                       @RequestParam("withRoles") boolean withRoles);
+
+    /**
+     * Импортирует пакет пользователей с уже вычисленными хэшами паролей.
+     *
+     * @param users пользователи; индекс результата совпадает с позицией в списке.
+     * @return результат импорта по каждой строке.
+     */
+    @PostMapping("/users/import")
+    List<UserImportResult> importUsers(@RequestBody List<AuthRequest> users);
+
+    /**
+     * Заменяет хэш пароля пользователя.
+     *
+     * @param userId ID пользователя.
+     * @param request новый хэш пароля.
+     */
+    @PutMapping("/users/{userId}/password")
+    void updatePassword(@PathVariable("userId") String userId, @RequestBody PasswordUpdateRequest request);
+
+    /**
+     * Сохраняет отзыв токена в общем списке.
+     *
+     * @param revocation идентификатор и время истечения токена.
+     */
+    @PostMapping("/users/revocations")
+    void revokeToken(@RequestBody RevokedTokenDto revocation);
+
+    /**
+     * Проверяет по общему списку, отозван ли токен.
+     *
+     * @param jti идентификатор токена.
+     * @return true, если токен отозван.
+     */
+    @GetMapping("/users/revocations/{jti}")
+    boolean isTokenRevoked(@PathVariable("jti") String jti);
+
+    /**
+     * Запрашивает отзывы после заданного номера.
+     *
+     * @param since последний полученный номер отзыва.
+     * @param limit наибольшее число отзывов.
+     * @return отзывы по возрастанию номера.
+     */
+    @GetMapping("/users/revocations")
+    List<RevokedTokenDto> findRevocations(@RequestParam("since") long since, @RequestParam("limit") int limit);
+}
@@ -0,0 +1,42 @@
+package com.abarigena.authenthicationservice.config;
+
+import com.abarigena.authenthicationservice.client.GrpcUserServiceClient;
+import com.abarigena.authenthicationservice.client.UserServiceClient;
+import com.abarigena.common.grpc.UserServiceGrpcConfig;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import io.grpc.ManagedChannel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Конфигурация gRPC клиента сервиса пользователей поверх общего канала {@link UserServiceGrpcConfig}.
+ * Включается свойством {@code user-service.grpc.enabled}, иначе используется Feign клиент.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user-service.grpc.enabled", havingValue = "true")
+@Import(UserServiceGrpcConfig.class)
+public class GrpcUserServiceClientConfig {
+
+    @Value("${user-service.grpc.deadline-ms:2000}")
+    private long deadlineMillis;
+
+    /**
+     * gRPC реализация клиента сервиса пользователей, которая внедряется вместо Feign клиента.
+     *
+     * @param userServiceChannel канал к сервису пользователей.
+     * @param feignClient Feign клиент для запасного пути.
+     * @return клиент сервиса пользователей.
+     */
+    @Bean
+    @Primary
+    public UserServiceClient grpcUserServiceClient(ManagedChannel userServiceChannel,
+                                                   @Qualifier("feignUserServiceClient") UserServiceClient feignClient) {
+        return new GrpcUserServiceClient(UserInfoServiceGrpc.newBlockingStub(userServiceChannel),
+                feignClient, deadlineMillis);
+    }
+}
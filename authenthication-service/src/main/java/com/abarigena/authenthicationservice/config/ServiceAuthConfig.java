@@ -1,5 +1,6 @@
 package com.abarigena.authenthicationservice.config;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,12 +16,13 @@ public class ServiceAuthConfig {
      * Создает и настраивает интерсептор, который добавляет заголовок аутентификации в каждый исходящий запрос.
      * Заголовок содержит ключ аутентификации для внутреннего сервиса.
      *
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return {@link RequestInterceptor} для добавления заголовка аутентификации.
      */
     @Bean
-    public RequestInterceptor serviceAuthInterceptor() {
+    public RequestInterceptor serviceAuthInterceptor(ServiceAuthKey serviceAuthKey) {
         return requestTemplate -> {
-            requestTemplate.header("X-Service-Auth", "internal-service-key");
+            requestTemplate.header(ServiceAuthKey.HEADER, serviceAuthKey.value());
         };
     }
 }
@@ -1,6 +1,9 @@
 package com.abarigena.authenthicationservice.controller;
 
 import com.abarigena.authenthicationservice.services.AuthService;
+import com.abarigena.authenthicationservice.services.TokenRevocationService;
+import com.abarigena.authenthicationservice.services.UserImportService;
+import com.abarigena.common.security.ServiceAuthKey;
 import com.abarigena.dto.AuthRequest;
 import com.abarigena.dto.AuthResponse;
 import com.abarigena.dto.LoginRequest;
@@ -9,9 +12,15 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
 
 /**
  * Контроллер для обработки запросов аутентификации, включая регистрацию, вход и обновление токенов.
@@ -22,10 +31,17 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final TokenRevocationService revocationService;
+    private final UserImportService userImportService;
+    private final ServiceAuthKey serviceAuthKey;
 
     @Autowired
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, TokenRevocationService revocationService,
+                          UserImportService userImportService, ServiceAuthKey serviceAuthKey) {
         this.authService = authService;
+        this.revocationService = revocationService;
+        this.userImportService = userImportService;
+        this.serviceAuthKey = serviceAuthKey;
     }
 
     /**
@@ -49,6 +65,36 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully");
     }
 
+    /**
+     * Массовый импорт пользователей.
+     *
+     * @param token токен доступа администратора.
+     * @param from номер строки, с которой начинать импорт (для повтора после ошибки).
+     * @param users данные пользователей в том же формате, что и при регистрации.
+     * @return ResponseEntity с потоком результатов: по строке JSON на пользователя и итог последней строкой.
+     */
+    @PostMapping(value = "/import", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Импорт пользователей",
+            description = "Регистрирует пользователей пакетом и возвращает результат по каждой строке по мере обработки. "
+                    + "Если импорт прервался, итог содержит номер строки для повтора (параметр from)",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Поток результатов импорта"),
+                    @ApiResponse(responseCode = "403", description = "Токен не принадлежит администратору")
+            }
+    )
+    public ResponseEntity<StreamingResponseBody> importUsers(
+            @RequestHeader("Authorization") String token,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestBody List<AuthRequest> users) {
+        if (!authService.isAdmin(token.replace("Bearer ", ""))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> userImportService.importUsers(users, from, out));
+    }
+
     /**
      * Вход в систему.
      *
@@ -62,11 +108,24 @@ public class AuthController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "Успешный вход",
                             content = @Content(schema = @Schema(implementation = AuthResponse.class))),
-                    @ApiResponse(responseCode = "401", description = "Неверные учетные данные")
+                    @ApiResponse(responseCode = "401", description = "Неверные учетные данные"),
+                    @ApiResponse(responseCode = "429", description = "Слишком много неудачных попыток входа")
             }
     )
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        return ResponseEntity.ok(authService.login(request, clientIp(httpRequest)));
+    }
+
+    /**
+     * Адрес клиента. Шлюз дописывает адрес клиента последним в X-Forwarded-For;
+     * значения перед ним передает сам клиент, и им доверять нельзя.
+     */
+    private static String clientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank()) {
+            return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddr();
     }
 
     /**
@@ -89,4 +148,54 @@ public class AuthController {
         String refreshToken = token.replace("Bearer ", "");
         return ResponseEntity.ok(authService.refreshToken(refreshToken));
     }
+
+    /**
+     * Выход из системы.
+     *
+     * @param token токен доступа.
+     * @param refreshToken токен обновления, который нужно отозвать вместе с токеном доступа.
+     * @return ResponseEntity без тела.
+     */
+    @PostMapping(value = "/logout")
+    @Operation(
+            summary = "Выход из системы",
+            description = "Отзывает токен доступа и переданный токен обновления",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Токены отозваны"),
+                    @ApiResponse(responseCode = "401", description = "Недействительный токен доступа")
+            }
+    )
+    public ResponseEntity<Void> logout(
+            @RequestHeader("Authorization") String token,
+            @RequestHeader(value = "X-Refresh-Token", required = false) String refreshToken) {
+        authService.logout(token.replace("Bearer ", ""), refreshToken);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Отзывы токенов для шлюза.
+     *
+     * @param since последний полученный номер отзыва.
+     * @param serviceAuth ключ внутреннего сервиса.
+     * @return ResponseEntity с отзывами после заданного номера.
+     */
+    @GetMapping(value = "/revocations")
+    @Operation(
+            summary = "Отозванные токены",
+            description = "Возвращает отзывы токенов после заданного номера. Только для внутренних сервисов",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Порция отзывов",
+                            content = @Content(schema = @Schema(
+                                    implementation = TokenRevocationService.RevocationBatch.class))),
+                    @ApiResponse(responseCode = "403", description = "Запрос не от внутреннего сервиса")
+            }
+    )
+    public ResponseEntity<TokenRevocationService.RevocationBatch> revocations(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = ServiceAuthKey.HEADER, required = false) String serviceAuth) {
+        if (!serviceAuthKey.matches(serviceAuth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(revocationService.since(since));
+    }
 }
@@ -4,13 +4,20 @@ import com.abarigena.authenthicationservice.client.UserServiceClient;
 import com.abarigena.dto.AuthRequest;
 import com.abarigena.dto.AuthResponse;
 import com.abarigena.dto.LoginRequest;
-import com.abarigena.dto.UserDto;
-import org.mindrot.jbcrypt.BCrypt;
+import com.abarigena.dto.PasswordUpdateRequest;
+import com.abarigena.dto.UserCredentialsDto;
+import feign.FeignException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.Set;
+
 /**
  * Сервис для обработки аутентификации пользователя, включая регистрацию, вход и обновление токенов.
  */
@@ -21,11 +28,21 @@ public class AuthService {
 
     private final UserServiceClient userServiceClient;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+    private final PasswordHashingService passwordHashing;
+    private final LoginThrottleService loginThrottle;
+    private final UserRolesCache rolesCache;
 
     @Autowired
-    public AuthService(UserServiceClient userServiceClient, JwtUtil jwtUtil) {
+    public AuthService(UserServiceClient userServiceClient, JwtUtil jwtUtil,
+                       TokenRevocationService revocationService, PasswordHashingService passwordHashing,
+                       LoginThrottleService loginThrottle, UserRolesCache rolesCache) {
         this.userServiceClient = userServiceClient;
         this.jwtUtil = jwtUtil;
+        this.revocationService = revocationService;
+        this.passwordHashing = passwordHashing;
+        this.loginThrottle = loginThrottle;
+        this.rolesCache = rolesCache;
     }
 
     /**
@@ -36,7 +53,7 @@ public class AuthService {
     public void register(AuthRequest request) {
         logger.info("Начало процесса регистрации пользователя с email: {}", request.getEmail());
 
-        String hashedPassword = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt());
+        String hashedPassword = passwordHashing.hash(request.getPassword());
         request.setPassword(hashedPassword);
 
         try {
@@ -55,33 +72,108 @@ public class AuthService {
      * @return объект {@link AuthResponse} с токенами доступа и обновления.
      */
     public AuthResponse login(LoginRequest request) {
+        return login(request, null);
+    }
+
+    /**
+     * Выполняет вход в систему с учетом неудачных попыток с адреса клиента.
+     *
+     * @param request данные для аутентификации пользователя.
+     * @param clientIp адрес клиента или null, если он неизвестен.
+     * @return объект {@link AuthResponse} с токенами доступа и обновления.
+     * @throws LoginThrottleService.LoginThrottledException если неудачных попыток по email или с адреса клиента слишком много.
+     */
+    public AuthResponse login(LoginRequest request, String clientIp) {
         logger.info("Попытка входа пользователя: {}", request.getEmail());
 
-        UserDto user;
+        // До обращения к user-service и BCrypt, чтобы перебор паролей не нагружал сервисы
+        loginThrottle.check(request.getEmail(), clientIp);
+
+        UserCredentialsDto credentials;
         try {
-            user = userServiceClient.findByEmail(request.getEmail());
+            credentials = findCredentials(request.getEmail());
             logger.debug("Пользователь найден в базе данных: {}", request.getEmail());
         } catch (Exception e) {
             logger.error("Ошибка при поиске пользователя {}: {}", request.getEmail(), e.getMessage());
+            if (isRejectedLookup(e)) {
+                loginThrottle.recordFailure(request.getEmail(), clientIp);
+            }
             throw new RuntimeException("Ошибка при авторизации: " + e.getMessage());
         }
 
         // Проверяем пароль
-        if (!BCrypt.checkpw(request.getPassword(), user.getPassword())) {
+        if (!passwordHashing.verify(request.getPassword(), credentials.getPasswordHash())) {
             logger.warn("Неверный пароль для пользователя: {}", request.getEmail());
+            loginThrottle.recordFailure(request.getEmail(), clientIp);
             throw new RuntimeException("Invalid email or password");
         }
+        rehashIfNeeded(credentials, request.getPassword());
 
-        String roles = String.join(",", user.getRoles());
+        String userId = credentials.getId();
+        String roles = String.join(",", credentials.getRoles());
 
-        logger.debug("Генерация токенов для пользователя: {} с ролями: {}", user.getId(), roles);
-        String accessToken = jwtUtil.generate(user.getId(), roles, "ACCESS");
-        String refreshToken = jwtUtil.generate(user.getId(), roles, "REFRESH");
+        logger.debug("Генерация токенов для пользователя: {} с ролями: {}", userId, roles);
+        String accessToken = jwtUtil.generate(userId, roles, "ACCESS");
+        String refreshToken = jwtUtil.generate(userId, roles, "REFRESH");
 
         logger.info("Пользователь успешно вошел в систему: {}", request.getEmail());
         return new AuthResponse(accessToken, refreshToken);
     }
 
+    /**
+     * Запрашивает учетные данные пользователя. Хэш пароля запрашивается всегда, а роли берутся
+     * из {@link UserRolesCache}, если они там есть и относятся к тому же пользователю.
+     *
+     * @param email email пользователя.
+     * @return учетные данные с ролями.
+     */
+    private UserCredentialsDto findCredentials(String email) {
+        if (rolesCache.contains(email)) {
+            UserCredentialsDto credentials = userServiceClient.findCredentials(email, false);
+            Set<String> roles = rolesCache.get(email, credentials.getId());
+            if (roles != null) {
+                credentials.setRoles(roles);
+                return credentials;
+            }
+        }
+        UserCredentialsDto credentials = userServiceClient.findCredentials(email, true);
+        rolesCache.put(email, credentials.getId(), credentials.getRoles());
+        return credentials;
+    }
+
+    /**
+     * Отклонил ли user-service поиск пользователя (неизвестный email).
+     * Недоступность user-service неудачной попыткой не считается.
+     */
+    private static boolean isRejectedLookup(Exception e) {
+        if (e instanceof FeignException.FeignClientException) {
+            return true;
+        }
+        return e instanceof StatusRuntimeException grpc
+                && (grpc.getStatus().getCode() == Status.Code.NOT_FOUND
+                || grpc.getStatus().getCode() == Status.Code.INVALID_ARGUMENT);
+    }
+
+    /**
+     * Пересчитывает хэш пароля, созданный с устаревшей стоимостью BCrypt.
+     * Ошибка пересчета не мешает входу: хэш будет пересчитан при следующем входе.
+     *
+     * @param credentials учетные данные пользователя с проверенным паролем.
+     * @param password пароль пользователя.
+     */
+    private void rehashIfNeeded(UserCredentialsDto credentials, String password) {
+        if (!passwordHashing.needsRehash(credentials.getPasswordHash())) {
+            return;
+        }
+        String userId = credentials.getId();
+        try {
+            userServiceClient.updatePassword(userId, new PasswordUpdateRequest(passwordHashing.hash(password)));
+            logger.info("Хэш пароля пользователя {} пересчитан с новой стоимостью", userId);
+        } catch (Exception e) {
+            logger.warn("Не удалось пересчитать хэш пароля пользователя {}: {}", userId, e.getMessage());
+        }
+    }
+
     /**
      * Обновляет токен доступа на основе токена обновления.
      *
@@ -94,6 +186,10 @@ public class AuthService {
         if (jwtUtil.isExpired(refreshToken)) {
             throw new RuntimeException("Refresh token expired");
         }
+        if (revocationService.isRevoked(refreshToken)) {
+            logger.warn("Попытка обновления по отозванному токену");
+            throw new RuntimeException("Refresh token revoked");
+        }
 
         String userId = jwtUtil.getClaims(refreshToken).getSubject();
         String role = jwtUtil.getClaims(refreshToken).get("role", String.class);
@@ -107,4 +203,45 @@ public class AuthService {
         return new AuthResponse(newAccessToken, newRefreshToken);
     }
 
+    /**
+     * Проверяет, что токен доступа действителен, не отозван и выдан администратору.
+     *
+     * @param accessToken токен доступа.
+     * @return true, если токен принадлежит администратору.
+     */
+    public boolean isAdmin(String accessToken) {
+        try {
+            String roles = jwtUtil.getClaims(accessToken).get("role", String.class);
+            return roles != null
+                    && Arrays.asList(roles.split(",")).contains("ROLE_ADMIN")
+                    && !revocationService.isRevoked(accessToken);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Выход из системы: отзывает токен доступа и, если передан, токен обновления.
+     *
+     * @param accessToken токен доступа.
+     * @param refreshToken токен обновления или null.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        Claims claims = jwtUtil.getClaims(accessToken);
+        revocationService.revoke(claims);
+
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            try {
+                Claims refreshClaims = jwtUtil.getClaims(refreshToken);
+                if (claims.getSubject().equals(refreshClaims.getSubject())) {
+                    revocationService.revoke(refreshClaims);
+                } else {
+                    logger.warn("Токен обновления принадлежит другому пользователю и не отозван");
+                }
+            } catch (Exception e) {
+                logger.warn("Токен обновления не отозван: {}", e.getMessage());
+            }
+        }
+        logger.info("Пользователь {} вышел из системы", claims.getSubject());
+    }
 }
@@ -13,6 +13,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Утилитный класс для работы с JWT токенами.
@@ -85,6 +86,7 @@ public class JwtUtil {
 
     /**
      * Генерирует новый JWT токен.
+     * Токен получает уникальный идентификатор ({@code jti}), по которому его можно отозвать.
      *
      * @param userId идентификатор пользователя.
      * @param role роль пользователя.
@@ -107,6 +109,7 @@ public class JwtUtil {
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userId)
                 .setIssuedAt(now)
                 .setExpiration(exp)
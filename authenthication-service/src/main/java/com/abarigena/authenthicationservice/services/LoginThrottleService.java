@@ -0,0 +1,150 @@
+package com.abarigena.authenthicationservice.services;
+
+import com.abarigena.authenthicationservice.throttle.SlidingWindowSketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Ограничение неудачных попыток входа по email и по адресу клиента.
+ * <p>
+ * Каждая неудачная попытка стоит запроса к user-service и проверки BCrypt, поэтому перебор паролей
+ * напрямую превращается в нагрузку на процессор. Неудачные попытки считаются за скользящее окно
+ * {@code window} отдельно по email и по адресу клиента; если любой из счетчиков достиг предела,
+ * вход отклоняется ответом 429 до обращения к user-service и до хэширования.
+ * </p>
+ * <p>
+ * Счетчики приблизительные ({@link SlidingWindowSketch}): память постоянна при любом числе
+ * адресов и email, а проверка выполняется за одно и то же время для любого ключа. Оценка может
+ * быть завышена, но не занижена. Успешный вход счетчики не сбрасывает — попытки выходят из окна сами.
+ * </p>
+ * <p>
+ * Email и адреса клиентов считаются в отдельных таблицах. Ширина каждой рассчитана так, чтобы при
+ * {@code expected-failures-per-window} неудачных попытках за окно оценка для любого ключа завышалась
+ * не больше чем на половину его предела: иначе при массовом переборе завышенные оценки достигли бы
+ * предела у всех email, и вход был бы закрыт для всех пользователей.
+ * </p>
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleService.class);
+
+    private final boolean enabled;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerClient;
+    private final long retryAfterSeconds;
+    private final SlidingWindowSketch emailFailures;
+    private final SlidingWindowSketch clientFailures;
+
+    private final Counter throttledByEmail;
+    private final Counter throttledByClient;
+
+    /**
+     * Слишком много неудачных попыток входа: запрос нужно повторить позже.
+     */
+    public static class LoginThrottledException extends ResponseStatusException {
+
+        private final long retryAfterSeconds;
+
+        public LoginThrottledException(long retryAfterSeconds) {
+            super(HttpStatus.TOO_MANY_REQUESTS, "Too many failed login attempts, retry later");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return headers;
+        }
+    }
+
+    public LoginThrottleService(@Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                                @Value("${auth.login-throttle.window:15m}") Duration window,
+                                @Value("${auth.login-throttle.buckets:15}") int buckets,
+                                @Value("${auth.login-throttle.max-failures-per-email:10}") int maxFailuresPerEmail,
+                                @Value("${auth.login-throttle.max-failures-per-client:100}") int maxFailuresPerClient,
+                                @Value("${auth.login-throttle.sketch-depth:4}") int depth,
+                                @Value("${auth.login-throttle.expected-failures-per-window:50000}") long expectedFailures,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerClient = maxFailuresPerClient;
+        // Старейший интервал выходит из окна не позже, чем через длину одного интервала
+        this.retryAfterSeconds = Math.max(1, window.dividedBy(buckets).toSeconds());
+        int emailWidth = SlidingWindowSketch.widthFor(expectedFailures, maxFailuresPerEmail / 2);
+        int clientWidth = SlidingWindowSketch.widthFor(expectedFailures, maxFailuresPerClient / 2);
+        this.emailFailures = new SlidingWindowSketch(window.toMillis(), buckets, depth, emailWidth,
+                System::currentTimeMillis);
+        this.clientFailures = new SlidingWindowSketch(window.toMillis(), buckets, depth, clientWidth,
+                System::currentTimeMillis);
+
+        this.throttledByEmail = throttled(meterRegistry, "email");
+        this.throttledByClient = throttled(meterRegistry, "client");
+        logger.info("Ограничение входа: {} неудачных попыток на email, {} на клиента за {}; счетчики {} КБ",
+                maxFailuresPerEmail, maxFailuresPerClient, window,
+                (long) buckets * depth * (emailWidth + clientWidth) * Integer.BYTES / 1024);
+    }
+
+    private static Counter throttled(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.login-throttle.rejected")
+                .description("Попытки входа, отклоненные до проверки пароля")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, можно ли выполнять попытку входа.
+     * Оба счетчика проверяются всегда, чтобы время ответа не зависело от того, какой из них превышен.
+     *
+     * @param email Email из запроса.
+     * @param clientIp Адрес клиента или null, если он неизвестен.
+     * @throws LoginThrottledException если превышен предел по email или по адресу клиента.
+     */
+    public void check(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        boolean emailExceeded = emailFailures.estimate(emailKey(email)) >= maxFailuresPerEmail;
+        boolean clientExceeded = clientFailures.estimate(clientKey(clientIp)) >= maxFailuresPerClient;
+        if (emailExceeded | clientExceeded) {
+            (emailExceeded ? throttledByEmail : throttledByClient).increment();
+            throw new LoginThrottledException(retryAfterSeconds);
+        }
+    }
+
+    /**
+     * Учитывает неудачную попытку входа.
+     *
+     * @param email Email из запроса.
+     * @param clientIp Адрес клиента или null, если он неизвестен.
+     */
+    public void recordFailure(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        emailFailures.add(emailKey(email));
+        if (clientIp != null) {
+            clientFailures.add(clientKey(clientIp));
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String clientKey(String clientIp) {
+        // Без адреса клиента счетчик не ведется: ключ, который никогда не увеличивается, проверяется для ровного времени
+        return clientIp == null ? "" : clientIp;
+    }
+}
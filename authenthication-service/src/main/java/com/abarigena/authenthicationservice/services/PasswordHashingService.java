@@ -0,0 +1,190 @@
+package com.abarigena.authenthicationservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хэширование и проверка паролей BCrypt в отдельном ограниченном пуле потоков.
+ * <p>
+ * BCrypt намеренно нагружает процессор, поэтому всплеск входов, выполняемый прямо в потоках Tomcat,
+ * занимает все ядра и задерживает остальные запросы (например, {@code /auth/refresh}). Здесь хэширование
+ * выполняется не более чем в {@code threads} потоках (по умолчанию по числу ядер) с очередью
+ * на {@code queue-capacity} задач. Если очередь заполнена или задача ждет дольше {@code max-wait},
+ * запрос сразу завершается ответом 429 с {@code Retry-After}. Это сброс нагрузки, а не отказ сервиса,
+ * поэтому используется не 503: иначе circuit breaker маршрута {@code /auth/**} и исключение экземпляров
+ * в балансировщике шлюза считали бы перегрузку хэширования сбоем и закрывали весь сервис.
+ * </p>
+ * <p>
+ * Новые хэши создаются со стоимостью {@code bcrypt-cost}; хэш с другой стоимостью
+ * {@link #needsRehash(String) пересчитывается} при следующем входе пользователя.
+ * </p>
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final int cost;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    /**
+     * Пул перегружен: запрос нужно повторить позже.
+     */
+    public static class HashingOverloadedException extends ResponseStatusException {
+
+        public HashingOverloadedException() {
+            super(HttpStatus.TOO_MANY_REQUESTS, "Password hashing is overloaded, retry later");
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return headers;
+        }
+    }
+
+    public PasswordHashingService(@Value("${auth.password-hashing.threads:0}") int threads,
+                                  @Value("${auth.password-hashing.queue-capacity:32}") int queueCapacity,
+                                  @Value("${auth.password-hashing.max-wait:2s}") Duration maxWait,
+                                  @Value("${auth.password-hashing.bcrypt-cost:10}") int cost,
+                                  MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.cost = cost;
+
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("auth.password-hashing.rejected")
+                .description("Операции, отклоненные из-за переполнения пула хэширования")
+                .register(meterRegistry);
+        Gauge.builder("auth.password-hashing.queue", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password-hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        logger.info("Пул хэширования паролей: {} потоков, очередь {}, стоимость BCrypt {}",
+                poolSize, queueCapacity, cost);
+    }
+
+    /**
+     * Хэширует пароль с текущей стоимостью.
+     *
+     * @param password Пароль.
+     * @return Хэш BCrypt.
+     * @throws HashingOverloadedException если пул перегружен.
+     */
+    public String hash(String password) {
+        return execute("hash", () -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * Проверяет пароль по хэшу.
+     *
+     * @param password Пароль.
+     * @param hash Сохраненный хэш BCrypt.
+     * @return true, если пароль верный.
+     * @throws HashingOverloadedException если пул перегружен.
+     */
+    public boolean verify(String password, String hash) {
+        return execute("verify", () -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * Создан ли хэш с другой стоимостью, чем текущая.
+     *
+     * @param hash Хэш BCrypt вида {@code $2a$10$...}.
+     * @return true, если хэш нужно пересчитать.
+     */
+    public boolean needsRehash(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6)) != cost;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private <T> T execute(String operation, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                timer("auth.password-hashing.queue-wait", operation).record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    timer("auth.password-hashing.duration", operation)
+                            .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Очередь хэширования паролей заполнена, операция {} отклонена", operation);
+            throw new HashingOverloadedException();
+        }
+
+        try {
+            return future.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            logger.warn("Операция {} ждала хэширования дольше {} мс и отменена", operation, maxWait.toMillis());
+            throw new HashingOverloadedException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хэширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,162 @@
+package com.abarigena.authenthicationservice.services;
+
+import com.abarigena.authenthicationservice.client.UserServiceClient;
+import com.abarigena.dto.RevokedTokenDto;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Список отозванных токенов.
+ * <p>
+ * Отзывы хранятся в общей таблице сервиса пользователей, а не в памяти экземпляра: токен, отозванный
+ * на одном экземпляре, отклоняется всеми остальными, и отзывы не теряются при перезапуске.
+ * Каждый отзыв получает порядковый номер, поэтому шлюз забирает только новые отзывы
+ * ({@link #since(long)}) и проверяет токены у себя, не обращаясь к сервису на каждый запрос.
+ * Отзыв хранится до истечения срока токена: после этого токен отклоняется и без списка.
+ * </p>
+ * <p>
+ * Известные экземпляру отзывы кэшируются до истечения токена: отзыв необратим, поэтому повторная
+ * проверка отозванного токена не идет в хранилище. Проверка неотозванного токена всегда идет в хранилище;
+ * если оно недоступно, проверка завершается ошибкой, а не считает токен действующим.
+ * </p>
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    /**
+     * Идентификатор списка. Список общий и хранится в базе, поэтому не меняется при перезапуске экземпляров.
+     */
+    static final String EPOCH = "shared";
+
+    private final JwtUtil jwtUtil;
+    private final UserServiceClient userServiceClient;
+    private final int maxBatchSize;
+    private final int maxCachedRevocations;
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Отзыв токена.
+     *
+     * @param sequence Порядковый номер отзыва.
+     * @param jti Идентификатор токена.
+     * @param expiresAt Время истечения токена в миллисекундах.
+     */
+    public record Revocation(long sequence, String jti, long expiresAt) {
+    }
+
+    /**
+     * Отзывы после заданного номера.
+     *
+     * @param epoch Идентификатор списка; при его смене шлюз забирает список заново.
+     * @param sequence Номер, с которого запрашивать следующую порцию.
+     * @param revocations Отзывы по возрастанию номера.
+     * @param hasMore Есть ли еще отзывы после этой порции.
+     */
+    public record RevocationBatch(String epoch, long sequence, List<Revocation> revocations, boolean hasMore) {
+    }
+
+    @Autowired
+    public TokenRevocationService(JwtUtil jwtUtil,
+                                  UserServiceClient userServiceClient,
+                                  @Value("${jwt.revocation.max-batch-size:1000}") int maxBatchSize,
+                                  @Value("${jwt.revocation.max-cached:100000}") int maxCachedRevocations) {
+        this.jwtUtil = jwtUtil;
+        this.userServiceClient = userServiceClient;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCachedRevocations = maxCachedRevocations;
+    }
+
+    /**
+     * Отзывает токен по его содержимому.
+     *
+     * @param claims Содержимое проверенного токена.
+     * @throws RuntimeException если общий список недоступен; токен в этом случае не отозван.
+     */
+    public void revoke(Claims claims) {
+        String jti = claims.getId();
+        Date expiration = claims.getExpiration();
+        if (jti == null || expiration == null) {
+            logger.warn("Токен пользователя {} без идентификатора или срока действия не может быть отозван",
+                    claims.getSubject());
+            return;
+        }
+        if (expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        userServiceClient.revokeToken(new RevokedTokenDto(0, jti, expiration.getTime()));
+        remember(jti, expiration.getTime());
+        logger.info("Токен {} пользователя {} отозван", jti, claims.getSubject());
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param token JWT токен.
+     * @return true, если токен отозван.
+     * @throws RuntimeException если общий список недоступен.
+     */
+    public boolean isRevoked(String token) {
+        Claims claims = jwtUtil.getClaims(token);
+        String jti = claims.getId();
+        if (jti == null) {
+            return false;
+        }
+        Long cached = revokedUntil.get(jti);
+        if (cached != null && cached > System.currentTimeMillis()) {
+            return true;
+        }
+        if (!userServiceClient.isTokenRevoked(jti)) {
+            return false;
+        }
+        if (claims.getExpiration() != null) {
+            remember(jti, claims.getExpiration().getTime());
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает отзывы с номером больше заданного, не больше {@code jwt.revocation.max-batch-size} за раз.
+     *
+     * @param since Последний полученный номер; 0 — с начала списка.
+     * @return {@link RevocationBatch} Порция отзывов.
+     */
+    public RevocationBatch since(long since) {
+        long last = Math.max(since, 0);
+        // Запрашиваем на один отзыв больше, чтобы узнать, есть ли следующая порция
+        List<RevokedTokenDto> found = userServiceClient.findRevocations(last, maxBatchSize + 1);
+        boolean hasMore = found.size() > maxBatchSize;
+        List<Revocation> revocations = found.stream()
+                .limit(maxBatchSize)
+                .map(revocation -> new Revocation(revocation.getSequence(), revocation.getJti(),
+                        revocation.getExpiresAt()))
+                .toList();
+        if (!revocations.isEmpty()) {
+            last = revocations.get(revocations.size() - 1).sequence();
+        }
+        return new RevocationBatch(EPOCH, last, revocations, hasMore);
+    }
+
+    private void remember(String jti, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (revokedUntil.size() >= maxCachedRevocations) {
+            // Удаляем по сроку истечения, а не по порядку отзыва: долгоживущий отзыв не задерживает остальные
+            revokedUntil.values().removeIf(until -> until <= now);
+            if (revokedUntil.size() >= maxCachedRevocations) {
+                return;
+            }
+        }
+        revokedUntil.put(jti, expiresAt);
+    }
+}
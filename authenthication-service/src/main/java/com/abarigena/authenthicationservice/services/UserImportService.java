@@ -0,0 +1,189 @@
+package com.abarigena.authenthicationservice.services;
+
+import com.abarigena.authenthicationservice.client.UserServiceClient;
+import com.abarigena.dto.AuthRequest;
+import com.abarigena.dto.UserImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Массовый импорт пользователей.
+ * <p>
+ * Строки обрабатываются порциями по {@code chunk-size}: пароли порции хэшируются параллельно в отдельном
+ * {@link ForkJoinPool}, затем порция одним запросом отправляется в user-service, который вставляет
+ * пользователей и роли пакетами JDBC. Пул импорта по умолчанию занимает половину ядер и не использует
+ * пул {@link PasswordHashingService}, поэтому импорт не вытесняет обычные входы.
+ * </p>
+ * <p>
+ * Результат каждой строки записывается в ответ сразу после обработки ее порции (по строке JSON на результат),
+ * последней строкой идет {@link Summary}. Если порция не импортирована, обработка останавливается,
+ * а {@link Summary#resumeFrom()} указывает номер строки, с которого импорт нужно повторить. Повтор безопасен:
+ * уже созданные пользователи получают статус {@link UserImportResult.Status#EXISTS}.
+ * </p>
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private final UserServiceClient userServiceClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int cost;
+
+    /**
+     * Итог импорта.
+     *
+     * @param total Число строк, обработанных в этом запросе.
+     * @param created Создано пользователей.
+     * @param existing Строк с уже занятым email или username.
+     * @param invalid Незаполненных строк.
+     * @param failed Строк, не импортированных из-за ошибки.
+     * @param resumeFrom Номер строки, с которого нужно повторить импорт, или null, если импорт завершен.
+     */
+    public record Summary(int total, int created, int existing, int invalid, int failed, Integer resumeFrom) {
+    }
+
+    public UserImportService(UserServiceClient userServiceClient,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.import.parallelism:0}") int parallelism,
+                             @Value("${auth.import.chunk-size:200}") int chunkSize,
+                             @Value("${auth.password-hashing.bcrypt-cost:10}") int cost) {
+        this.userServiceClient = userServiceClient;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.pool = new ForkJoinPool(parallelism > 0
+                ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        this.chunkSize = chunkSize;
+        this.cost = cost;
+    }
+
+    /**
+     * Импортирует пользователей и пишет результат по каждой строке в поток.
+     *
+     * @param users Пользователи с паролями в открытом виде.
+     * @param from Номер строки, с которой начинать (для повтора после ошибки).
+     * @param out Поток ответа; каждая строка — JSON {@link UserImportResult}, последняя — {@link Summary}.
+     * @return {@link Summary} Итог импорта.
+     * @throws IOException если клиент закрыл соединение.
+     */
+    public Summary importUsers(List<AuthRequest> users, int from, OutputStream out) throws IOException {
+        int created = 0;
+        int existing = 0;
+        int invalid = 0;
+        int failed = 0;
+        int processed = 0;
+        Integer resumeFrom = null;
+
+        // Заголовки ответа уходят клиенту сразу, а не вместе с результатом первой порции
+        out.flush();
+
+        int start = Math.max(0, from);
+        for (int chunkStart = start; chunkStart < users.size(); chunkStart += chunkSize) {
+            List<UserImportResult> results = importChunk(users, chunkStart,
+                    Math.min(users.size(), chunkStart + chunkSize));
+            processed += results.size();
+            for (UserImportResult result : results) {
+                switch (result.getStatus()) {
+                    case CREATED -> created++;
+                    case EXISTS -> existing++;
+                    case INVALID -> invalid++;
+                    case FAILED -> failed++;
+                }
+                meterRegistry.counter("auth.import.rows", "status", result.getStatus().name()).increment();
+                writeLine(out, result);
+            }
+            out.flush();
+            if (results.stream().anyMatch(result -> result.getStatus() == UserImportResult.Status.FAILED)) {
+                resumeFrom = chunkStart;
+                break;
+            }
+        }
+
+        Summary summary = new Summary(processed, created, existing, invalid, failed, resumeFrom);
+        writeLine(out, summary);
+        out.flush();
+        logger.info("Импорт пользователей: создано {}, уже были {}, некорректных {}, с ошибкой {}",
+                created, existing, invalid, failed);
+        return summary;
+    }
+
+    private List<UserImportResult> importChunk(List<AuthRequest> users, int start, int end) {
+        UserImportResult[] results = new UserImportResult[end - start];
+        List<AuthRequest> valid = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            AuthRequest user = users.get(i);
+            if (user == null || user.getPassword() == null || user.getPassword().isBlank()) {
+                results[i - start] = new UserImportResult(i, user == null ? null : user.getEmail(),
+                        UserImportResult.Status.INVALID, null, "Password is required");
+            } else {
+                valid.add(user);
+                positions.add(i);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                List<AuthRequest> hashed = hashAll(valid);
+                List<UserImportResult> imported = userServiceClient.importUsers(hashed);
+                for (UserImportResult result : imported) {
+                    // user-service нумерует строки внутри порции; переводим в номера исходного списка
+                    int index = positions.get(result.getIndex());
+                    result.setIndex(index);
+                    results[index - start] = result;
+                }
+            } catch (Exception e) {
+                logger.error("Порция импорта со строки {} не импортирована: {}", start, e.getMessage());
+                failRemaining(users, start, positions, results, e.getMessage());
+            }
+            failRemaining(users, start, positions, results, "No result from user-service");
+        }
+        return List.of(results);
+    }
+
+    private static void failRemaining(List<AuthRequest> users, int start, List<Integer> positions,
+                                      UserImportResult[] results, String error) {
+        for (int position : positions) {
+            if (results[position - start] == null) {
+                results[position - start] = new UserImportResult(position, users.get(position).getEmail(),
+                        UserImportResult.Status.FAILED, null, error);
+            }
+        }
+    }
+
+    private List<AuthRequest> hashAll(List<AuthRequest> users) throws InterruptedException, ExecutionException {
+        // parallelStream внутри задачи пула выполняется потоками этого пула, а не общего ForkJoinPool
+        return pool.submit(() -> users.parallelStream()
+                .map(user -> new AuthRequest(user.getEmail(),
+                        BCrypt.hashpw(user.getPassword(), BCrypt.gensalt(cost)), user.getUsername()))
+                .toList()).get();
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,92 @@
+package com.abarigena.authenthicationservice.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш ролей пользователей для входа с коротким временем жизни.
+ * <p>
+ * Пока роли пользователя в кэше, вход запрашивает у user-service только ID и хэш пароля — одну строку
+ * по индексу без соединения с таблицами ролей. Хэш пароля не кэшируется никогда: смена пароля
+ * действует сразу. Смена ролей доходит до новых токенов не позже чем через {@code ttl}.
+ * </p>
+ * <p>
+ * Запись привязана к ID пользователя: если по email найден другой пользователь, запись не используется.
+ * Размер кэша ограничен {@code max-size}; при переполнении сначала удаляются истекшие записи,
+ * а если их нет — кэш очищается целиком.
+ * </p>
+ */
+@Service
+public class UserRolesCache {
+
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(String userId, Set<String> roles, long expiresAt) {
+    }
+
+    public UserRolesCache(@Value("${auth.credentials.roles-ttl:30s}") Duration ttl,
+                          @Value("${auth.credentials.roles-cache-max-size:10000}") int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Роли пользователя из кэша.
+     *
+     * @param email Email пользователя.
+     * @param userId ID пользователя, найденного по email.
+     * @return Роли или null, если записи нет, она истекла или относится к другому пользователю.
+     */
+    public Set<String> get(String email, String userId) {
+        Entry entry = entries.get(key(email));
+        if (entry == null || entry.expiresAt() <= System.currentTimeMillis() || !entry.userId().equals(userId)) {
+            return null;
+        }
+        return entry.roles();
+    }
+
+    /**
+     * Есть ли в кэше действующая запись для email.
+     *
+     * @param email Email пользователя.
+     * @return true, если роли можно не запрашивать.
+     */
+    public boolean contains(String email) {
+        Entry entry = entries.get(key(email));
+        return entry != null && entry.expiresAt() > System.currentTimeMillis();
+    }
+
+    /**
+     * Сохраняет роли пользователя.
+     *
+     * @param email Email пользователя.
+     * @param userId ID пользователя.
+     * @param roles Роли пользователя.
+     */
+    public void put(String email, String userId, Set<String> roles) {
+        if (ttlMillis <= 0 || roles == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(key(email), new Entry(userId, Set.copyOf(roles), now + ttlMillis));
+    }
+
+    private static String key(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,156 @@
+package com.abarigena.authenthicationservice.throttle;
+
+import com.abarigena.common.hash.Hashing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Приблизительный счетчик событий по ключам за скользящее окно (Count-Min Sketch).
+ * <p>
+ * Окно делится на {@code buckets} интервалов, у каждого своя таблица {@code depth x width} счетчиков.
+ * Оценка — минимум по строкам суммы счетчиков за интервалы окна. Событие увеличивает в текущем интервале
+ * только те счетчики, чья сумма за окно равна текущей оценке (conservative update): остальные строки
+ * и так не меньше новой оценки. Оценка не бывает меньше настоящего числа событий (кроме одновременных
+ * событий по одному ключу, которые могут быть учтены на единицу меньше), но из-за совпадений хэшей
+ * может быть больше. Память не зависит от числа ключей, а время операции — от ключа и от того,
+ * встречался ли он раньше.
+ * </p>
+ * <p>
+ * Завышение оценки для любого ключа с вероятностью не ниже {@code 1 - e^-depth} не больше {@code e * N / width},
+ * где N — число событий за окно по всем ключам. Ширину под допустимое завышение рассчитывает
+ * {@link #widthFor(long, int)}.
+ * </p>
+ * <p>
+ * Хэш ключа смешивается со случайной для экземпляра солью, чтобы нельзя было заранее подобрать ключи,
+ * совпадающие по счетчикам с чужим ключом.
+ * </p>
+ */
+public class SlidingWindowSketch {
+
+    private final int depth;
+    private final int width;
+    private final int buckets;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    private final AtomicIntegerArray[] counts;
+    private final AtomicLongArray epochs;
+
+    /**
+     * @param windowMillis Длина окна в миллисекундах.
+     * @param buckets Число интервалов окна; чем больше, тем точнее граница окна.
+     * @param depth Число строк таблицы; чем больше, тем реже завышается оценка.
+     * @param width Число счетчиков в строке.
+     * @param clock Источник времени в миллисекундах.
+     */
+    public SlidingWindowSketch(long windowMillis, int buckets, int depth, int width, LongSupplier clock) {
+        if (buckets < 1 || depth < 1 || width < 1 || windowMillis < buckets) {
+            throw new IllegalArgumentException("Некорректные размеры окна или таблицы счетчиков");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+        this.clock = clock;
+        this.counts = new AtomicIntegerArray[buckets];
+        for (int i = 0; i < buckets; i++) {
+            counts[i] = new AtomicIntegerArray(depth * width);
+        }
+        this.epochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            epochs.set(i, Long.MIN_VALUE / 2);
+        }
+    }
+
+    /**
+     * Рассчитывает ширину таблицы, при которой оценка завышается не больше чем на {@code maxOverestimate}.
+     *
+     * @param expectedEvents Ожидаемое число событий за окно по всем ключам.
+     * @param maxOverestimate Допустимое завышение оценки.
+     * @return Число счетчиков в строке.
+     */
+    public static int widthFor(long expectedEvents, int maxOverestimate) {
+        double width = Math.ceil(Math.E * Math.max(1, expectedEvents) / Math.max(1, maxOverestimate));
+        return (int) Math.min(Integer.MAX_VALUE / 64, Math.max(16, width));
+    }
+
+    /**
+     * Учитывает событие по ключу.
+     *
+     * @param key Ключ.
+     */
+    public void add(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        int bucket = (int) Math.floorMod(epoch, (long) buckets);
+        rotate(bucket, epoch);
+
+        long hash = Hashing.hash64(key, seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int[] sums = new int[depth];
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            sums[row] = sum(row * width + index(h1, h2, row), epoch);
+            estimate = Math.min(estimate, sums[row]);
+        }
+        for (int row = 0; row < depth; row++) {
+            // Строки, уже превышающие оценку, после события все равно не меньше ее
+            if (sums[row] == estimate) {
+                counts[bucket].incrementAndGet(row * width + index(h1, h2, row));
+            }
+        }
+    }
+
+    /**
+     * Оценивает число событий по ключу за окно.
+     *
+     * @param key Ключ.
+     * @return Оценка сверху числа событий.
+     */
+    public int estimate(String key) {
+        long epoch = clock.getAsLong() / bucketMillis;
+        long hash = Hashing.hash64(key, seed);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sum(row * width + index(h1, h2, row), epoch));
+        }
+        return estimate;
+    }
+
+    private int sum(int offset, long epoch) {
+        int sum = 0;
+        // Проходим все интервалы, даже устаревшие, чтобы время не зависело от заполненности окна
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int value = counts[bucket].get(offset);
+            sum += epoch - epochs.get(bucket) < buckets ? value : 0;
+        }
+        return sum;
+    }
+
+    private void rotate(int bucket, long epoch) {
+        if (epochs.get(bucket) == epoch) {
+            return;
+        }
+        synchronized (counts[bucket]) {
+            if (epochs.get(bucket) != epoch) {
+                AtomicIntegerArray table = counts[bucket];
+                for (int i = 0; i < table.length(); i++) {
+                    table.set(i, 0);
+                }
+                epochs.set(bucket, epoch);
+            }
+        }
+    }
+
+    private int index(int h1, int h2, int row) {
+        // Двойное хэширование: строки используют разные линейные комбинации двух половин хэша
+        return Math.floorMod(h1 + row * h2, width);
+    }
+}
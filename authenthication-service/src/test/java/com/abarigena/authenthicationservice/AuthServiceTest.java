@@ -3,20 +3,26 @@ package com.abarigena.authenthicationservice;
 import com.abarigena.authenthicationservice.client.UserServiceClient;
 import com.abarigena.authenthicationservice.services.AuthService;
 import com.abarigena.authenthicationservice.services.JwtUtil;
+import com.abarigena.authenthicationservice.services.LoginThrottleService;
+import com.abarigena.authenthicationservice.services.PasswordHashingService;
+import com.abarigena.authenthicationservice.services.TokenRevocationService;
+import com.abarigena.authenthicationservice.services.UserRolesCache;
 import com.abarigena.dto.AuthRequest;
 import com.abarigena.dto.AuthResponse;
 import com.abarigena.dto.LoginRequest;
+import com.abarigena.dto.PasswordUpdateRequest;
+import com.abarigena.dto.UserCredentialsDto;
 import com.abarigena.dto.UserDto;
 import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mindrot.jbcrypt.BCrypt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -34,6 +40,18 @@ class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationService revocationService;
+
+    @Mock
+    private PasswordHashingService passwordHashing;
+
+    @Mock
+    private LoginThrottleService loginThrottle;
+
+    @Spy
+    private UserRolesCache rolesCache = new UserRolesCache(Duration.ofSeconds(30), 100);
+
     @Mock
     private Claims claims;
 
@@ -58,17 +76,13 @@ class AuthServiceTest {
         mockUserDto.setId(TEST_USER_ID);
         mockUserDto.setEmail(TEST_EMAIL);
 
-        try (MockedStatic<BCrypt> bcryptMock = mockStatic(BCrypt.class)) {
-            bcryptMock.when(() -> BCrypt.gensalt()).thenReturn("salt");
-            bcryptMock.when(() -> BCrypt.hashpw(anyString(), anyString())).thenReturn(TEST_HASHED_PASSWORD);
-
-            when(userServiceClient.registerUser(any(AuthRequest.class))).thenReturn(mockUserDto);
+        when(passwordHashing.hash(TEST_PASSWORD)).thenReturn(TEST_HASHED_PASSWORD);
+        when(userServiceClient.registerUser(any(AuthRequest.class))).thenReturn(mockUserDto);
 
-            authService.register(request);
+        authService.register(request);
 
-            verify(userServiceClient, times(1)).registerUser(request);
-            assertEquals(TEST_HASHED_PASSWORD, request.getPassword());
-        }
+        verify(userServiceClient, times(1)).registerUser(request);
+        assertEquals(TEST_HASHED_PASSWORD, request.getPassword());
     }
 
     @Test
@@ -77,16 +91,13 @@ class AuthServiceTest {
         request.setEmail(TEST_EMAIL);
         request.setPassword(TEST_PASSWORD);
 
-        try (MockedStatic<BCrypt> bcryptMock = mockStatic(BCrypt.class)) {
-            bcryptMock.when(() -> BCrypt.gensalt()).thenReturn("salt");
-            bcryptMock.when(() -> BCrypt.hashpw(anyString(), anyString())).thenReturn(TEST_HASHED_PASSWORD);
+        when(passwordHashing.hash(TEST_PASSWORD)).thenReturn(TEST_HASHED_PASSWORD);
 
-            // Stub для userServiceClient, который выбрасывает исключение
-            when(userServiceClient.registerUser(any(AuthRequest.class))).thenThrow(new RuntimeException("User already exists"));
+        // Stub для userServiceClient, который выбрасывает исключение
+        when(userServiceClient.registerUser(any(AuthRequest.class))).thenThrow(new RuntimeException("User already exists"));
 
-            Exception exception = assertThrows(RuntimeException.class, () -> authService.register(request));
-            assertEquals("User already exists", exception.getMessage());
-        }
+        Exception exception = assertThrows(RuntimeException.class, () -> authService.register(request));
+        assertEquals("User already exists", exception.getMessage());
     }
 
     @Test
@@ -95,56 +106,124 @@ class AuthServiceTest {
         request.setEmail(TEST_EMAIL);
         request.setPassword(TEST_PASSWORD);
 
-        UserDto userDto = new UserDto();
-        userDto.setId(TEST_USER_ID);
-        userDto.setEmail(TEST_EMAIL);
-        userDto.setPassword(TEST_HASHED_PASSWORD);
-
         Set<String> roles = new HashSet<>();
         roles.add(TEST_ROLE);
-        userDto.setRoles(roles);
+        UserCredentialsDto credentials = new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, roles);
+
+        when(passwordHashing.verify(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(true);
+        when(userServiceClient.findCredentials(TEST_EMAIL, true)).thenReturn(credentials);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "ACCESS")).thenReturn(TEST_ACCESS_TOKEN);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "REFRESH")).thenReturn(TEST_REFRESH_TOKEN);
+
+        AuthResponse response = authService.login(request);
+
+        assertNotNull(response);
+        assertEquals(TEST_ACCESS_TOKEN, response.getAccessToken());
+        assertEquals(TEST_REFRESH_TOKEN, response.getRefreshToken());
+        verify(userServiceClient).findCredentials(TEST_EMAIL, true);
+        verify(jwtUtil).generate(TEST_USER_ID, TEST_ROLE, "ACCESS");
+        verify(jwtUtil).generate(TEST_USER_ID, TEST_ROLE, "REFRESH");
+        verify(userServiceClient, never()).updatePassword(anyString(), any(PasswordUpdateRequest.class));
+    }
 
-        try (MockedStatic<BCrypt> bcryptMock = mockStatic(BCrypt.class)) {
-            bcryptMock.when(() -> BCrypt.checkpw(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(true);
+    @Test
+    void testLogin_UsesCachedRolesAndFreshPasswordHash() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(TEST_EMAIL);
+        request.setPassword(TEST_PASSWORD);
 
-            when(userServiceClient.findByEmail(TEST_EMAIL)).thenReturn(userDto);
-            when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "ACCESS")).thenReturn(TEST_ACCESS_TOKEN);
-            when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "REFRESH")).thenReturn(TEST_REFRESH_TOKEN);
+        rolesCache.put(TEST_EMAIL, TEST_USER_ID, Set.of(TEST_ROLE));
+        when(userServiceClient.findCredentials(TEST_EMAIL, false))
+                .thenReturn(new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, null));
+        when(passwordHashing.verify(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(true);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "ACCESS")).thenReturn(TEST_ACCESS_TOKEN);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "REFRESH")).thenReturn(TEST_REFRESH_TOKEN);
 
-            AuthResponse response = authService.login(request);
+        AuthResponse response = authService.login(request);
 
-            assertNotNull(response);
-            assertEquals(TEST_ACCESS_TOKEN, response.getAccessToken());
-            assertEquals(TEST_REFRESH_TOKEN, response.getRefreshToken());
-            verify(userServiceClient).findByEmail(TEST_EMAIL);
-            verify(jwtUtil).generate(TEST_USER_ID, TEST_ROLE, "ACCESS");
-            verify(jwtUtil).generate(TEST_USER_ID, TEST_ROLE, "REFRESH");
-        }
+        assertEquals(TEST_ACCESS_TOKEN, response.getAccessToken());
+        verify(userServiceClient, never()).findCredentials(TEST_EMAIL, true);
     }
 
     @Test
-    void testLogin_InvalidPassword() {
+    void testLogin_RefetchesRoles_WhenCachedForAnotherUser() {
         LoginRequest request = new LoginRequest();
         request.setEmail(TEST_EMAIL);
         request.setPassword(TEST_PASSWORD);
 
-        UserDto userDto = new UserDto();
-        userDto.setId(TEST_USER_ID);
-        userDto.setEmail(TEST_EMAIL);
-        userDto.setPassword(TEST_HASHED_PASSWORD);
+        // Email теперь принадлежит другому пользователю: роли из кэша не подходят
+        rolesCache.put(TEST_EMAIL, "old-user", Set.of("ROLE_ADMIN"));
+        when(userServiceClient.findCredentials(TEST_EMAIL, false))
+                .thenReturn(new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, null));
+        when(userServiceClient.findCredentials(TEST_EMAIL, true))
+                .thenReturn(new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, Set.of(TEST_ROLE)));
+        when(passwordHashing.verify(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(true);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "ACCESS")).thenReturn(TEST_ACCESS_TOKEN);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "REFRESH")).thenReturn(TEST_REFRESH_TOKEN);
+
+        AuthResponse response = authService.login(request);
+
+        assertEquals(TEST_ACCESS_TOKEN, response.getAccessToken());
+        assertEquals(Set.of(TEST_ROLE), rolesCache.get(TEST_EMAIL, TEST_USER_ID));
+    }
+
+    @Test
+    void testLogin_RehashesPasswordWithOutdatedCost() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(TEST_EMAIL);
+        request.setPassword(TEST_PASSWORD);
+
+        UserCredentialsDto credentials = new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, Set.of(TEST_ROLE));
+
+        when(passwordHashing.verify(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(true);
+        when(passwordHashing.needsRehash(TEST_HASHED_PASSWORD)).thenReturn(true);
+        when(passwordHashing.hash(TEST_PASSWORD)).thenReturn("$2a$12$rehashed");
+        when(userServiceClient.findCredentials(TEST_EMAIL, true)).thenReturn(credentials);
+        doThrow(new RuntimeException("user-service unavailable"))
+                .when(userServiceClient).updatePassword(eq(TEST_USER_ID), any(PasswordUpdateRequest.class));
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "ACCESS")).thenReturn(TEST_ACCESS_TOKEN);
+        when(jwtUtil.generate(TEST_USER_ID, TEST_ROLE, "REFRESH")).thenReturn(TEST_REFRESH_TOKEN);
+
+        // Ошибка сохранения нового хэша не мешает входу
+        AuthResponse response = authService.login(request);
+
+        assertEquals(TEST_ACCESS_TOKEN, response.getAccessToken());
+        verify(userServiceClient).updatePassword(eq(TEST_USER_ID),
+                argThat(update -> "$2a$12$rehashed".equals(update.getPasswordHash())));
+    }
+
+    @Test
+    void testLogin_InvalidPassword() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(TEST_EMAIL);
+        request.setPassword(TEST_PASSWORD);
 
         Set<String> roles = new HashSet<>();
         roles.add(TEST_ROLE);
-        userDto.setRoles(roles);
+        UserCredentialsDto credentials = new UserCredentialsDto(TEST_USER_ID, TEST_HASHED_PASSWORD, roles);
+
+        when(passwordHashing.verify(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(false);
+        when(userServiceClient.findCredentials(TEST_EMAIL, true)).thenReturn(credentials);
 
-        try (MockedStatic<BCrypt> bcryptMock = mockStatic(BCrypt.class)) {
-            bcryptMock.when(() -> BCrypt.checkpw(TEST_PASSWORD, TEST_HASHED_PASSWORD)).thenReturn(false);
+        Exception exception = assertThrows(RuntimeException.class, () -> authService.login(request, "10.0.0.1"));
+        assertEquals("Invalid email or password", exception.getMessage());
+        verify(loginThrottle).check(TEST_EMAIL, "10.0.0.1");
+        verify(loginThrottle).recordFailure(TEST_EMAIL, "10.0.0.1");
+    }
+
+    @Test
+    void testLogin_Throttled() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(TEST_EMAIL);
+        request.setPassword(TEST_PASSWORD);
 
-            when(userServiceClient.findByEmail(TEST_EMAIL)).thenReturn(userDto);
+        doThrow(new LoginThrottleService.LoginThrottledException(60))
+                .when(loginThrottle).check(TEST_EMAIL, "10.0.0.1");
 
-            Exception exception = assertThrows(RuntimeException.class, () -> authService.login(request));
-            assertEquals("Invalid email or password", exception.getMessage());
-        }
+        // Отклоненная попытка не обращается к user-service и не проверяет пароль
+        assertThrows(LoginThrottleService.LoginThrottledException.class,
+                () -> authService.login(request, "10.0.0.1"));
+        verifyNoInteractions(userServiceClient, passwordHashing);
     }
 
     @Test
@@ -153,7 +232,7 @@ class AuthServiceTest {
         request.setEmail(TEST_EMAIL);
         request.setPassword(TEST_PASSWORD);
 
-        when(userServiceClient.findByEmail(TEST_EMAIL)).thenThrow(new RuntimeException("User not found"));
+        when(userServiceClient.findCredentials(TEST_EMAIL, true)).thenThrow(new RuntimeException("User not found"));
 
         Exception exception = assertThrows(RuntimeException.class, () -> authService.login(request));
         assertEquals("Ошибка при авторизации: User not found", exception.getMessage());
@@ -0,0 +1,123 @@
+package com.abarigena.authenthicationservice;
+
+import com.abarigena.authenthicationservice.services.LoginThrottleService;
+import com.abarigena.authenthicationservice.throttle.SlidingWindowSketch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void sketch_ShouldCountEventsWithinSlidingWindow() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        SlidingWindowSketch sketch = new SlidingWindowSketch(10_000, 10, 4, 1024, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            sketch.add("alice");
+        }
+        now.addAndGet(5_000);
+        sketch.add("alice");
+        sketch.add("bob");
+
+        assertEquals(4, sketch.estimate("alice"));
+        assertEquals(1, sketch.estimate("bob"));
+        assertEquals(0, sketch.estimate("carol"));
+
+        // Первые три события вышли из окна, последнее еще в нем
+        now.addAndGet(6_000);
+        assertEquals(1, sketch.estimate("alice"));
+        now.addAndGet(5_000);
+        assertEquals(0, sketch.estimate("alice"));
+    }
+
+    @Test
+    void sketch_ShouldNeverUnderestimate_WhenCountersCollide() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(60_000, 6, 4, 64, System::currentTimeMillis);
+        for (int key = 0; key < 1000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.add("client:" + key);
+            }
+        }
+        for (int key = 0; key < 1000; key++) {
+            assertTrue(sketch.estimate("client:" + key) >= key % 5 + 1);
+        }
+    }
+
+    @Test
+    void check_ShouldRejectEmail_AfterMaxFailures() {
+        LoginThrottleService throttle = new LoginThrottleService(true, Duration.ofMinutes(15), 15,
+                3, 100, 4, 1000, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.check("User@Example.com", "10.0.0." + i);
+            throttle.recordFailure("User@Example.com", "10.0.0." + i);
+        }
+
+        // Email сравнивается без учета регистра
+        LoginThrottleService.LoginThrottledException rejected = assertThrows(
+                LoginThrottleService.LoginThrottledException.class,
+                () -> throttle.check("user@example.com", "10.0.0.9"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals("60", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertDoesNotThrow(() -> throttle.check("other@example.com", "10.0.0.9"));
+        assertEquals(1, meterRegistry.get("auth.login-throttle.rejected").tag("key", "email").counter().count());
+    }
+
+    @Test
+    void check_ShouldRejectClient_AfterMaxFailuresAcrossEmails() {
+        LoginThrottleService throttle = new LoginThrottleService(true, Duration.ofMinutes(15), 15,
+                10, 5, 4, 1000, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottleService.LoginThrottledException.class,
+                () -> throttle.check("new@example.com", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.check("new@example.com", "10.0.0.2"));
+        assertEquals(1, meterRegistry.get("auth.login-throttle.rejected").tag("key", "client").counter().count());
+    }
+
+    @Test
+    void check_ShouldAllowUntouchedEmail_DuringMassCredentialStuffing() {
+        LoginThrottleService throttle = new LoginThrottleService(true, Duration.ofMinutes(15), 15,
+                10, 100, 4, 50_000, meterRegistry);
+
+        // Перебор по многим email и адресам: каждая неудачная попытка увеличивает оба счетчика
+        for (int i = 0; i < 50_000; i++) {
+            throttle.recordFailure("victim" + i + "@example.com", "10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            String email = "user" + i + "@example.com";
+            assertDoesNotThrow(() -> throttle.check(email, "192.168.0.1"));
+        }
+    }
+
+    @Test
+    void sketch_ShouldStayBelowOverestimateBound_WithManyDistinctKeys() {
+        int width = SlidingWindowSketch.widthFor(100_000, 5);
+        SlidingWindowSketch sketch = new SlidingWindowSketch(60_000, 6, 4, width, System::currentTimeMillis);
+        for (int key = 0; key < 100_000; key++) {
+            sketch.add("key:" + key);
+        }
+
+        int overestimated = 0;
+        for (int key = 0; key < 10_000; key++) {
+            if (sketch.estimate("untouched:" + key) > 5) {
+                overestimated++;
+            }
+        }
+        // Граница выполняется с вероятностью 1 - e^-depth для каждого ключа, на практике почти всегда
+        assertTrue(overestimated < 10, "Завышенных оценок: " + overestimated);
+    }
+}
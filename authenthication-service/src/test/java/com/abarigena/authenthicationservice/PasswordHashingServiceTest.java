@@ -0,0 +1,81 @@
+package com.abarigena.authenthicationservice;
+
+import com.abarigena.authenthicationservice.services.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void hashAndVerify_ShouldUseConfiguredCost() {
+        service = new PasswordHashingService(2, 8, Duration.ofSeconds(5), 5, meterRegistry);
+
+        String hash = service.hash("secret");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(service.verify("secret", hash));
+        assertFalse(service.verify("wrong", hash));
+        assertFalse(service.needsRehash(hash));
+        assertTrue(service.needsRehash("$2a$04$" + hash.substring(7)));
+        assertEquals(1, meterRegistry.get("auth.password-hashing.duration").tag("operation", "hash").timer().count());
+        assertEquals(2, meterRegistry.get("auth.password-hashing.queue-wait").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void hash_ShouldRejectWithServiceUnavailable_WhenQueueIsFull() {
+        // Один поток и одно место в очереди: из четырех одновременных операций хотя бы одна отклоняется
+        service = new PasswordHashingService(1, 1, Duration.ofSeconds(30), 12, meterRegistry);
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> service.hash("secret")));
+        }
+
+        List<Throwable> errors = new ArrayList<>();
+        for (CompletableFuture<String> result : results) {
+            try {
+                result.join();
+            } catch (CompletionException e) {
+                errors.add(e.getCause());
+            }
+        }
+        assertFalse(errors.isEmpty());
+        PasswordHashingService.HashingOverloadedException rejected =
+                assertInstanceOf(PasswordHashingService.HashingOverloadedException.class, errors.get(0));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertEquals("1", rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(errors.size(), meterRegistry.get("auth.password-hashing.rejected").counter().count());
+    }
+
+    @Test
+    void verify_ShouldRejectOperation_ThatWaitsTooLong() {
+        service = new PasswordHashingService(1, 4, Duration.ofMillis(50), 12, meterRegistry);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.hash("secret"));
+
+        // Пока единственный поток занят первой операцией, вторая ждет в очереди дольше max-wait
+        assertThrows(PasswordHashingService.HashingOverloadedException.class, () -> {
+            Thread.sleep(10);
+            service.verify("secret", "$2a$04$abcdefghijklmnopqrstuuOoGzKDU8V4ZvuLgkJ6S/LWv1jVmFoe");
+        });
+        first.cancel(true);
+    }
+}
@@ -0,0 +1,114 @@
+package com.abarigena.authenthicationservice;
+
+import com.abarigena.authenthicationservice.client.UserServiceClient;
+import com.abarigena.authenthicationservice.services.JwtUtil;
+import com.abarigena.authenthicationservice.services.TokenRevocationService;
+import com.abarigena.dto.RevokedTokenDto;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final String SECRET = "testsecretkeythatisusedforthejwttokengeneration";
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    private JwtUtil jwtUtil;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(Keys.hmacShaKeyFor(SECRET.getBytes()));
+        ReflectionTestUtils.setField(jwtUtil, "expiration", "3600");
+        revocationService = new TokenRevocationService(jwtUtil, userServiceClient, 2, 100);
+    }
+
+    @Test
+    void generate_ShouldAssignUniqueTokenId() {
+        Claims first = jwtUtil.getClaims(jwtUtil.generate("user123", "USER", "ACCESS"));
+        Claims second = jwtUtil.getClaims(jwtUtil.generate("user123", "USER", "ACCESS"));
+
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    void revoke_ShouldStoreRevocationInSharedList() {
+        String revoked = jwtUtil.generate("user123", "USER", "ACCESS");
+        Claims claims = jwtUtil.getClaims(revoked);
+
+        revocationService.revoke(claims);
+
+        verify(userServiceClient).revokeToken(argThat(revocation -> revocation.getJti().equals(claims.getId())
+                && revocation.getExpiresAt() == claims.getExpiration().getTime()));
+        // Отзыв, сделанный этим экземпляром, проверяется без обращения к общему списку
+        assertTrue(revocationService.isRevoked(revoked));
+        verify(userServiceClient, never()).isTokenRevoked(anyString());
+    }
+
+    @Test
+    void isRevoked_ShouldSeeRevocationsMadeByOtherInstances() {
+        String revokedElsewhere = jwtUtil.generate("user123", "USER", "REFRESH");
+        String active = jwtUtil.generate("user123", "USER", "REFRESH");
+        when(userServiceClient.isTokenRevoked(jwtUtil.getClaims(revokedElsewhere).getId())).thenReturn(true);
+        when(userServiceClient.isTokenRevoked(jwtUtil.getClaims(active).getId())).thenReturn(false);
+
+        assertTrue(revocationService.isRevoked(revokedElsewhere));
+        assertTrue(revocationService.isRevoked(revokedElsewhere));
+        assertFalse(revocationService.isRevoked(active));
+        assertFalse(revocationService.isRevoked(active));
+
+        // Отзыв необратим и кэшируется; неотозванный токен проверяется в общем списке каждый раз
+        verify(userServiceClient, times(1)).isTokenRevoked(jwtUtil.getClaims(revokedElsewhere).getId());
+        verify(userServiceClient, times(2)).isTokenRevoked(jwtUtil.getClaims(active).getId());
+    }
+
+    @Test
+    void isRevoked_ShouldFail_WhenSharedListIsUnavailable() {
+        when(userServiceClient.isTokenRevoked(anyString())).thenThrow(new RuntimeException("user-service is down"));
+
+        assertThrows(RuntimeException.class,
+                () -> revocationService.isRevoked(jwtUtil.generate("user123", "USER", "REFRESH")));
+    }
+
+    @Test
+    void since_ShouldReturnRevocationsIncrementallyInBatches() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        when(userServiceClient.findRevocations(0, 3)).thenReturn(List.of(
+                new RevokedTokenDto(1, "a", expiresAt),
+                new RevokedTokenDto(4, "b", expiresAt),
+                new RevokedTokenDto(7, "c", expiresAt)));
+        when(userServiceClient.findRevocations(4, 3)).thenReturn(List.of(new RevokedTokenDto(7, "c", expiresAt)));
+        when(userServiceClient.findRevocations(7, 3)).thenReturn(List.of());
+
+        TokenRevocationService.RevocationBatch first = revocationService.since(0);
+        assertEquals(2, first.revocations().size());
+        assertEquals(4, first.sequence());
+        assertTrue(first.hasMore());
+
+        TokenRevocationService.RevocationBatch second = revocationService.since(first.sequence());
+        assertEquals(1, second.revocations().size());
+        assertFalse(second.hasMore());
+        assertEquals(first.epoch(), second.epoch());
+
+        TokenRevocationService.RevocationBatch empty = revocationService.since(second.sequence());
+        assertTrue(empty.revocations().isEmpty());
+        assertEquals(second.sequence(), empty.sequence());
+        verify(userServiceClient, never()).revokeToken(any());
+    }
+}
@@ -0,0 +1,131 @@
+package com.abarigena.authenthicationservice;
+
+import com.abarigena.authenthicationservice.client.UserServiceClient;
+import com.abarigena.authenthicationservice.services.UserImportService;
+import com.abarigena.dto.AuthRequest;
+import com.abarigena.dto.UserImportResult;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserServiceClient userServiceClient = mock(UserServiceClient.class);
+    private final UserImportService importService = new UserImportService(userServiceClient, objectMapper,
+            new SimpleMeterRegistry(), 2, 2, 4);
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void importUsers_ShouldHashPasswordsAndStreamResultPerRow() throws Exception {
+        when(userServiceClient.importUsers(anyList())).thenAnswer(invocation -> {
+            List<AuthRequest> users = invocation.getArgument(0);
+            List<UserImportResult> results = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                // Пароль уходит в user-service только в виде хэша
+                assertTrue(BCrypt.checkpw("secret", users.get(i).getPassword()));
+                results.add(new UserImportResult(i, users.get(i).getEmail(), UserImportResult.Status.CREATED,
+                        String.valueOf(i), null));
+            }
+            return results;
+        });
+        List<AuthRequest> users = List.of(
+                new AuthRequest("a@example.com", "secret", "a"),
+                new AuthRequest("b@example.com", "", "b"),
+                new AuthRequest("c@example.com", "secret", "c"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        UserImportService.Summary summary = importService.importUsers(users, 0, out);
+
+        List<JsonNode> lines = lines(out);
+        assertEquals(4, lines.size());
+        assertEquals("CREATED", lines.get(0).get("status").asText());
+        assertEquals(1, lines.get(1).get("index").asInt());
+        assertEquals("INVALID", lines.get(1).get("status").asText());
+        assertEquals(2, lines.get(2).get("index").asInt());
+        assertEquals(new UserImportService.Summary(3, 2, 0, 1, 0, null), summary);
+        assertTrue(lines.get(3).get("resumeFrom").isNull());
+        verify(userServiceClient, times(2)).importUsers(anyList());
+    }
+
+    @Test
+    void importUsers_ShouldStopAndReportResumePoint_WhenChunkFails() throws Exception {
+        when(userServiceClient.importUsers(anyList()))
+                .thenAnswer(invocation -> List.of(
+                        new UserImportResult(0, "a@example.com", UserImportResult.Status.CREATED, "1", null),
+                        new UserImportResult(1, "b@example.com", UserImportResult.Status.EXISTS, null, "exists")))
+                .thenThrow(new RuntimeException("user-service unavailable"));
+        List<AuthRequest> users = new ArrayList<>();
+        for (char c = 'a'; c <= 'f'; c++) {
+            users.add(new AuthRequest(c + "@example.com", "secret", String.valueOf(c)));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        UserImportService.Summary summary = importService.importUsers(users, 0, out);
+
+        assertEquals(new UserImportService.Summary(4, 1, 1, 0, 2, 2), summary);
+        List<JsonNode> lines = lines(out);
+        assertEquals("FAILED", lines.get(2).get("status").asText());
+        assertEquals(2, lines.get(4).get("resumeFrom").asInt());
+        verify(userServiceClient, times(2)).importUsers(anyList());
+
+        // Повтор с точки остановки не отправляет уже обработанные строки
+        reset(userServiceClient);
+        when(userServiceClient.importUsers(anyList())).thenAnswer(invocation -> {
+            List<AuthRequest> chunk = invocation.getArgument(0);
+            List<UserImportResult> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(new UserImportResult(i, chunk.get(i).getEmail(), UserImportResult.Status.CREATED,
+                        null, null));
+            }
+            return results;
+        });
+        UserImportService.Summary resumed = importService.importUsers(users, 2, new ByteArrayOutputStream());
+        assertEquals(new UserImportService.Summary(4, 4, 0, 0, 0, null), resumed);
+    }
+
+    @Test
+    void importUsers_ShouldFlushBeforeFirstChunkIsImported() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        OutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        when(userServiceClient.importUsers(anyList())).thenAnswer(invocation -> {
+            // Клиент уже получил заголовки, пока идет первая порция
+            assertEquals(1, flushes.get());
+            return List.of(new UserImportResult(0, "a@example.com", UserImportResult.Status.CREATED, "1", null));
+        });
+
+        importService.importUsers(List.of(new AuthRequest("a@example.com", "secret", "a")), 0, out);
+
+        verify(userServiceClient).importUsers(anyList());
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -1,9 +1,16 @@
 package com.abarigena.gatewayservice;
 
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.common.security.ServiceAuthKey;
+import com.abarigena.gatewayservice.config.LatencyAwareLoadBalancerConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
+@Import({InstanceStatsRegistry.class, ServiceAuthKey.class})
 public class GatewayServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,127 @@
+package com.abarigena.gatewayservice.compression;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Алгоритмы сжатия тела ответа, которые шлюз умеет применять сам.
+ * Имя алгоритма совпадает со значением заголовков {@code Accept-Encoding} и {@code Content-Encoding}.
+ */
+public enum ContentCoding {
+
+    /**
+     * zstd: сжимает JSON не хуже gzip при заметно меньших затратах процессора.
+     */
+    ZSTD("zstd") {
+        @Override
+        public byte[] encode(byte[] data, int level) {
+            return Zstd.compress(data, level);
+        }
+    },
+
+    /**
+     * gzip: поддерживается всеми клиентами.
+     */
+    GZIP("gzip") {
+        @Override
+        public byte[] encode(byte[] data, int level) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+                {
+                    def.setLevel(level);
+                }
+            }) {
+                gzip.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    };
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Значение заголовка {@code Content-Encoding}.
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Сжимает данные.
+     *
+     * @param data Исходные данные.
+     * @param level Уровень сжатия алгоритма.
+     * @return Сжатые данные.
+     */
+    public abstract byte[] encode(byte[] data, int level);
+
+    /**
+     * Ищет алгоритм по значению заголовка.
+     *
+     * @param token Имя алгоритма.
+     * @return Алгоритм или null, если шлюз его не поддерживает.
+     */
+    public static ContentCoding of(String token) {
+        for (ContentCoding coding : values()) {
+            if (coding.token.equalsIgnoreCase(token)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Выбирает алгоритм по заголовку {@code Accept-Encoding} клиента.
+     * Берется алгоритм с наибольшим весом {@code q}; при равных весах — раньше в списке предпочтений.
+     *
+     * @param acceptEncoding Значение заголовка или null.
+     * @param preference Алгоритмы, которые можно применить, в порядке предпочтения.
+     * @return Алгоритм или null, если клиент не принимает ни один из них.
+     */
+    public static ContentCoding negotiate(String acceptEncoding, List<ContentCoding> preference) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        Map<String, Double> weights = new HashMap<>();
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            weights.put(params[0].trim().toLowerCase(Locale.ROOT), q);
+        }
+
+        ContentCoding best = null;
+        double bestWeight = 0;
+        for (ContentCoding coding : preference) {
+            double weight = weights.getOrDefault(coding.token, weights.getOrDefault("*", 0.0));
+            if (weight > bestWeight) {
+                best = coding;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+}
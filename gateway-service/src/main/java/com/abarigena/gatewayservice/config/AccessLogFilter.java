@@ -0,0 +1,122 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.logging.AccessLogRecord;
+import com.abarigena.gatewayservice.logging.AccessLogWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Глобальный фильтр журнала доступа.
+ * <p>
+ * Ошибки (5xx или исключение) и медленные запросы записываются всегда, остальные — с вероятностью,
+ * заданной для маршрута в метаданных {@link #SAMPLE_RATE} или по умолчанию свойством
+ * {@code gateway.access-log.sample-rate}. Запись передается в {@link AccessLogWriter} без блокировки
+ * event loop.
+ * </p>
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Ключ метаданных маршрута с долей записываемых успешных запросов (от 0 до 1).
+     */
+    public static final String SAMPLE_RATE = "access-log-sample-rate";
+
+    /**
+     * Атрибут запроса с ID аутентифицированного пользователя.
+     */
+    public static final String USER_ID_ATTR = AccessLogFilter.class.getName() + ".userId";
+
+    private final AccessLogWriter writer;
+    private final boolean enabled;
+    private final double defaultSampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(AccessLogWriter writer,
+                           @Value("${gateway.access-log.enabled:true}") boolean enabled,
+                           @Value("${gateway.access-log.sample-rate:0.1}") double defaultSampleRate,
+                           @Value("${gateway.access-log.slow-threshold:1s}") Duration slowThreshold) {
+        this.writer = writer;
+        this.enabled = enabled;
+        this.defaultSampleRate = defaultSampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    /**
+     * Засекает время обработки запроса и по ее завершении решает, нужна ли запись в журнал.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, System.nanoTime() - start, signal));
+    }
+
+    private void record(ServerWebExchange exchange, long durationNanos, SignalType signal) {
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = signal == SignalType.ON_ERROR ? 500 : statusCode != null ? statusCode.value() : 200;
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+
+        String reason;
+        if (status >= 500) {
+            reason = "error";
+        } else if (durationNanos >= slowThresholdNanos) {
+            reason = "slow";
+        } else if (ThreadLocalRandom.current().nextDouble() < sampleRate(route)) {
+            reason = "sampled";
+        } else {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        writer.submit(new AccessLogRecord(
+                System.currentTimeMillis(),
+                request.getMethod().name(),
+                request.getPath().value(),
+                route != null ? route.getId() : null,
+                status,
+                durationNanos / 1_000_000.0,
+                exchange.getAttribute(USER_ID_ATTR),
+                remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : null,
+                reason));
+    }
+
+    private double sampleRate(Route route) {
+        if (route == null) {
+            return defaultSampleRate;
+        }
+        Object value = route.getMetadata().get(SAMPLE_RATE);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value != null ? Double.parseDouble(value.toString()) : defaultSampleRate;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
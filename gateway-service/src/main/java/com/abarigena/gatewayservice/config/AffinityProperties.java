@@ -0,0 +1,87 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки привязки запросов к экземплярам сервисов (consistent hashing с ограничением нагрузки).
+ */
+@ConfigurationProperties("loadbalancer.affinity")
+public class AffinityProperties {
+
+    /**
+     * По какому ключу запрос привязывается к экземпляру.
+     */
+    public enum Key {
+        /**
+         * Пользователь из {@code X-User-Id}.
+         */
+        USER,
+        /**
+         * ID задачи из пути {@code /tasks/{taskId}/...}; для запросов без ID задачи — пользователь.
+         */
+        TASK
+    }
+
+    private boolean enabled = false;
+
+    /**
+     * Точек на кольце на каждый экземпляр: чем больше, тем равномернее ключи делятся между экземплярами.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * Во сколько раз число запросов в работе на экземпляре может превышать среднее по сервису,
+     * прежде чем запрос с его ключом уйдет на следующий экземпляр по кольцу.
+     */
+    private double balanceFactor = 1.25;
+
+    /**
+     * Ключ привязки по имени сервиса; остальные сервисы балансируются по задержке.
+     */
+    private Map<String, Key> services = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+
+    public double getBalanceFactor() {
+        return balanceFactor;
+    }
+
+    public void setBalanceFactor(double balanceFactor) {
+        this.balanceFactor = balanceFactor;
+    }
+
+    public Map<String, Key> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, Key> services) {
+        this.services = services;
+    }
+
+    /**
+     * Ключ привязки сервиса.
+     *
+     * @param serviceId Имя сервиса.
+     * @return Ключ или null, если привязка для сервиса выключена.
+     */
+    public Key keyFor(String serviceId) {
+        return enabled && serviceId != null ? services.get(serviceId.toLowerCase()) : null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.abarigena.gatewayservice.config;
 
+import com.abarigena.gatewayservice.revocation.RevocationList;
 import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +16,12 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.util.Optional;
+
 /**
  * Фильтр для аутентификации в Gateway, проверяющий наличие и валидность JWT токена.
- * Если токен отсутствует или недействителен, запрос отклоняется с кодом состояния 401 (Unauthorized).
+ * Если токен отсутствует, недействителен или отозван, запрос отклоняется с кодом состояния 401 (Unauthorized).
+ * Отзыв проверяется по {@link RevocationList} в памяти шлюза, без обращения к сервису аутентификации.
  */
 @RefreshScope
 @Component
@@ -28,6 +33,8 @@ public class AuthenticationFilter implements GatewayFilter {
     private RouterValidator validator;
     @Autowired
     private JwtUtils jwtUtils;
+    @Autowired
+    private RevocationList revocations;
 
     /**
      * Метод фильтрации запросов. Проверяет наличие и валидность JWT токена для защищенных эндпоинтов.
@@ -40,9 +47,9 @@ public class AuthenticationFilter implements GatewayFilter {
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
 
-        logger.info("Запрос получен: {} {}", request.getMethod(), request.getURI().getPath());
+        logger.debug("Запрос получен: {} {}", request.getMethod(), request.getURI().getPath());
 
-        if (validator.isSecured.test(request)) {
+        if (validator.isSecured(exchange)) {
             logger.debug("Обработка защищенного эндпоинта: {}", request.getURI().getPath());
 
             if (authMissing(request)) {
@@ -59,13 +66,20 @@ public class AuthenticationFilter implements GatewayFilter {
 
             String jwtToken = token.substring(7);
 
-            if (jwtUtils.isExpired(jwtToken)) {
-                logger.warn("Отказано в доступе: токен истёк");
+            // Подпись и срок действия проверяются один раз, результат берется из кэша JwtUtils
+            Optional<Claims> claims = jwtUtils.verify(jwtToken);
+            if (claims.isEmpty()) {
+                logger.warn("Отказано в доступе: токен истёк или недействителен");
+                return onError(exchange, HttpStatus.UNAUTHORIZED);
+            }
+
+            if (revocations.isRevoked(claims.get().getId())) {
+                logger.warn("Отказано в доступе: токен отозван");
                 return onError(exchange, HttpStatus.UNAUTHORIZED);
             }
 
             // Добавляем данные из токена в заголовки запроса
-            return addAuthorizationHeaders(exchange, jwtToken, chain);
+            return addAuthorizationHeaders(exchange, jwtToken, claims.get(), chain);
         }
 
         logger.debug("Запрос к публичному эндпоинту: {}", request.getURI().getPath());
@@ -77,15 +91,18 @@ public class AuthenticationFilter implements GatewayFilter {
      *
      * @param exchange Контекст запроса и ответа.
      * @param token JWT токен.
+     * @param claims Проверенное содержимое токена.
      * @param chain Следующий фильтр в цепочке.
      * @return {@link Mono<Void>} Возвращает Mono, завершение цепочки фильтрации.
      */
-    private Mono<Void> addAuthorizationHeaders(ServerWebExchange exchange, String token, GatewayFilterChain chain) {
+    private Mono<Void> addAuthorizationHeaders(ServerWebExchange exchange, String token, Claims claims,
+                                               GatewayFilterChain chain) {
         try {
-            String userId = jwtUtils.getClaims(token).getSubject();
-            String role = jwtUtils.getClaims(token).get("role", String.class);
+            String userId = claims.getSubject();
+            String role = claims.get("role", String.class);
 
             logger.debug("Добавление заголовков авторизации для пользователя ID: {}, роль: {}", userId, role);
+            exchange.getAttributes().put(AccessLogFilter.USER_ID_ATTR, userId);
 
             // Создаем новый запрос с добавленными заголовками
             ServerHttpRequest request = exchange.getRequest().mutate()
@@ -98,8 +115,7 @@ public class AuthenticationFilter implements GatewayFilter {
 
             return chain.filter(mutatedExchange);
         } catch (Exception e) {
-
-            System.err.println("Ошибка при обработке JWT токена: " + e.getMessage());
+            logger.warn("Ошибка при обработке JWT токена: {}", e.getMessage());
             return onError(exchange, HttpStatus.UNAUTHORIZED);
         }
     }
@@ -114,7 +130,7 @@ public class AuthenticationFilter implements GatewayFilter {
     private Mono<Void> onError(ServerWebExchange exchange, HttpStatus httpStatus) {
         ServerHttpResponse response = exchange.getResponse();
         response.setStatusCode(httpStatus);
-        logger.warn("Возвращаем ответ с кодом: {}", httpStatus);
+        logger.debug("Возвращаем ответ с кодом: {}", httpStatus);
         return response.setComplete();
     }
 
@@ -0,0 +1,73 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки пакетного эндпоинта {@code POST /batch}.
+ */
+@ConfigurationProperties("gateway.batch")
+public class BatchProperties {
+
+    /**
+     * Сколько запросов можно передать в одном пакете.
+     */
+    private int maxRequests = 20;
+
+    /**
+     * Сколько запросов пакета выполняется одновременно.
+     */
+    private int maxConcurrency = 6;
+
+    /**
+     * Пути, доступные в пакете, по ID маршрута: запрос с путем {@code /tasks/1} уходит в маршрут,
+     * у которого есть префикс {@code /tasks}.
+     */
+    private Map<String, List<String>> routes = new HashMap<>(Map.of(
+            "task-service", List.of("/tasks"),
+            "user-service", List.of("/users")));
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public Map<String, List<String>> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, List<String>> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Находит маршрут по пути запроса.
+     *
+     * @param path Путь запроса без параметров.
+     * @return ID маршрута или null, если путь не доступен в пакете.
+     */
+    public String routeFor(String path) {
+        for (Map.Entry<String, List<String>> route : routes.entrySet()) {
+            for (String prefix : route.getValue()) {
+                if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                    return route.getKey();
+                }
+            }
+        }
+        return null;
+    }
+}
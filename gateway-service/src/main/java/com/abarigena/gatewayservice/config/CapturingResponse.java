@@ -0,0 +1,79 @@
+package com.abarigena.gatewayservice.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Ответ, который передает тело клиенту и одновременно копирует его, пока оно не превысит предел.
+ * Потоковые ответы не копируются.
+ */
+class CapturingResponse extends ServerHttpResponseDecorator {
+
+    private final int maxBodySize;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private boolean captured = true;
+
+    CapturingResponse(ServerHttpResponse delegate, int maxBodySize) {
+        super(delegate);
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return super.writeWith(Flux.from(body).doOnNext(this::capture));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        captured = false;
+        return super.writeAndFlushWith(body);
+    }
+
+    private void capture(DataBuffer buffer) {
+        if (!captured) {
+            return;
+        }
+        int length = buffer.readableByteCount();
+        if (body.size() + length > maxBodySize) {
+            captured = false;
+            body.reset();
+            return;
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        buffer.toByteBuffer(buffer.readPosition(), copy, 0, length);
+        body.write(copy.array(), 0, length);
+    }
+
+    /**
+     * Скопированное тело ответа.
+     *
+     * @return Тело или null, если ответ больше предела или передавался потоком.
+     */
+    byte[] capturedBody() {
+        return captured ? body.toByteArray() : null;
+    }
+
+    /**
+     * Копия заголовков ответа без заголовков соединения.
+     *
+     * @return {@link HttpHeaders} Заголовки, которые можно отдать с копией тела.
+     */
+    HttpHeaders capturedHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        getHeaders().forEach((name, values) -> {
+            if (!HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                    && !HttpHeaders.CONNECTION.equalsIgnoreCase(name)) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+}
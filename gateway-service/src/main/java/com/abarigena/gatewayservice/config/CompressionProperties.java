@@ -0,0 +1,166 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.compression.ContentCoding;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Настройки сжатия ответов маршрутов, см. {@link ResponseCompressionFilter}.
+ */
+@ConfigurationProperties("gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Алгоритмы в порядке предпочтения при равном весе в {@code Accept-Encoding}.
+     */
+    private List<ContentCoding> encodings = new ArrayList<>(List.of(ContentCoding.ZSTD, ContentCoding.GZIP));
+
+    /**
+     * Сжимаемые типы содержимого; остальные (изображения, архивы) уже сжаты.
+     */
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "application/json", "application/*+json", "text/*", "application/xml", "application/javascript"));
+
+    /**
+     * Настройки маршрутов, для которых нет собственных.
+     */
+    private Settings defaults = new Settings();
+
+    /**
+     * Настройки по ID маршрута.
+     */
+    private Map<String, Settings> routes = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<ContentCoding> getEncodings() {
+        return encodings;
+    }
+
+    public void setEncodings(List<ContentCoding> encodings) {
+        this.encodings = encodings;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+    public Settings getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Settings defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Settings> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Settings> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Настройки маршрута.
+     *
+     * @param routeId ID маршрута.
+     * @return {@link Settings} Собственные настройки маршрута или настройки по умолчанию.
+     */
+    public Settings forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    /**
+     * Сжатие ответов одного маршрута.
+     */
+    public static class Settings {
+
+        private boolean enabled = true;
+
+        /**
+         * Ответы меньше этого размера не сжимаются: выигрыш меньше затрат.
+         */
+        private DataSize minResponseSize = DataSize.ofKilobytes(1);
+
+        /**
+         * Ответы больше этого размера передаются без сжатия, чтобы не держать их целиком в памяти.
+         * Ответ без {@code Content-Length} накапливается только до этого размера.
+         */
+        private DataSize maxResponseSize = DataSize.ofMegabytes(8);
+
+        /**
+         * Уровень gzip, от 1 (быстрее) до 9 (сильнее).
+         */
+        private int gzipLevel = 6;
+
+        /**
+         * Уровень zstd, от 1 (быстрее) до 19 (сильнее).
+         */
+        private int zstdLevel = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMinResponseSize() {
+            return minResponseSize;
+        }
+
+        public void setMinResponseSize(DataSize minResponseSize) {
+            this.minResponseSize = minResponseSize;
+        }
+
+        public DataSize getMaxResponseSize() {
+            return maxResponseSize;
+        }
+
+        public void setMaxResponseSize(DataSize maxResponseSize) {
+            this.maxResponseSize = maxResponseSize;
+        }
+
+        public int getGzipLevel() {
+            return gzipLevel;
+        }
+
+        public void setGzipLevel(int gzipLevel) {
+            this.gzipLevel = gzipLevel;
+        }
+
+        public int getZstdLevel() {
+            return zstdLevel;
+        }
+
+        public void setZstdLevel(int zstdLevel) {
+            this.zstdLevel = zstdLevel;
+        }
+
+        /**
+         * Уровень сжатия для алгоритма.
+         */
+        public int level(ContentCoding coding) {
+            return coding == ContentCoding.ZSTD ? zstdLevel : gzipLevel;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки агрегирующего эндпоинта {@code GET /dashboard}.
+ */
+@ConfigurationProperties("gateway.dashboard")
+public class DashboardProperties {
+
+    /**
+     * Сколько ждать ответа каждого сервиса; не ответившая часть возвращается пустой со статусом 504.
+     */
+    private Duration legTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Сколько задач запрашивается в каждом списке.
+     */
+    private int pageSize = 10;
+
+    public Duration getLegTimeout() {
+        return legTimeout;
+    }
+
+    public void setLegTimeout(Duration legTimeout) {
+        this.legTimeout = legTimeout;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
@@ -1,20 +1,70 @@
 package com.abarigena.gatewayservice.config;
 
+import com.abarigena.gatewayservice.ratelimit.RateLimitStore;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
 
 /**
  * Конфигурация маршрутов для API Gateway.
  * Определяет маршруты для разных сервисов и применяет фильтр аутентификации для защищенных эндпоинтов.
+ * Публичные пути маршрута задаются в метаданных {@link RouterValidator#PUBLIC_PATHS},
+ * все остальные пути маршрута требуют аутентификации.
+ * <p>
+ * Маршруты к сервисам получают таймауты, повторы идемпотентных запросов и circuit breaker
+ * из {@link RouteResilienceProperties}, ограничение частоты запросов из {@link RateLimitProperties}
+ * и зеркалирование на теневой сервис из {@link ShadowProperties}.
+ * Бин маршрутов пересоздается при обновлении конфигурации.
+ * </p>
  */
 @Configuration
+@EnableConfigurationProperties({RouteResilienceProperties.class, BatchProperties.class, DashboardProperties.class,
+        AffinityProperties.class, ShadowProperties.class, CompressionProperties.class})
 public class GatewayConfig {
     @Autowired
     private AuthenticationFilter filter;
 
+    @Autowired
+    private RouteResilienceProperties resilience;
+
+    @Autowired
+    private RouteCircuitBreakerConfigurer circuitBreakers;
+
+    @Autowired
+    private RateLimitProperties rateLimit;
+
+    @Autowired
+    private RateLimitStore rateLimitStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShadowProperties shadow;
+
+    @Autowired
+    private WebClient.Builder webClientBuilder;
+
+    @Autowired
+    private LoadBalancedExchangeFilterFunction loadBalancer;
+
     /**
      * Метод для настройки маршрутов в Gateway.
      * Каждый маршрут может иметь фильтр аутентификации.
@@ -23,6 +73,7 @@ public class GatewayConfig {
      * @return {@link RouteLocator} Список настроенных маршрутов.
      */
     @Bean
+    @RefreshScope
     public RouteLocator routes(RouteLocatorBuilder builder) {
         return builder.routes()
                 // Для документации API
@@ -30,6 +81,7 @@ public class GatewayConfig {
                         .path("/task-service/v3/api-docs")
                         .filters(f -> f
                                 .stripPrefix(1))
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://task-service"))
 
                 // Для UI Swagger
@@ -37,35 +89,142 @@ public class GatewayConfig {
                         .path("/task-service/swagger-ui/**")
                         .filters(f -> f
                                 .stripPrefix(1))
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://task-service"))
 
                 .route("user-service-api-docs", r -> r
                         .path("/user-service/v3/api-docs")
                         .filters(f -> f
                                 .stripPrefix(1))
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://user-service"))
 
                 .route("user-service-swagger-ui", r -> r
                         .path("/user-service/swagger-ui/**")
                         .filters(f -> f
                                 .stripPrefix(1))
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://user-service"))
 
                 .route("user-service", r -> r.path("/users/**")
-                        .filters(f -> f.filter(filter))
+                        .filters(f -> resilient(shadowed(
+                                rateLimited(f.filter(filter), "user-service"), "user-service"), "user-service"))
+                        .metadata(timeouts("user-service"))
+                        // Форма регистрации проверяет email и имя пользователя до входа
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/users/availability"))
                         .uri("lb://user-service"))
+                // Импорт пользователей отвечает потоком, пока не обработает весь файл: у маршрута свой долгий
+                // таймаут ответа, без повторов и circuit breaker, которые оборвали бы или повторили импорт
+                .route("authenthication-service-import", r -> r.path("/auth/import")
+                        .filters(f -> rateLimited(f.filter(filter), "authenthication-service-import"))
+                        .metadata(timeouts("authenthication-service-import"))
+                        .metadata(AccessLogFilter.SAMPLE_RATE, 1.0)
+                        .uri("lb://authenthication-service"))
                 .route("authenthication-service", r -> r.path("/auth/**")
-                        .filters(f -> f.filter(filter))
+                        .filters(f -> resilient(shadowed(
+                                rateLimited(f.filter(filter), "authenthication-service"), "authenthication-service"), "authenthication-service"))
+                        .metadata(timeouts("authenthication-service"))
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/auth/register", "/auth/login"))
+                        // Вход и регистрация записываются в журнал доступа полностью
+                        .metadata(AccessLogFilter.SAMPLE_RATE, 1.0)
                         .uri("lb://authenthication-service"))
                 .route("task-service", r -> r.path("/tasks/**")
-                        .filters(f -> f.filter(filter))
+                        .filters(f -> resilient(shadowed(
+                                rateLimited(f.filter(filter), "task-service"), "task-service"), "task-service"))
+                        .metadata(timeouts("task-service"))
+                        // Одну популярную задачу часто открывают многие пользователи одновременно
+                        .metadata(RequestCoalescingFilter.COALESCE, true)
+                        .metadata(ResponseCacheFilter.RESPONSE_CACHE, true)
                         .uri("lb://task-service"))
 
                 .route("auth-service-swagger-ui", r -> r.path("/auth-service/swagger-ui/**")
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://authenthication-service/swagger-ui/"))
                 .route("auth-service-api-docs", r -> r.path("/auth-service/v3/api-docs/**")
+                        .metadata(RouterValidator.PUBLIC_PATHS, List.of("/**"))
                         .uri("lb://authenthication-service/v3/api-docs"))
 
                 .build();
     }
+
+    /**
+     * Добавляет к маршруту ограничение частоты запросов, если оно включено для маршрута.
+     * Фильтр ставится после аутентификации, чтобы корзина велась по пользователю из токена.
+     *
+     * @param filters Фильтры маршрута.
+     * @param routeId ID маршрута.
+     * @return {@link GatewayFilterSpec} Фильтры маршрута.
+     */
+    private GatewayFilterSpec rateLimited(GatewayFilterSpec filters, String routeId) {
+        RateLimitProperties.Budget budget = rateLimit.forRoute(routeId);
+        if (rateLimit.isEnabled() && budget.isEnabled()) {
+            filters.filter(new RateLimitFilter(rateLimitStore, routeId, budget.limit(), meterRegistry));
+        }
+        return filters;
+    }
+
+    /**
+     * Добавляет к маршруту зеркалирование части GET-запросов на теневой сервис, если оно настроено для маршрута.
+     * Фильтр ставится после ограничения частоты и до повторов.
+     *
+     * @param filters Фильтры маршрута.
+     * @param routeId ID маршрута.
+     * @return {@link GatewayFilterSpec} Фильтры маршрута.
+     */
+    private GatewayFilterSpec shadowed(GatewayFilterSpec filters, String routeId) {
+        ShadowProperties.Target target = shadow.getRoutes().get(routeId);
+        if (target != null && target.isEnabled()) {
+            filters.filter(new ShadowTrafficFilter(webClientBuilder.clone().filter(loadBalancer).build(),
+                    routeId, target, shadow, meterRegistry));
+        }
+        return filters;
+    }
+
+    /**
+     * Добавляет к маршруту circuit breaker с быстрым ответом 503 и повторы идемпотентных запросов.
+     * Circuit breaker оборачивает все попытки, поэтому один запрос клиента учитывается в нем один раз.
+     *
+     * @param filters Фильтры маршрута.
+     * @param routeId ID маршрута.
+     * @return {@link GatewayFilterSpec} Фильтры маршрута с добавленными фильтрами устойчивости.
+     */
+    private GatewayFilterSpec resilient(GatewayFilterSpec filters, String routeId) {
+        RouteResilienceProperties.RouteSettings settings = resilience.forRoute(routeId);
+
+        if (settings.getCircuitBreaker().isEnabled()) {
+            circuitBreakers.configure(routeId, settings);
+            filters.circuitBreaker(c -> c
+                    .setName(routeId)
+                    .setFallbackUri("forward:/fallback/" + routeId)
+                    .setStatusCodes(settings.getCircuitBreaker().getStatusCodes().stream()
+                            .map(status -> String.valueOf(status.value()))
+                            .collect(Collectors.toSet())));
+        }
+
+        RouteResilienceProperties.Retry retry = settings.getRetry();
+        HttpMethod[] methods = retry.idempotentMethods();
+        if (retry.getRetries() > 0 && methods.length > 0) {
+            filters.retry(c -> c
+                    .setRetries(retry.getRetries())
+                    .setMethods(methods)
+                    .setStatuses(retry.getStatuses().toArray(HttpStatus[]::new))
+                    .setSeries()
+                    .setBackoff(retry.getFirstBackoff(), retry.getMaxBackoff(), retry.getFactor(), false))
+                    .filter(new RetryJitterFilter(retry));
+        }
+        return filters;
+    }
+
+    /**
+     * Таймауты маршрута в метаданных, в миллисекундах.
+     *
+     * @param routeId ID маршрута.
+     * @return Метаданные с таймаутами соединения и ответа.
+     */
+    private Map<String, Object> timeouts(String routeId) {
+        RouteResilienceProperties.RouteSettings settings = resilience.forRoute(routeId);
+        return Map.of(
+                CONNECT_TIMEOUT_ATTR, settings.getConnectTimeout().toMillis(),
+                RESPONSE_TIMEOUT_ATTR, settings.getResponseTimeout().toMillis());
+    }
 }
@@ -0,0 +1,52 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.loadbalancer.ConsistentHashLoadBalancer;
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.common.loadbalancer.PeakEwmaLoadBalancer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Конфигурация балансировщика по умолчанию для всех {@code lb://} маршрутов.
+ * Сервисы из {@code loadbalancer.affinity.services} при включенной привязке балансируются
+ * {@link ConsistentHashLoadBalancer}, остальные — по задержке.
+ * <p>
+ * Класс не помечен {@code @Configuration}: он подключается через
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)} и создается в контексте каждого сервиса.
+ * </p>
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    /**
+     * Создает балансировщик {@link PeakEwmaLoadBalancer} вместо round-robin
+     * или {@link ConsistentHashLoadBalancer} для сервисов с привязкой запросов.
+     *
+     * @param environment Окружение контекста сервиса, содержит его имя.
+     * @param loadBalancerClientFactory Фабрика контекстов балансировщика.
+     * @param stats Статистика экземпляров.
+     * @param affinity Настройки привязки запросов.
+     * @param meterRegistry Реестр метрик.
+     * @return {@link ReactorLoadBalancer} Балансировщик сервиса.
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                        LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                        InstanceStatsRegistry stats,
+                                                                        AffinityProperties affinity,
+                                                                        MeterRegistry meterRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        ObjectProvider<ServiceInstanceListSupplier> supplierProvider =
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        AffinityProperties.Key key = affinity.keyFor(serviceId);
+        if (key != null) {
+            return new ConsistentHashLoadBalancer(supplierProvider, serviceId, key, affinity, stats, meterRegistry);
+        }
+        return new PeakEwmaLoadBalancer(supplierProvider, serviceId, stats);
+    }
+}
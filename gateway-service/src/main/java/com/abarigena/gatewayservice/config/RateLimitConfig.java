@@ -0,0 +1,46 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.ratelimit.LocalRateLimitStore;
+import com.abarigena.gatewayservice.ratelimit.PartitionedRateLimitStore;
+import com.abarigena.gatewayservice.ratelimit.RateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Хранилище корзин токенов для {@link RateLimitFilter}.
+ * Общее для экземпляров шлюза хранилище подключается собственным бином {@link RateLimitStore}.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitConfig.class);
+
+    /**
+     * Создает хранилище корзин по {@code gateway.rate-limit.store}.
+     *
+     * @param properties Настройки ограничения частоты.
+     * @param discoveryClient Клиент Eureka для подсчета экземпляров шлюза.
+     * @param applicationName Имя шлюза в Eureka.
+     * @return {@link RateLimitStore} Хранилище корзин.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RateLimitStore rateLimitStore(RateLimitProperties properties,
+                                         DiscoveryClient discoveryClient,
+                                         @Value("${spring.application.name}") String applicationName) {
+        LocalRateLimitStore local = new LocalRateLimitStore(properties.getMaximumKeys(), properties.getIdleTimeout());
+        if (properties.getStore() == RateLimitProperties.Store.PARTITIONED) {
+            logger.info("Лимиты частоты запросов делятся между экземплярами {}", applicationName);
+            return new PartitionedRateLimitStore(local,
+                    () -> discoveryClient.getInstances(applicationName).size(), 30_000);
+        }
+        return local;
+    }
+}
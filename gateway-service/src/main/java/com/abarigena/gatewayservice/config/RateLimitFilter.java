@@ -0,0 +1,141 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.ratelimit.BucketLimit;
+import com.abarigena.gatewayservice.ratelimit.RateLimitDecision;
+import com.abarigena.gatewayservice.ratelimit.RateLimitStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов к маршруту по корзине токенов.
+ * <p>
+ * Ставится в цепочку сразу после {@link AuthenticationFilter} и до circuit breaker и повторов, поэтому
+ * отклоненный запрос не доходит до сервиса, а повторы одного запроса не расходуют токены.
+ * Корзина ведется для пользователя, определенного фильтром аутентификации (он же уходит сервису
+ * в {@code X-User-Id}), а для публичных путей — для адреса клиента. Заголовок {@code X-User-Id}
+ * из запроса клиента не используется: его может подставить кто угодно.
+ * </p>
+ * <p>
+ * Ответ содержит заголовки {@code RateLimit-Limit}, {@code RateLimit-Remaining} и {@code RateLimit-Reset};
+ * отклоненный запрос получает 429 с {@code Retry-After}. Если хранилище недоступно, запрос пропускается.
+ * </p>
+ */
+public class RateLimitFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    private final RateLimitStore store;
+    private final String routeId;
+    private final BucketLimit limit;
+    private final Counter allowed;
+    private final Counter rejected;
+
+    public RateLimitFilter(RateLimitStore store, String routeId, BucketLimit limit, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.routeId = routeId;
+        this.limit = limit;
+        this.allowed = requests(meterRegistry, routeId, "allowed");
+        this.rejected = requests(meterRegistry, routeId, "rejected");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String routeId, String result) {
+        return Counter.builder("gateway.rate-limit.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Берет токен из корзины клиента и пропускает запрос дальше или отклоняет его с кодом 429.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String key = bucket(routeId, client(exchange));
+        return store.tryConsume(key, limit)
+                .onErrorResume(e -> {
+                    logger.warn("Хранилище лимитов недоступно, запрос пропущен без проверки: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .map(decision -> {
+                    writeHeaders(exchange.getResponse(), decision);
+                    if (decision.allowed()) {
+                        allowed.increment();
+                        return chain.filter(exchange);
+                    }
+                    rejected.increment();
+                    logger.debug("Превышен лимит запросов маршрута {} для {}", routeId, key);
+                    return reject(exchange.getResponse(), decision);
+                })
+                .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                .flatMap(result -> result);
+    }
+
+    /**
+     * Ключ корзины пользователя на маршруте; тот же, что получает запрос этого пользователя через маршрут.
+     *
+     * @param routeId ID маршрута.
+     * @param userId ID пользователя из токена.
+     * @return Ключ корзины.
+     */
+    public static String userBucket(String routeId, String userId) {
+        return bucket(routeId, "user:" + userId);
+    }
+
+    private static String bucket(String routeId, String client) {
+        return routeId + '|' + client;
+    }
+
+    /**
+     * Клиент, для которого ведется корзина.
+     *
+     * @param exchange Контекст запроса.
+     * @return ID пользователя из токена или адрес клиента.
+     */
+    static String client(ServerWebExchange exchange) {
+        String userId = exchange.getAttribute(AccessLogFilter.USER_ID_ATTR);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress address = exchange.getRequest().getRemoteAddress();
+        return "ip:" + (address != null && address.getAddress() != null
+                ? address.getAddress().getHostAddress() : "unknown");
+    }
+
+    private static void writeHeaders(ServerHttpResponse response, RateLimitDecision decision) {
+        HttpHeaders headers = response.getHeaders();
+        headers.set(RATE_LIMIT_LIMIT, String.valueOf(decision.limit()));
+        headers.set(RATE_LIMIT_REMAINING, String.valueOf(decision.remaining()));
+        headers.set(RATE_LIMIT_RESET, String.valueOf(seconds(decision.resetNanos())));
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, RateLimitDecision decision) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        long retryAfter = Math.max(1, seconds(decision.retryAfterNanos()));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        return response.setComplete();
+    }
+
+    private static long seconds(long nanos) {
+        return (Math.max(0, nanos) + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
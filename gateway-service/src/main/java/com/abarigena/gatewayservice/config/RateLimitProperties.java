@@ -0,0 +1,155 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.ratelimit.BucketLimit;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения частоты запросов в шлюзе.
+ * <p>
+ * Лимиты маршрутов задаются в {@code gateway.rate-limit.routes.<routeId>} и могут поставляться config-service.
+ * Для маршрута без явных настроек используется {@code gateway.rate-limit.defaults}.
+ * </p>
+ */
+@ConfigurationProperties("gateway.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Где хранятся корзины токенов.
+     */
+    public enum Store {
+        /**
+         * В памяти экземпляра шлюза, лимит действует на каждый экземпляр отдельно.
+         */
+        LOCAL,
+        /**
+         * В памяти экземпляра шлюза, лимит делится между экземплярами шлюза из Eureka.
+         */
+        PARTITIONED
+    }
+
+    private boolean enabled = true;
+
+    private Store store = Store.LOCAL;
+
+    /**
+     * Сколько корзин хранится одновременно.
+     */
+    private long maximumKeys = 100_000;
+
+    /**
+     * Через сколько после последнего запроса корзина удаляется. Должно быть не меньше времени заполнения корзины.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Budget defaults = new Budget();
+
+    private Map<String, Budget> routes = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Budget getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Budget defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Budget> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Budget> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Возвращает лимит маршрута или лимит по умолчанию.
+     *
+     * @param routeId ID маршрута.
+     * @return {@link Budget} Лимит маршрута.
+     */
+    public Budget forRoute(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+
+    /**
+     * Лимит одного маршрута для одного пользователя (или адреса клиента, если пользователь неизвестен).
+     */
+    public static class Budget {
+
+        private boolean enabled = true;
+
+        /**
+         * Сколько запросов можно выполнить подряд.
+         */
+        private int capacity = 100;
+
+        /**
+         * Сколько запросов в секунду разрешено в среднем.
+         */
+        private double replenishRate = 20;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public BucketLimit limit() {
+            return new BucketLimit(capacity, replenishRate);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.abarigena.gatewayservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов.
+ * <p>
+ * Включается для маршрута метаданными {@link #COALESCE}. Пока запрос-лидер выполняется, такие же запросы
+ * (с тем же ключом, см. {@link RequestKeyResolver}) ждут его ответ и получают
+ * копию, не обращаясь к сервису. Разделяется только ответ не больше {@code gateway.coalescing.max-body-size};
+ * если ответ больше, не дошел до конца или передается потоком, ожидающие запросы выполняются сами.
+ * </p>
+ * <p>
+ * Фильтр стоит до фильтров маршрута, ключ запроса вычисляет {@link RequestKeyResolver}.
+ * Запрос с недействительным токеном не объединяется и отклоняется фильтром аутентификации как обычно.
+ * GET-запрос с телом (например, фильтр в {@code GET /tasks}) не объединяется никогда: тело в ключ не входит.
+ * </p>
+ */
+@Component
+public class RequestCoalescingFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Ключ метаданных маршрута, включающий объединение запросов.
+     */
+    public static final String COALESCE = "coalesce-requests";
+
+    private final RequestKeyResolver keyResolver;
+    private final boolean enabled;
+    private final int maxBodySize;
+    private final int maxInFlight;
+
+    private final Map<String, Sinks.One<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter bypassed;
+    private final Counter notShared;
+
+    /**
+     * Ответ лидера, который отдается ожидающим запросам.
+     */
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    public RequestCoalescingFilter(RequestKeyResolver keyResolver,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${gateway.coalescing.enabled:true}") boolean enabled,
+                                   @Value("${gateway.coalescing.max-body-size:256KB}") DataSize maxBodySize,
+                                   @Value("${gateway.coalescing.max-in-flight:10000}") int maxInFlight) {
+        this.keyResolver = keyResolver;
+        this.enabled = enabled;
+        this.maxBodySize = (int) maxBodySize.toBytes();
+        this.maxInFlight = maxInFlight;
+
+        this.leaders = requests(meterRegistry, "leader");
+        this.followers = requests(meterRegistry, "follower");
+        this.bypassed = requests(meterRegistry, "bypass");
+        this.notShared = requests(meterRegistry, "not-shared");
+        Gauge.builder("gateway.coalescing.collapse.ratio", this, RequestCoalescingFilter::collapseRatio)
+                .description("Доля объединяемых запросов, получивших ответ лидера без обращения к сервису")
+                .register(meterRegistry);
+        Gauge.builder("gateway.coalescing.in-flight", inFlight, Map::size)
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.coalescing.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // До фильтра, записывающего ответ сервиса клиенту, чтобы подменить ответ на копирующий
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    /**
+     * Выполняет запрос как лидер или дожидается ответа уже выполняющегося такого же запроса.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled || !coalescingEnabled(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String key = conditional(request) || hasBody(request) ? null : keyResolver.key(request);
+        if (key == null || inFlight.size() >= maxInFlight) {
+            bypassed.increment();
+            return chain.filter(exchange);
+        }
+
+        Sinks.One<SharedResponse> sink = Sinks.one();
+        Sinks.One<SharedResponse> existing = inFlight.putIfAbsent(key, sink);
+        if (existing != null) {
+            followers.increment();
+            return existing.asMono()
+                    .map(shared -> write(exchange.getResponse(), shared))
+                    // Ответ лидера не разделяется — запрос выполняется сам
+                    .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                    .flatMap(Function.identity());
+        }
+
+        leaders.increment();
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), maxBodySize);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    SharedResponse shared = signal == SignalType.ON_COMPLETE ? shared(response) : null;
+                    if (shared != null) {
+                        sink.tryEmitValue(shared);
+                    } else {
+                        notShared.increment();
+                        sink.tryEmitEmpty();
+                    }
+                });
+    }
+
+    private boolean coalescingEnabled(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null
+                && Boolean.parseBoolean(String.valueOf(route.getMetadata().get(COALESCE)))
+                && HttpMethod.GET.equals(exchange.getRequest().getMethod());
+    }
+
+    private static boolean conditional(ServerHttpRequest request) {
+        // Ответ на условный запрос зависит от состояния клиента
+        return request.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)
+                || request.getHeaders().containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private static boolean hasBody(ServerHttpRequest request) {
+        // Одинаковые путь и пользователь с разными телами дают разные ответы
+        return request.getHeaders().getContentLength() > 0
+                || request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    private static SharedResponse shared(CapturingResponse response) {
+        byte[] body = response.capturedBody();
+        if (body == null) {
+            return null;
+        }
+        HttpStatusCode status = response.getStatusCode();
+        return new SharedResponse(status != null ? status : HttpStatusCode.valueOf(200),
+                response.capturedHeaders(), body);
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shared.body())));
+    }
+
+    private double collapseRatio() {
+        double total = leaders.count() + followers.count();
+        return total == 0 ? 0 : followers.count() / total;
+    }
+}
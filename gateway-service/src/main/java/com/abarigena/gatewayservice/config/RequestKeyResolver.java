@@ -0,0 +1,66 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.revocation.RevocationList;
+import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Ключ GET-запроса для фильтров, которые отдают один ответ нескольким запросам.
+ * <p>
+ * Ключ состоит из пути, параметров, пользователя и роли из токена и заголовков Accept.
+ * Фильтры с ключом стоят до фильтров маршрута, поэтому пользователь определяется здесь по токену
+ * через {@link JwtUtils}. Запрос с недействительным или отозванным токеном, с телом или с заголовком Range
+ * ключа не имеет.
+ * </p>
+ */
+@Component
+public class RequestKeyResolver {
+
+    private final JwtUtils jwtUtils;
+    private final RevocationList revocations;
+
+    public RequestKeyResolver(JwtUtils jwtUtils, RevocationList revocations) {
+        this.jwtUtils = jwtUtils;
+        this.revocations = revocations;
+    }
+
+    /**
+     * Вычисляет ключ запроса.
+     *
+     * @param request Запрос.
+     * @return Ключ, начинающийся с пути запроса, или null, если запрос нельзя отдавать чужим ответом.
+     */
+    public String key(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        // Тело запроса (например, фильтр в GET /tasks) в ключ не входит
+        if (headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING)
+                || headers.containsKey(HttpHeaders.RANGE)) {
+            return null;
+        }
+
+        String principal = "";
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization != null) {
+            if (!authorization.startsWith("Bearer ")) {
+                return null;
+            }
+            Optional<Claims> claims = jwtUtils.verify(authorization.substring(7));
+            if (claims.isEmpty() || revocations.isRevoked(claims.get().getId())) {
+                return null;
+            }
+            principal = claims.get().getSubject() + ':' + claims.get().get("role", String.class);
+        }
+
+        String query = request.getURI().getRawQuery();
+        return request.getURI().getRawPath()
+                + (query != null ? '?' + query : "")
+                + '|' + principal
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+    }
+}
@@ -0,0 +1,436 @@
+package com.abarigena.gatewayservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Кэш ответов на GET-запросы для маршрутов с метаданными {@link #RESPONSE_CACHE}.
+ * <p>
+ * Ответы хранятся отдельно для каждого пользователя (ключ — {@link RequestKeyResolver}) и только если это
+ * разрешает {@code Cache-Control} сервиса. Свежий ответ (в пределах {@code max-age}) отдается без обращения
+ * к сервису. Устаревший ответ с {@code ETag} перепроверяется запросом с {@code If-None-Match}: на 304
+ * клиент получает сохраненное тело, а запись продлевается. Изменяющие запросы к маршруту удаляют записи
+ * своего пути и родительских путей; изменяющие запросы, которые шлюз выполняет сам (пакетные запросы),
+ * удаляют их через {@link #invalidate(String)}.
+ * </p>
+ * <p>
+ * Фильтр стоит до фильтров маршрута, поэтому ответ из кэша не расходует токен лимита запросов маршрута:
+ * лимит защищает сервисы, а такой ответ сервис не нагружает. Запрос, ушедший в сервис (промах или
+ * перепроверка), проходит лимит как обычно.
+ * </p>
+ * <p>
+ * Объем кэша ограничен {@code gateway.response-cache.max-size}, отдельный ответ —
+ * {@code max-entry-size}, время хранения записи — {@code max-ttl}.
+ * </p>
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    /**
+     * Ключ метаданных маршрута, включающий кэширование ответов.
+     */
+    public static final String RESPONSE_CACHE = "response-cache";
+
+    /**
+     * Заголовок ответа, отданного из кэша без обращения к сервису.
+     */
+    public static final String X_CACHE = "X-Cache";
+
+    private static final Set<HttpMethod> SAFE_METHODS =
+            Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE);
+
+    /**
+     * Заголовки из Vary, которые уже входят в ключ запроса.
+     */
+    private static final Set<String> VARY_IN_KEY = Set.of("accept", "accept-encoding");
+
+    private final RequestKeyResolver keyResolver;
+    private final boolean enabled;
+    private final int maxEntrySize;
+    private final long maxTtlNanos;
+
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Set<String>> keysByPath = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+    private final Counter bypassed;
+
+    /**
+     * Сохраненный ответ со статусом 200.
+     *
+     * @param path Путь запроса, по которому запись удаляется при изменении ресурса.
+     * @param freshNanos Сколько ответ отдается без перепроверки.
+     * @param retainNanos Сколько запись хранится в кэше.
+     */
+    private record CachedResponse(String path, HttpHeaders headers, byte[] body, String etag,
+                                  long storedAtNanos, long freshNanos, long retainNanos) {
+
+        boolean fresh(long nowNanos) {
+            return nowNanos - storedAtNanos < freshNanos;
+        }
+
+        int weight() {
+            // Заголовки учитываются приблизительно
+            return body.length + 512;
+        }
+    }
+
+    public ResponseCacheFilter(RequestKeyResolver keyResolver,
+                               MeterRegistry meterRegistry,
+                               @Value("${gateway.response-cache.enabled:true}") boolean enabled,
+                               @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize,
+                               @Value("${gateway.response-cache.max-entry-size:256KB}") DataSize maxEntrySize,
+                               @Value("${gateway.response-cache.max-ttl:10m}") Duration maxTtl) {
+        this.keyResolver = keyResolver;
+        this.enabled = enabled;
+        this.maxEntrySize = (int) maxEntrySize.toBytes();
+        this.maxTtlNanos = maxTtl.toNanos();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> key.length() + value.weight())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.retainNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime,
+                                                  long currentDuration) {
+                        return value.retainNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener(this::unindex)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+
+        this.hits = requests(meterRegistry, "hit");
+        this.revalidated = requests(meterRegistry, "revalidated");
+        this.misses = requests(meterRegistry, "miss");
+        this.bypassed = requests(meterRegistry, "bypass");
+        Gauge.builder("gateway.response-cache.hit.ratio", this, ResponseCacheFilter::hitRatio)
+                .description("Доля запросов, отданных из кэша без обращения к сервису")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.response-cache");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.response-cache.requests")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        // До объединения запросов: ответ из кэша не должен ждать выполняющийся запрос
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    /**
+     * Отдает ответ из кэша, перепроверяет его у сервиса или сохраняет новый ответ.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!enabled || !cacheEnabled(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getURI().getRawPath();
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            if (isSafe(request.getMethod())) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).doFinally(signal -> invalidate(path));
+        }
+
+        String key = noCache(request) ? null : keyResolver.key(request);
+        if (key == null) {
+            bypassed.increment();
+            return chain.filter(exchange);
+        }
+
+        long now = System.nanoTime();
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && cached.fresh(now)) {
+            hits.increment();
+            return writeCached(exchange, cached, now);
+        }
+        if (cached != null && cached.etag() != null) {
+            return revalidate(exchange, chain, key, cached);
+        }
+
+        misses.increment();
+        CapturingResponse response = new CapturingResponse(exchange.getResponse(), maxEntrySize);
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnSuccess(v -> store(key, path, response));
+    }
+
+    private boolean cacheEnabled(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null && Boolean.parseBoolean(String.valueOf(route.getMetadata().get(RESPONSE_CACHE)));
+    }
+
+    private static boolean noCache(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && (cacheControl.contains("no-cache") || cacheControl.contains("no-store"));
+    }
+
+    /**
+     * Перепроверяет устаревший ответ у сервиса по его ETag.
+     */
+    private Mono<Void> revalidate(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                                  CachedResponse cached) {
+        boolean clientHasEtag = clientEtags(exchange.getRequest()).contains(cached.etag());
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag()))
+                .build();
+        RevalidatingResponse response = new RevalidatingResponse(exchange.getResponse(), maxEntrySize, cached,
+                clientHasEtag);
+
+        return chain.filter(exchange.mutate().request(request).response(response).build())
+                .doOnSuccess(v -> {
+                    if (response.notModified()) {
+                        revalidated.increment();
+                        if (!put(key, cached.path(), response.mergedHeaders(), cached.body())) {
+                            cache.invalidate(key);
+                        }
+                        return;
+                    }
+                    misses.increment();
+                    if (!store(key, cached.path(), response)) {
+                        cache.invalidate(key);
+                    }
+                });
+    }
+
+    private static List<String> clientEtags(ServerHttpRequest request) {
+        try {
+            return request.getHeaders().getIfNoneMatch();
+        } catch (IllegalArgumentException e) {
+            // Некорректный If-None-Match не совпадает ни с одним ETag
+            return List.of();
+        }
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, long nowNanos) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        String age = String.valueOf(TimeUnit.NANOSECONDS.toSeconds(nowNanos - cached.storedAtNanos()));
+
+        if (cached.etag() != null && clientEtags(exchange.getRequest()).contains(cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.set(HttpHeaders.ETAG, cached.etag());
+            headers.addAll(HttpHeaders.CACHE_CONTROL, cached.headers().getOrEmpty(HttpHeaders.CACHE_CONTROL));
+            headers.set(HttpHeaders.AGE, age);
+            headers.set(X_CACHE, "HIT");
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.putAll(cached.headers());
+        headers.set(HttpHeaders.AGE, age);
+        headers.set(X_CACHE, "HIT");
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+
+    private boolean store(String key, String path, CapturingResponse response) {
+        byte[] body = response.capturedBody();
+        if (!HttpStatus.OK.equals(response.getStatusCode()) || body == null) {
+            return false;
+        }
+        return put(key, path, response.capturedHeaders(), body);
+    }
+
+    private boolean put(String key, String path, HttpHeaders headers, byte[] body) {
+        long freshNanos = freshness(headers);
+        String etag = headers.getETag();
+        if (freshNanos < 0 || (freshNanos == 0 && etag == null)) {
+            return false;
+        }
+        long retainNanos = etag != null ? maxTtlNanos : freshNanos;
+        cache.put(key, new CachedResponse(path, headers, body, etag, System.nanoTime(), freshNanos, retainNanos));
+        keysByPath.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(key);
+        return true;
+    }
+
+    /**
+     * Срок свежести ответа по его заголовкам.
+     *
+     * @param headers Заголовки ответа.
+     * @return Срок в наносекундах, 0 — только с перепроверкой, -1 — ответ хранить нельзя.
+     */
+    private long freshness(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return -1;
+        }
+        for (String vary : headers.getVary()) {
+            if (!VARY_IN_KEY.contains(vary.toLowerCase(Locale.ROOT))) {
+                return -1;
+            }
+        }
+
+        long maxAgeSeconds = 0;
+        boolean noCache = false;
+        for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : value.split(",")) {
+                String d = directive.trim().toLowerCase(Locale.ROOT);
+                if (d.equals("no-store")) {
+                    return -1;
+                } else if (d.equals("no-cache")) {
+                    noCache = true;
+                } else if (d.startsWith("max-age=")) {
+                    try {
+                        maxAgeSeconds = Long.parseLong(d.substring("max-age=".length()));
+                    } catch (NumberFormatException e) {
+                        maxAgeSeconds = 0;
+                    }
+                }
+            }
+        }
+        return noCache ? 0 : Math.min(TimeUnit.SECONDS.toNanos(Math.max(0, maxAgeSeconds)), maxTtlNanos);
+    }
+
+    /**
+     * Проверяет, что метод не изменяет ресурс и не требует удаления записей кэша.
+     *
+     * @param method Метод запроса.
+     * @return true для GET, HEAD, OPTIONS и TRACE.
+     */
+    public static boolean isSafe(HttpMethod method) {
+        return SAFE_METHODS.contains(method);
+    }
+
+    /**
+     * Удаляет записи пути и всех родительских путей, например /tasks/42/comments, /tasks/42 и /tasks.
+     *
+     * @param path Путь измененного ресурса в закодированном виде.
+     */
+    public void invalidate(String path) {
+        for (String p = path; !p.isEmpty(); p = p.substring(0, Math.max(0, p.lastIndexOf('/')))) {
+            Set<String> keys = keysByPath.remove(p);
+            if (keys != null) {
+                cache.invalidateAll(keys);
+            }
+        }
+    }
+
+    private void unindex(String key, CachedResponse value, RemovalCause cause) {
+        if (key == null || value == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        keysByPath.computeIfPresent(value.path(), (path, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + revalidated.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    /**
+     * Ответ на перепроверку: 304 от сервиса заменяется сохраненным телом со статусом 200,
+     * если клиент сам не присылал этот ETag.
+     */
+    private static class RevalidatingResponse extends CapturingResponse {
+
+        private final CachedResponse cached;
+        private final boolean clientHasEtag;
+        private HttpHeaders mergedHeaders;
+
+        RevalidatingResponse(ServerHttpResponse delegate, int maxBodySize, CachedResponse cached,
+                             boolean clientHasEtag) {
+            super(delegate, maxBodySize);
+            this.cached = cached;
+            this.clientHasEtag = clientHasEtag;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!HttpStatus.NOT_MODIFIED.equals(getStatusCode())) {
+                return super.writeWith(body);
+            }
+            // Заголовки из 304 обновляют сохраненные (RFC 9111, 4.3.4)
+            HttpHeaders merged = new HttpHeaders();
+            merged.putAll(cached.headers());
+            getHeaders().forEach((name, values) -> {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                        && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)
+                        && !HttpHeaders.CONNECTION.equalsIgnoreCase(name)) {
+                    merged.put(name, values);
+                }
+            });
+            mergedHeaders = merged;
+            if (clientHasEtag) {
+                return super.writeWith(body);
+            }
+
+            setStatusCode(HttpStatus.OK);
+            getHeaders().clear();
+            getHeaders().putAll(merged);
+            getHeaders().setContentLength(cached.body().length);
+            return Flux.from(body)
+                    .doOnNext(DataBufferUtils::release)
+                    .then(Mono.defer(() -> super.writeWith(Mono.fromSupplier(
+                            () -> bufferFactory().wrap(cached.body())))));
+        }
+
+        boolean notModified() {
+            return mergedHeaders != null;
+        }
+
+        HttpHeaders mergedHeaders() {
+            return mergedHeaders;
+        }
+    }
+}
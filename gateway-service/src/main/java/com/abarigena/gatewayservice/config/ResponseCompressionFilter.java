@@ -0,0 +1,230 @@
+package com.abarigena.gatewayservice.config;
+
+import com.abarigena.gatewayservice.compression.ContentCoding;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Сжатие ответов маршрутов по заголовку {@code Accept-Encoding} клиента.
+ * <p>
+ * Алгоритм выбирается из {@code gateway.compression.encodings} по весам в {@code Accept-Encoding}.
+ * Если выбран gzip, сервис получает {@code Accept-Encoding: gzip} и может сжать ответ сам (сервисы
+ * сжимают JSON через {@code server.compression}); уже сжатый ответ шлюз передает как есть. Для других
+ * алгоритмов заголовок сервису не передается, и ответ сжимает шлюз. Сжимаются ответы сжимаемых типов
+ * размером не меньше {@code min-response-size} маршрута; потоковые ответы не сжимаются. Ответ без
+ * {@code Content-Length} накапливается в памяти не дальше {@code max-response-size}: если он больше,
+ * накопленная часть и остаток передаются клиенту без сжатия.
+ * </p>
+ * <p>
+ * Фильтр стоит раньше кэша ответов и объединения запросов, поэтому они хранят и разделяют несжатый ответ
+ * (или ответ, сжатый сервисом, с учетом {@code Accept-Encoding} в ключе), а сжатие выполняется для каждого
+ * клиента. Затраты процессора и объем до и после сжатия записываются в метрики {@code gateway.compression.*}.
+ * </p>
+ */
+@Component
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final CompressionProperties properties;
+    private final List<MediaType> mimeTypes;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mimeTypes = MediaType.parseMediaTypes(properties.getMimeTypes());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        // Раньше кэша ответов и объединения запросов
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+    }
+
+    /**
+     * Выбирает алгоритм сжатия и подменяет ответ на сжимающий.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || HttpMethod.HEAD.equals(exchange.getRequest().getMethod())) {
+            return chain.filter(exchange);
+        }
+        CompressionProperties.Settings settings = properties.forRoute(route.getId());
+        ContentCoding coding = ContentCoding.negotiate(
+                exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING), properties.getEncodings());
+        if (!settings.isEnabled() || coding == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerWebExchange compressing = exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    // Сервис может сжать ответ сам только алгоритмом, выбранным для клиента
+                    if (coding == ContentCoding.GZIP) {
+                        headers.set(HttpHeaders.ACCEPT_ENCODING, coding.token());
+                    } else {
+                        headers.remove(HttpHeaders.ACCEPT_ENCODING);
+                    }
+                }))
+                .response(new CompressingResponse(exchange.getResponse(), route.getId(), coding, settings))
+                .build();
+        return chain.filter(compressing);
+    }
+
+    private boolean compressible(HttpHeaders headers) {
+        MediaType contentType = headers.getContentType();
+        return contentType != null && mimeTypes.stream().anyMatch(type -> type.includes(contentType));
+    }
+
+    private void record(String routeId, String result) {
+        Counter.builder("gateway.compression.responses")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Ответ, который собирает тело целиком и сжимает его перед отправкой клиенту.
+     */
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+        private final ContentCoding coding;
+        private final CompressionProperties.Settings settings;
+
+        CompressingResponse(ServerHttpResponse delegate, String routeId, ContentCoding coding,
+                            CompressionProperties.Settings settings) {
+            super(delegate);
+            this.routeId = routeId;
+            this.coding = coding;
+            this.settings = settings;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                record(routeId, "passthrough");
+                return super.writeWith(body);
+            }
+            if (!compressible(headers) || (status != null && (status.value() == 204 || status.value() == 304))) {
+                record(routeId, "not-compressible");
+                return super.writeWith(body);
+            }
+            long length = headers.getContentLength();
+            if (length >= 0 && (length < settings.getMinResponseSize().toBytes()
+                    || length > settings.getMaxResponseSize().toBytes())) {
+                record(routeId, "skipped-size");
+                return super.writeWith(body);
+            }
+
+            // Тело копится частями, пока не превысит max-response-size; первая порция — либо все тело,
+            // либо его начало, после которого ответ передается без сжатия
+            long maxBytes = settings.getMaxResponseSize().toBytes();
+            AtomicLong received = new AtomicLong();
+            return Flux.from(body)
+                    .bufferUntil(buffer -> received.addAndGet(buffer.readableByteCount()) > maxBytes)
+                    .switchOnFirst((first, parts) -> {
+                        if (received.get() > maxBytes || !first.hasValue()) {
+                            record(routeId, "skipped-size");
+                            return super.writeWith(parts.concatMapIterable(part -> part));
+                        }
+                        return compress(Flux.fromIterable(first.get()), headers);
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .then();
+        }
+
+        private Mono<Void> compress(Flux<DataBuffer> body, HttpHeaders headers) {
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                byte[] original = new byte[buffer.readableByteCount()];
+                buffer.read(original);
+                DataBufferUtils.release(buffer);
+                if (original.length < settings.getMinResponseSize().toBytes()) {
+                    record(routeId, "skipped-size");
+                    return super.writeWith(Mono.just(bufferFactory().wrap(original)));
+                }
+
+                long start = cpuTime();
+                byte[] compressed = coding.encode(original, settings.level(coding));
+                timer().record(cpuTime() - start, TimeUnit.NANOSECONDS);
+                bytes("original").increment(original.length);
+                bytes("compressed").increment(compressed.length);
+                record(routeId, "compressed");
+
+                headers.set(HttpHeaders.CONTENT_ENCODING, coding.token());
+                headers.setContentLength(compressed.length);
+                if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+                    headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                // Сжатое представление отличается от исходного байтами, поэтому ETag становится слабым
+                String etag = headers.getETag();
+                if (etag != null && !etag.startsWith("W/")) {
+                    headers.setETag("W/" + etag);
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+            });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            record(routeId, "streaming");
+            return super.writeAndFlushWith(body);
+        }
+
+        private Timer timer() {
+            return Timer.builder("gateway.compression.cpu")
+                    .description("Время процессора на сжатие ответа")
+                    .tag("route", routeId)
+                    .tag("encoding", coding.token())
+                    .register(meterRegistry);
+        }
+
+        private Counter bytes(String stage) {
+            return Counter.builder("gateway.compression.bytes")
+                    .baseUnit("bytes")
+                    .tag("route", routeId)
+                    .tag("encoding", coding.token())
+                    .tag("stage", stage)
+                    .register(meterRegistry);
+        }
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,61 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory.RETRY_ITERATION_KEY;
+
+/**
+ * Случайная добавка к паузе перед повтором запроса.
+ * <p>
+ * Стандартный фильтр повторов ждет строго экспоненциальную паузу, из-за чего клиенты, получившие
+ * ошибку одновременно, повторяют запрос тоже одновременно. Фильтр ставится в цепочку сразу после
+ * фильтра повторов и перед повторной попыткой дополнительно ждет случайное время
+ * от 0 до {@code jitter} от текущей паузы. Первая попытка проходит без задержки.
+ * </p>
+ */
+public class RetryJitterFilter implements GatewayFilter {
+
+    private final RouteResilienceProperties.Retry retry;
+
+    public RetryJitterFilter(RouteResilienceProperties.Retry retry) {
+        this.retry = retry;
+    }
+
+    /**
+     * Задерживает повторную попытку на случайное время.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Duration delay = jitter(exchange);
+        if (delay.isZero()) {
+            return chain.filter(exchange);
+        }
+        return Mono.delay(delay).then(Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    /**
+     * Случайная пауза перед текущей попыткой запроса.
+     *
+     * @param exchange Контекст запроса.
+     * @return {@link Duration} Пауза; для первой попытки — ноль.
+     */
+    public Duration jitter(ServerWebExchange exchange) {
+        // Фильтр повторов сохраняет номер завершенной попытки, начиная с 0; до первой попытки атрибута нет
+        Integer completed = exchange.getAttribute(RETRY_ITERATION_KEY);
+        if (completed == null || retry.getJitter() <= 0) {
+            return Duration.ZERO;
+        }
+        long bound = (long) (retry.backoff(completed + 1).toMillis() * retry.getJitter());
+        return bound > 0 ? Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1)) : Duration.ZERO;
+    }
+}
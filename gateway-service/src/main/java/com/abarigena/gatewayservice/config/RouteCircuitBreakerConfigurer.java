@@ -0,0 +1,81 @@
+package com.abarigena.gatewayservice.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Настраивает circuit breaker маршрута по {@link RouteResilienceProperties}.
+ * <p>
+ * Таймаут circuit breaker равен полному времени обработки запроса со всеми повторами, поэтому
+ * время одной попытки ограничивает только таймаут ответа маршрута. При изменении настроек
+ * (например, после обновления конфигурации из config-service) прежний экземпляр удаляется из реестра,
+ * и при пересборке маршрутов создается новый с актуальными порогами.
+ * </p>
+ */
+@Component
+public class RouteCircuitBreakerConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteCircuitBreakerConfigurer.class);
+
+    private final ReactiveResilience4JCircuitBreakerFactory factory;
+    private final Map<String, BreakerSpec> applied = new ConcurrentHashMap<>();
+
+    /**
+     * Значения, из которых собирается конфигурация circuit breaker.
+     */
+    private record BreakerSpec(float failureRateThreshold, int slidingWindowSize, int minimumNumberOfCalls,
+                               Duration waitDurationInOpenState, int permittedNumberOfCallsInHalfOpenState,
+                               Duration timeout) {
+    }
+
+    public RouteCircuitBreakerConfigurer(ReactiveResilience4JCircuitBreakerFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Регистрирует конфигурацию circuit breaker с именем маршрута.
+     *
+     * @param routeId ID маршрута, он же имя circuit breaker.
+     * @param settings Настройки маршрута.
+     */
+    public void configure(String routeId, RouteResilienceProperties.RouteSettings settings) {
+        RouteResilienceProperties.CircuitBreaker breaker = settings.getCircuitBreaker();
+        BreakerSpec spec = new BreakerSpec(
+                breaker.getFailureRateThreshold(),
+                breaker.getSlidingWindowSize(),
+                breaker.getMinimumNumberOfCalls(),
+                breaker.getWaitDurationInOpenState(),
+                breaker.getPermittedNumberOfCallsInHalfOpenState(),
+                settings.totalTimeout());
+
+        BreakerSpec previous = applied.put(routeId, spec);
+        if (spec.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            logger.info("Настройки circuit breaker маршрута {} изменились, экземпляр будет пересоздан", routeId);
+            factory.getCircuitBreakerRegistry().remove(routeId);
+            factory.getTimeLimiterRegistry().remove(routeId);
+        }
+
+        factory.configure(builder -> builder
+                .circuitBreakerConfig(CircuitBreakerConfig.custom()
+                        .failureRateThreshold(spec.failureRateThreshold())
+                        .slidingWindowSize(spec.slidingWindowSize())
+                        .minimumNumberOfCalls(spec.minimumNumberOfCalls())
+                        .waitDurationInOpenState(spec.waitDurationInOpenState())
+                        .permittedNumberOfCallsInHalfOpenState(spec.permittedNumberOfCallsInHalfOpenState())
+                        .build())
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(spec.timeout())
+                        .build()), routeId);
+    }
+}
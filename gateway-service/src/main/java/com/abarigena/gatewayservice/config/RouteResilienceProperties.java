@@ -0,0 +1,309 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Настройки устойчивости маршрутов шлюза: таймауты, повторы и circuit breaker.
+ * <p>
+ * Задаются в {@code gateway.resilience.routes.<routeId>} и могут поставляться config-service.
+ * Для маршрута без явных настроек используются значения по умолчанию этого класса.
+ * </p>
+ */
+@ConfigurationProperties("gateway.resilience")
+public class RouteResilienceProperties {
+
+    /**
+     * Методы, которые разрешено повторять: безопасные и идемпотентные по RFC 9110.
+     */
+    static final Set<HttpMethod> IDEMPOTENT_METHODS =
+            Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private Map<String, RouteSettings> routes = new HashMap<>();
+
+    public Map<String, RouteSettings> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteSettings> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Возвращает настройки маршрута или значения по умолчанию.
+     *
+     * @param routeId ID маршрута.
+     * @return {@link RouteSettings} Настройки маршрута.
+     */
+    public RouteSettings forRoute(String routeId) {
+        return routes.getOrDefault(routeId, new RouteSettings());
+    }
+
+    /**
+     * Настройки одного маршрута.
+     */
+    public static class RouteSettings {
+
+        /**
+         * Время ожидания соединения с экземпляром сервиса.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Время ожидания ответа на одну попытку запроса.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        private Retry retry = new Retry();
+
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public Retry getRetry() {
+            return retry;
+        }
+
+        public void setRetry(Retry retry) {
+            this.retry = retry;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        /**
+         * Верхняя оценка времени запроса со всеми повторами и паузами между ними.
+         * Используется как таймаут circuit breaker, чтобы он не обрывал повторы.
+         *
+         * @return {@link Duration} Максимальное время обработки запроса маршрутом.
+         */
+        public Duration totalTimeout() {
+            Duration total = responseTimeout.plus(connectTimeout);
+            for (int attempt = 1; attempt <= retry.getRetries(); attempt++) {
+                total = total.plus(responseTimeout).plus(connectTimeout).plus(retry.maxDelay(attempt));
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Повторы запроса. Повторяются только идемпотентные методы из {@link #IDEMPOTENT_METHODS}.
+     */
+    public static class Retry {
+
+        private int retries = 2;
+
+        private List<HttpMethod> methods = List.of(HttpMethod.GET);
+
+        private List<HttpStatus> statuses =
+                List.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE);
+
+        private Duration firstBackoff = Duration.ofMillis(50);
+
+        private Duration maxBackoff = Duration.ofMillis(500);
+
+        private int factor = 2;
+
+        /**
+         * Доля случайной добавки к паузе перед повтором (от 0 до 1).
+         */
+        private double jitter = 0.5;
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public void setRetries(int retries) {
+            this.retries = retries;
+        }
+
+        public List<HttpMethod> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<HttpMethod> methods) {
+            this.methods = methods;
+        }
+
+        public List<HttpStatus> getStatuses() {
+            return statuses;
+        }
+
+        public void setStatuses(List<HttpStatus> statuses) {
+            this.statuses = statuses;
+        }
+
+        public Duration getFirstBackoff() {
+            return firstBackoff;
+        }
+
+        public void setFirstBackoff(Duration firstBackoff) {
+            this.firstBackoff = firstBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public int getFactor() {
+            return factor;
+        }
+
+        public void setFactor(int factor) {
+            this.factor = factor;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+
+        /**
+         * Оставляет из настроенных методов только идемпотентные.
+         *
+         * @return {@link HttpMethod} Методы, которые можно повторять.
+         */
+        public HttpMethod[] idempotentMethods() {
+            return methods.stream()
+                    .filter(IDEMPOTENT_METHODS::contains)
+                    .distinct()
+                    .toArray(HttpMethod[]::new);
+        }
+
+        /**
+         * Пауза перед повтором без случайной добавки.
+         *
+         * @param attempt Номер повтора, начиная с 1.
+         * @return {@link Duration} Пауза, ограниченная {@link #maxBackoff}.
+         */
+        public Duration backoff(int attempt) {
+            double millis = firstBackoff.toMillis() * Math.pow(factor, attempt - 1);
+            return Duration.ofMillis((long) Math.min(millis, maxBackoff.toMillis()));
+        }
+
+        /**
+         * Наибольшая пауза перед повтором с учетом случайной добавки.
+         *
+         * @param attempt Номер повтора, начиная с 1.
+         * @return {@link Duration} Максимальная пауза.
+         */
+        public Duration maxDelay(int attempt) {
+            Duration backoff = backoff(attempt);
+            return backoff.plusMillis((long) (backoff.toMillis() * jitter));
+        }
+    }
+
+    /**
+     * Настройки circuit breaker маршрута.
+     */
+    public static class CircuitBreaker {
+
+        private boolean enabled = true;
+
+        private float failureRateThreshold = 50;
+
+        private int slidingWindowSize = 20;
+
+        private int minimumNumberOfCalls = 10;
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        private int permittedNumberOfCallsInHalfOpenState = 3;
+
+        /**
+         * Статусы ответа, которые считаются отказом сервиса.
+         */
+        private Set<HttpStatus> statusCodes =
+                EnumSet.of(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedNumberOfCallsInHalfOpenState() {
+            return permittedNumberOfCallsInHalfOpenState;
+        }
+
+        public void setPermittedNumberOfCallsInHalfOpenState(int permittedNumberOfCallsInHalfOpenState) {
+            this.permittedNumberOfCallsInHalfOpenState = permittedNumberOfCallsInHalfOpenState;
+        }
+
+        public Set<HttpStatus> getStatusCodes() {
+            return statusCodes;
+        }
+
+        public void setStatusCodes(Set<HttpStatus> statusCodes) {
+            this.statusCodes = statusCodes;
+        }
+    }
+}
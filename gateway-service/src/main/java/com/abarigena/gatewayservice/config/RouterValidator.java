@@ -1,47 +1,110 @@
 package com.abarigena.gatewayservice.config;
 
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 /**
  * Класс для валидации маршрутов в Gateway.
  * Определяет публичные и защищенные эндпоинты и проверяет, требует ли маршрут аутентификации.
+ * <p>
+ * Публичные пути объявляются для каждого маршрута в метаданных {@link #PUBLIC_PATHS} (см. {@link GatewayConfig}).
+ * Шаблоны компилируются в {@link PathPattern} один раз при загрузке маршрутов и заново при каждом
+ * их обновлении, поэтому на запрос приходится только сопоставление с шаблонами его маршрута.
+ * Запрос без маршрута или к маршруту без публичных путей считается защищенным.
+ * </p>
  */
 @Service
 public class RouterValidator {
 
-    public static final List<String> openEndpoints = List.of(
-            "/auth/register",
-            "/auth/login"
-    );
+    private static final Logger logger = LoggerFactory.getLogger(RouterValidator.class);
+
+    /**
+     * Ключ метаданных маршрута со списком публичных путей (шаблоны {@link PathPattern}).
+     */
+    public static final String PUBLIC_PATHS = "public-paths";
 
-    private static final List<String> SWAGGER_PATHS = List.of(
-            "/v3/api-docs",
-            "/swagger-ui",
-            "/swagger-resources",
-            "/webjars"
-    );
+    private volatile Map<String, List<PathPattern>> publicPathsByRoute = Map.of();
 
     /**
-     * Предикат, который проверяет, является ли запрос защищенным и требует ли он аутентификации.
+     * Проверяет, является ли запрос защищенным и требует ли он аутентификации.
      *
-     * @param request Запрос.
+     * @param exchange Контекст запроса, содержащий выбранный маршрут.
      * @return true, если маршрут защищен, иначе false.
      */
-    public Predicate<ServerHttpRequest> isSecured =
-            request -> {
-                String path = request.getURI().getPath();
-
-                for (String swaggerPath : SWAGGER_PATHS) {
-                    if (path.contains(swaggerPath)) {
-                        return false;
-                    }
-                }
-
-                return openEndpoints.stream()
-                        .noneMatch(uri -> request.getURI().getPath().contains(uri));
-            };
-}
\ No newline at end of file
+    public boolean isSecured(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return true;
+        }
+
+        List<PathPattern> publicPaths = publicPathsByRoute.get(route.getId());
+        if (publicPaths == null) {
+            return true;
+        }
+
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern publicPath : publicPaths) {
+            if (publicPath.matches(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Компилирует публичные пути всех маршрутов после их загрузки или обновления.
+     *
+     * @param event Событие об обновлении маршрутов.
+     */
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess() || !(event.getSource() instanceof RouteLocator routeLocator)) {
+            return;
+        }
+
+        routeLocator.getRoutes()
+                .filter(route -> route.getMetadata().containsKey(PUBLIC_PATHS))
+                .collectMap(Route::getId, route -> compile(route.getMetadata().get(PUBLIC_PATHS)))
+                .subscribe(compiled -> {
+                    publicPathsByRoute = Map.copyOf(compiled);
+                    logger.info("Публичные пути обновлены для маршрутов: {}", compiled.keySet());
+                });
+    }
+
+    /**
+     * Значение метаданных может быть списком (маршруты из кода), картой с индексами в качестве
+     * ключей (маршруты из YAML) или строкой с путями через запятую.
+     */
+    private static List<PathPattern> compile(Object value) {
+        Collection<?> paths;
+        if (value instanceof Collection<?> collection) {
+            paths = collection;
+        } else if (value instanceof Map<?, ?> map) {
+            paths = map.values();
+        } else {
+            paths = List.of(value.toString().split(","));
+        }
+
+        List<PathPattern> patterns = new ArrayList<>(paths.size());
+        for (Object path : paths) {
+            patterns.add(PathPatternParser.defaultInstance.parse(path.toString().trim()));
+        }
+        return List.copyOf(patterns);
+    }
+}
@@ -0,0 +1,86 @@
+package com.abarigena.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки зеркалирования GET-запросов маршрутов на теневой сервис, см. {@link ShadowTrafficFilter}.
+ */
+@ConfigurationProperties("gateway.shadow")
+public class ShadowProperties {
+
+    /**
+     * Сколько ждать ответа теневого сервиса; более медленный ответ считается ошибкой.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Сколько теневых запросов может выполняться одновременно; сверх этого запросы не зеркалируются.
+     */
+    private int maxInFlight = 100;
+
+    /**
+     * Теневой сервис по ID маршрута.
+     */
+    private Map<String, Target> routes = new HashMap<>();
+
+    public static class Target {
+
+        /**
+         * Имя теневого сервиса в Eureka.
+         */
+        private String serviceId;
+
+        /**
+         * Доля GET-запросов маршрута, которые зеркалируются, в процентах.
+         */
+        private double percentage = 0;
+
+        public String getServiceId() {
+            return serviceId;
+        }
+
+        public void setServiceId(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        public double getPercentage() {
+            return percentage;
+        }
+
+        public void setPercentage(double percentage) {
+            this.percentage = percentage;
+        }
+
+        public boolean isEnabled() {
+            return serviceId != null && !serviceId.isBlank() && percentage > 0;
+        }
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Map<String, Target> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Target> routes) {
+        this.routes = routes;
+    }
+}
@@ -0,0 +1,179 @@
+package com.abarigena.gatewayservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Зеркалирование части GET-запросов маршрута на теневой сервис для сравнения его с основным.
+ * <p>
+ * Для {@code percentage} процентов GET-запросов фильтр одновременно с основным запросом отправляет такой же
+ * запрос (с заголовками пользователя от {@link AuthenticationFilter} и {@code X-Shadow-Request: true})
+ * на {@code lb://<service-id>} теневого сервиса. Ответ теневого сервиса читается и отбрасывается; клиент
+ * его не ждет, а ошибки теневого сервиса на основной запрос не влияют. Когда готовы оба ответа,
+ * их задержки и статусы записываются в метрики {@code gateway.shadow.*}.
+ * </p>
+ * <p>
+ * Ставится после ограничения частоты запросов, поэтому отклоненные запросы не зеркалируются,
+ * и до повторов, поэтому один запрос клиента зеркалируется один раз.
+ * </p>
+ */
+public class ShadowTrafficFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShadowTrafficFilter.class);
+
+    public static final String SHADOW_HEADER = "X-Shadow-Request";
+
+    private final WebClient webClient;
+    private final String routeId;
+    private final ShadowProperties.Target target;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer primaryLatency;
+    private final Timer shadowLatency;
+    private final DistributionSummary latencyRatio;
+    private final Counter matched;
+    private final Counter statusMismatch;
+    private final Counter failed;
+    private final Counter skipped;
+
+    /**
+     * Итог одного запроса.
+     *
+     * @param status Статус ответа.
+     * @param latencyNanos Время от начала запроса до конца ответа.
+     */
+    private record Outcome(int status, long latencyNanos) {
+    }
+
+    public ShadowTrafficFilter(WebClient webClient, String routeId, ShadowProperties.Target target,
+                               ShadowProperties properties, MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.routeId = routeId;
+        this.target = target;
+        this.timeout = properties.getTimeout();
+        this.maxInFlight = properties.getMaxInFlight();
+
+        this.primaryLatency = latency(meterRegistry, "primary");
+        this.shadowLatency = latency(meterRegistry, "shadow");
+        this.latencyRatio = DistributionSummary.builder("gateway.shadow.latency.ratio")
+                .description("Отношение задержки теневого сервиса к задержке основного")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        this.matched = requests(meterRegistry, "match");
+        this.statusMismatch = requests(meterRegistry, "status-mismatch");
+        this.failed = requests(meterRegistry, "shadow-error");
+        this.skipped = requests(meterRegistry, "skipped");
+    }
+
+    private Timer latency(MeterRegistry meterRegistry, String side) {
+        return Timer.builder("gateway.shadow.latency")
+                .tag("route", routeId)
+                .tag("target", side)
+                .register(meterRegistry);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.shadow.requests")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Пропускает запрос дальше и при выборке запускает рядом с ним теневой запрос.
+     *
+     * @param exchange Контекст запроса и ответа.
+     * @param chain Следующий фильтр в цепочке.
+     * @return {@link Mono<Void>} Завершение основной цепочки фильтрации.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!HttpMethod.GET.equals(exchange.getRequest().getMethod())
+                || ThreadLocalRandom.current().nextDouble(100) >= target.getPercentage()) {
+            return chain.filter(exchange);
+        }
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            skipped.increment();
+            return chain.filter(exchange);
+        }
+
+        Sinks.One<Outcome> primary = Sinks.one();
+        Mono.zip(primary.asMono(), shadow(exchange.getRequest()))
+                .doFinally(signal -> inFlight.decrementAndGet())
+                .subscribe(outcomes -> compare(outcomes.getT1(), outcomes.getT2()), e -> {
+                    failed.increment();
+                    logger.debug("Теневой запрос маршрута {} к {} завершился ошибкой: {}",
+                            routeId, target.getServiceId(), e.toString());
+                });
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (signal == SignalType.ON_COMPLETE && status != null) {
+                        primary.tryEmitValue(new Outcome(status.value(), System.nanoTime() - start));
+                    } else {
+                        // Основной запрос отменен или завершился ошибкой — сравнивать не с чем
+                        primary.tryEmitEmpty();
+                    }
+                });
+    }
+
+    private Mono<Outcome> shadow(ServerHttpRequest request) {
+        return Mono.defer(() -> {
+            // Путь и параметры уже закодированы; передаются как есть, а не как шаблон URI
+            URI uri = UriComponentsBuilder.fromUri(request.getURI())
+                    .scheme("http").host(target.getServiceId()).port(-1)
+                    .build(true).toUri();
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(uri)
+                    .headers(headers -> {
+                        headers.addAll(request.getHeaders());
+                        headers.remove(HttpHeaders.HOST);
+                        headers.set(SHADOW_HEADER, "true");
+                    })
+                    .exchangeToMono(response -> response.releaseBody()
+                            .then(Mono.fromSupplier(() ->
+                                    new Outcome(response.statusCode().value(), System.nanoTime() - start))));
+        }).timeout(timeout);
+    }
+
+    private void compare(Outcome primary, Outcome shadow) {
+        primaryLatency.record(primary.latencyNanos(), TimeUnit.NANOSECONDS);
+        shadowLatency.record(shadow.latencyNanos(), TimeUnit.NANOSECONDS);
+        latencyRatio.record((double) shadow.latencyNanos() / Math.max(1, primary.latencyNanos()));
+        if (primary.status() == shadow.status()) {
+            matched.increment();
+        } else {
+            statusMismatch.increment();
+            logger.debug("Статус теневого сервиса {} ({}) отличается от основного ({}) на маршруте {}",
+                    target.getServiceId(), shadow.status(), primary.status(), routeId);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.abarigena.gatewayservice.controller;
+
+import com.abarigena.gatewayservice.config.BatchProperties;
+import com.abarigena.gatewayservice.dto.BatchRequest;
+import com.abarigena.gatewayservice.dto.BatchResponse;
+import com.abarigena.gatewayservice.service.RouteCallExecutor;
+import com.abarigena.gatewayservice.service.TokenAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Пакетное выполнение запросов к сервисам за один запрос клиента.
+ * <p>
+ * Токен проверяется один раз для всего пакета, после чего запросы пакета параллельно (не больше
+ * {@code gateway.batch.max-concurrency} одновременно) уходят в сервисы своих маршрутов через
+ * {@link RouteCallExecutor}. Ответ содержит статус, заголовки содержимого и тело каждого запроса
+ * в порядке запросов; ошибка одного запроса не влияет на остальные.
+ * </p>
+ */
+@RestController
+@RequestMapping("/batch")
+public class BatchController {
+
+    private static final Set<HttpMethod> METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.POST,
+            HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    /**
+     * Заголовки запроса, которые передаются сервису; остальные заголовки задает шлюз.
+     */
+    private static final Set<String> REQUEST_HEADERS = Set.of(
+            HttpHeaders.ACCEPT.toLowerCase(), HttpHeaders.ACCEPT_LANGUAGE.toLowerCase(),
+            HttpHeaders.IF_NONE_MATCH.toLowerCase(), HttpHeaders.IF_MODIFIED_SINCE.toLowerCase());
+
+    /**
+     * Заголовки ответа сервиса, которые возвращаются клиенту.
+     */
+    private static final List<String> RESPONSE_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG, HttpHeaders.CACHE_CONTROL,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+
+    private final BatchProperties properties;
+    private final TokenAuthenticator authenticator;
+    private final RouteCallExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary batchSize;
+
+    public BatchController(BatchProperties properties, TokenAuthenticator authenticator,
+                           RouteCallExecutor executor, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authenticator = authenticator;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.batchSize = DistributionSummary.builder("gateway.batch.size")
+                .description("Число запросов в пакете")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Выполняет пакет запросов.
+     *
+     * @param authorization Заголовок авторизации с токеном пользователя.
+     * @param request Пакет запросов.
+     * @return {@link BatchResponse} Ответы на запросы в порядке запросов.
+     */
+    @PostMapping
+    public Mono<BatchResponse> batch(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+                                     String authorization,
+                                     @RequestBody BatchRequest request) {
+        Claims claims = authenticator.authenticate(authorization)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        List<BatchRequest.Item> items = request.requests();
+        if (items == null || items.isEmpty() || items.size() > properties.getMaxRequests()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain from 1 to " + properties.getMaxRequests() + " requests");
+        }
+        batchSize.record(items.size());
+        String token = authorization.substring(7);
+
+        return Flux.range(0, items.size())
+                .flatMapSequential(index -> execute(index, items.get(index), token, claims),
+                        properties.getMaxConcurrency())
+                .collectList()
+                .map(BatchResponse::new);
+    }
+
+    private Mono<BatchResponse.Item> execute(int index, BatchRequest.Item item, String token, Claims claims) {
+        String id = item.id() != null ? item.id() : String.valueOf(index);
+        HttpMethod method = item.method() != null ? HttpMethod.valueOf(item.method().toUpperCase()) : HttpMethod.GET;
+        String path = item.path();
+        if (!METHODS.contains(method) || !validPath(path)) {
+            return Mono.just(error(id, HttpStatus.BAD_REQUEST, "Invalid method or path"));
+        }
+        int query = path.indexOf('?');
+        String routeId = properties.routeFor(query >= 0 ? path.substring(0, query) : path);
+        if (routeId == null) {
+            return Mono.just(error(id, HttpStatus.NOT_FOUND, "Path is not available in batch"));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (item.headers() != null) {
+            item.headers().forEach((name, value) -> {
+                if (REQUEST_HEADERS.contains(name.toLowerCase())) {
+                    headers.set(name, value);
+                }
+            });
+        }
+        byte[] body = null;
+        if (item.body() != null && !item.body().isNull()) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            body = item.body().toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        return executor.call(routeId, method, path, headers, body, token, claims)
+                .map(result -> new BatchResponse.Item(id, result.status(), responseHeaders(result.headers()),
+                        result.json(objectMapper)));
+    }
+
+    /**
+     * Путь должен быть относительным и не выходить за пределы префикса маршрута.
+     */
+    private static boolean validPath(String path) {
+        return path != null && path.startsWith("/") && !path.startsWith("//")
+                && !path.contains("..") && !path.contains("\\") && !path.contains("#");
+    }
+
+    private static Map<String, String> responseHeaders(HttpHeaders headers) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String name : RESPONSE_HEADERS) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                selected.put(name, value);
+            }
+        }
+        return selected;
+    }
+
+    private static BatchResponse.Item error(String id, HttpStatus status, String message) {
+        return new BatchResponse.Item(id, status.value(), Map.of(), TextNode.valueOf(message));
+    }
+}
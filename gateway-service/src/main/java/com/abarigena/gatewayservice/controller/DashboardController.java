@@ -0,0 +1,92 @@
+package com.abarigena.gatewayservice.controller;
+
+import com.abarigena.gatewayservice.config.DashboardProperties;
+import com.abarigena.gatewayservice.dto.DashboardResponse;
+import com.abarigena.gatewayservice.service.RouteCallExecutor;
+import com.abarigena.gatewayservice.service.TokenAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Данные главной страницы пользователя за один запрос.
+ * <p>
+ * Профиль пользователя, назначенные ему и созданные им задачи запрашиваются у сервисов одновременно,
+ * поэтому время ответа определяется самым медленным сервисом, а не суммой. Каждая часть ждет не дольше
+ * {@code gateway.dashboard.leg-timeout}; часть, которую не удалось получить, возвращается пустой со своим
+ * статусом, а ответ помечается как неполный. Если не получена ни одна часть, ответ имеет статус 502.
+ * </p>
+ */
+@RestController
+@RequestMapping("/dashboard")
+public class DashboardController {
+
+    private final DashboardProperties properties;
+    private final TokenAuthenticator authenticator;
+    private final RouteCallExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardController(DashboardProperties properties, TokenAuthenticator authenticator,
+                               RouteCallExecutor executor, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.authenticator = authenticator;
+        this.executor = executor;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Собирает данные главной страницы текущего пользователя.
+     *
+     * @param authorization Заголовок авторизации с токеном пользователя.
+     * @return {@link DashboardResponse} Профиль и задачи пользователя.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<DashboardResponse>> dashboard(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Claims claims = authenticator.authenticate(authorization)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        String token = authorization.substring(7);
+        String userId = claims.getSubject();
+        String page = "?page=0&size=" + properties.getPageSize();
+
+        return Mono.zip(
+                        leg("profile", "user-service", "/users/profile", token, claims),
+                        leg("assigned", "task-service", "/tasks/by-assignee/" + userId + page, token, claims),
+                        leg("authored", "task-service", "/tasks/by-author/" + userId + page, token, claims))
+                .map(legs -> {
+                    DashboardResponse response = new DashboardResponse(legs.getT1(), legs.getT2(), legs.getT3(),
+                            !(legs.getT1().available() && legs.getT2().available() && legs.getT3().available()));
+                    boolean empty = !(legs.getT1().available() || legs.getT2().available()
+                            || legs.getT3().available());
+                    return ResponseEntity.status(empty ? HttpStatus.BAD_GATEWAY : HttpStatus.OK)
+                            .cacheControl(CacheControl.noStore())
+                            .body(response);
+                });
+    }
+
+    private Mono<DashboardResponse.Section> leg(String name, String routeId, String pathAndQuery,
+                                                String token, Claims claims) {
+        return executor.call(routeId, HttpMethod.GET, pathAndQuery, new HttpHeaders(), null, token, claims)
+                .timeout(properties.getLegTimeout(),
+                        Mono.fromSupplier(() -> RouteCallExecutor.Result.of(HttpStatus.GATEWAY_TIMEOUT)))
+                .map(result -> {
+                    meterRegistry.counter("gateway.dashboard.legs", "leg", name,
+                            "result", result.successful() ? "ok" : String.valueOf(result.status())).increment();
+                    return new DashboardResponse.Section(result.status(),
+                            result.successful() ? result.json(objectMapper) : null);
+                });
+    }
+}
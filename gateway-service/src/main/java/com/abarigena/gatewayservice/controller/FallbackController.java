@@ -0,0 +1,43 @@
+package com.abarigena.gatewayservice.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Ответ шлюза, когда сервис маршрута недоступен.
+ * Circuit breaker маршрута перенаправляет сюда запрос вместо ожидания ответа от сервиса.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    /**
+     * Сразу отвечает 503, не обращаясь к сервису.
+     *
+     * @param routeId ID маршрута, для которого сработал circuit breaker.
+     * @param exchange Контекст запроса.
+     * @return {@link ResponseEntity} Ответ со статусом 503 в формате ErrorResponse.
+     */
+    @RequestMapping("/{routeId}")
+    public Mono<ResponseEntity<Map<String, Object>>> fallback(@PathVariable String routeId,
+                                                              ServerWebExchange exchange) {
+        Throwable cause = exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR);
+        String message = cause != null
+                ? "Service " + routeId + " is unavailable: " + cause.getClass().getSimpleName()
+                : "Service " + routeId + " is unavailable";
+
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("status", HttpStatus.SERVICE_UNAVAILABLE.value(), "message", message)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.abarigena.gatewayservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакет запросов к сервисам.
+ *
+ * @param requests Запросы пакета.
+ */
+public record BatchRequest(List<Item> requests) {
+
+    /**
+     * Один запрос пакета.
+     *
+     * @param id Идентификатор запроса, возвращается в ответе; по умолчанию — номер запроса в пакете.
+     * @param method Метод запроса, по умолчанию GET.
+     * @param path Путь с параметрами, например {@code /tasks/1}.
+     * @param headers Заголовки запроса; передаются только заголовки согласования содержимого.
+     * @param body Тело запроса в JSON.
+     */
+    public record Item(String id, String method, String path, Map<String, String> headers, JsonNode body) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.abarigena.gatewayservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ответы на запросы пакета в порядке запросов.
+ *
+ * @param responses Ответы.
+ */
+public record BatchResponse(List<Item> responses) {
+
+    /**
+     * Ответ на один запрос пакета.
+     *
+     * @param id Идентификатор запроса.
+     * @param status Статус ответа сервиса или шлюза.
+     * @param headers Заголовки ответа, относящиеся к содержимому.
+     * @param body Тело ответа: JSON как есть, иначе строка; null, если тела нет.
+     */
+    public record Item(String id, int status, Map<String, String> headers, JsonNode body) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.abarigena.gatewayservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Данные для главной страницы пользователя, собранные из нескольких сервисов.
+ *
+ * @param profile Профиль пользователя.
+ * @param assignedTasks Задачи, назначенные пользователю.
+ * @param authoredTasks Задачи, созданные пользователем.
+ * @param partial true, если хотя бы одна часть не получена.
+ */
+public record DashboardResponse(Section profile, Section assignedTasks, Section authoredTasks, boolean partial) {
+
+    /**
+     * Одна часть ответа.
+     *
+     * @param status Статус ответа сервиса или шлюза (504 по таймауту, 503 при открытом circuit breaker).
+     * @param data Тело ответа сервиса; null, если часть не получена.
+     */
+    public record Section(int status, JsonNode data) {
+
+        public boolean available() {
+            return status >= 200 && status < 300;
+        }
+    }
+}
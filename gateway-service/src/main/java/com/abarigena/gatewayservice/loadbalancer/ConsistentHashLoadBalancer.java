@@ -0,0 +1,176 @@
+package com.abarigena.gatewayservice.loadbalancer;
+
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.common.loadbalancer.PeakEwmaLoadBalancer;
+import com.abarigena.gatewayservice.config.AffinityProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Балансировщик, привязывающий запросы одного пользователя или одной задачи к одному экземпляру сервиса.
+ * <p>
+ * Каждый экземпляр держит собственные кэши, поэтому при случайном распределении запросов доля попаданий
+ * в кэш падает пропорционально числу экземпляров. Здесь ключ запроса (см. {@link AffinityProperties.Key})
+ * отображается на экземпляр через {@link HashRing}; при изменении состава сервиса в Eureka к другим
+ * экземплярам переходит только часть ключей.
+ * </p>
+ * <p>
+ * Нагрузка ограничена (consistent hashing with bounded loads): экземпляр принимает запрос, только если
+ * запросов в работе на нем меньше {@code balance-factor}, умноженного на среднее по сервису с учетом
+ * нового запроса. Иначе запрос уходит на следующий экземпляр по кольцу, так что популярный ключ
+ * не перегружает один экземпляр. Исключенные {@link InstanceStatsRegistry} экземпляры пропускаются,
+ * а запросы без ключа балансируются {@link PeakEwmaLoadBalancer}.
+ * </p>
+ */
+public class ConsistentHashLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final AffinityProperties.Key key;
+    private final int virtualNodes;
+    private final double balanceFactor;
+    private final InstanceStatsRegistry stats;
+    private final PeakEwmaLoadBalancer fallback;
+
+    private final Counter owner;
+    private final Counter spillover;
+    private final Counter keyless;
+
+    private volatile HashRing ring;
+
+    public ConsistentHashLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                      AffinityProperties.Key key, AffinityProperties properties,
+                                      InstanceStatsRegistry stats, MeterRegistry meterRegistry) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.key = key;
+        this.virtualNodes = properties.getVirtualNodes();
+        this.balanceFactor = properties.getBalanceFactor();
+        this.stats = stats;
+        this.fallback = new PeakEwmaLoadBalancer(supplierProvider, serviceId, stats);
+
+        this.owner = requests(meterRegistry, serviceId, "owner");
+        this.spillover = requests(meterRegistry, serviceId, "spillover");
+        this.keyless = requests(meterRegistry, serviceId, "keyless");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String serviceId, String result) {
+        return Counter.builder("loadbalancer.affinity.requests")
+                .tag("service", String.valueOf(serviceId))
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances, affinityKey(request, key));
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Выбирает экземпляр для ключа.
+     *
+     * @param instances Доступные экземпляры сервиса.
+     * @param affinityKey Ключ запроса или null.
+     * @return {@link Response} Выбранный экземпляр или пустой ответ, если экземпляров нет.
+     */
+    public Response<ServiceInstance> choose(List<ServiceInstance> instances, String affinityKey) {
+        if (affinityKey == null || instances.isEmpty()) {
+            keyless.increment();
+            return fallback.choose(instances);
+        }
+
+        stats.retain(serviceId, instances);
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = instances.stream()
+                .filter(instance -> !stats.isEjected(instance, now))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        int total = 0;
+        for (ServiceInstance instance : candidates) {
+            total += stats.stats(instance).inFlight();
+        }
+        int capacity = (int) Math.ceil(balanceFactor * (total + 1) / candidates.size());
+
+        HashRing current = ring(instances);
+        ServiceInstance preferred = current.select(affinityKey, instance -> !stats.isEjected(instance, now));
+        List<ServiceInstance> allowed = candidates;
+        ServiceInstance selected = current.select(affinityKey,
+                instance -> allowed.contains(instance) && stats.stats(instance).inFlight() < capacity);
+        if (selected == null) {
+            keyless.increment();
+            return fallback.choose(instances);
+        }
+        (selected.equals(preferred) ? owner : spillover).increment();
+        return new DefaultResponse(selected);
+    }
+
+    /**
+     * Кольцо для текущего состава сервиса; перестраивается только при его изменении.
+     */
+    private HashRing ring(List<ServiceInstance> instances) {
+        HashRing current = ring;
+        if (current == null || !current.hasMembers(instances)) {
+            current = HashRing.of(instances, virtualNodes);
+            ring = current;
+        }
+        return current;
+    }
+
+    /**
+     * Ключ привязки запроса.
+     *
+     * @param request Запрос балансировщика.
+     * @param key Вид ключа.
+     * @return Ключ или null, если в запросе нет нужных данных.
+     */
+    public static String affinityKey(Request<?> request, AffinityProperties.Key key) {
+        if (!(request.getContext() instanceof RequestDataContext context) || context.getClientRequest() == null) {
+            return null;
+        }
+        RequestData data = context.getClientRequest();
+        if (key == AffinityProperties.Key.TASK && data.getUrl() != null) {
+            String taskId = taskId(data.getUrl().getRawPath());
+            if (taskId != null) {
+                return "task:" + taskId;
+            }
+        }
+        String userId = data.getHeaders() != null ? data.getHeaders().getFirst("X-User-Id") : null;
+        return userId != null && !userId.isBlank() ? "user:" + userId : null;
+    }
+
+    /**
+     * ID задачи из пути вида {@code /tasks/{taskId}} или {@code /tasks/{taskId}/comments}.
+     */
+    private static String taskId(String path) {
+        if (path == null || !path.startsWith("/tasks/")) {
+            return null;
+        }
+        int start = "/tasks/".length();
+        int end = path.indexOf('/', start);
+        String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+        return !segment.isEmpty() && segment.chars().allMatch(Character::isDigit) ? segment : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.abarigena.gatewayservice.loadbalancer;
+
+import com.abarigena.common.hash.Hashing;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Неизменяемое кольцо consistent hashing из экземпляров сервиса.
+ * <p>
+ * Каждый экземпляр занимает на кольце несколько точек, вычисленных по его адресу, поэтому положение
+ * экземпляра не зависит от состава сервиса: при появлении или исчезновении экземпляра к другим
+ * экземплярам переходят только ключи, которые принадлежали ему или достаются ему.
+ * </p>
+ */
+public final class HashRing {
+
+    private final long[] points;
+    private final ServiceInstance[] owners;
+    private final Set<String> addresses;
+    private final int size;
+
+    private HashRing(long[] points, ServiceInstance[] owners, Set<String> addresses) {
+        this.points = points;
+        this.owners = owners;
+        this.addresses = addresses;
+        this.size = addresses.size();
+    }
+
+    /**
+     * Строит кольцо.
+     *
+     * @param instances Экземпляры сервиса.
+     * @param virtualNodes Число точек на экземпляр.
+     * @return {@link HashRing} Кольцо.
+     */
+    public static HashRing of(List<ServiceInstance> instances, int virtualNodes) {
+        record Point(long hash, ServiceInstance owner) {
+        }
+        List<Point> ring = new ArrayList<>(instances.size() * virtualNodes);
+        for (ServiceInstance instance : instances) {
+            String address = address(instance);
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.add(new Point(Hashing.hash64(address + '#' + i), instance));
+            }
+        }
+        ring.sort(Comparator.comparingLong(Point::hash));
+        long[] points = new long[ring.size()];
+        ServiceInstance[] owners = new ServiceInstance[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash();
+            owners[i] = ring.get(i).owner();
+        }
+        return new HashRing(points, owners,
+                instances.stream().map(HashRing::address).collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * Построено ли кольцо из тех же экземпляров.
+     *
+     * @param instances Текущие экземпляры сервиса.
+     * @return true, если состав экземпляров не изменился.
+     */
+    public boolean hasMembers(List<ServiceInstance> instances) {
+        if (instances.size() != size) {
+            return false;
+        }
+        for (ServiceInstance instance : instances) {
+            if (!addresses.contains(address(instance))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ищет владельца ключа: первый экземпляр по часовой стрелке от ключа, который подходит по условию.
+     *
+     * @param key Ключ привязки.
+     * @param accept Условие, например, что экземпляр не перегружен.
+     * @return Экземпляр или null, если ни один экземпляр не подходит.
+     */
+    public ServiceInstance select(String key, Predicate<ServiceInstance> accept) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, Hashing.hash64(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // Каждый экземпляр проверяется один раз, даже если его точки встречаются на кольце подряд
+        Set<ServiceInstance> checked = new HashSet<>();
+        for (int i = 0; i < points.length && checked.size() < size; i++) {
+            ServiceInstance owner = owners[(index + i) % points.length];
+            if (checked.add(owner) && accept.test(owner)) {
+                return owner;
+            }
+        }
+        return null;
+    }
+
+    private static String address(ServiceInstance instance) {
+        return instance.getHost() + ':' + instance.getPort();
+    }
+}
@@ -0,0 +1,18 @@
+package com.abarigena.gatewayservice.logging;
+
+/**
+ * Запись журнала доступа к Gateway.
+ *
+ * @param timestamp время завершения запроса (мс с начала эпохи)
+ * @param method HTTP метод
+ * @param path путь запроса
+ * @param route идентификатор маршрута
+ * @param status код ответа
+ * @param durationMs длительность обработки в миллисекундах
+ * @param userId ID пользователя из токена, если запрос аутентифицирован
+ * @param clientIp адрес клиента
+ * @param reason причина записи: sampled, error или slow
+ */
+public record AccessLogRecord(long timestamp, String method, String path, String route, int status,
+                              double durationMs, String userId, String clientIp, String reason) {
+}
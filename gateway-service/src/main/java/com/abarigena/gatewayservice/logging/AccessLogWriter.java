@@ -0,0 +1,124 @@
+package com.abarigena.gatewayservice.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись журнала доступа.
+ * <p>
+ * Потоки event loop только кладут записи в {@link MpscRingBuffer}; сериализация в JSON и вывод
+ * в логгер {@code ACCESS_LOG} выполняются отдельным фоновым потоком. Если очередь заполнена,
+ * запись отбрасывается, а количество потерянных записей периодически выводится в журнал.
+ * </p>
+ */
+@Component
+public class AccessLogWriter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+    private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long DROP_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final MpscRingBuffer<AccessLogRecord> buffer;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AccessLogWriter(@Value("${gateway.access-log.buffer-size:8192}") int bufferSize) {
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+    }
+
+    /**
+     * Передает запись на асинхронную запись. Никогда не блокирует вызывающий поток.
+     *
+     * @param record запись журнала доступа
+     */
+    public void submit(AccessLogRecord record) {
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = new Thread(this::drainLoop, "access-log-writer");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Журнал доступа запущен, емкость очереди: {}", buffer.capacity());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        long lastDropReport = System.nanoTime();
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            if (System.nanoTime() - lastDropReport > DROP_REPORT_INTERVAL_NANOS) {
+                reportDropped();
+                lastDropReport = System.nanoTime();
+            }
+        }
+        drain();
+        reportDropped();
+    }
+
+    private int drain() {
+        int written = 0;
+        AccessLogRecord record;
+        while ((record = buffer.poll()) != null) {
+            write(record);
+            written++;
+        }
+        return written;
+    }
+
+    private void write(AccessLogRecord record) {
+        try {
+            if ("sampled".equals(record.reason())) {
+                accessLog.info(objectMapper.writeValueAsString(record));
+            } else {
+                accessLog.warn(objectMapper.writeValueAsString(record));
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Не удалось сериализовать запись журнала доступа: {}", e.getMessage());
+        }
+    }
+
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count > 0) {
+            logger.warn("Очередь журнала доступа переполнена, пропущено записей: {}", count);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.abarigena.gatewayservice.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченная очередь без блокировок: много производителей, один потребитель.
+ * <p>
+ * Каждая ячейка хранит номер последовательности. Производитель занимает позицию через CAS
+ * по хвосту и публикует элемент, сдвигая номер ячейки; потребитель читает ячейку, только когда
+ * номер подтверждает публикацию. При переполнении {@link #offer(Object)} сразу возвращает false,
+ * производитель никогда не ждет.
+ * </p>
+ *
+ * @param <E> тип элементов
+ */
+public class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    /**
+     * @param capacity емкость, округляется вверх до степени двойки
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Емкость должна быть не меньше 2");
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавляет элемент. Может вызываться из любого потока.
+     *
+     * @param element элемент
+     * @return false, если очередь заполнена
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Извлекает элемент. Должен вызываться только из одного потока.
+     *
+     * @return элемент или null, если очередь пуста
+     */
+    public E poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.lazySet(index, head + capacity);
+        head++;
+        return element;
+    }
+
+    /**
+     * @return фактическая емкость очереди
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
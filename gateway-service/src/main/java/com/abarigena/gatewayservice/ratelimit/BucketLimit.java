@@ -0,0 +1,38 @@
+package com.abarigena.gatewayservice.ratelimit;
+
+/**
+ * Размер и скорость пополнения корзины токенов.
+ *
+ * @param capacity Сколько запросов можно выполнить подряд при полной корзине.
+ * @param replenishRate Сколько токенов добавляется в секунду.
+ */
+public record BucketLimit(int capacity, double replenishRate) {
+
+    public BucketLimit {
+        if (capacity < 1 || replenishRate <= 0) {
+            throw new IllegalArgumentException("Размер корзины и скорость пополнения должны быть положительными");
+        }
+    }
+
+    /**
+     * Интервал между токенами.
+     *
+     * @return Время пополнения одного токена в наносекундах.
+     */
+    public long intervalNanos() {
+        return Math.max(1, (long) (1_000_000_000L / replenishRate));
+    }
+
+    /**
+     * Доля лимита для одного из нескольких экземпляров, делящих его поровну.
+     *
+     * @param parts Число экземпляров.
+     * @return {@link BucketLimit} Лимит одного экземпляра; корзина не меньше одного токена.
+     */
+    public BucketLimit partition(int parts) {
+        if (parts <= 1) {
+            return this;
+        }
+        return new BucketLimit(Math.max(1, (int) Math.ceil((double) capacity / parts)), replenishRate / parts);
+    }
+}
@@ -0,0 +1,63 @@
+package com.abarigena.gatewayservice.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Корзины токенов в памяти шлюза без блокировок.
+ * <p>
+ * Корзина хранится одним числом — теоретическим временем прихода следующего запроса (GCRA).
+ * Каждый запрос сдвигает его на интервал одного токена; запрос отклоняется, если время ушло вперед
+ * больше чем на размер корзины. Обновление — один compare-and-set, поэтому одновременные запросы
+ * одного пользователя не ждут друг друга. Корзины, к которым долго не обращались, удаляются:
+ * за это время они успевают заполниться, и новая полная корзина ничем не отличается от старой.
+ * </p>
+ */
+public class LocalRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier clock;
+
+    public LocalRateLimitStore(long maximumKeys, Duration idleTimeout) {
+        this(maximumKeys, idleTimeout, System::nanoTime);
+    }
+
+    public LocalRateLimitStore(long maximumKeys, Duration idleTimeout, LongSupplier clock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, BucketLimit limit) {
+        return Mono.just(consume(key, limit));
+    }
+
+    /**
+     * Берет токен синхронно, см. {@link #tryConsume(String, BucketLimit)}.
+     */
+    public RateLimitDecision consume(String key, BucketLimit limit) {
+        long interval = limit.intervalNanos();
+        long tolerance = interval * limit.capacity();
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(clock.getAsLong()));
+        while (true) {
+            long now = clock.getAsLong();
+            long current = arrival.get();
+            long next = (current - now > 0 ? current : now) + interval;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return new RateLimitDecision(false, limit.capacity(), 0, current - now, ahead - tolerance);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return new RateLimitDecision(true, limit.capacity(), (tolerance - ahead) / interval, ahead, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.abarigena.gatewayservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Замена общего хранилища для нескольких экземпляров шлюза.
+ * <p>
+ * Каждый экземпляр ведет свои корзины в памяти, но с долей лимита: размер и скорость пополнения
+ * делятся на число экземпляров шлюза в Eureka. При равномерной балансировке клиентов между экземплярами
+ * суммарный лимит близок к настроенному, и для этого не нужно внешнее хранилище. Число экземпляров
+ * перечитывается не чаще раза в {@code refreshIntervalMillis}.
+ * </p>
+ */
+public class PartitionedRateLimitStore implements RateLimitStore {
+
+    private final LocalRateLimitStore local;
+    private final IntSupplier instanceCount;
+    private final long refreshIntervalNanos;
+
+    private volatile int instances = 1;
+    private volatile long refreshedAtNanos;
+    private volatile boolean refreshed;
+
+    public PartitionedRateLimitStore(LocalRateLimitStore local, IntSupplier instanceCount, long refreshIntervalMillis) {
+        this.local = local;
+        this.instanceCount = instanceCount;
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+    }
+
+    @Override
+    public Mono<RateLimitDecision> tryConsume(String key, BucketLimit limit) {
+        return Mono.just(local.consume(key, limit.partition(instances())));
+    }
+
+    /**
+     * Число экземпляров шлюза; не меньше одного, даже если Eureka еще не вернула этот экземпляр.
+     */
+    int instances() {
+        long now = System.nanoTime();
+        if (!refreshed || now - refreshedAtNanos > refreshIntervalNanos) {
+            refreshedAtNanos = now;
+            refreshed = true;
+            instances = Math.max(1, instanceCount.getAsInt());
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,13 @@
+package com.abarigena.gatewayservice.ratelimit;
+
+/**
+ * Результат попытки взять токен из корзины.
+ *
+ * @param allowed Токен получен, запрос можно выполнять.
+ * @param limit Размер корзины.
+ * @param remaining Сколько токенов осталось.
+ * @param resetNanos Через сколько корзина снова станет полной.
+ * @param retryAfterNanos Через сколько появится следующий токен; ноль, если запрос разрешен.
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {
+}
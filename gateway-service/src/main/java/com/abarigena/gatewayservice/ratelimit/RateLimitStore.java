@@ -0,0 +1,23 @@
+package com.abarigena.gatewayservice.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Хранилище корзин токенов для ограничения частоты запросов.
+ * <p>
+ * По умолчанию используется {@link LocalRateLimitStore} в памяти шлюза. Хранилище, общее для нескольких
+ * экземпляров шлюза (например, во внешнем key-value хранилище), реализует этот же интерфейс; результат
+ * возвращается через {@link Mono}, чтобы такое хранилище не блокировало event loop.
+ * </p>
+ */
+public interface RateLimitStore {
+
+    /**
+     * Берет один токен из корзины ключа.
+     *
+     * @param key Ключ корзины.
+     * @param limit Размер и скорость пополнения корзины.
+     * @return {@link Mono} Решение о запросе и состояние корзины.
+     */
+    Mono<RateLimitDecision> tryConsume(String key, BucketLimit limit);
+}
@@ -0,0 +1,96 @@
+package com.abarigena.gatewayservice.revocation;
+
+import com.abarigena.common.hash.BloomFilter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отозванные токены, известные шлюзу.
+ * <p>
+ * Проверка идет в два шага: фильтр Блума отвечает «точно не отозван» для почти всех токенов за несколько
+ * чтений памяти, и только при положительном ответе токен ищется в точном наборе. Отзыв хранится до истечения
+ * срока токена. Изменяет список только {@link RevocationSync}; при очистке истекших отзывов фильтр
+ * пересоздается из точного набора и подменяется целиком.
+ * </p>
+ */
+@Component
+public class RevocationList {
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+    private final double falsePositiveRate;
+
+    private volatile long capacity;
+    private volatile BloomFilter filter;
+
+    public RevocationList(MeterRegistry meterRegistry,
+                          @Value("${gateway.revocation.expected-insertions:100000}") long expectedInsertions,
+                          @Value("${gateway.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.capacity = expectedInsertions;
+        this.filter = BloomFilter.create(expectedInsertions, falsePositiveRate);
+        Gauge.builder("gateway.revocation.entries", revokedUntil, Map::size)
+                .description("Отозванные токены, срок которых еще не истек")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param jti Идентификатор токена; токены без идентификатора не отзываются.
+     * @return true, если токен отозван и его срок еще не истек.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revokedUntil.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Добавляет отзыв токена.
+     *
+     * @param jti Идентификатор токена.
+     * @param expiresAt Время истечения токена в миллисекундах.
+     */
+    public synchronized void add(String jti, long expiresAt) {
+        if (jti == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revokedUntil.put(jti, expiresAt) == null) {
+            if (revokedUntil.size() > capacity) {
+                // Переполненный фильтр чаще ошибается: пересоздаем его с запасом
+                capacity = capacity * 2;
+                rebuild();
+            } else {
+                filter.put(jti);
+            }
+        }
+    }
+
+    /**
+     * Удаляет отзывы истекших токенов и пересоздает фильтр без них.
+     */
+    public synchronized void pruneExpired() {
+        long now = System.currentTimeMillis();
+        if (revokedUntil.values().removeIf(expiresAt -> expiresAt <= now)) {
+            rebuild();
+        }
+    }
+
+    public int size() {
+        return revokedUntil.size();
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = BloomFilter.create(capacity, falsePositiveRate);
+        revokedUntil.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
@@ -0,0 +1,141 @@
+package com.abarigena.gatewayservice.revocation;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Фоновая синхронизация {@link RevocationList} с authenthication-service.
+ * <p>
+ * Все экземпляры сервиса отдают один общий список отзывов из базы, поэтому шлюз опрашивает любой из них
+ * через балансировщик ({@code lb://authenthication-service}) и помнит один последний полученный номер:
+ * запрос возвращает только новые отзывы, а список продолжает обновляться, пока доступен хотя бы один
+ * экземпляр. Если сменился {@code epoch}, список забирается заново; после перезапуска шлюза список
+ * забирается с начала. Недоступность сервиса не мешает проверке запросов: используется уже полученный список.
+ * </p>
+ */
+@Component
+public class RevocationSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationSync.class);
+
+    private final RevocationList revocations;
+    private final WebClient webClient;
+    private final ServiceAuthKey serviceAuthKey;
+    private final boolean enabled;
+    private final String serviceId;
+    private final Duration interval;
+    private final Duration timeout;
+
+    private final Counter synced;
+    private final Counter failed;
+
+    private Disposable subscription;
+
+    /**
+     * Позиция в общем списке отзывов; null, пока список не получен.
+     * Синхронизации выполняются по одной, поэтому достаточно volatile.
+     */
+    private volatile Cursor cursor;
+
+    private record Cursor(String epoch, long sequence) {
+    }
+
+    record Revocation(long sequence, String jti, long expiresAt) {
+    }
+
+    record RevocationBatch(String epoch, long sequence, List<Revocation> revocations, boolean hasMore) {
+    }
+
+    public RevocationSync(RevocationList revocations,
+                          WebClient.Builder webClientBuilder,
+                          LoadBalancedExchangeFilterFunction loadBalancer,
+                          MeterRegistry meterRegistry,
+                          ServiceAuthKey serviceAuthKey,
+                          @Value("${gateway.revocation.sync.enabled:true}") boolean enabled,
+                          @Value("${gateway.revocation.sync.service-id:authenthication-service}") String serviceId,
+                          @Value("${gateway.revocation.sync.interval:5s}") Duration interval,
+                          @Value("${gateway.revocation.sync.timeout:2s}") Duration timeout) {
+        this.revocations = revocations;
+        this.webClient = webClientBuilder.filter(loadBalancer).build();
+        this.serviceAuthKey = serviceAuthKey;
+        this.enabled = enabled;
+        this.serviceId = serviceId;
+        this.interval = interval;
+        this.timeout = timeout;
+        this.synced = Counter.builder("gateway.revocation.sync").tag("result", "success").register(meterRegistry);
+        this.failed = Counter.builder("gateway.revocation.sync").tag("result", "failure").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> syncAll(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Забирает новые отзывы из общего списка и удаляет истекшие.
+     *
+     * @return {@link Mono<Void>} Завершение синхронизации.
+     */
+    public Mono<Void> syncAll() {
+        return sync()
+                .doOnSuccess(ignored -> synced.increment())
+                .onErrorResume(e -> {
+                    failed.increment();
+                    logger.warn("Не удалось получить отозванные токены от {}: {}", serviceId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(revocations::pruneExpired));
+    }
+
+    private Mono<Void> sync() {
+        Cursor current = cursor;
+        long since = current != null ? current.sequence() : 0;
+        return fetch(since).flatMap(batch -> {
+            if (current != null && !current.epoch().equals(batch.epoch()) && since > 0) {
+                logger.info("Список отозванных токенов {} сменился и забирается заново", serviceId);
+                cursor = null;
+                return sync();
+            }
+            batch.revocations().forEach(revocation -> revocations.add(revocation.jti(), revocation.expiresAt()));
+            cursor = new Cursor(batch.epoch(), batch.sequence());
+            return batch.hasMore() ? sync() : Mono.<Void>empty();
+        });
+    }
+
+    private Mono<RevocationBatch> fetch(long since) {
+        return webClient.get()
+                .uri("http://" + serviceId + "/auth/revocations?since={since}", since)
+                .header(ServiceAuthKey.HEADER, serviceAuthKey.value())
+                .retrieve()
+                .bodyToMono(RevocationBatch.class)
+                .timeout(timeout);
+    }
+}
@@ -1,52 +1,153 @@
 package com.abarigena.gatewayservice.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 
 /**
  * Утилитный класс для работы с JWT токенами.
  * Обрабатывает парсинг токенов и проверку их срока годности.
+ * <p>
+ * Парсер создается один раз. Результаты проверки подписи кэшируются по SHA-256 от токена:
+ * действительный токен хранится до истечения его срока, но не дольше {@code jwt.cache.max-ttl}
+ * (токен без срока действия — ровно столько), недействительный — ограниченное время,
+ * чтобы повторная проверка одного и того же токена не пересчитывала HMAC на event loop.
+ * </p>
  */
 @Service
 public class JwtUtils {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    });
+
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.cache.maximum-size:100000}")
+    private long cacheMaximumSize;
+
+    @Value("${jwt.cache.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    @Value("${jwt.cache.max-ttl:1h}")
+    private Duration maxTtl;
+
     private Key key;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    /**
+     * Результат проверки токена. Для недействительного токена {@code claims} равны null.
+     */
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {
+
+        private static final VerifiedToken INVALID = new VerifiedToken(null, 0);
+
+        boolean valid(long nowMillis) {
+            return claims != null && expiresAtMillis > nowMillis;
+        }
+    }
 
     @PostConstruct
     public void initKey() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        if (token.claims() == null) {
+                            return negativeTtl.toNanos();
+                        }
+                        // У токена без exp срок равен Long.MAX_VALUE: без ограничения перевод в наносекунды переполнится
+                        long millisLeft = Math.min(token.expiresAtMillis() - System.currentTimeMillis(),
+                                maxTtl.toMillis());
+                        return Duration.ofMillis(Math.max(0, millisLeft)).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(digest, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
-     * Извлекает данные из JWT токена.
+     * Проверяет подпись и срок действия токена за один разбор.
      *
      * @param token JWT токен.
-     * @return {@link Claims} Содержимое токена.
+     * @return содержимое токена или пустое значение, если токен недействителен или истек.
      */
-    public Claims getClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    public Optional<Claims> verify(String token) {
+        long now = System.currentTimeMillis();
+        String digest = digest(token);
+
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached.valid(now) ? Optional.of(cached.claims()) : Optional.empty();
+        }
+
+        VerifiedToken verified;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Date expiration = claims.getExpiration();
+            verified = new VerifiedToken(claims, expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Токен не прошел проверку: {}", e.getMessage());
+            verified = VerifiedToken.INVALID;
+        }
+        verifiedTokens.put(digest, verified);
+        return verified.valid(now) ? Optional.of(verified.claims()) : Optional.empty();
     }
 
     /**
      * Проверяет, не истек ли срок действия токена.
+     * Недействительный токен (неверная подпись или формат) также считается истекшим.
      *
      * @param token JWT токен.
-     * @return true, если токен истек, иначе false.
+     * @return true, если токен истек или недействителен, иначе false.
      */
     public boolean isExpired(String token) {
-        try {
-            return getClaims(token).getExpiration().before(new Date());
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token).isEmpty();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.abarigena.gatewayservice.service;
+
+import com.abarigena.gatewayservice.config.RateLimitFilter;
+import com.abarigena.gatewayservice.config.RateLimitProperties;
+import com.abarigena.gatewayservice.config.ResponseCacheFilter;
+import com.abarigena.gatewayservice.config.RouteResilienceProperties;
+import com.abarigena.gatewayservice.ratelimit.RateLimitStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.LoadBalancedExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Запрос от имени пользователя к сервису маршрута в обход цепочки фильтров маршрута.
+ * <p>
+ * Используется эндпоинтами шлюза, которые сами собирают ответ из нескольких запросов к сервисам
+ * (пакетные запросы, агрегирующие эндпоинты). Пользователь уже проверен вызывающим кодом, поэтому
+ * токен повторно не проверяется, а сервис получает те же заголовки, что добавляет {@code AuthenticationFilter}.
+ * Защиты маршрута сохраняются: токен из корзины лимита маршрута, таймаут ответа и circuit breaker маршрута
+ * (ответы со статусами из его настроек считаются отказом). Изменяющий запрос удаляет записи своего пути
+ * из {@link ResponseCacheFilter кэша ответов}, как и запрос через маршрут. Запрос идет через балансировщик
+ * на {@code lb://<routeId>}: ID маршрута совпадает с именем сервиса в Eureka. Путь и параметры
+ * передаются как есть, без повторного кодирования.
+ * </p>
+ * Ошибки не пробрасываются, а превращаются в ответ: 400 при некорректном пути, 429 при превышении лимита,
+ * 503 при открытом circuit breaker, 504 по таймауту и 502 при ошибке соединения.
+ */
+@Service
+public class RouteCallExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteCallExecutor.class);
+
+    private final WebClient webClient;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final RouteResilienceProperties resilience;
+    private final RateLimitProperties rateLimit;
+    private final RateLimitStore rateLimitStore;
+    private final ResponseCacheFilter responseCache;
+
+    /**
+     * Ответ сервиса или шлюза на один запрос.
+     *
+     * @param status Статус ответа.
+     * @param headers Заголовки ответа.
+     * @param body Тело ответа; пустой массив, если тела нет.
+     */
+    public record Result(int status, HttpHeaders headers, byte[] body) {
+
+        public static Result of(HttpStatus status) {
+            return new Result(status.value(), HttpHeaders.EMPTY, new byte[0]);
+        }
+
+        public boolean successful() {
+            return status >= 200 && status < 300;
+        }
+
+        /**
+         * Тело ответа для вложения в JSON-ответ шлюза.
+         *
+         * @param objectMapper Парсер JSON.
+         * @return {@link JsonNode} JSON-тело как есть, иначе строка; null, если тела нет.
+         */
+        public JsonNode json(ObjectMapper objectMapper) {
+            if (body.length == 0) {
+                return null;
+            }
+            MediaType contentType = headers.getContentType();
+            if (contentType != null && (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                    || "json".equals(contentType.getSubtypeSuffix()))) {
+                try {
+                    return objectMapper.readTree(body);
+                } catch (IOException e) {
+                    // Тело не является корректным JSON — возвращается строкой
+                }
+            }
+            return TextNode.valueOf(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Ответ со статусом, который circuit breaker маршрута считает отказом; возвращается вызывающему как есть.
+     */
+    private static final class FailedStatusException extends RuntimeException {
+
+        private final Result result;
+
+        private FailedStatusException(Result result) {
+            super("status " + result.status(), null, false, false);
+            this.result = result;
+        }
+    }
+
+    public RouteCallExecutor(WebClient.Builder webClientBuilder,
+                             LoadBalancedExchangeFilterFunction loadBalancer,
+                             ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                             RouteResilienceProperties resilience,
+                             RateLimitProperties rateLimit,
+                             RateLimitStore rateLimitStore,
+                             ResponseCacheFilter responseCache) {
+        this.webClient = webClientBuilder.filter(loadBalancer).build();
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.resilience = resilience;
+        this.rateLimit = rateLimit;
+        this.rateLimitStore = rateLimitStore;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Выполняет запрос к сервису маршрута.
+     *
+     * @param routeId ID маршрута (и сервиса).
+     * @param method Метод запроса.
+     * @param pathAndQuery Путь с параметрами в закодированном виде, например {@code /tasks/1?q=a%20b}.
+     * @param headers Дополнительные заголовки запроса.
+     * @param body Тело запроса или null.
+     * @param token Проверенный токен пользователя.
+     * @param claims Содержимое токена.
+     * @return {@link Mono} Ответ; никогда не завершается ошибкой.
+     */
+    public Mono<Result> call(String routeId, HttpMethod method, String pathAndQuery, HttpHeaders headers,
+                             byte[] body, String token, Claims claims) {
+        URI uri;
+        try {
+            uri = UriComponentsBuilder.fromUriString("http://" + routeId + pathAndQuery).build(true).toUri();
+        } catch (IllegalArgumentException e) {
+            return Mono.just(Result.of(HttpStatus.BAD_REQUEST));
+        }
+        return acquire(routeId, claims.getSubject()).flatMap(allowed -> {
+            if (!allowed) {
+                return Mono.just(Result.of(HttpStatus.TOO_MANY_REQUESTS));
+            }
+            RouteResilienceProperties.RouteSettings settings = resilience.forRoute(routeId);
+            Mono<Result> call = Mono.defer(() -> send(uri, method, headers, body, token, claims))
+                    .timeout(settings.getConnectTimeout().plus(settings.getResponseTimeout()));
+            RouteResilienceProperties.CircuitBreaker breaker = settings.getCircuitBreaker();
+            if (breaker.isEnabled()) {
+                call = circuitBreakerFactory.create(routeId).run(call.flatMap(result ->
+                                breaker.getStatusCodes().contains(HttpStatus.resolve(result.status()))
+                                        ? Mono.error(new FailedStatusException(result))
+                                        : Mono.just(result)),
+                        Mono::error);
+            }
+            if (!ResponseCacheFilter.isSafe(method)) {
+                call = call.doFinally(signal -> responseCache.invalidate(uri.getRawPath()));
+            }
+            return call.onErrorResume(e -> Mono.just(failure(routeId, pathAndQuery, e)));
+        });
+    }
+
+    private Mono<Boolean> acquire(String routeId, String userId) {
+        RateLimitProperties.Budget budget = rateLimit.forRoute(routeId);
+        if (!rateLimit.isEnabled() || !budget.isEnabled()) {
+            return Mono.just(true);
+        }
+        return rateLimitStore.tryConsume(RateLimitFilter.userBucket(routeId, userId), budget.limit())
+                .map(decision -> decision.allowed())
+                .onErrorReturn(true);
+    }
+
+    private Mono<Result> send(URI uri, HttpMethod method, HttpHeaders headers, byte[] body, String token,
+                              Claims claims) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(h -> {
+                    h.addAll(headers);
+                    h.set("X-User-Id", claims.getSubject());
+                    h.set("X-User-Role", claims.get("role", String.class));
+                    h.setBearerAuth(token);
+                });
+        WebClient.RequestHeadersSpec<?> spec = body != null && body.length > 0 ? request.bodyValue(body) : request;
+        return spec.exchangeToMono(response -> response.bodyToMono(byte[].class)
+                .defaultIfEmpty(new byte[0])
+                .map(bytes -> new Result(response.statusCode().value(), response.headers().asHttpHeaders(), bytes)));
+    }
+
+    private static Result failure(String routeId, String pathAndQuery, Throwable e) {
+        if (e instanceof FailedStatusException failed) {
+            return failed.result;
+        }
+        if (e instanceof CallNotPermittedException) {
+            return Result.of(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (e instanceof TimeoutException) {
+            return Result.of(HttpStatus.GATEWAY_TIMEOUT);
+        }
+        logger.warn("Ошибка запроса к {} {}: {}", routeId, pathAndQuery, e.toString());
+        return Result.of(HttpStatus.BAD_GATEWAY);
+    }
+}
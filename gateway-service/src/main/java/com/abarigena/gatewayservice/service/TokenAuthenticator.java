@@ -0,0 +1,37 @@
+package com.abarigena.gatewayservice.service;
+
+import com.abarigena.gatewayservice.revocation.RevocationList;
+import io.jsonwebtoken.Claims;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Проверка заголовка {@code Authorization} для эндпоинтов самого шлюза, которые не проходят
+ * через {@code AuthenticationFilter} маршрутов: формат, подпись, срок действия и отзыв токена.
+ */
+@Service
+public class TokenAuthenticator {
+
+    private final JwtUtils jwtUtils;
+    private final RevocationList revocations;
+
+    public TokenAuthenticator(JwtUtils jwtUtils, RevocationList revocations) {
+        this.jwtUtils = jwtUtils;
+        this.revocations = revocations;
+    }
+
+    /**
+     * Проверяет заголовок авторизации.
+     *
+     * @param authorization Значение заголовка {@code Authorization} или null.
+     * @return Содержимое токена или пустое значение, если токена нет, он недействителен или отозван.
+     */
+    public Optional<Claims> authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+        return jwtUtils.verify(authorization.substring(7))
+                .filter(claims -> !revocations.isRevoked(claims.getId()));
+    }
+}
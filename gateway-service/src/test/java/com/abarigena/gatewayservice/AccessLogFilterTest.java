@@ -0,0 +1,105 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.AccessLogFilter;
+import com.abarigena.gatewayservice.logging.AccessLogRecord;
+import com.abarigena.gatewayservice.logging.AccessLogWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+@ExtendWith(MockitoExtension.class)
+class AccessLogFilterTest {
+
+    @Mock
+    private AccessLogWriter writer;
+
+    @Test
+    void filter_ShouldSkipSuccessfulRequest_WhenSampleRateIsZero() {
+        AccessLogFilter filter = new AccessLogFilter(writer, true, 0.0, Duration.ofSeconds(1));
+        MockServerWebExchange exchange = exchange(Map.of());
+
+        filter.filter(exchange, respondWith(HttpStatus.OK)).block();
+
+        verify(writer, never()).submit(any());
+    }
+
+    @Test
+    void filter_ShouldAlwaysRecordServerErrors() {
+        AccessLogFilter filter = new AccessLogFilter(writer, true, 0.0, Duration.ofSeconds(1));
+        MockServerWebExchange exchange = exchange(Map.of());
+
+        filter.filter(exchange, respondWith(HttpStatus.BAD_GATEWAY)).block();
+
+        AccessLogRecord record = captureRecord();
+        assertEquals(502, record.status());
+        assertEquals("error", record.reason());
+        assertEquals("task-service", record.route());
+    }
+
+    @Test
+    void filter_ShouldRecordSlowRequests() {
+        AccessLogFilter filter = new AccessLogFilter(writer, true, 0.0, Duration.ofMillis(20));
+        MockServerWebExchange exchange = exchange(Map.of());
+        GatewayFilterChain slowChain = e -> Mono.delay(Duration.ofMillis(50)).then();
+
+        filter.filter(exchange, slowChain).block();
+
+        assertEquals("slow", captureRecord().reason());
+    }
+
+    @Test
+    void filter_ShouldUseRouteSampleRate() {
+        AccessLogFilter filter = new AccessLogFilter(writer, true, 0.0, Duration.ofSeconds(1));
+        MockServerWebExchange exchange = exchange(Map.of(AccessLogFilter.SAMPLE_RATE, 1.0));
+        exchange.getAttributes().put(AccessLogFilter.USER_ID_ATTR, "42");
+
+        filter.filter(exchange, respondWith(HttpStatus.OK)).block();
+
+        AccessLogRecord record = captureRecord();
+        assertEquals("sampled", record.reason());
+        assertEquals("42", record.userId());
+        assertEquals("/tasks/1", record.path());
+    }
+
+    private AccessLogRecord captureRecord() {
+        ArgumentCaptor<AccessLogRecord> captor = ArgumentCaptor.forClass(AccessLogRecord.class);
+        verify(writer, timeout(1000)).submit(captor.capture());
+        return captor.getValue();
+    }
+
+    private static GatewayFilterChain respondWith(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(Map<String, Object> metadata) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("task-service")
+                .uri("lb://task-service")
+                .predicate(e -> true)
+                .metadata(metadata)
+                .build());
+        return exchange;
+    }
+}
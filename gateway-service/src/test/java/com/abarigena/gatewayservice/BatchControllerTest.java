@@ -0,0 +1,178 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.BatchProperties;
+import com.abarigena.gatewayservice.config.RateLimitProperties;
+import com.abarigena.gatewayservice.config.ResponseCacheFilter;
+import com.abarigena.gatewayservice.config.RouteResilienceProperties;
+import com.abarigena.gatewayservice.controller.BatchController;
+import com.abarigena.gatewayservice.dto.BatchRequest;
+import com.abarigena.gatewayservice.dto.BatchResponse;
+import com.abarigena.gatewayservice.ratelimit.LocalRateLimitStore;
+import com.abarigena.gatewayservice.service.RouteCallExecutor;
+import com.abarigena.gatewayservice.service.TokenAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchControllerTest {
+
+    private static final String AUTHORIZATION = "Bearer token";
+
+    private final TokenAuthenticator authenticator = mock(TokenAuthenticator.class);
+    private final RateLimitProperties rateLimit = new RateLimitProperties();
+    private final BatchProperties properties = new BatchProperties();
+    private final ResponseCacheFilter responseCache = mock(ResponseCacheFilter.class);
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    private BatchController controller;
+
+    @BeforeEach
+    void setUp() {
+        Claims claims = new DefaultClaims(Map.of("sub", "7", "role", "USER"));
+        when(authenticator.authenticate(any())).thenReturn(Optional.empty());
+        when(authenticator.authenticate(AUTHORIZATION)).thenReturn(Optional.of(claims));
+        properties.setMaxConcurrency(2);
+
+        // Сервис отвечает эхом пути через 20 мс; /tasks/broken отвечает 500 с текстом
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            int now = active.incrementAndGet();
+            maxActive.accumulateAndGet(now, Math::max);
+            URI url = request.url();
+            ClientResponse response = url.getPath().equals("/tasks/broken")
+                    ? ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE).body("boom").build()
+                    : ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"host\":\"" + url.getHost() + "\",\"path\":\"" + url.getPath()
+                            + "\",\"query\":\"" + url.getRawQuery()
+                            + "\",\"user\":\"" + request.headers().getFirst("X-User-Id") + "\"}")
+                    .build();
+            return Mono.delay(Duration.ofMillis(20)).thenReturn(response).doOnSuccess(r -> active.decrementAndGet());
+        });
+        RouteCallExecutor executor = new RouteCallExecutor(webClient, (request, next) -> next.exchange(request),
+                new ReactiveResilience4JCircuitBreakerFactory(CircuitBreakerRegistry.ofDefaults(),
+                        TimeLimiterRegistry.ofDefaults()),
+                new RouteResilienceProperties(), rateLimit,
+                new LocalRateLimitStore(1000, Duration.ofMinutes(10)), responseCache);
+        controller = new BatchController(properties, authenticator, executor, new ObjectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void batch_ShouldRejectRequestWithoutValidToken() {
+        BatchRequest request = new BatchRequest(List.of(item("1", "/tasks/1")));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> controller.batch("Bearer invalid", request));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    void batch_ShouldDispatchToRouteServicesInRequestOrder_WithConcurrencyCap() {
+        BatchRequest request = new BatchRequest(List.of(
+                item("a", "/tasks/1"), item("b", "/users/profile"), item("c", "/tasks/2?page=1"),
+                item("d", "/tasks/3"), item("e", "/tasks/broken")));
+
+        List<BatchResponse.Item> responses = controller.batch(AUTHORIZATION, request).block().responses();
+
+        assertEquals(List.of("a", "b", "c", "d", "e"), responses.stream().map(BatchResponse.Item::id).toList());
+        assertEquals("task-service", responses.get(0).body().get("host").asText());
+        assertEquals("user-service", responses.get(1).body().get("host").asText());
+        assertEquals("/tasks/2", responses.get(2).body().get("path").asText());
+        assertEquals("7", responses.get(0).body().get("user").asText());
+        assertEquals(500, responses.get(4).status());
+        assertEquals("boom", responses.get(4).body().asText());
+        assertTrue(maxActive.get() <= 2, "одновременно запросов: " + maxActive.get());
+    }
+
+    @Test
+    void batch_ShouldRejectInvalidItemsIndividually() {
+        BatchRequest request = new BatchRequest(List.of(
+                item("ok", "/tasks/1"), item("escape", "/tasks/../auth/revocations"),
+                item("unknown", "/auth/logout"), item("absolute", "//evil.example/tasks")));
+
+        List<BatchResponse.Item> responses = controller.batch(AUTHORIZATION, request).block().responses();
+
+        assertEquals(List.of(200, 400, 404, 400), responses.stream().map(BatchResponse.Item::status).toList());
+    }
+
+    @Test
+    void batch_ShouldPassEncodedQueryWithoutDoubleEncoding() {
+        BatchRequest request = new BatchRequest(List.of(item("1", "/tasks/search?q=a%20b&tag=%7Bx%7D")));
+
+        BatchResponse.Item response = controller.batch(AUTHORIZATION, request).block().responses().get(0);
+
+        assertEquals(200, response.status());
+        assertEquals("q=a%20b&tag=%7Bx%7D", response.body().get("query").asText());
+    }
+
+    @Test
+    void batch_ShouldRejectOnlyItemWithTemplateCharactersInPath() {
+        BatchRequest request = new BatchRequest(List.of(item("ok", "/tasks/1"), item("brace", "/tasks/{id}")));
+
+        List<BatchResponse.Item> responses = controller.batch(AUTHORIZATION, request).block().responses();
+
+        assertEquals(List.of(200, 400), responses.stream().map(BatchResponse.Item::status).toList());
+    }
+
+    @Test
+    void batch_ShouldApplyRouteRateLimitToEachItem() {
+        RateLimitProperties.Budget budget = new RateLimitProperties.Budget();
+        budget.setCapacity(2);
+        budget.setReplenishRate(0.01);
+        rateLimit.getRoutes().put("task-service", budget);
+        BatchRequest request = new BatchRequest(List.of(
+                item("1", "/tasks/1"), item("2", "/tasks/2"), item("3", "/tasks/3"), item("4", "/users/1")));
+
+        List<BatchResponse.Item> responses = controller.batch(AUTHORIZATION, request).block().responses();
+
+        assertEquals(List.of(200, 200, 429, 200), responses.stream().map(BatchResponse.Item::status).toList());
+    }
+
+    @Test
+    void batch_ShouldInvalidateResponseCacheForWritesOnly() {
+        BatchRequest request = new BatchRequest(List.of(
+                item("read", "/tasks/1"),
+                new BatchRequest.Item("write", "PATCH", "/tasks/2?notify=true", Map.of(), null)));
+
+        List<BatchResponse.Item> responses = controller.batch(AUTHORIZATION, request).block().responses();
+
+        assertEquals(List.of(200, 200), responses.stream().map(BatchResponse.Item::status).toList());
+        verify(responseCache).invalidate("/tasks/2");
+        verify(responseCache, never()).invalidate("/tasks/1");
+    }
+
+    private static BatchRequest.Item item(String id, String path) {
+        return new BatchRequest.Item(id, "GET", path, Map.of(), null);
+    }
+}
@@ -0,0 +1,113 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.AffinityProperties;
+import com.abarigena.gatewayservice.loadbalancer.ConsistentHashLoadBalancer;
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashLoadBalancerTest {
+
+    private final List<ServiceInstance> instances = List.of(
+            instance(1), instance(2), instance(3), instance(4));
+
+    private InstanceStatsRegistry stats;
+    private ConsistentHashLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        stats = new InstanceStatsRegistry(new SimpleMeterRegistry(), Duration.ofSeconds(10), 3,
+                Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+        loadBalancer = new ConsistentHashLoadBalancer(null, "task-service", AffinityProperties.Key.TASK,
+                new AffinityProperties(), stats, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void choose_ShouldSendSameKeyToSameInstance() {
+        ServiceInstance first = loadBalancer.choose(instances, "user:7").getServer();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first, loadBalancer.choose(instances, "user:7").getServer());
+        }
+    }
+
+    @Test
+    void choose_ShouldMoveOnlyKeysOfRemovedInstance() {
+        Map<String, ServiceInstance> before = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            before.put("user:" + i, loadBalancer.choose(instances, "user:" + i).getServer());
+        }
+        ServiceInstance removed = instances.get(2);
+        List<ServiceInstance> remaining = instances.stream().filter(instance -> !instance.equals(removed)).toList();
+
+        int moved = 0;
+        for (Map.Entry<String, ServiceInstance> entry : before.entrySet()) {
+            ServiceInstance after = loadBalancer.choose(remaining, entry.getKey()).getServer();
+            if (!after.equals(entry.getValue())) {
+                moved++;
+                assertEquals(removed, entry.getValue(), "ключ " + entry.getKey() + " сменил живой экземпляр");
+            }
+        }
+        // Исчезнувшему экземпляру принадлежала примерно четверть ключей
+        assertTrue(moved > 150 && moved < 350, "перемещено ключей: " + moved);
+    }
+
+    @Test
+    void choose_ShouldSpillOver_WhenOwnerIsOverloaded() {
+        ServiceInstance owner = loadBalancer.choose(instances, "task:42").getServer();
+        for (int i = 0; i < 10; i++) {
+            stats.recordStart(owner);
+        }
+
+        ServiceInstance selected = loadBalancer.choose(instances, "task:42").getServer();
+
+        assertNotEquals(owner, selected);
+        assertTrue(stats.stats(selected).inFlight() < 10);
+    }
+
+    @Test
+    void affinityKey_ShouldUseTaskIdFromPath_AndFallBackToUser() {
+        assertEquals("task:42", ConsistentHashLoadBalancer.affinityKey(
+                request("/tasks/42/comments", "7"), AffinityProperties.Key.TASK));
+        assertEquals("user:7", ConsistentHashLoadBalancer.affinityKey(
+                request("/tasks/by-author/7", "7"), AffinityProperties.Key.TASK));
+        assertEquals("user:7", ConsistentHashLoadBalancer.affinityKey(
+                request("/tasks/42", "7"), AffinityProperties.Key.USER));
+        assertNull(ConsistentHashLoadBalancer.affinityKey(
+                request("/tasks", null), AffinityProperties.Key.TASK));
+    }
+
+    private static ServiceInstance instance(int number) {
+        return new DefaultServiceInstance("task-" + number, "task-service", "10.0.0." + number, 8013, false);
+    }
+
+    private static DefaultRequest<RequestDataContext> request(String path, String userId) {
+        HttpHeaders headers = new HttpHeaders();
+        if (userId != null) {
+            headers.set("X-User-Id", userId);
+        }
+        RequestData data = new RequestData(HttpMethod.GET, URI.create("http://task-service" + path), headers,
+                new LinkedMultiValueMap<>(), Map.of());
+        return new DefaultRequest<>(new RequestDataContext(data));
+    }
+}
@@ -0,0 +1,134 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.DashboardProperties;
+import com.abarigena.gatewayservice.config.RateLimitProperties;
+import com.abarigena.gatewayservice.config.ResponseCacheFilter;
+import com.abarigena.gatewayservice.config.RouteResilienceProperties;
+import com.abarigena.gatewayservice.controller.DashboardController;
+import com.abarigena.gatewayservice.dto.DashboardResponse;
+import com.abarigena.gatewayservice.ratelimit.LocalRateLimitStore;
+import com.abarigena.gatewayservice.service.RouteCallExecutor;
+import com.abarigena.gatewayservice.service.TokenAuthenticator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTest {
+
+    private static final String AUTHORIZATION = "Bearer token";
+
+    /**
+     * Задержка ответа сервиса по пути запроса; по умолчанию 200 мс.
+     */
+    private final Map<String, Duration> delays = new ConcurrentHashMap<>();
+    private final Map<String, String> requestedUrls = new ConcurrentHashMap<>();
+    private final DashboardProperties properties = new DashboardProperties();
+    private final ResponseCacheFilter responseCache = mock(ResponseCacheFilter.class);
+
+    private DashboardController controller;
+
+    @BeforeEach
+    void setUp() {
+        TokenAuthenticator authenticator = mock(TokenAuthenticator.class);
+        when(authenticator.authenticate(any())).thenReturn(Optional.empty());
+        when(authenticator.authenticate(AUTHORIZATION))
+                .thenReturn(Optional.of(new DefaultClaims(Map.of("sub", "7", "role", "USER"))));
+        properties.setLegTimeout(Duration.ofMillis(800));
+
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            String path = request.url().getPath();
+            requestedUrls.put(path, request.url().toString());
+            ClientResponse response = path.equals("/users/profile")
+                    ? ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE).body("Профиль 7").build()
+                    : ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"content\":[],\"path\":\"" + path + "\"}").build();
+            return Mono.delay(delays.getOrDefault(path, Duration.ofMillis(200))).thenReturn(response);
+        });
+        RouteCallExecutor executor = new RouteCallExecutor(webClient, (request, next) -> next.exchange(request),
+                new ReactiveResilience4JCircuitBreakerFactory(CircuitBreakerRegistry.ofDefaults(),
+                        TimeLimiterRegistry.ofDefaults()),
+                new RouteResilienceProperties(), new RateLimitProperties(),
+                new LocalRateLimitStore(1000, Duration.ofMinutes(10)), responseCache);
+        controller = new DashboardController(properties, authenticator, executor, new ObjectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void dashboard_ShouldRejectRequestWithoutValidToken() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> controller.dashboard(null));
+        assertEquals(HttpStatus.UNAUTHORIZED, e.getStatusCode());
+    }
+
+    @Test
+    void dashboard_ShouldQueryServicesInParallel() {
+        long start = System.nanoTime();
+        ResponseEntity<DashboardResponse> response = controller.dashboard(AUTHORIZATION).block();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        DashboardResponse body = response.getBody();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(body.partial());
+        assertEquals("Профиль 7", body.profile().data().asText());
+        assertEquals("/tasks/by-assignee/7", body.assignedTasks().data().get("path").asText());
+        assertEquals("/tasks/by-author/7", body.authoredTasks().data().get("path").asText());
+        assertEquals("http://task-service/tasks/by-author/7?page=0&size=10", requestedUrls.get("/tasks/by-author/7"));
+        // Три ответа по 200 мс последовательно заняли бы не меньше 600 мс
+        assertTrue(elapsedMillis < 600, "время ответа: " + elapsedMillis + " мс");
+    }
+
+    @Test
+    void dashboard_ShouldReturnPartialResult_WhenLegTimesOut() {
+        delays.put("/tasks/by-author/7", Duration.ofSeconds(5));
+
+        ResponseEntity<DashboardResponse> response = controller.dashboard(AUTHORIZATION).block(Duration.ofSeconds(2));
+
+        DashboardResponse body = response.getBody();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(body.partial());
+        assertEquals(504, body.authoredTasks().status());
+        assertNull(body.authoredTasks().data());
+        assertEquals(200, body.assignedTasks().status());
+        assertEquals(200, body.profile().status());
+    }
+
+    @Test
+    void dashboard_ShouldReturnBadGateway_WhenNoLegSucceeds() {
+        delays.put("/users/profile", Duration.ofSeconds(5));
+        delays.put("/tasks/by-assignee/7", Duration.ofSeconds(5));
+        delays.put("/tasks/by-author/7", Duration.ofSeconds(5));
+
+        ResponseEntity<DashboardResponse> response = controller.dashboard(AUTHORIZATION).block(Duration.ofSeconds(2));
+
+        assertEquals(HttpStatus.BAD_GATEWAY, response.getStatusCode());
+        assertTrue(response.getBody().partial());
+    }
+}
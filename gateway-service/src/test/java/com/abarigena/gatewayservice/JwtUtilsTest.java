@@ -0,0 +1,101 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "testsecretkeythatisusedforthejwttokengeneration";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(jwtUtils, "negativeTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(jwtUtils, "maxTtl", Duration.ofHours(1));
+        jwtUtils.initKey();
+    }
+
+    @Test
+    void verify_ShouldReturnClaims_ForValidToken() {
+        String token = token(SECRET, 60_000);
+
+        Optional<Claims> claims = jwtUtils.verify(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals("user123", claims.get().getSubject());
+        assertEquals("USER", claims.get().get("role", String.class));
+        assertFalse(jwtUtils.isExpired(token));
+    }
+
+    @Test
+    void verify_ShouldReturnCachedClaims_ForRepeatedToken() {
+        String token = token(SECRET, 60_000);
+
+        Claims first = jwtUtils.verify(token).orElseThrow();
+        Claims second = jwtUtils.verify(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_ShouldRejectExpiredToken() {
+        String token = token(SECRET, -1_000);
+
+        assertTrue(jwtUtils.verify(token).isEmpty());
+        assertTrue(jwtUtils.isExpired(token));
+    }
+
+    @Test
+    void verify_ShouldRejectTokenWithWrongSignature() {
+        String token = token("anothersecretkeythatisusedforthejwttokengeneration", 60_000);
+
+        assertTrue(jwtUtils.verify(token).isEmpty());
+        assertTrue(jwtUtils.verify(token).isEmpty());
+        assertTrue(jwtUtils.isExpired(token));
+    }
+
+    @Test
+    void verify_ShouldAcceptAndCacheSignedTokenWithoutExpiration() {
+        String token = Jwts.builder()
+                .setSubject("user123")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+
+        Claims first = jwtUtils.verify(token).orElseThrow();
+        Claims second = jwtUtils.verify(token).orElseThrow();
+
+        assertSame(first, second);
+        assertFalse(jwtUtils.isExpired(token));
+    }
+
+    @Test
+    void verify_ShouldRejectMalformedToken() {
+        assertTrue(jwtUtils.verify("not-a-jwt").isEmpty());
+    }
+
+    private static String token(String secret, long ttlMillis) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject("user123")
+                .claim("role", "USER")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+}
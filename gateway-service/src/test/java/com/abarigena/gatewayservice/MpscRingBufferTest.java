@@ -0,0 +1,92 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.logging.MpscRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void capacity_ShouldBeRoundedUpToPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(8192, new MpscRingBuffer<>(8192).capacity());
+    }
+
+    @Test
+    void offer_ShouldReturnFalse_WhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+    }
+
+    @Test
+    void poll_ShouldReturnNull_WhenEmpty() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+
+        assertNull(buffer.poll());
+        buffer.offer(1);
+        assertEquals(1, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void concurrentProducers_ShouldDeliverEveryElementInProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        start.countDown();
+
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int producer = (int) element[0];
+            assertEquals(lastSeen[producer] + 1, element[1]);
+            lastSeen[producer] = element[1];
+            received++;
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(buffer.poll());
+    }
+}
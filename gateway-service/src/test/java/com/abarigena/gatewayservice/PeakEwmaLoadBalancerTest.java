@@ -0,0 +1,117 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.common.loadbalancer.PeakEwmaLoadBalancer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final ServiceInstance fast = new DefaultServiceInstance("task-1", "task-service", "10.0.0.1", 8013, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("task-2", "task-service", "10.0.0.2", 8013, false);
+
+    private InstanceStatsRegistry stats;
+    private PeakEwmaLoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        stats = new InstanceStatsRegistry(new SimpleMeterRegistry(), Duration.ofSeconds(10), 3,
+                Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+        loadBalancer = new PeakEwmaLoadBalancer(null, "task-service", stats);
+    }
+
+    @Test
+    void choose_ShouldPreferInstanceWithLowerLatency() {
+        complete(fast, 10, false);
+        complete(slow, 200, false);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+        }
+    }
+
+    @Test
+    void choose_ShouldAvoidInstanceWithManyRequestsInFlight() {
+        complete(fast, 10, false);
+        complete(slow, 20, false);
+        for (int i = 0; i < 5; i++) {
+            stats.recordStart(fast);
+        }
+
+        assertEquals(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void recordComplete_ShouldEjectInstance_AfterConsecutiveFailures() {
+        complete(fast, 10, false);
+        complete(slow, 200, false);
+        for (int i = 0; i < 3; i++) {
+            complete(fast, 1, true);
+        }
+
+        assertTrue(stats.isEjected(fast, System.nanoTime()));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+        }
+
+        // Второй из двух экземпляров не исключается: это больше 50% сервиса
+        for (int i = 0; i < 3; i++) {
+            complete(slow, 1, true);
+        }
+        assertFalse(stats.isEjected(slow, System.nanoTime()));
+    }
+
+    @Test
+    void onComplete_ShouldCountGatewayErrorsAsFailures() {
+        complete(slow, 20, false);
+        for (int i = 0; i < 3; i++) {
+            DefaultRequest<RequestDataContext> request = new DefaultRequest<>(new RequestDataContext());
+            DefaultResponse lbResponse = new DefaultResponse(fast);
+            stats.onStartRequest(request, lbResponse);
+            assertEquals(1, stats.stats(fast).inFlight());
+            ResponseData response = new ResponseData(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), null, null);
+            stats.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse, response));
+        }
+
+        assertEquals(0, stats.stats(fast).inFlight());
+        assertTrue(stats.isEjected(fast, System.nanoTime()));
+    }
+
+    @Test
+    void choose_ShouldEvictStats_OfInstancesThatLeftThePool() {
+        complete(fast, 10, false);
+        for (int i = 0; i < 3; i++) {
+            complete(slow, 1, true);
+        }
+        assertTrue(stats.isEjected(slow, System.nanoTime()));
+
+        // Экземпляр пропал из реестра: его статистика больше не нужна
+        loadBalancer.choose(List.of(fast));
+
+        assertFalse(stats.isEjected(slow, System.nanoTime()));
+        assertEquals(fast, loadBalancer.choose(List.of(fast)).getServer());
+    }
+
+    private void complete(ServiceInstance instance, long latencyMillis, boolean failure) {
+        stats.recordStart(instance);
+        stats.recordComplete(instance, TimeUnit.MILLISECONDS.toNanos(latencyMillis), failure);
+    }
+}
@@ -0,0 +1,115 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.AccessLogFilter;
+import com.abarigena.gatewayservice.config.RateLimitFilter;
+import com.abarigena.gatewayservice.ratelimit.BucketLimit;
+import com.abarigena.gatewayservice.ratelimit.LocalRateLimitStore;
+import com.abarigena.gatewayservice.ratelimit.PartitionedRateLimitStore;
+import com.abarigena.gatewayservice.ratelimit.RateLimitDecision;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final LocalRateLimitStore store =
+            new LocalRateLimitStore(1000, Duration.ofMinutes(10), clock::get);
+
+    @Test
+    void consume_ShouldAllowBurstThenRejectUntilTokenIsReplenished() {
+        BucketLimit limit = new BucketLimit(3, 1);
+
+        assertEquals(2, store.consume("user:1", limit).remaining());
+        assertEquals(1, store.consume("user:1", limit).remaining());
+        assertEquals(0, store.consume("user:1", limit).remaining());
+
+        RateLimitDecision rejected = store.consume("user:1", limit);
+        assertFalse(rejected.allowed());
+        assertEquals(TimeUnit.SECONDS.toNanos(1), rejected.retryAfterNanos());
+        assertEquals(TimeUnit.SECONDS.toNanos(3), rejected.resetNanos());
+        // Другой пользователь расходует свою корзину
+        assertTrue(store.consume("user:2", limit).allowed());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(store.consume("user:1", limit).allowed());
+        assertFalse(store.consume("user:1", limit).allowed());
+    }
+
+    @Test
+    void partitionedStore_ShouldSplitLimitBetweenGatewayInstances() {
+        PartitionedRateLimitStore partitioned = new PartitionedRateLimitStore(store, () -> 2, 30_000);
+
+        RateLimitDecision decision = partitioned.tryConsume("user:1", new BucketLimit(10, 4)).block();
+
+        assertEquals(5, decision.limit());
+        assertEquals(4, decision.remaining());
+    }
+
+    @Test
+    void filter_ShouldRejectWithRateLimitHeaders_WithoutCallingService() {
+        RateLimitFilter filter = new RateLimitFilter(store, "task-service", new BucketLimit(1, 0.5),
+                new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+        GatewayFilterChain chain = exchange -> {
+            calls.incrementAndGet();
+            return Mono.empty();
+        };
+
+        MockServerWebExchange first = exchange("7");
+        filter.filter(first, chain).block();
+        assertEquals(1, calls.get());
+        assertNull(first.getResponse().getStatusCode());
+        assertEquals("1", first.getResponse().getHeaders().getFirst(RateLimitFilter.RATE_LIMIT_LIMIT));
+        assertEquals("0", first.getResponse().getHeaders().getFirst(RateLimitFilter.RATE_LIMIT_REMAINING));
+        assertEquals("2", first.getResponse().getHeaders().getFirst(RateLimitFilter.RATE_LIMIT_RESET));
+
+        MockServerWebExchange second = exchange("7");
+        filter.filter(second, chain).block();
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals("2", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // Заголовок X-User-Id от клиента не влияет на корзину, используется пользователь из токена
+        MockServerWebExchange other = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1")
+                .header("X-User-Id", "7"));
+        other.getAttributes().put(AccessLogFilter.USER_ID_ATTR, "8");
+        filter.filter(other, chain).block();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void filter_ShouldPassRequest_WhenStoreFails() {
+        RateLimitFilter filter = new RateLimitFilter((key, limit) -> Mono.error(new IllegalStateException("down")),
+                "task-service", new BucketLimit(1, 1), new SimpleMeterRegistry());
+        AtomicInteger calls = new AtomicInteger();
+
+        filter.filter(exchange("7"), exchange -> {
+            calls.incrementAndGet();
+            return Mono.empty();
+        }).block();
+
+        assertEquals(1, calls.get());
+    }
+
+    private static MockServerWebExchange exchange(String userId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks/1"));
+        exchange.getAttributes().put(AccessLogFilter.USER_ID_ATTR, userId);
+        return exchange;
+    }
+}
@@ -0,0 +1,196 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.RequestCoalescingFilter;
+import com.abarigena.gatewayservice.config.RequestKeyResolver;
+import com.abarigena.gatewayservice.revocation.RevocationList;
+import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RequestCoalescingFilterTest {
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtils.verify(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            if (token.equals("invalid")) {
+                return Optional.empty();
+            }
+            Claims claims = new DefaultClaims(Map.of("sub", token, "role", "USER"));
+            return Optional.of(claims);
+        });
+    }
+
+    @Test
+    void filter_ShouldShareResponseOfInFlightIdenticalRequest() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+        MockServerWebExchange leader = exchange("user-1", true);
+        MockServerWebExchange follower = exchange("user-1", true);
+
+        Mono<Void> leaderResult = filter.filter(leader, downstream("{\"id\":1}")).cache();
+        leaderResult.subscribe();
+        Mono<Void> followerResult = filter.filter(follower, downstream("{\"id\":1}")).cache();
+        followerResult.subscribe();
+        release.tryEmitEmpty();
+        leaderResult.block();
+        followerResult.block();
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(HttpStatus.OK, follower.getResponse().getStatusCode());
+        assertEquals("{\"id\":1}", follower.getResponse().getBodyAsString().block());
+        assertEquals("{\"id\":1}", leader.getResponse().getBodyAsString().block());
+        assertEquals(0.5, meterRegistry.get("gateway.coalescing.collapse.ratio").gauge().value());
+    }
+
+    @Test
+    void filter_ShouldNotShareResponse_LargerThanLimit() {
+        RequestCoalescingFilter filter = filter(DataSize.ofBytes(4));
+        MockServerWebExchange leader = exchange("user-1", true);
+        MockServerWebExchange follower = exchange("user-1", true);
+
+        Mono<Void> leaderResult = filter.filter(leader, downstream("{\"id\":1}")).cache();
+        leaderResult.subscribe();
+        Mono<Void> followerResult = filter.filter(follower, downstream("{\"id\":1}")).cache();
+        followerResult.subscribe();
+        release.tryEmitEmpty();
+        leaderResult.block();
+        followerResult.block();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals("{\"id\":1}", follower.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_ShouldNotCoalesceRequestsOfDifferentUsers() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+
+        Mono<Void> first = filter.filter(exchange("user-1", true), downstream("a")).cache();
+        first.subscribe();
+        Mono<Void> second = filter.filter(exchange("user-2", true), downstream("b")).cache();
+        second.subscribe();
+        Mono<Void> invalid = filter.filter(exchange("invalid", true), downstream("c")).cache();
+        invalid.subscribe();
+        release.tryEmitEmpty();
+        first.block();
+        second.block();
+        invalid.block();
+
+        assertEquals(3, downstreamCalls.get());
+    }
+
+    @Test
+    void filter_ShouldNotCoalesceGetRequestsWithBody() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+
+        // Один пользователь, один путь, разные фильтры в теле GET /tasks
+        MockServerWebExchange done = withBody("{\"status\":\"DONE\"}");
+        MockServerWebExchange open = withBody("{\"status\":\"OPEN\"}");
+        MockServerWebExchange chunked = exchange(true, MockServerHttpRequest.get("/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer user-1")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .build());
+
+        Mono<Void> first = filter.filter(done, downstream("done")).cache();
+        first.subscribe();
+        Mono<Void> second = filter.filter(open, downstream("open")).cache();
+        second.subscribe();
+        Mono<Void> third = filter.filter(chunked, downstream("all")).cache();
+        third.subscribe();
+        release.tryEmitEmpty();
+        first.block();
+        second.block();
+        third.block();
+
+        assertEquals(3, downstreamCalls.get());
+        assertEquals("done", done.getResponse().getBodyAsString().block());
+        assertEquals("open", open.getResponse().getBodyAsString().block());
+        assertEquals(3.0, meterRegistry.get("gateway.coalescing.requests").tag("result", "bypass").counter().count());
+    }
+
+    @Test
+    void filter_ShouldPassThrough_WhenRouteDoesNotOptIn() {
+        RequestCoalescingFilter filter = filter(DataSize.ofKilobytes(1));
+        release.tryEmitEmpty();
+
+        filter.filter(exchange("user-1", false), downstream("a")).block();
+        filter.filter(exchange("user-1", false), downstream("a")).block();
+
+        assertEquals(2, downstreamCalls.get());
+        assertEquals(0.0, meterRegistry.get("gateway.coalescing.collapse.ratio").gauge().value());
+    }
+
+    private RequestCoalescingFilter filter(DataSize maxBodySize) {
+        RequestKeyResolver keyResolver =
+                new RequestKeyResolver(jwtUtils, new RevocationList(meterRegistry, 1000, 0.001));
+        return new RequestCoalescingFilter(keyResolver, meterRegistry, true, maxBodySize, 100);
+    }
+
+    private GatewayFilterChain downstream(String body) {
+        return exchange -> {
+            downstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            return release.asMono().then(Mono.defer(() -> {
+                response.setStatusCode(HttpStatus.OK);
+                return response.writeWith(Mono.just(response.bufferFactory()
+                        .wrap(body.getBytes(StandardCharsets.UTF_8))));
+            }));
+        };
+    }
+
+    private static MockServerWebExchange withBody(String body) {
+        return exchange(true, MockServerHttpRequest.method(HttpMethod.GET, "/tasks")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer user-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length())
+                .body(body));
+    }
+
+    private static MockServerWebExchange exchange(String token, boolean coalesce) {
+        return exchange(coalesce, MockServerHttpRequest.get("/tasks/42")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build());
+    }
+
+    private static MockServerWebExchange exchange(boolean coalesce, MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async()
+                .id("task-service")
+                .uri("lb://task-service")
+                .predicate(e -> true)
+                .metadata(coalesce ? Map.of(RequestCoalescingFilter.COALESCE, true) : Map.of())
+                .build();
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
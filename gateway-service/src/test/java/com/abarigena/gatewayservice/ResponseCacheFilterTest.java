@@ -0,0 +1,132 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.RequestKeyResolver;
+import com.abarigena.gatewayservice.config.ResponseCacheFilter;
+import com.abarigena.gatewayservice.revocation.RevocationList;
+import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class ResponseCacheFilterTest {
+
+    private final JwtUtils jwtUtils = mock(JwtUtils.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<MockServerWebExchange> downstreamRequests = new ArrayList<>();
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtils.verify(anyString())).thenAnswer(invocation ->
+                Optional.of(new DefaultClaims(Map.of("sub", invocation.getArgument(0), "role", "USER"))));
+        RequestKeyResolver keyResolver =
+                new RequestKeyResolver(jwtUtils, new RevocationList(meterRegistry, 1000, 0.001));
+        filter = new ResponseCacheFilter(keyResolver, meterRegistry, true,
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(16), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void filter_ShouldServeFreshResponseFromCache_PerUser() {
+        GatewayFilterChain chain = respond(HttpStatus.OK, "private, max-age=60", "\"v1\"", "{\"id\":42}");
+
+        filter.filter(get("user-1"), chain).block();
+        MockServerWebExchange cached = get("user-1");
+        filter.filter(cached, chain).block();
+        filter.filter(get("user-2"), chain).block();
+
+        assertEquals(2, downstreamRequests.size());
+        assertEquals("HIT", cached.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE));
+        assertEquals("{\"id\":42}", cached.getResponse().getBodyAsString().block());
+        assertEquals(1.0 / 3, meterRegistry.get("gateway.response-cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void filter_ShouldRevalidateStaleResponseWithEtag() {
+        filter.filter(get("user-1"), respond(HttpStatus.OK, "no-cache", "\"v1\"", "{\"id\":42}")).block();
+
+        MockServerWebExchange revalidated = get("user-1");
+        filter.filter(revalidated, respond(HttpStatus.NOT_MODIFIED, "no-cache", "\"v1\"", "")).block();
+
+        assertEquals("\"v1\"", downstreamRequests.get(1).getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(HttpStatus.OK, revalidated.getResponse().getStatusCode());
+        assertEquals("{\"id\":42}", revalidated.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    void filter_ShouldNotStoreNoStoreResponse() {
+        GatewayFilterChain chain = respond(HttpStatus.OK, "no-store", "\"v1\"", "{\"id\":42}");
+
+        filter.filter(get("user-1"), chain).block();
+        MockServerWebExchange second = get("user-1");
+        filter.filter(second, chain).block();
+
+        assertEquals(2, downstreamRequests.size());
+        assertNull(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.X_CACHE));
+    }
+
+    @Test
+    void filter_ShouldInvalidateResource_AfterModifyingRequest() {
+        GatewayFilterChain chain = respond(HttpStatus.OK, "private, max-age=60", "\"v1\"", "{\"id\":42}");
+        filter.filter(get("user-1"), chain).block();
+
+        filter.filter(exchange(MockServerHttpRequest.method(HttpMethod.POST, "/tasks/42/comments")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer user-2")), chain).block();
+        filter.filter(get("user-1"), chain).block();
+
+        assertEquals(3, downstreamRequests.size());
+    }
+
+    private GatewayFilterChain respond(HttpStatus status, String cacheControl, String etag, String body) {
+        return exchange -> {
+            downstreamRequests.add(MockServerWebExchange.from(MockServerHttpRequest.get("/")
+                    .headers(exchange.getRequest().getHeaders())));
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setCacheControl(cacheControl);
+            response.getHeaders().setETag(etag);
+            return response.writeWith(Mono.just(response.bufferFactory()
+                    .wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    private static MockServerWebExchange get(String token) {
+        return exchange(MockServerHttpRequest.get("/tasks/42").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        Route route = Route.async()
+                .id("task-service")
+                .uri("lb://task-service")
+                .predicate(e -> true)
+                .metadata(Map.of(ResponseCacheFilter.RESPONSE_CACHE, true))
+                .build();
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,150 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.compression.ContentCoding;
+import com.abarigena.gatewayservice.config.CompressionProperties;
+import com.abarigena.gatewayservice.config.ResponseCompressionFilter;
+import com.github.luben.zstd.Zstd;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class ResponseCompressionFilterTest {
+
+    private static final List<ContentCoding> PREFERENCE = List.of(ContentCoding.ZSTD, ContentCoding.GZIP);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCompressionFilter filter =
+            new ResponseCompressionFilter(new CompressionProperties(), meterRegistry);
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+
+    @Test
+    void negotiate_ShouldRespectWeightsAndPreference() {
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, zstd;q=0.5", PREFERENCE));
+        assertEquals(ContentCoding.ZSTD, ContentCoding.negotiate("gzip, deflate, br, zstd", PREFERENCE));
+        assertEquals(ContentCoding.ZSTD, ContentCoding.negotiate("*", PREFERENCE));
+        assertNull(ContentCoding.negotiate("br", PREFERENCE));
+        assertNull(ContentCoding.negotiate("gzip;q=0, identity", PREFERENCE));
+        assertNull(ContentCoding.negotiate(null, PREFERENCE));
+    }
+
+    @Test
+    void filter_ShouldCompressLargeJsonResponse() {
+        byte[] body = "{\"description\":\"описание задачи\"},".repeat(200).getBytes(StandardCharsets.UTF_8);
+        MockServerWebExchange exchange = exchange("gzip, zstd");
+
+        filter.filter(exchange, respond(body, null)).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        byte[] compressed = body(exchange);
+        assertEquals("zstd", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(compressed.length, headers.getContentLength());
+        assertTrue(compressed.length < body.length / 10);
+        assertArrayEquals(body, Zstd.decompress(compressed, body.length));
+        assertTrue(headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals("W/\"v1\"", headers.getETag());
+        // Сжимает шлюз, поэтому сервис получает запрос без Accept-Encoding
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue(meterRegistry.get("gateway.compression.cpu").timer().count() > 0);
+        assertEquals(body.length, meterRegistry.get("gateway.compression.bytes").tag("stage", "original")
+                .counter().count());
+    }
+
+    @Test
+    void filter_ShouldNotCompressSmallResponse() {
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        MockServerWebExchange exchange = exchange("zstd");
+
+        filter.filter(exchange, respond(body, null)).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, body(exchange));
+    }
+
+    @Test
+    void filter_ShouldPassThroughResponseCompressedByService() {
+        byte[] gzipped = ContentCoding.GZIP.encode("{\"a\":1}".repeat(500).getBytes(StandardCharsets.UTF_8), 6);
+        MockServerWebExchange exchange = exchange("gzip;q=1, zstd;q=0.1");
+
+        filter.filter(exchange, respond(gzipped, "gzip")).block();
+
+        assertEquals("gzip", forwarded.get().getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals("gzip", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(gzipped, body(exchange));
+    }
+
+    @Test
+    void filter_ShouldPassThroughChunkedResponseLargerThanLimit() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.getDefaults().setMaxResponseSize(DataSize.ofKilobytes(4));
+        ResponseCompressionFilter limited = new ResponseCompressionFilter(properties, meterRegistry);
+        byte[] chunk = "{\"a\":1}".repeat(200).getBytes(StandardCharsets.UTF_8);
+        MockServerWebExchange exchange = exchange("zstd");
+
+        // Тело частями без Content-Length: размер известен только после чтения
+        limited.filter(exchange, e -> {
+            e.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return e.getResponse().writeWith(Flux.range(0, 10)
+                    .map(i -> e.getResponse().bufferFactory().wrap(chunk)));
+        }).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(chunk.length * 10, body(exchange).length);
+        assertEquals(1, meterRegistry.get("gateway.compression.responses").tag("result", "skipped-size")
+                .counter().count());
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("task-service")
+                .uri("lb://task-service")
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+
+    private GatewayFilterChain respond(byte[] body, String contentEncoding) {
+        return exchange -> {
+            forwarded.set(exchange);
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setETag("\"v1\"");
+            if (contentEncoding != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+            }
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.common.hash.BloomFilter;
+import com.abarigena.common.security.ServiceAuthKey;
+import com.abarigena.gatewayservice.revocation.RevocationList;
+import com.abarigena.gatewayservice.revocation.RevocationSync;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationListTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String jti = UUID.randomUUID().toString();
+            filter.put(jti);
+            added.add(jti);
+        }
+
+        assertTrue(added.stream().allMatch(filter::mightContain));
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> filter.mightContain(UUID.randomUUID().toString()))
+                .count();
+        assertTrue(falsePositives < 300, "ложноположительных ответов: " + falsePositives);
+    }
+
+    @Test
+    void isRevoked_ShouldIgnoreExpiredRevocations_AndSurviveRebuild() {
+        RevocationList revocations = new RevocationList(meterRegistry, 2, 0.001);
+        long future = System.currentTimeMillis() + 60_000;
+
+        revocations.add("a", future);
+        revocations.add("b", future);
+        revocations.add("c", future);
+        revocations.add("expired", System.currentTimeMillis() - 1);
+
+        assertTrue(revocations.isRevoked("a"));
+        assertTrue(revocations.isRevoked("c"));
+        assertFalse(revocations.isRevoked("expired"));
+        assertFalse(revocations.isRevoked("d"));
+        assertFalse(revocations.isRevoked(null));
+        assertEquals(3, revocations.size());
+    }
+
+    @Test
+    void syncAll_ShouldFetchIncrementally_AndRefetchAfterRestart() {
+        RevocationList revocations = new RevocationList(meterRegistry, 1000, 0.001);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        List<String> requested = new ArrayList<>();
+        List<String> hosts = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        Deque<String> responses = new ArrayDeque<>(List.of(
+                batch("e1", 2, true, revocation(1, "a", expiresAt), revocation(2, "b", expiresAt)),
+                batch("e1", 3, false, revocation(3, "c", expiresAt)),
+                batch("e1", 3, false),
+                // Экземпляр перезапущен: старый номер больше не действует
+                batch("e2", 0, false),
+                batch("e2", 1, false, revocation(1, "d", expiresAt))));
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            requested.add(request.url().getQuery());
+            hosts.add(request.url().getHost());
+            keys.add(request.headers().getFirst(ServiceAuthKey.HEADER));
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(responses.removeFirst())
+                    .build());
+        });
+        RevocationSync sync = new RevocationSync(revocations, webClient, (request, next) -> next.exchange(request),
+                meterRegistry, new ServiceAuthKey("test-key"), false, "authenthication-service",
+                Duration.ofSeconds(5), Duration.ofSeconds(1));
+
+        sync.syncAll().block();
+        assertEquals(List.of("since=0", "since=2"), requested);
+        assertEquals(List.of("test-key", "test-key"), keys);
+        assertTrue(revocations.isRevoked("a") && revocations.isRevoked("b") && revocations.isRevoked("c"));
+
+        sync.syncAll().block();
+        sync.syncAll().block();
+        assertEquals(List.of("since=0", "since=2", "since=3", "since=3", "since=0"), requested);
+        assertTrue(revocations.isRevoked("d"));
+        assertTrue(revocations.isRevoked("a"));
+        // Один курсор на общий список: запросы идут через балансировщик к сервису, а не к экземплярам
+        assertTrue(hosts.stream().allMatch("authenthication-service"::equals));
+    }
+
+    private static String batch(String epoch, long sequence, boolean hasMore, String... revocations) {
+        return "{\"epoch\":\"" + epoch + "\",\"sequence\":" + sequence + ",\"hasMore\":" + hasMore
+                + ",\"revocations\":[" + String.join(",", revocations) + "]}";
+    }
+
+    private static String revocation(long sequence, String jti, long expiresAt) {
+        return "{\"sequence\":" + sequence + ",\"jti\":\"" + jti + "\",\"expiresAt\":" + expiresAt + "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.RetryJitterFilter;
+import com.abarigena.gatewayservice.config.RouteCircuitBreakerConfigurer;
+import com.abarigena.gatewayservice.config.RouteResilienceProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory.RETRY_ITERATION_KEY;
+
+class RouteResilienceTest {
+
+    @Test
+    void idempotentMethods_ShouldDropNonIdempotentMethods() {
+        RouteResilienceProperties.Retry retry = new RouteResilienceProperties.Retry();
+        retry.setMethods(List.of(HttpMethod.GET, HttpMethod.POST, HttpMethod.PATCH, HttpMethod.PUT));
+
+        assertArrayEquals(new HttpMethod[]{HttpMethod.GET, HttpMethod.PUT}, retry.idempotentMethods());
+    }
+
+    @Test
+    void totalTimeout_ShouldCoverAllAttemptsAndBackoffs() {
+        RouteResilienceProperties.RouteSettings settings = new RouteResilienceProperties.RouteSettings();
+        settings.setConnectTimeout(Duration.ofMillis(100));
+        settings.setResponseTimeout(Duration.ofSeconds(1));
+        RouteResilienceProperties.Retry retry = settings.getRetry();
+        retry.setRetries(2);
+        retry.setFirstBackoff(Duration.ofMillis(100));
+        retry.setMaxBackoff(Duration.ofMillis(150));
+        retry.setFactor(2);
+        retry.setJitter(0.5);
+
+        // 3 попытки по 1100 мс + паузы 100 и 150 мс с добавкой до 50%
+        assertEquals(Duration.ofMillis(3 * 1100 + 150 + 225), settings.totalTimeout());
+    }
+
+    @Test
+    void jitter_ShouldBeZeroForFirstAttemptAndBoundedForRetries() {
+        RouteResilienceProperties.Retry retry = new RouteResilienceProperties.Retry();
+        retry.setFirstBackoff(Duration.ofMillis(100));
+        retry.setMaxBackoff(Duration.ofMillis(1000));
+        retry.setJitter(0.5);
+        RetryJitterFilter filter = new RetryJitterFilter(retry);
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/tasks"));
+        assertEquals(Duration.ZERO, filter.jitter(exchange));
+
+        // Перед вторым повтором базовая пауза 200 мс, случайная добавка не больше 100 мс
+        exchange.getAttributes().put(RETRY_ITERATION_KEY, 1);
+        for (int i = 0; i < 100; i++) {
+            Duration jitter = filter.jitter(exchange);
+            assertTrue(!jitter.isNegative() && jitter.toMillis() <= 100, "jitter " + jitter);
+        }
+    }
+
+    @Test
+    void configure_ShouldRecreateCircuitBreaker_WhenSettingsChange() {
+        ReactiveResilience4JCircuitBreakerFactory factory = new ReactiveResilience4JCircuitBreakerFactory(
+                CircuitBreakerRegistry.ofDefaults(), TimeLimiterRegistry.ofDefaults());
+        RouteCircuitBreakerConfigurer configurer = new RouteCircuitBreakerConfigurer(factory);
+        RouteResilienceProperties.RouteSettings settings = new RouteResilienceProperties.RouteSettings();
+
+        configurer.configure("task-service", settings);
+        factory.create("task-service").run(Mono.just("ok")).block();
+        assertEquals(settings.totalTimeout(), factory.getTimeLimiterRegistry().timeLimiter("task-service")
+                .getTimeLimiterConfig().getTimeoutDuration());
+
+        settings.getCircuitBreaker().setFailureRateThreshold(25);
+        configurer.configure("task-service", settings);
+        factory.create("task-service").run(Mono.just("ok")).block();
+        assertEquals(25f, factory.getCircuitBreakerRegistry().circuitBreaker("task-service")
+                .getCircuitBreakerConfig().getFailureRateThreshold());
+    }
+}
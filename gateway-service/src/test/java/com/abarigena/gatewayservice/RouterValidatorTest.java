@@ -0,0 +1,83 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.RouterValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+class RouterValidatorTest {
+
+    private RouterValidator validator;
+    private Route authRoute;
+    private Route taskRoute;
+    private Route docsRoute;
+
+    @BeforeEach
+    void setUp() {
+        authRoute = route("authenthication-service",
+                Map.of(RouterValidator.PUBLIC_PATHS, List.of("/auth/register", "/auth/login")));
+        taskRoute = route("task-service", Map.of());
+        docsRoute = route("task-service-api-docs", Map.of(RouterValidator.PUBLIC_PATHS, Map.of("0", "/**")));
+
+        validator = new RouterValidator();
+        RouteLocator routeLocator = () -> Flux.just(authRoute, taskRoute, docsRoute);
+        validator.onRoutesRefreshed(new RefreshRoutesResultEvent(routeLocator));
+    }
+
+    @Test
+    void isSecured_ShouldReturnFalse_ForDeclaredPublicPath() {
+        assertFalse(validator.isSecured(exchange("/auth/login", authRoute)));
+        assertFalse(validator.isSecured(exchange("/auth/register", authRoute)));
+    }
+
+    @Test
+    void isSecured_ShouldReturnTrue_ForOtherPathsOfRoute() {
+        assertTrue(validator.isSecured(exchange("/auth/refresh", authRoute)));
+        assertTrue(validator.isSecured(exchange("/auth/login-as-admin", authRoute)));
+    }
+
+    @Test
+    void isSecured_ShouldReturnTrue_WhenPathOnlyContainsPublicPath() {
+        assertTrue(validator.isSecured(exchange("/tasks/auth/login", taskRoute)));
+        assertTrue(validator.isSecured(exchange("/tasks/v3/api-docs", taskRoute)));
+    }
+
+    @Test
+    void isSecured_ShouldReturnFalse_ForRouteMarkedPublicInYamlFormat() {
+        assertFalse(validator.isSecured(exchange("/v3/api-docs", docsRoute)));
+    }
+
+    @Test
+    void isSecured_ShouldReturnTrue_WhenRouteIsUnknown() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/auth/login"));
+
+        assertTrue(validator.isSecured(exchange));
+    }
+
+    private static Route route(String id, Map<String, Object> metadata) {
+        return Route.async()
+                .id(id)
+                .uri("lb://" + id)
+                .predicate(exchange -> true)
+                .metadata(metadata)
+                .build();
+    }
+
+    private static MockServerWebExchange exchange(String path, Route route) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,135 @@
+package com.abarigena.gatewayservice;
+
+import com.abarigena.gatewayservice.config.ShadowProperties;
+import com.abarigena.gatewayservice.config.ShadowTrafficFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShadowTrafficFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ClientRequest> shadowRequests = new CopyOnWriteArrayList<>();
+    private final ShadowProperties properties = new ShadowProperties();
+    private final ShadowProperties.Target target = new ShadowProperties.Target();
+
+    private HttpStatus shadowStatus = HttpStatus.OK;
+    private Duration shadowDelay = Duration.ZERO;
+
+    @BeforeEach
+    void setUp() {
+        target.setServiceId("task-service-canary");
+        target.setPercentage(100);
+        properties.setTimeout(Duration.ofMillis(500));
+    }
+
+    @Test
+    void filter_ShouldMirrorGetRequest_AndRecordMatch() throws InterruptedException {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/tasks/1?page=2")
+                .header("X-User-Id", "7"));
+
+        filter().filter(exchange, respond(HttpStatus.OK)).block();
+        awaitComparison();
+
+        assertEquals(1, shadowRequests.size());
+        ClientRequest shadow = shadowRequests.get(0);
+        assertEquals("http://task-service-canary/tasks/1?page=2", shadow.url().toString());
+        assertEquals("7", shadow.headers().getFirst("X-User-Id"));
+        assertEquals("true", shadow.headers().getFirst(ShadowTrafficFilter.SHADOW_HEADER));
+        assertEquals(1, count("match"));
+        assertEquals(1, meterRegistry.get("gateway.shadow.latency").tag("target", "shadow").timer().count());
+    }
+
+    @Test
+    void filter_ShouldMirrorEncodedPathAndQueryAsIs() throws InterruptedException {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.method(HttpMethod.GET,
+                URI.create("http://gateway:8072/tasks/a%7Bb%7D?q=a%20b")));
+
+        filter().filter(exchange, respond(HttpStatus.OK)).block();
+        awaitComparison();
+
+        assertEquals("http://task-service-canary/tasks/a%7Bb%7D?q=a%20b", shadowRequests.get(0).url().toString());
+    }
+
+    @Test
+    void filter_ShouldRecordStatusMismatch() throws InterruptedException {
+        shadowStatus = HttpStatus.INTERNAL_SERVER_ERROR;
+
+        filter().filter(exchange(MockServerHttpRequest.get("/tasks/1")), respond(HttpStatus.OK)).block();
+        awaitComparison();
+
+        assertEquals(1, count("status-mismatch"));
+        assertEquals(0, count("match"));
+    }
+
+    @Test
+    void filter_ShouldNotDelayPrimaryResponse_WhenShadowIsSlow() {
+        shadowDelay = Duration.ofSeconds(2);
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/tasks/1"));
+
+        long start = System.nanoTime();
+        filter().filter(exchange, respond(HttpStatus.OK)).block();
+
+        assertTrue(System.nanoTime() - start < Duration.ofMillis(300).toNanos());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void filter_ShouldMirrorOnlyGetRequests() {
+        filter().filter(exchange(MockServerHttpRequest.post("/tasks/create")), respond(HttpStatus.OK)).block();
+        target.setPercentage(0);
+        filter().filter(exchange(MockServerHttpRequest.get("/tasks/1")), respond(HttpStatus.OK)).block();
+
+        assertTrue(shadowRequests.isEmpty());
+    }
+
+    private ShadowTrafficFilter filter() {
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            shadowRequests.add(request);
+            return Mono.delay(shadowDelay).thenReturn(ClientResponse.create(shadowStatus).body("shadow").build());
+        }).build();
+        return new ShadowTrafficFilter(webClient, "task-service", target, properties, meterRegistry);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+
+    private static GatewayFilterChain respond(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    /**
+     * Сравнение записывается после ответа теневого сервиса, асинхронно к основному запросу.
+     */
+    private void awaitComparison() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (count("match") + count("status-mismatch") == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("gateway.shadow.requests").tag("result", result).counter().count();
+    }
+}
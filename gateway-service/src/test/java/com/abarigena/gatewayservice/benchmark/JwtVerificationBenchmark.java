@@ -0,0 +1,111 @@
+package com.abarigena.gatewayservice.benchmark;
+
+import com.abarigena.gatewayservice.service.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость проверки JWT токена в AuthenticationFilter.
+ * <p>
+ * {@code legacyFilter} повторяет прежнюю последовательность: проверка срока и два разбора
+ * содержимого, каждый с новым парсером. {@code singleParse} — один разбор повторно
+ * используемым парсером без кэша, {@code cachedValid} и {@code cachedInvalid} — повторная
+ * проверка токена, уже находящегося в кэше.
+ * </p>
+ * Запуск: {@code java -cp <test classpath> com.abarigena.gatewayservice.benchmark.JwtVerificationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "bWFuZG9yaWFudGV4dHJlbWVseXNlY3VyZXQyMTEzJDEyMzQ1";
+
+    private Key key;
+    private JwtParser parser;
+    private JwtUtils jwtUtils;
+    private String validToken;
+    private String invalidToken;
+
+    @Setup
+    public void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaximumSize", 100_000L);
+        ReflectionTestUtils.setField(jwtUtils, "negativeTtl", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(jwtUtils, "maxTtl", Duration.ofHours(1));
+        jwtUtils.initKey();
+
+        Date now = new Date();
+        validToken = Jwts.builder()
+                .setSubject("42")
+                .claim("id", "42")
+                .claim("role", "USER")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+        invalidToken = validToken.substring(0, validToken.length() - 2) + "xx";
+    }
+
+    @Benchmark
+    public String legacyFilter() {
+        boolean expired;
+        try {
+            expired = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(validToken).getBody()
+                    .getExpiration().before(new Date());
+        } catch (Exception e) {
+            expired = false;
+        }
+        if (expired) {
+            return null;
+        }
+        String userId = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(validToken).getBody()
+                .getSubject();
+        String role = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(validToken).getBody()
+                .get("role", String.class);
+        return userId + role;
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return parser.parseClaimsJws(validToken).getBody();
+    }
+
+    @Benchmark
+    public Optional<Claims> cachedValid() {
+        return jwtUtils.verify(validToken);
+    }
+
+    @Benchmark
+    public Optional<Claims> cachedInvalid() {
+        return jwtUtils.verify(invalidToken);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
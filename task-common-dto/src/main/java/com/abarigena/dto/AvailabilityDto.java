@@ -0,0 +1,36 @@
+package com.abarigena.dto;
+
+/**
+ * Свободны ли email и имя пользователя для регистрации.
+ * Поле равно null, если значение не проверялось.
+ */
+public class AvailabilityDto {
+    private Boolean emailAvailable;
+    private Boolean usernameAvailable;
+
+    // Конструкторы
+    public AvailabilityDto() {
+    }
+
+    public AvailabilityDto(Boolean emailAvailable, Boolean usernameAvailable) {
+        this.emailAvailable = emailAvailable;
+        this.usernameAvailable = usernameAvailable;
+    }
+
+    // Геттеры и сеттеры
+    public Boolean getEmailAvailable() {
+        return emailAvailable;
+    }
+
+    public void setEmailAvailable(Boolean emailAvailable) {
+        this.emailAvailable = emailAvailable;
+    }
+
+    public Boolean getUsernameAvailable() {
+        return usernameAvailable;
+    }
+
+    public void setUsernameAvailable(Boolean usernameAvailable) {
+        this.usernameAvailable = usernameAvailable;
+    }
+}
@@ -0,0 +1,25 @@
+package com.abarigena.dto;
+
+/**
+ * Новый хэш пароля пользователя, например после смены стоимости BCrypt.
+ */
+public class PasswordUpdateRequest {
+    private String passwordHash;
+
+    // Конструкторы
+    public PasswordUpdateRequest() {
+    }
+
+    public PasswordUpdateRequest(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    // Геттеры и сеттеры
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+}
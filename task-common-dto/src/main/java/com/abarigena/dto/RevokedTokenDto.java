@@ -0,0 +1,52 @@
+package com.abarigena.dto;
+
+/**
+ * Отзыв токена в общем хранилище отзывов.
+ */
+public class RevokedTokenDto {
+    private long sequence;
+    private String jti;
+    private long expiresAt;
+
+    // Конструкторы
+    public RevokedTokenDto() {
+    }
+
+    public RevokedTokenDto(long sequence, String jti, long expiresAt) {
+        this.sequence = sequence;
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    // Геттеры и сеттеры
+
+    /**
+     * Порядковый номер отзыва; номера растут в порядке фиксации отзывов.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    /**
+     * Время истечения токена в миллисекундах; после него отзыв удаляется.
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
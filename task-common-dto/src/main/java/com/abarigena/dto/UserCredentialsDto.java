@@ -0,0 +1,48 @@
+package com.abarigena.dto;
+
+import java.util.Set;
+
+/**
+ * Учетные данные пользователя для входа: ID, хэш пароля и названия ролей.
+ * Роли могут отсутствовать, если они не запрашивались.
+ */
+public class UserCredentialsDto {
+    private String id;
+    private String passwordHash;
+    private Set<String> roles;
+
+    // Конструкторы
+    public UserCredentialsDto() {
+    }
+
+    public UserCredentialsDto(String id, String passwordHash, Set<String> roles) {
+        this.id = id;
+        this.passwordHash = passwordHash;
+        this.roles = roles;
+    }
+
+    // Геттеры и сеттеры
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public void setPasswordHash(String passwordHash) {
+        this.passwordHash = passwordHash;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(Set<String> roles) {
+        this.roles = roles;
+    }
+}
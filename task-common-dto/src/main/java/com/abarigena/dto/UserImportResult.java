@@ -0,0 +1,80 @@
+package com.abarigena.dto;
+
+/**
+ * Результат импорта одной строки при массовой загрузке пользователей.
+ */
+public class UserImportResult {
+
+    /**
+     * Итог импорта строки.
+     */
+    public enum Status {
+        /** Пользователь создан. */
+        CREATED,
+        /** Пользователь с таким email или username уже есть; при повторном импорте строка пропускается. */
+        EXISTS,
+        /** Строка не заполнена. */
+        INVALID,
+        /** Строка не импортирована из-за ошибки; ее можно отправить повторно. */
+        FAILED
+    }
+
+    private int index;
+    private String email;
+    private Status status;
+    private String userId;
+    private String error;
+
+    // Конструкторы
+    public UserImportResult() {
+    }
+
+    public UserImportResult(int index, String email, Status status, String userId, String error) {
+        this.index = index;
+        this.email = email;
+        this.status = status;
+        this.userId = userId;
+        this.error = error;
+    }
+
+    // Геттеры и сеттеры
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
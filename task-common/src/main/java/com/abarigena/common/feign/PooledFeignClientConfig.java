@@ -0,0 +1,148 @@
+package com.abarigena.common.feign;
+
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Пул HTTP соединений (Apache HttpClient 5) для отдельного Feign клиента.
+ * <p>
+ * Класс намеренно не помечен {@code @Configuration}: он подключается через атрибут
+ * {@code configuration} у {@code @FeignClient} и создается в контексте конкретного клиента,
+ * поэтому каждый клиент получает собственный пул. Параметры пула читаются из
+ * {@code feign.pool.<имя клиента>.*}, таймауты запросов задаются стандартными свойствами
+ * {@code spring.cloud.openfeign.client.config.<имя клиента>.*}.
+ * </p>
+ * <p>
+ * Сервис может обернуть получившийся клиент, объявив в конфигурации Feign клиента
+ * бин {@link PooledFeignClientDecorator} (например, для дублирующих запросов).
+ * </p>
+ */
+public class PooledFeignClientConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledFeignClientConfig.class);
+
+    private static final String POOL_PREFIX = "feign.pool.";
+
+    /**
+     * Пул соединений клиента с метриками занятости ({@code httpcomponents.httpclient.pool.*}).
+     *
+     * @param clientName имя Feign клиента.
+     * @param environment окружение для чтения параметров пула.
+     * @param meterRegistry реестр метрик.
+     * @return менеджер соединений.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(
+            @Value("${spring.cloud.openfeign.client.name}") String clientName,
+            Environment environment,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        String prefix = POOL_PREFIX + clientName + ".";
+        int maxConnections = environment.getProperty(prefix + "max-connections", Integer.class, 200);
+        int maxPerRoute = environment.getProperty(prefix + "max-connections-per-route", Integer.class, 50);
+        Duration timeToLive = duration(environment, prefix + "time-to-live", Duration.ofMinutes(5));
+        Duration validateAfterInactivity = duration(environment, prefix + "validate-after-inactivity", Duration.ofSeconds(2));
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                        .build())
+                .build();
+
+        meterRegistry.ifAvailable(registry -> new PoolingHttpClientConnectionManagerMetricsBinder(
+                connectionManager, clientName, Tags.of("client", clientName)).bindTo(registry));
+
+        logger.info("Пул HTTP соединений Feign клиента {}: всего {}, на маршрут {}",
+                clientName, maxConnections, maxPerRoute);
+        return connectionManager;
+    }
+
+    /**
+     * HTTP клиент с keep-alive поверх пула соединений. Простаивающие соединения закрываются в фоне,
+     * чтобы не получать ошибки на соединениях, уже закрытых сервером.
+     *
+     * @param clientName имя Feign клиента.
+     * @param environment окружение для чтения параметров пула.
+     * @param feignConnectionManager менеджер соединений клиента.
+     * @return HTTP клиент.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(@Value("${spring.cloud.openfeign.client.name}") String clientName,
+                                               Environment environment,
+                                               PoolingHttpClientConnectionManager feignConnectionManager) {
+        String prefix = POOL_PREFIX + clientName + ".";
+        Duration idleTimeout = duration(environment, prefix + "idle-timeout", Duration.ofSeconds(30));
+        Duration acquireTimeout = duration(environment, prefix + "acquire-timeout", Duration.ofMillis(500));
+
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .disableCookieManagement()
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    /**
+     * Feign клиент на базе пула с балансировкой между экземплярами сервиса.
+     *
+     * @param feignHttpClient HTTP клиент.
+     * @param loadBalancerClient клиент балансировщика.
+     * @param loadBalancerClientFactory фабрика балансировщиков.
+     * @param transformers преобразователи запроса после выбора экземпляра.
+     * @param decorator обертка клиента, если объявлена.
+     * @return Feign клиент.
+     */
+    @Bean
+    public Client feignClient(CloseableHttpClient feignHttpClient,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers,
+                              ObjectProvider<PooledFeignClientDecorator> decorator) {
+        Client delegate = new ApacheHttp5Client(feignHttpClient);
+        Client loadBalanced = new FeignBlockingLoadBalancerClient(delegate, loadBalancerClient,
+                loadBalancerClientFactory, transformers.orderedStream().toList());
+        PooledFeignClientDecorator clientDecorator = decorator.getIfAvailable();
+        return clientDecorator != null ? clientDecorator.decorate(loadBalanced, delegate) : loadBalanced;
+    }
+
+    /**
+     * Читает длительность в формате Spring Boot ({@code 30s}, {@code 5m}, {@code PT2S}).
+     */
+    private static Duration duration(Environment environment, String property, Duration defaultValue) {
+        return Binder.get(environment).bind(property, Duration.class).orElse(defaultValue);
+    }
+}
@@ -0,0 +1,20 @@
+package com.abarigena.common.feign;
+
+import feign.Client;
+
+/**
+ * Обертка Feign клиента, созданного {@link PooledFeignClientConfig}.
+ * Объявляется бином в конфигурации конкретного Feign клиента.
+ */
+@FunctionalInterface
+public interface PooledFeignClientDecorator {
+
+    /**
+     * Оборачивает клиент.
+     *
+     * @param loadBalanced клиент с балансировкой, который используется без обертки.
+     * @param delegate клиент пула без балансировки, для запросов на уже выбранный экземпляр.
+     * @return клиент, который будет использовать Feign.
+     */
+    Client decorate(Client loadBalanced, Client delegate);
+}
@@ -0,0 +1,118 @@
+package com.abarigena.common.grpc;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разрешает адреса вида {@code discovery:///user-service} через Eureka.
+ * Порт gRPC сервера берется из метаданных экземпляра ({@code grpc-port}).
+ * Список адресов периодически обновляется, чтобы канал узнавал о новых и остановленных экземплярах.
+ */
+public class DiscoveryNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME = "discovery";
+    static final String GRPC_PORT_METADATA = "grpc-port";
+
+    private final DiscoveryClient discoveryClient;
+    private final long refreshSeconds;
+
+    public DiscoveryNameResolverProvider(DiscoveryClient discoveryClient, long refreshSeconds) {
+        this.discoveryClient = discoveryClient;
+        this.refreshSeconds = refreshSeconds;
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    protected int priority() {
+        return 5;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String serviceId = targetUri.getPath().startsWith("/") ? targetUri.getPath().substring(1) : targetUri.getPath();
+        return new DiscoveryNameResolver(serviceId, args.getSynchronizationContext(), args.getScheduledExecutorService());
+    }
+
+    private class DiscoveryNameResolver extends NameResolver {
+
+        private final String serviceId;
+        private final SynchronizationContext syncContext;
+        private final ScheduledExecutorService scheduler;
+        private Listener2 listener;
+        private ScheduledFuture<?> refreshTask;
+
+        DiscoveryNameResolver(String serviceId, SynchronizationContext syncContext, ScheduledExecutorService scheduler) {
+            this.serviceId = serviceId;
+            this.syncContext = syncContext;
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return serviceId;
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolve();
+            refreshTask = scheduler.scheduleWithFixedDelay(
+                    () -> syncContext.execute(this::resolve), refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        @Override
+        public void shutdown() {
+            if (refreshTask != null) {
+                refreshTask.cancel(false);
+            }
+        }
+
+        private void resolve() {
+            List<EquivalentAddressGroup> addresses = new ArrayList<>();
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                String grpcPort = instance.getMetadata().get(GRPC_PORT_METADATA);
+                if (grpcPort != null) {
+                    addresses.add(new EquivalentAddressGroup(
+                            new InetSocketAddress(instance.getHost(), Integer.parseInt(grpcPort))));
+                }
+            }
+
+            if (addresses.isEmpty()) {
+                listener.onError(Status.UNAVAILABLE.withDescription(
+                        "Нет экземпляров " + serviceId + " с опубликованным gRPC портом"));
+                return;
+            }
+            listener.onResult(ResolutionResult.newBuilder().setAddresses(addresses).build());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.abarigena.common.grpc;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.NameResolverRegistry;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.MetadataUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация gRPC канала к сервису пользователей.
+ * Используется один долгоживущий HTTP/2 канал, по которому мультиплексируются все вызовы.
+ * Включается свойством {@code user-service.grpc.enabled} и подключается в сервисах через {@code @Import};
+ * клиент поверх канала каждый сервис создает сам. Канал передает {@link ServiceAuthKey ключ межсервисной
+ * аутентификации} в метаданных каждого вызова.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user-service.grpc.enabled", havingValue = "true")
+public class UserServiceGrpcConfig {
+
+    private static final Metadata.Key<String> SERVICE_AUTH_KEY =
+            Metadata.Key.of(ServiceAuthKey.HEADER, Metadata.ASCII_STRING_MARSHALLER);
+
+    @Value("${user-service.grpc.target:discovery:///user-service}")
+    private String target;
+
+    @Value("${user-service.grpc.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${user-service.grpc.discovery-refresh-seconds:30}")
+    private long discoveryRefreshSeconds;
+
+    /**
+     * Канал к gRPC серверу сервиса пользователей с балансировкой round-robin между экземплярами.
+     *
+     * @param discoveryClient клиент Eureka для разрешения адресов.
+     * @param serviceAuthKey  ключ межсервисной аутентификации.
+     * @return управляемый канал.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ManagedChannel userServiceChannel(DiscoveryClient discoveryClient, ServiceAuthKey serviceAuthKey) {
+        NameResolverRegistry.getDefaultRegistry()
+                .register(new DiscoveryNameResolverProvider(discoveryClient, discoveryRefreshSeconds));
+
+        Metadata serviceAuth = new Metadata();
+        serviceAuth.put(SERVICE_AUTH_KEY, serviceAuthKey.value());
+
+        return NettyChannelBuilder.forTarget(target)
+                .defaultLoadBalancingPolicy("round_robin")
+                .keepAliveTime(keepAliveSeconds, TimeUnit.SECONDS)
+                .keepAliveWithoutCalls(true)
+                .intercept(MetadataUtils.newAttachHeadersInterceptor(serviceAuth))
+                .usePlaintext()
+                .build();
+    }
+}
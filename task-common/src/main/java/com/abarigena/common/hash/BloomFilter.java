@@ -0,0 +1,90 @@
+package com.abarigena.common.hash;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для строк.
+ * <p>
+ * {@link #mightContain(String)} без ложноотрицательных ответов: если строка добавлена, ответ всегда true.
+ * Ложноположительные ответы возможны, поэтому положительный ответ нужно перепроверять по точному источнику
+ * (таблице или набору). Проверка — несколько чтений массива без блокировок. Удалять строки нельзя:
+ * фильтр пересоздается из точного источника.
+ * </p>
+ * <p>
+ * Фильтр считает установленные биты, поэтому текущую вероятность ложноположительного ответа
+ * ({@link #falsePositiveRate()}) можно оценить и после того, как строк добавлено больше, чем ожидалось.
+ * </p>
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong bitsSet = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.words = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    }
+
+    /**
+     * Создает фильтр под ожидаемое число строк.
+     *
+     * @param expectedInsertions Ожидаемое число строк.
+     * @param falsePositiveRate Допустимая доля ложноположительных ответов, от 0 до 1.
+     * @return {@link BloomFilter} Пустой фильтр.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Доля ложноположительных ответов должна быть от 0 до 1");
+        }
+        long n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * ln2));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(String value) {
+        long hash = Hashing.fnv1a(value);
+        long h1 = Hashing.mix(hash);
+        long h2 = Hashing.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0) {
+                if (words.compareAndSet(index, word, word | mask)) {
+                    bitsSet.incrementAndGet();
+                    break;
+                }
+                word = words.get(index);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = Hashing.fnv1a(value);
+        long h1 = Hashing.mix(hash);
+        long h2 = Hashing.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Оценка вероятности ложноположительного ответа по доле установленных битов.
+     *
+     * @return Вероятность от 0 до 1.
+     */
+    public double falsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitCount, hashCount);
+    }
+}
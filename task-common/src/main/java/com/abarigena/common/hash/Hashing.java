@@ -0,0 +1,81 @@
+package com.abarigena.common.hash;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Быстрые некриптографические хэши строк для фильтров Блума, скетчей и кольца consistent hashing.
+ * <p>
+ * FNV-1a по байтам UTF-8 дает 64-битный хэш за один проход; перемешивание битов из MurmurHash3
+ * ({@code fmix64}) распределяет близкие значения равномерно по всему диапазону.
+ * </p>
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a по байтам UTF-8.
+     *
+     * @param value Строка.
+     * @return 64-битный хэш.
+     */
+    public static long fnv1a(String value) {
+        return fnv1a(value, 0);
+    }
+
+    /**
+     * FNV-1a по байтам UTF-8 с солью: разные соли дают независимые хэши одной строки.
+     *
+     * @param value Строка.
+     * @param seed Соль, смешивается с начальным значением.
+     * @return 64-битный хэш.
+     */
+    public static long fnv1a(String value, long seed) {
+        long hash = FNV_OFFSET_BASIS ^ seed;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Перемешивание битов из MurmurHash3 ({@code fmix64}).
+     *
+     * @param value Значение.
+     * @return Перемешанное значение.
+     */
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * FNV-1a с перемешиванием битов.
+     *
+     * @param value Строка.
+     * @return 64-битный хэш.
+     */
+    public static long hash64(String value) {
+        return mix(fnv1a(value));
+    }
+
+    /**
+     * FNV-1a с солью и перемешиванием битов.
+     *
+     * @param value Строка.
+     * @param seed Соль.
+     * @return 64-битный хэш.
+     */
+    public static long hash64(String value, long seed) {
+        return mix(fnv1a(value, seed));
+    }
+}
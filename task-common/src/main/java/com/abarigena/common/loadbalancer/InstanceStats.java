@@ -0,0 +1,104 @@
+package com.abarigena.common.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Наблюдаемое состояние одного экземпляра сервиса: запросы в работе, задержка (peak EWMA)
+ * и исключение из балансировки после серии ошибок.
+ * <p>
+ * Peak EWMA сразу принимает задержку, если она выше текущей оценки, и плавно снижает оценку, если ниже.
+ * Без новых замеров оценка затухает к нулю, поэтому исключенный по задержке экземпляр со временем снова
+ * получает запросы и его задержка измеряется заново.
+ * </p>
+ */
+public final class InstanceStats {
+
+    /**
+     * Стоимость экземпляра без замеров задержки, к которому уже отправлены запросы.
+     */
+    private static final double PENALTY = 1e15;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final double decayNanos;
+
+    private double ewmaNanos;
+    private long stampNanos;
+    private int consecutiveFailures;
+    private int ejections;
+    private volatile boolean everEjected;
+    private volatile long ejectedUntilNanos;
+
+    InstanceStats(double decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.stampNanos = nowNanos;
+    }
+
+    void onStart() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Учитывает завершенный запрос.
+     *
+     * @param latencyNanos Задержка ответа или -1, если она неизвестна.
+     * @param failure Запрос завершился ошибкой экземпляра.
+     * @return Число ошибок подряд, включая этот запрос.
+     */
+    synchronized int onComplete(long latencyNanos, boolean failure, long nowNanos) {
+        inFlight.updateAndGet(value -> Math.max(0, value - 1));
+        // Быстрая ошибка (например, отказ в соединении) не должна делать экземпляр привлекательнее
+        if (latencyNanos >= 0 && (!failure || latencyNanos > ewmaNanos)) {
+            observe(latencyNanos, nowNanos);
+        }
+        if (failure) {
+            return ++consecutiveFailures;
+        }
+        consecutiveFailures = 0;
+        ejections = 0;
+        return 0;
+    }
+
+    private void observe(double latencyNanos, long nowNanos) {
+        double weight = Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+        stampNanos = nowNanos;
+        ewmaNanos = latencyNanos > ewmaNanos ? latencyNanos : ewmaNanos * weight + latencyNanos * (1 - weight);
+    }
+
+    /**
+     * Стоимость отправки запроса: затухшая оценка задержки, умноженная на число запросов в работе плюс один.
+     *
+     * @param nowNanos Текущее время.
+     * @return Стоимость; меньше — лучше.
+     */
+    synchronized double cost(long nowNanos) {
+        double decayed = ewmaNanos * Math.exp(-Math.max(0, nowNanos - stampNanos) / decayNanos);
+        int pending = inFlight.get();
+        if (decayed == 0 && pending != 0) {
+            return PENALTY + pending;
+        }
+        return decayed * (pending + 1);
+    }
+
+    /**
+     * Исключает экземпляр на время, растущее с каждым исключением подряд.
+     *
+     * @return Время исключения в наносекундах.
+     */
+    synchronized long eject(long baseNanos, long maxNanos, long nowNanos) {
+        ejections++;
+        consecutiveFailures = 0;
+        long duration = Math.min(maxNanos, baseNanos * ejections);
+        ejectedUntilNanos = nowNanos + duration;
+        everEjected = true;
+        return duration;
+    }
+
+    boolean ejected(long nowNanos) {
+        // Статистика может быть создана позже переданного времени; до первого исключения экземпляр доступен
+        return everEjected && nowNanos - ejectedUntilNanos < 0;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,204 @@
+package com.abarigena.common.loadbalancer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Статистика экземпляров сервисов для {@link PeakEwmaLoadBalancer}.
+ * <p>
+ * Заполняется через {@link LoadBalancerLifecycle}: Spring Cloud LoadBalancer вызывает его для каждого
+ * запроса через {@code lb://}, в том числе для Feign-клиентов. Экземпляр, на котором несколько запросов
+ * подряд завершились ошибкой соединения или ответом 502/503/504, исключается из балансировки на время
+ * {@code base-ejection-time}, растущее с каждым исключением подряд, но не больше {@code max-ejection-time}.
+ * Одновременно исключается не больше {@code max-ejection-percent} известных экземпляров сервиса.
+ * Статистика экземпляров, пропавших из списка сервиса, удаляется ({@link #retain(String, List)}).
+ * </p>
+ */
+public class InstanceStatsRegistry
+        implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstanceStatsRegistry.class);
+
+    private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+    private final Map<String, List<ServiceInstance>> knownInstances = new ConcurrentHashMap<>();
+    private final Map<String, Counter> ejectionCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    private final double decayNanos;
+    private final int consecutiveFailures;
+    private final long baseEjectionNanos;
+    private final long maxEjectionNanos;
+    private final int maxEjectionPercent;
+
+    public InstanceStatsRegistry(MeterRegistry meterRegistry,
+                                 @Value("${loadbalancer.latency-aware.decay-time:10s}") Duration decayTime,
+                                 @Value("${loadbalancer.latency-aware.consecutive-failures:5}") int consecutiveFailures,
+                                 @Value("${loadbalancer.latency-aware.base-ejection-time:30s}") Duration baseEjectionTime,
+                                 @Value("${loadbalancer.latency-aware.max-ejection-time:5m}") Duration maxEjectionTime,
+                                 @Value("${loadbalancer.latency-aware.max-ejection-percent:50}") int maxEjectionPercent) {
+        this.meterRegistry = meterRegistry;
+        this.decayNanos = decayTime.toNanos();
+        this.consecutiveFailures = consecutiveFailures;
+        this.baseEjectionNanos = baseEjectionTime.toNanos();
+        this.maxEjectionNanos = maxEjectionTime.toNanos();
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+
+    /**
+     * Статистика экземпляра; создается при первом обращении.
+     *
+     * @param instance Экземпляр сервиса.
+     * @return {@link InstanceStats} Статистика экземпляра.
+     */
+    public InstanceStats stats(ServiceInstance instance) {
+        return services.computeIfAbsent(serviceKey(instance), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(address(instance), address -> new InstanceStats(decayNanos, System.nanoTime()));
+    }
+
+    /**
+     * Удаляет статистику экземпляров, которых нет в текущем списке сервиса.
+     * Балансировщики вызывают метод при каждом выборе; список сравнивается с предыдущим по ссылке,
+     * поэтому пока список из кэша не меняется, проверка ничего не стоит. Пустой список
+     * (временная недоступность реестра) статистику не очищает.
+     *
+     * @param serviceId ID сервиса.
+     * @param instances Текущий список экземпляров сервиса.
+     */
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        String service = String.valueOf(serviceId).toLowerCase();
+        if (instances.isEmpty() || knownInstances.put(service, instances) == instances) {
+            return;
+        }
+        Map<String, InstanceStats> instanceStats = services.get(service);
+        if (instanceStats == null) {
+            return;
+        }
+        Set<String> addresses = instances.stream()
+                .map(InstanceStatsRegistry::address)
+                .collect(Collectors.toSet());
+        if (instanceStats.keySet().retainAll(addresses)) {
+            logger.debug("Удалена статистика экземпляров сервиса {}, которых больше нет в списке", serviceId);
+        }
+    }
+
+    /**
+     * Стоимость отправки запроса на экземпляр, см. {@link InstanceStats#cost(long)}.
+     */
+    public double cost(ServiceInstance instance, long nowNanos) {
+        return stats(instance).cost(nowNanos);
+    }
+
+    /**
+     * Исключен ли экземпляр из балансировки.
+     */
+    public boolean isEjected(ServiceInstance instance, long nowNanos) {
+        return stats(instance).ejected(nowNanos);
+    }
+
+    /**
+     * Учитывает начало запроса к экземпляру.
+     *
+     * @param instance Экземпляр сервиса.
+     */
+    public void recordStart(ServiceInstance instance) {
+        stats(instance).onStart();
+    }
+
+    /**
+     * Учитывает завершение запроса и при серии ошибок исключает экземпляр.
+     *
+     * @param instance Экземпляр сервиса.
+     * @param latencyNanos Задержка ответа или -1, если она неизвестна.
+     * @param failure Запрос завершился ошибкой экземпляра.
+     */
+    public void recordComplete(ServiceInstance instance, long latencyNanos, boolean failure) {
+        long now = System.nanoTime();
+        InstanceStats stats = stats(instance);
+        int failures = stats.onComplete(latencyNanos, failure, now);
+        if (failures >= consecutiveFailures && mayEject(instance, now)) {
+            long duration = stats.eject(baseEjectionNanos, maxEjectionNanos, now);
+            ejectionCounters.computeIfAbsent(serviceKey(instance), service -> Counter.builder("loadbalancer.ejections")
+                    .tag("service", service)
+                    .register(meterRegistry)).increment();
+            logger.warn("Экземпляр {}:{} сервиса {} исключен из балансировки на {} мс после {} ошибок подряд",
+                    instance.getHost(), instance.getPort(), instance.getServiceId(),
+                    Duration.ofNanos(duration).toMillis(), failures);
+        }
+    }
+
+    private boolean mayEject(ServiceInstance instance, long nowNanos) {
+        Map<String, InstanceStats> instances = services.getOrDefault(serviceKey(instance), Map.of());
+        long ejected = instances.values().stream().filter(stats -> stats.ejected(nowNanos)).count();
+        return (ejected + 1) * 100 <= (long) instances.size() * maxEjectionPercent;
+    }
+
+    private static String address(ServiceInstance instance) {
+        return instance.getHost() + ':' + instance.getPort();
+    }
+
+    private static String serviceKey(ServiceInstance instance) {
+        return String.valueOf(instance.getServiceId()).toLowerCase();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                && ResponseData.class.isAssignableFrom(responseClass)
+                && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() != null) {
+            request.getContext().setRequestStartTime(System.nanoTime());
+        }
+        recordStart(lbResponse.getServer());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD
+                || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        RequestDataContext context = completionContext.getLoadBalancerRequest() != null
+                ? completionContext.getLoadBalancerRequest().getContext() : null;
+        long start = context != null ? context.getRequestStartTime() : 0;
+        long latency = start != 0 ? System.nanoTime() - start : -1;
+
+        boolean failure = completionContext.status() == CompletionContext.Status.FAILED
+                || isGatewayFailure(completionContext.getClientResponse());
+        recordComplete(lbResponse.getServer(), latency, failure);
+    }
+
+    private static boolean isGatewayFailure(ResponseData response) {
+        HttpStatusCode status = response != null ? response.getHttpStatus() : null;
+        return status != null && (status.value() == 502 || status.value() == 503 || status.value() == 504);
+    }
+}
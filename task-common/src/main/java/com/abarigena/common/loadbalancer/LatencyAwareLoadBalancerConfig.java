@@ -0,0 +1,37 @@
+package com.abarigena.common.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Конфигурация балансировщика по умолчанию для всех клиентов с {@code lb://}.
+ * <p>
+ * Класс не помечен {@code @Configuration}: он подключается через
+ * {@code @LoadBalancerClients(defaultConfiguration = ...)} и создается в контексте каждого сервиса.
+ * {@link InstanceStatsRegistry} общий для всех сервисов и подключается в приложении через {@code @Import}.
+ * </p>
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    /**
+     * Создает балансировщик {@link PeakEwmaLoadBalancer} вместо round-robin.
+     *
+     * @param environment Окружение контекста сервиса, содержит его имя.
+     * @param loadBalancerClientFactory Фабрика контекстов балансировщика.
+     * @param stats Статистика экземпляров.
+     * @return {@link ReactorLoadBalancer} Балансировщик сервиса.
+     */
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                        LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                        InstanceStatsRegistry stats) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, stats);
+    }
+}
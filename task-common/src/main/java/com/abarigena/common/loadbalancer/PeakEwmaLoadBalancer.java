@@ -0,0 +1,89 @@
+package com.abarigena.common.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Балансировщик, учитывающий задержку и нагрузку экземпляров.
+ * <p>
+ * Из экземпляров, не исключенных {@link InstanceStatsRegistry}, случайно берутся два и выбирается тот,
+ * у которого меньше стоимость: оценка задержки peak EWMA, умноженная на число запросов в работе плюс один.
+ * Случайная пара не дает всем запросам одновременно уйти на один самый быстрый экземпляр.
+ * Если исключены все экземпляры, выбор идет среди всех.
+ * </p>
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PeakEwmaLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry stats;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                InstanceStatsRegistry stats) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.stats = stats;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Выбирает экземпляр из списка.
+     *
+     * @param instances Доступные экземпляры сервиса.
+     * @return {@link Response} Выбранный экземпляр или пустой ответ, если экземпляров нет.
+     */
+    public Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            logger.warn("Нет доступных экземпляров сервиса {}", serviceId);
+            return new EmptyResponse();
+        }
+        stats.retain(serviceId, instances);
+        long now = System.nanoTime();
+        List<ServiceInstance> candidates = instances.stream()
+                .filter(instance -> !stats.isEjected(instance, now))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(stats.cost(a, now) <= stats.cost(b, now) ? a : b);
+    }
+}
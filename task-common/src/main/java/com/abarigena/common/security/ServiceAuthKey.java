@@ -0,0 +1,47 @@
+package com.abarigena.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Ключ межсервисной аутентификации.
+ * <p>
+ * Внутренние сервисы передают его в заголовке {@link #HEADER} (в gRPC — в метаданных с тем же именем
+ * в нижнем регистре) и проверяют во входящих запросах. Значение задается свойством {@code service-auth.key}
+ * (переменная окружения {@code SERVICE_AUTH_KEY}) и должно совпадать у всех сервисов; значение по умолчанию
+ * подходит только для локального запуска. Подключается в сервисах через {@code @Import}.
+ * </p>
+ */
+public class ServiceAuthKey {
+
+    public static final String HEADER = "X-Service-Auth";
+
+    private final String key;
+
+    public ServiceAuthKey(@Value("${service-auth.key:internal-service-key}") String key) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("Не задан ключ межсервисной аутентификации service-auth.key");
+        }
+        this.key = key;
+    }
+
+    /**
+     * @return Ключ для исходящих запросов.
+     */
+    public String value() {
+        return key;
+    }
+
+    /**
+     * Сравнивает ключ входящего запроса за время, не зависящее от совпавшего префикса.
+     *
+     * @param presented Значение заголовка, может быть null.
+     * @return true, если ключ совпадает.
+     */
+    public boolean matches(String presented) {
+        return presented != null && MessageDigest.isEqual(
+                key.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,11 +1,18 @@
 package com.abarigena.taskservice;
 
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.common.loadbalancer.LatencyAwareLoadBalancerConfig;
+import com.abarigena.common.security.ServiceAuthKey;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
 @EnableFeignClients
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
+@Import({InstanceStatsRegistry.class, ServiceAuthKey.class})
 public class TaskServiceApplication {
 
     public static void main(String[] args) {
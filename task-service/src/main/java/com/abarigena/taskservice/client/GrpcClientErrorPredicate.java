@@ -0,0 +1,19 @@
+package com.abarigena.taskservice.client;
+
+import io.grpc.StatusRuntimeException;
+
+import java.util.function.Predicate;
+
+/**
+ * Ответы gRPC сервиса пользователей с кодами клиентских ошибок (например, пользователь не найден)
+ * не считаются отказом circuit breaker, как и ответы 4xx Feign клиента.
+ * Подключается в {@code resilience4j.circuitbreaker.configs.default.ignore-exception-predicate}.
+ */
+public class GrpcClientErrorPredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        return throwable instanceof StatusRuntimeException e
+                && GrpcUserServiceClient.CLIENT_ERRORS.contains(e.getStatus().getCode());
+    }
+}
@@ -0,0 +1,133 @@
+package com.abarigena.taskservice.client;
+
+import com.abarigena.dto.grpc.UserInfo;
+import com.abarigena.dto.grpc.UserInfoRequest;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.dto.grpc.UsersInfoRequest;
+import com.abarigena.taskservice.dto.UserInfoDto;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.cloud.openfeign.FallbackFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Реализация {@link UserServiceClient} поверх внутреннего gRPC API сервиса пользователей.
+ * <p>
+ * Вызовы защищены так же, как Feign клиент: circuit breaker, ограничение параллелизма группы
+ * {@code user-service} и таймаут resilience4j. Успешные ответы сохраняются как последние известные значения.
+ * Если gRPC сервер недоступен, не поддерживает вызов или его circuit breaker разомкнут, запрос выполняется
+ * через Feign. При таймауте, переполнении ограничителя и прочих сбоях ответ формируется
+ * {@link UserServiceClientFallbackFactory} из последних известных значений, без повторного запроса.
+ * </p>
+ */
+@Slf4j
+public class GrpcUserServiceClient implements UserServiceClient {
+
+    static final String GROUP = "user-service";
+
+    /**
+     * Коды, которые означают корректный ответ сервиса: подменять их запасным ответом нельзя,
+     * и circuit breaker не считает их отказом (см. {@link GrpcClientErrorPredicate}).
+     */
+    static final Set<Status.Code> CLIENT_ERRORS = Set.of(Status.Code.NOT_FOUND, Status.Code.INVALID_ARGUMENT,
+            Status.Code.PERMISSION_DENIED, Status.Code.UNAUTHENTICATED, Status.Code.FAILED_PRECONDITION);
+
+    private final UserInfoServiceGrpc.UserInfoServiceBlockingStub stub;
+    private final UserServiceClient feignClient;
+    private final FallbackFactory<UserServiceClient> fallbackFactory;
+    private final UserInfoLastKnownValues lastKnownValues;
+    private final CircuitBreakerFactory<?, ?> circuitBreakerFactory;
+    private final long deadlineMillis;
+
+    public GrpcUserServiceClient(UserInfoServiceGrpc.UserInfoServiceBlockingStub stub,
+                                 UserServiceClient feignClient,
+                                 FallbackFactory<UserServiceClient> fallbackFactory,
+                                 UserInfoLastKnownValues lastKnownValues,
+                                 CircuitBreakerFactory<?, ?> circuitBreakerFactory,
+                                 long deadlineMillis) {
+        this.stub = stub;
+        this.feignClient = feignClient;
+        this.fallbackFactory = fallbackFactory;
+        this.lastKnownValues = lastKnownValues;
+        this.circuitBreakerFactory = circuitBreakerFactory;
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    @Override
+    public UserInfoDto getUserInfo(String userId) {
+        return run("UserServiceGrpcgetUserInfo", () -> {
+            UserInfoDto userInfo = toDto(stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .getUserInfo(UserInfoRequest.newBuilder().setUserId(userId).build()));
+            lastKnownValues.remember(userInfo);
+            return userInfo;
+        }, cause -> {
+            if (viaFeign(cause)) {
+                log.warn("gRPC недоступен ({}), запрос пользователя {} через Feign", cause.toString(), userId);
+                return feignClient.getUserInfo(userId);
+            }
+            return fallbackFactory.create(cause).getUserInfo(userId);
+        });
+    }
+
+    @Override
+    public List<UserInfoDto> getUsersInfo(Collection<String> userIds) {
+        return run("UserServiceGrpcgetUsersInfo", () -> {
+            List<UserInfo> users = stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .getUsersInfo(UsersInfoRequest.newBuilder().addAllUserIds(userIds).build())
+                    .getUsersList();
+
+            List<UserInfoDto> result = new ArrayList<>(users.size());
+            for (UserInfo userInfo : users) {
+                UserInfoDto dto = toDto(userInfo);
+                lastKnownValues.remember(dto);
+                result.add(dto);
+            }
+            return result;
+        }, cause -> {
+            if (viaFeign(cause)) {
+                log.warn("gRPC недоступен ({}), пакетный запрос {} пользователей через Feign",
+                        cause.toString(), userIds.size());
+                return feignClient.getUsersInfo(userIds);
+            }
+            return fallbackFactory.create(cause).getUsersInfo(userIds);
+        });
+    }
+
+    private <T> T run(String id, Supplier<T> call, Function<Throwable, T> fallback) {
+        return circuitBreakerFactory.create(id, GROUP).run(call, cause -> {
+            if (cause instanceof StatusRuntimeException e && CLIENT_ERRORS.contains(e.getStatus().getCode())) {
+                throw e;
+            }
+            return fallback.apply(cause);
+        });
+    }
+
+    /**
+     * Переход на Feign имеет смысл, только если gRPC сервер не смог принять вызов.
+     * Истекший дедлайн не повторяется, чтобы не удваивать задержку.
+     */
+    private static boolean viaFeign(Throwable cause) {
+        if (cause instanceof CallNotPermittedException) {
+            return true;
+        }
+        if (cause instanceof StatusRuntimeException e) {
+            Status.Code code = e.getStatus().getCode();
+            return code == Status.Code.UNAVAILABLE || code == Status.Code.UNIMPLEMENTED;
+        }
+        return false;
+    }
+
+    private UserInfoDto toDto(UserInfo userInfo) {
+        return new UserInfoDto(userInfo.getId(), userInfo.getUsername(), userInfo.getEmail());
+    }
+}
@@ -0,0 +1,52 @@
+package com.abarigena.taskservice.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Бюджет дублирующих запросов.
+ * Каждый исходный запрос пополняет бюджет на долю дублирующего запроса, каждый дублирующий запрос
+ * расходует одну единицу. Поэтому доля дублей не превышает заданный процент от общего потока
+ * (с небольшим запасом на всплески).
+ */
+public class HedgeBudget {
+
+    private static final long UNIT = 1_000;
+
+    private final long creditPerRequest;
+    private final long maxCredits;
+    private final AtomicLong credits;
+
+    /**
+     * @param budgetPercent допустимая доля дублирующих запросов в процентах
+     * @param maxBurst сколько дублей подряд можно отправить из накопленного бюджета
+     */
+    public HedgeBudget(double budgetPercent, int maxBurst) {
+        this.creditPerRequest = Math.round(UNIT * budgetPercent / 100.0);
+        this.maxCredits = UNIT * maxBurst;
+        this.credits = new AtomicLong();
+    }
+
+    /**
+     * Учитывает исходный запрос.
+     */
+    public void onRequest() {
+        credits.accumulateAndGet(creditPerRequest, (current, credit) -> Math.min(maxCredits, current + credit));
+    }
+
+    /**
+     * Пытается списать бюджет на один дублирующий запрос.
+     *
+     * @return true, если дублирующий запрос разрешен
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long current = credits.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (credits.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.abarigena.taskservice.client;
+
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Feign клиент с дублирующими (hedged) запросами для идемпотентных GET запросов.
+ * <p>
+ * Запрос отправляется экземпляру, выбранному балансировщиком. Если ответ не пришел за время,
+ * равное заданному перцентилю недавних задержек, такой же запрос отправляется другому экземпляру
+ * из Eureka с наименьшей стоимостью по {@link InstanceStatsRegistry}. Используется первый ответ со статусом
+ * меньше 500, второй запрос отменяется, а его ответ, если он все же пришел, закрывается. Ответ 5xx
+ * возвращается, только если другой попытки нет или она тоже не удалась. Доля дублей ограничена
+ * {@link HedgeBudget}. Попытки идут мимо жизненного цикла балансировщика, поэтому их задержки и ошибки
+ * записываются в статистику экземпляров здесь.
+ * </p>
+ * Остальные методы выполняются обычным клиентом с балансировкой.
+ */
+@Slf4j
+public class HedgingClient implements Client, Closeable {
+
+    private final Client loadBalancedClient;
+    private final Client delegate;
+    private final LoadBalancerClient loadBalancerClient;
+    private final DiscoveryClient discoveryClient;
+    private final InstanceStatsRegistry instanceStats;
+    private final Settings settings;
+    private final ThreadPoolExecutor executor;
+    private final LatencyPercentileTracker latencies;
+    private final HedgeBudget budget;
+
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+    private final Counter skippedByBudget;
+    private final Counter skippedNoInstance;
+
+    /**
+     * Параметры дублирования запросов.
+     *
+     * @param percentile перцентиль задержки, после которого отправляется дубль
+     * @param minDelay минимальная задержка перед дублем
+     * @param maxDelay максимальная задержка перед дублем, используется пока нет статистики
+     * @param budgetPercent допустимая доля дублей в процентах
+     * @param maxBurst сколько дублей подряд можно отправить из накопленного бюджета
+     * @param maxThreads максимальное количество одновременно выполняемых попыток
+     */
+    public record Settings(double percentile, Duration minDelay, Duration maxDelay,
+                           double budgetPercent, int maxBurst, int maxThreads) {
+    }
+
+    public HedgingClient(String clientName, Client loadBalancedClient, Client delegate,
+                         LoadBalancerClient loadBalancerClient, DiscoveryClient discoveryClient,
+                         InstanceStatsRegistry instanceStats, Settings settings, MeterRegistry meterRegistry) {
+        this.loadBalancedClient = loadBalancedClient;
+        this.delegate = delegate;
+        this.loadBalancerClient = loadBalancerClient;
+        this.discoveryClient = discoveryClient;
+        this.instanceStats = instanceStats;
+        this.settings = settings;
+        this.latencies = new LatencyPercentileTracker(settings.percentile(), 256);
+        this.budget = new HedgeBudget(settings.budgetPercent(), settings.maxBurst());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.maxThreads(), settings.maxThreads(),
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(settings.maxThreads()), runnable -> {
+                    Thread thread = new Thread(runnable, "hedging-" + clientName + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.primaryWins = counter(meterRegistry, clientName, "feign.hedging.requests", "winner", "primary");
+        this.hedgeWins = counter(meterRegistry, clientName, "feign.hedging.requests", "winner", "hedge");
+        this.skippedByBudget = counter(meterRegistry, clientName, "feign.hedging.skipped", "reason", "budget");
+        this.skippedNoInstance = counter(meterRegistry, clientName, "feign.hedging.skipped", "reason", "no-instance");
+        Gauge.builder("feign.hedging.delay", this, client -> client.hedgeDelayNanos() / 1_000_000.0)
+                .tag("client", clientName)
+                .baseUnit("milliseconds")
+                .description("Текущая задержка перед отправкой дублирующего запроса")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET) {
+            return loadBalancedClient.execute(request, options);
+        }
+
+        URI originalUri = URI.create(request.url());
+        String serviceId = originalUri.getHost();
+        ServiceInstance primary = loadBalancerClient.choose(serviceId);
+        if (primary == null) {
+            return loadBalancedClient.execute(request, options);
+        }
+        budget.onRequest();
+
+        HedgedCall call = new HedgedCall(request, originalUri, options);
+        if (!call.launch(primary, false)) {
+            return delegate.execute(call.requestFor(primary), options);
+        }
+
+        try {
+            return call.await(hedgeDelayNanos());
+        } catch (TimeoutException e) {
+            ServiceInstance other = pickOtherInstance(serviceId, primary);
+            if (other == null) {
+                skippedNoInstance.increment();
+            } else if (!budget.tryAcquire()) {
+                skippedByBudget.increment();
+            } else {
+                log.debug("Нет ответа от {} за {} мс, дублирующий запрос к {}", primary.getInstanceId(),
+                        TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos()), other.getInstanceId());
+                call.launch(other, true);
+            }
+        }
+
+        try {
+            long timeoutMillis = (long) options.connectTimeoutMillis() + options.readTimeoutMillis();
+            return call.await(TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        } catch (TimeoutException e) {
+            call.cancelAll();
+            throw new IOException("Нет ответа от " + serviceId + " за отведенное время", e);
+        }
+    }
+
+    /**
+     * Задержка перед дублирующим запросом: перцентиль недавних задержек в заданных границах.
+     */
+    long hedgeDelayNanos() {
+        long min = settings.minDelay().toNanos();
+        long max = settings.maxDelay().toNanos();
+        long observed = latencies.percentileNanos();
+        return observed < 0 ? max : Math.max(min, Math.min(max, observed));
+    }
+
+    private ServiceInstance pickOtherInstance(String serviceId, ServiceInstance primary) {
+        long now = System.nanoTime();
+        return discoveryClient.getInstances(serviceId).stream()
+                .filter(instance -> !sameInstance(instance, primary))
+                .filter(instance -> !instanceStats.isEjected(instance, now))
+                .min(Comparator.comparingDouble(instance -> instanceStats.cost(instance, now)))
+                .orElse(null);
+    }
+
+    private static boolean isServerError(int status) {
+        return status >= 500;
+    }
+
+    private static boolean isGatewayFailure(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        if (a.getInstanceId() != null && b.getInstanceId() != null) {
+            return a.getInstanceId().equals(b.getInstanceId());
+        }
+        return Objects.equals(a.getHost(), b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private static Counter counter(MeterRegistry registry, String clientName, String name, String tag, String value) {
+        return Counter.builder(name).tag("client", clientName).tag(tag, value).register(registry);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Один логический запрос и его попытки (основная и, возможно, дублирующая).
+     */
+    private final class HedgedCall {
+
+        private final Request request;
+        private final URI originalUri;
+        private final Request.Options options;
+        private final CompletableFuture<Attempt> winner = new CompletableFuture<>();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicReference<Attempt> serverError = new AtomicReference<>();
+        private final Future<?>[] attempts = new Future<?>[2];
+
+        private HedgedCall(Request request, URI originalUri, Request.Options options) {
+            this.request = request;
+            this.originalUri = originalUri;
+            this.options = options;
+        }
+
+        private Request requestFor(ServiceInstance instance) {
+            URI uri = loadBalancerClient.reconstructURI(instance, originalUri);
+            return Request.create(request.httpMethod(), uri.toString(), request.headers(), request.body(),
+                    request.charset(), request.requestTemplate());
+        }
+
+        /**
+         * Запускает попытку в пуле.
+         *
+         * @return false, если пул переполнен и попытка не запущена
+         */
+        private boolean launch(ServiceInstance instance, boolean hedge) {
+            Request target = requestFor(instance);
+            outstanding.incrementAndGet();
+            try {
+                attempts[hedge ? 1 : 0] = executor.submit(() -> run(instance, target, hedge));
+                return true;
+            } catch (RejectedExecutionException e) {
+                outstanding.decrementAndGet();
+                return false;
+            }
+        }
+
+        private void run(ServiceInstance instance, Request target, boolean hedge) {
+            instanceStats.recordStart(instance);
+            long start = System.nanoTime();
+            try {
+                Response response = delegate.execute(target, options);
+                long latency = System.nanoTime() - start;
+                latencies.record(latency);
+                instanceStats.recordComplete(instance, latency, isGatewayFailure(response.status()));
+                Attempt attempt = new Attempt(response, hedge);
+                if (isServerError(response.status())) {
+                    // Ответ 5xx откладывается: пока другая попытка не завершилась, ждем ее ответа
+                    Attempt previous = serverError.getAndSet(attempt);
+                    if (previous != null) {
+                        previous.response().close();
+                    }
+                } else {
+                    complete(attempt);
+                }
+                finish(null);
+            } catch (Throwable e) {
+                // Попытка, отмененная после ответа другой, не считается ошибкой экземпляра
+                instanceStats.recordComplete(instance, -1, !winner.isDone());
+                finish(e);
+            }
+        }
+
+        private void complete(Attempt attempt) {
+            if (!winner.complete(attempt)) {
+                attempt.response().close();
+            }
+        }
+
+        /**
+         * Отмечает завершение попытки. После последней попытки возвращается отложенный ответ 5xx,
+         * а если его нет — ошибка, если ответ еще не выбран.
+         */
+        private void finish(Throwable error) {
+            if (outstanding.decrementAndGet() > 0) {
+                return;
+            }
+            Attempt failed = serverError.getAndSet(null);
+            if (failed != null) {
+                complete(failed);
+            } else if (error != null) {
+                winner.completeExceptionally(error);
+            }
+        }
+
+        private Response await(long timeoutNanos) throws IOException, TimeoutException {
+            try {
+                Attempt attempt = winner.get(timeoutNanos, TimeUnit.NANOSECONDS);
+                cancel(attempts[attempt.hedge() ? 0 : 1]);
+                (attempt.hedge() ? hedgeWins : primaryWins).increment();
+                return attempt.response();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new InterruptedIOException("Запрос прерван");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        /**
+         * Отменяет незавершенные попытки. Прерывание снимает ожидание соединения из пула;
+         * ответ, пришедший после отмены, закрывается в {@link #run(ServiceInstance, Request, boolean)}.
+         */
+        private void cancelAll() {
+            for (Future<?> attempt : attempts) {
+                cancel(attempt);
+            }
+        }
+
+        private void cancel(Future<?> attempt) {
+            if (attempt != null) {
+                attempt.cancel(true);
+            }
+        }
+    }
+
+    private record Attempt(Response response, boolean hedge) {
+    }
+}
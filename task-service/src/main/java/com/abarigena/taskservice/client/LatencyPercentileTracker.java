@@ -0,0 +1,65 @@
+package com.abarigena.taskservice.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Перцентиль задержки по последним успешным запросам.
+ * Значения хранятся в кольцевом буфере, перцентиль пересчитывается каждые 20 значений
+ * (каждую четверть буфера, если он меньше 80), поэтому чтение не требует сортировки на каждом запросе.
+ */
+public class LatencyPercentileTracker {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final double percentile;
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private final int recomputeEvery;
+    private volatile long percentileNanos = -1;
+
+    /**
+     * @param percentile перцентиль от 0 до 1, например 0.95
+     * @param capacity количество хранимых последних значений
+     */
+    public LatencyPercentileTracker(double percentile, int capacity) {
+        this.percentile = percentile;
+        this.samples = new AtomicLongArray(capacity);
+        this.recomputeEvery = Math.max(1, Math.min(capacity / 4, MIN_SAMPLES));
+    }
+
+    /**
+     * Добавляет значение задержки.
+     *
+     * @param nanos задержка в наносекундах
+     */
+    public void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if ((n + 1) % recomputeEvery == 0) {
+            recompute(n + 1);
+        }
+    }
+
+    /**
+     * @return перцентиль задержки в наносекундах или -1, если данных пока недостаточно
+     */
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void recompute(long recorded) {
+        int size = (int) Math.min(recorded, samples.length());
+        if (size < MIN_SAMPLES) {
+            return;
+        }
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        percentileNanos = copy[Math.max(0, Math.min(size - 1, index))];
+    }
+}
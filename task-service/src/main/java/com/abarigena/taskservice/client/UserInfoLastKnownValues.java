@@ -0,0 +1,51 @@
+package com.abarigena.taskservice.client;
+
+import com.abarigena.taskservice.dto.UserInfoDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Последние успешно полученные данные о пользователях.
+ * Используются как быстрый ответ, когда сервис пользователей недоступен или перегружен.
+ * Размер ограничен, при переполнении вытесняются давно не использованные записи.
+ */
+@Component
+public class UserInfoLastKnownValues {
+
+    private final Map<String, UserInfoDto> values;
+
+    public UserInfoLastKnownValues(@Value("${user-service.fallback.max-entries:10000}") int maxEntries) {
+        this.values = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserInfoDto> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Запоминает информацию о пользователе.
+     *
+     * @param userInfo информация о пользователе
+     */
+    public void remember(UserInfoDto userInfo) {
+        if (userInfo != null && userInfo.getId() != null) {
+            values.put(userInfo.getId(), userInfo);
+        }
+    }
+
+    /**
+     * Возвращает последнее известное значение для пользователя.
+     *
+     * @param userId ID пользователя
+     * @return информация о пользователе, если она когда-либо была получена
+     */
+    public Optional<UserInfoDto> get(String userId) {
+        return Optional.ofNullable(values.get(userId));
+    }
+}
@@ -1,16 +1,36 @@
 package com.abarigena.taskservice.client;
 
+import com.abarigena.common.feign.PooledFeignClientConfig;
 import com.abarigena.taskservice.config.FeignServiceAuthConfig;
+import com.abarigena.taskservice.config.HedgingFeignClientConfig;
+import com.abarigena.taskservice.config.UserServiceFeignConfig;
 import com.abarigena.taskservice.dto.UserInfoDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Клиент для взаимодействия с сервисом пользователей.
  * Предназначен для получения информации о пользователе по его ID.
+ * <p>
+ * Feign-реализация не является основной: при включенном {@code user-service.grpc.enabled}
+ * вместо нее внедряется {@link GrpcUserServiceClient}.
+ * </p>
+ * <p>
+ * Вызовы защищены таймаутами, ограничением параллелизма и circuit breaker (resilience4j).
+ * При отказе ответ формируется {@link UserServiceClientFallbackFactory} из последних известных значений.
+ * </p>
  */
-@FeignClient(name = "user-service", configuration = FeignServiceAuthConfig.class)
+@FeignClient(name = "user-service",
+        configuration = {FeignServiceAuthConfig.class, PooledFeignClientConfig.class, HedgingFeignClientConfig.class,
+                UserServiceFeignConfig.class},
+        fallbackFactory = UserServiceClientFallbackFactory.class,
+        qualifiers = "feignUserServiceClient", primary = false)
 public interface UserServiceClient {
 
     /**
@@ -21,4 +41,14 @@ public interface UserServiceClient {
      */
     @GetMapping("/users/info/{userId}")
     UserInfoDto getUserInfo(@PathVariable("userId") String userId);
-}
\ No newline at end of file
+
+    /**
+     * Получает информацию о нескольких пользователях одним запросом.
+     * Неизвестные ID в ответ не попадают.
+     *
+     * @param userIds ID пользователей
+     * @return список объектов с информацией о пользователях
+     */
+    @PostMapping("/users/info/batch")
+    List<UserInfoDto> getUsersInfo(@RequestBody Collection<String> userIds);
+}
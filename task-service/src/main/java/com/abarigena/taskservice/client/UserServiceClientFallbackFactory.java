@@ -0,0 +1,66 @@
+package com.abarigena.taskservice.client;
+
+import com.abarigena.taskservice.dto.UserInfoDto;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Запасная реализация клиента сервиса пользователей.
+ * Вызывается, когда запрос не уложился в таймаут, отклонен ограничителем параллелизма
+ * или circuit breaker разомкнут. Отвечает последними известными значениями.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserServiceClientFallbackFactory implements FallbackFactory<UserServiceClient> {
+
+    private final UserInfoLastKnownValues lastKnownValues;
+
+    @Override
+    public UserServiceClient create(Throwable cause) {
+        return new UserServiceClient() {
+            @Override
+            public UserInfoDto getUserInfo(String userId) {
+                rethrowClientError(cause);
+                Optional<UserInfoDto> userInfo = lastKnownValues.get(userId);
+                if (userInfo.isEmpty()) {
+                    log.warn("Сервис пользователей недоступен, сохраненных данных о пользователе {} нет: {}",
+                            userId, cause.toString());
+                    throw new IllegalStateException("Сервис пользователей недоступен", cause);
+                }
+                log.debug("Сервис пользователей недоступен, использованы сохраненные данные о пользователе {}",
+                        userId);
+                return userInfo.get();
+            }
+
+            @Override
+            public List<UserInfoDto> getUsersInfo(Collection<String> userIds) {
+                rethrowClientError(cause);
+                List<UserInfoDto> users = userIds.stream()
+                        .map(lastKnownValues::get)
+                        .flatMap(Optional::stream)
+                        .toList();
+                log.warn("Сервис пользователей недоступен, из сохраненных данных найдено {} из {} пользователей: {}",
+                        users.size(), userIds.size(), cause.toString());
+                return users;
+            }
+        };
+    }
+
+    /**
+     * Ошибки 4xx означают корректный ответ сервиса (например, пользователь не найден),
+     * подменять их устаревшими данными нельзя.
+     */
+    private static void rethrowClientError(Throwable cause) {
+        if (cause instanceof FeignException.FeignClientException clientError) {
+            throw clientError;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.abarigena.taskservice.config;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,12 +15,13 @@ public class FeignServiceAuthConfig {
      * Создаёт интерцептор, который добавляет заголовок авторизации для запросов,
      * отправляемых через Feign.
      *
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return интерцептор для добавления заголовка авторизации
      */
     @Bean
-    public RequestInterceptor serviceAuthInterceptor() {
+    public RequestInterceptor serviceAuthInterceptor(ServiceAuthKey serviceAuthKey) {
         return requestTemplate -> {
-            requestTemplate.header("X-Service-Auth", "internal-service-key");
+            requestTemplate.header(ServiceAuthKey.HEADER, serviceAuthKey.value());
         };
     }
 }
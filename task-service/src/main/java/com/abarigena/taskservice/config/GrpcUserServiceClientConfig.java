@@ -0,0 +1,51 @@
+package com.abarigena.taskservice.config;
+
+import com.abarigena.common.grpc.UserServiceGrpcConfig;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.taskservice.client.GrpcUserServiceClient;
+import com.abarigena.taskservice.client.UserInfoLastKnownValues;
+import com.abarigena.taskservice.client.UserServiceClient;
+import com.abarigena.taskservice.client.UserServiceClientFallbackFactory;
+import io.grpc.ManagedChannel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.circuitbreaker.CircuitBreakerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Конфигурация gRPC клиента сервиса пользователей поверх общего канала {@link UserServiceGrpcConfig}.
+ * Включается свойством {@code user-service.grpc.enabled}, иначе используется Feign клиент.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user-service.grpc.enabled", havingValue = "true")
+@Import(UserServiceGrpcConfig.class)
+public class GrpcUserServiceClientConfig {
+
+    @Value("${user-service.grpc.deadline-ms:2000}")
+    private long deadlineMillis;
+
+    /**
+     * gRPC реализация клиента сервиса пользователей, которая внедряется вместо Feign клиента.
+     *
+     * @param userServiceChannel канал к сервису пользователей.
+     * @param feignClient Feign клиент для запасного пути.
+     * @param fallbackFactory запасная реализация из последних известных значений.
+     * @param lastKnownValues хранилище последних известных значений.
+     * @param circuitBreakerFactory фабрика circuit breaker, та же, что у Feign клиента.
+     * @return клиент сервиса пользователей.
+     */
+    @Bean
+    @Primary
+    public UserServiceClient grpcUserServiceClient(ManagedChannel userServiceChannel,
+                                                   @Qualifier("feignUserServiceClient") UserServiceClient feignClient,
+                                                   UserServiceClientFallbackFactory fallbackFactory,
+                                                   UserInfoLastKnownValues lastKnownValues,
+                                                   CircuitBreakerFactory<?, ?> circuitBreakerFactory) {
+        return new GrpcUserServiceClient(UserInfoServiceGrpc.newBlockingStub(userServiceChannel),
+                feignClient, fallbackFactory, lastKnownValues, circuitBreakerFactory, deadlineMillis);
+    }
+}
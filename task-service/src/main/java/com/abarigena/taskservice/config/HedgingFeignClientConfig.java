@@ -0,0 +1,73 @@
+package com.abarigena.taskservice.config;
+
+import com.abarigena.common.feign.PooledFeignClientConfig;
+import com.abarigena.common.feign.PooledFeignClientDecorator;
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import com.abarigena.taskservice.client.HedgingClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Дублирующие GET запросы для Feign клиента на базе {@link PooledFeignClientConfig}.
+ * Подключается через атрибут {@code configuration} у {@code @FeignClient} вместе с пулом;
+ * при включенном {@code feign.hedging.<имя клиента>.enabled} запросы идут через {@link HedgingClient}.
+ */
+@Slf4j
+public class HedgingFeignClientConfig {
+
+    private static final String HEDGING_PREFIX = "feign.hedging.";
+
+    /**
+     * Обертка клиента пула, которая дублирует GET запросы на другой экземпляр.
+     *
+     * @param clientName имя Feign клиента.
+     * @param environment окружение для чтения параметров дублирования.
+     * @param loadBalancerClient клиент балансировщика.
+     * @param discoveryClient клиент Eureka для выбора второго экземпляра.
+     * @param instanceStats статистика экземпляров для выбора второго экземпляра.
+     * @param meterRegistry реестр метрик.
+     * @return обертка клиента; без дублирования, если оно выключено.
+     */
+    @Bean
+    public PooledFeignClientDecorator hedgingClientDecorator(
+            @Value("${spring.cloud.openfeign.client.name}") String clientName,
+            Environment environment,
+            LoadBalancerClient loadBalancerClient,
+            DiscoveryClient discoveryClient,
+            InstanceStatsRegistry instanceStats,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        String prefix = HEDGING_PREFIX + clientName + ".";
+        if (!environment.getProperty(prefix + "enabled", Boolean.class, false)) {
+            return (loadBalanced, delegate) -> loadBalanced;
+        }
+
+        HedgingClient.Settings settings = new HedgingClient.Settings(
+                environment.getProperty(prefix + "percentile", Double.class, 0.95),
+                duration(environment, prefix + "min-delay", Duration.ofMillis(5)),
+                duration(environment, prefix + "max-delay", Duration.ofMillis(250)),
+                environment.getProperty(prefix + "budget-percent", Double.class, 10.0),
+                environment.getProperty(prefix + "max-burst", Integer.class, 10),
+                environment.getProperty(prefix + "max-threads", Integer.class, 64));
+        log.info("Дублирующие запросы Feign клиента {}: перцентиль {}, бюджет {}%",
+                clientName, settings.percentile(), settings.budgetPercent());
+        return (loadBalanced, delegate) -> new HedgingClient(clientName, loadBalanced, delegate, loadBalancerClient,
+                discoveryClient, instanceStats, settings, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Читает длительность в формате Spring Boot ({@code 30s}, {@code 5m}, {@code PT2S}).
+     */
+    private static Duration duration(Environment environment, String property, Duration defaultValue) {
+        return Binder.get(environment).bind(property, Duration.class).orElse(defaultValue);
+    }
+}
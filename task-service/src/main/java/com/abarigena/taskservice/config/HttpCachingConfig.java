@@ -0,0 +1,28 @@
+package com.abarigena.taskservice.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Конфигурация HTTP-кэширования ответов API задач.
+ * ETag позволяет шлюзу и клиентам перепроверять сохраненный ответ запросом с If-None-Match
+ * и получать 304 без тела.
+ */
+@Configuration
+public class HttpCachingConfig {
+
+    /**
+     * Создаёт фильтр, который вычисляет ETag по телу ответа на GET-запросы к задачам.
+     *
+     * @return регистрация фильтра для путей /tasks/*
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> shallowEtagHeaderFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/tasks/*");
+        return registration;
+    }
+}
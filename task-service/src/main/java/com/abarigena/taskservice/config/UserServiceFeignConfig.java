@@ -0,0 +1,39 @@
+package com.abarigena.taskservice.config;
+
+import com.abarigena.taskservice.client.UserInfoLastKnownValues;
+import com.abarigena.taskservice.dto.UserInfoDto;
+import feign.ResponseInterceptor;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Collection;
+
+/**
+ * Настройки Feign клиента сервиса пользователей.
+ * Подключается через атрибут {@code configuration} у {@code @FeignClient}, поэтому не помечен
+ * {@code @Configuration}.
+ */
+public class UserServiceFeignConfig {
+
+    /**
+     * Сохраняет каждый успешно полученный ответ как последнее известное значение
+     * для запасной реализации клиента.
+     *
+     * @param lastKnownValues хранилище последних известных значений
+     * @return интерцептор ответов
+     */
+    @Bean
+    public ResponseInterceptor lastKnownValuesInterceptor(UserInfoLastKnownValues lastKnownValues) {
+        return (invocationContext, chain) -> {
+            Object result = chain.next(invocationContext);
+            if (result instanceof UserInfoDto userInfo) {
+                lastKnownValues.remember(userInfo);
+            } else if (result instanceof Collection<?> items) {
+                items.stream()
+                        .filter(UserInfoDto.class::isInstance)
+                        .map(UserInfoDto.class::cast)
+                        .forEach(lastKnownValues::remember);
+            }
+            return result;
+        };
+    }
+}
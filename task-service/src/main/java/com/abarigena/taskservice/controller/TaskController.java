@@ -10,15 +10,18 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -31,6 +34,9 @@ import java.util.List;
 public class TaskController {
     private final TaskService taskService;
 
+    @Value("${tasks.cache.max-age:5s}")
+    private Duration taskMaxAge;
+
     @Autowired
     public TaskController(TaskService taskService) {
         this.taskService = taskService;
@@ -75,7 +81,10 @@ public class TaskController {
     )
     public ResponseEntity<TaskDto> getTaskById(@PathVariable Long taskId) {
         TaskDto task = taskService.findTaskById(taskId);
-        return ResponseEntity.ok(task);
+        // Задача выдается только аутентифицированным пользователям, общим кэшам хранить ее нельзя
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(taskMaxAge).cachePrivate())
+                .body(task);
     }
 
     /**
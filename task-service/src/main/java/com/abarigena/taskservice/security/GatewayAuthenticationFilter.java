@@ -1,5 +1,6 @@
 package com.abarigena.taskservice.security;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,12 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     private static final String USER_ID_HEADER = "X-User-Id";
     private static final String USER_ROLE_HEADER = "X-User-Role";
 
+    private final ServiceAuthKey serviceAuthKey;
+
+    public GatewayAuthenticationFilter(ServiceAuthKey serviceAuthKey) {
+        this.serviceAuthKey = serviceAuthKey;
+    }
+
     /**
      * Метод, который определяет, следует ли пропускать фильтрацию для текущего запроса.
      * <p>
@@ -75,8 +82,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("Обработка запроса к: {}", request.getRequestURI());
 
         // Проверяем заголовок для межсервисной коммуникации
-        String serviceAuth = request.getHeader("X-Service-Auth");
-        if (serviceAuth != null && serviceAuth.equals("internal-service-key")) {
+        if (serviceAuthKey.matches(request.getHeader(ServiceAuthKey.HEADER))) {
             logger.info("Обнаружена межсервисная аутентификация");
             // Создаем аутентификацию для сервиса с ролью SERVICE
             UsernamePasswordAuthenticationToken authentication =
@@ -1,5 +1,6 @@
 package com.abarigena.taskservice.security;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -39,11 +40,12 @@ public class SecurityConfig {
      * </p>
      *
      * @param http объект HttpSecurity для настройки безопасности
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return настроенная цепочка фильтров безопасности
      * @throws Exception исключение, если происходит ошибка при настройке безопасности
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ServiceAuthKey serviceAuthKey) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -54,7 +56,7 @@ public class SecurityConfig {
                 .formLogin(formLogin -> formLogin.disable())
                 .httpBasic(httpBasic -> httpBasic.disable())
 
-                .addFilterBefore(new GatewayAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new GatewayAuthenticationFilter(serviceAuthKey), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -62,10 +64,11 @@ public class SecurityConfig {
     /**
      * Бин для фильтра аутентификации шлюза.
      *
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return экземпляр фильтра аутентификации шлюза
      */
     @Bean
-    public GatewayAuthenticationFilter gatewayAuthenticationFilter() {
-        return new GatewayAuthenticationFilter();
+    public GatewayAuthenticationFilter gatewayAuthenticationFilter(ServiceAuthKey serviceAuthKey) {
+        return new GatewayAuthenticationFilter(serviceAuthKey);
     }
 }
\ No newline at end of file
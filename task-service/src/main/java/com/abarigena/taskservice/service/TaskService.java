@@ -19,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +34,7 @@ public class TaskService {
     private final CommentRepository commentRepository;
     private final UserServiceClient userServiceClient;
 
-    private final Map<String, UserInfoDto> userCache = new HashMap<>();
+    private final Map<String, UserInfoDto> userCache = new ConcurrentHashMap<>();
 
     @Autowired
     public TaskService(TaskRepository taskRepository, CommentRepository commentRepository,
@@ -71,6 +72,7 @@ public class TaskService {
                 pageable
         );
 
+        prefetchUsers(collectUserIds(tasks.getContent()));
         return tasks.map(this::convertToTaskDto);
     }
 
@@ -86,6 +88,7 @@ public class TaskService {
         log.info("Поиск задач по автору: {}", authorId);
         Page<Task> tasks = taskRepository.findByAuthorId(authorId, pageable);
         log.info("Найдено {} задач для автора {}", tasks.getTotalElements(), authorId);
+        prefetchUsers(collectUserIds(tasks.getContent()));
         return tasks.map(this::convertToTaskDto);
     }
 
@@ -101,6 +104,7 @@ public class TaskService {
         log.info("Поиск задач по исполнителю: {}", assigneeId);
         Page<Task> tasks = taskRepository.findByAssigneeId(assigneeId, pageable);
         log.info("Найдено {} задач для исполнителя {}", tasks.getTotalElements(), assigneeId);
+        prefetchUsers(collectUserIds(tasks.getContent()));
         return tasks.map(this::convertToTaskDto);
     }
 
@@ -115,6 +119,7 @@ public class TaskService {
         log.info("Поиск задачи по ID: {}", taskId);
         Task task = getTaskById(taskId);
         log.info("Задача найдена: {}", task.getTitle());
+        prefetchUsers(collectUserIds(List.of(task)));
         return convertToTaskDto(task);
     }
 
@@ -285,6 +290,7 @@ public class TaskService {
         List<Comment> comments = commentRepository.findByTaskId(taskId);
         log.info("Найдено {} комментариев для задачи ID: {}", comments.size(), taskId);
 
+        prefetchUsers(comments.stream().map(Comment::getAuthorId).collect(Collectors.toSet()));
         return comments.stream()
                 .map(this::convertToCommentDto)
                 .collect(Collectors.toList());
@@ -364,6 +370,52 @@ public class TaskService {
                 .build();
     }
 
+    /**
+     * Собирает идентификаторы всех пользователей, упоминаемых в задачах:
+     * авторов, исполнителей и авторов комментариев.
+     *
+     * @param tasks задачи.
+     * @return множество идентификаторов пользователей.
+     */
+    private Set<String> collectUserIds(Collection<Task> tasks) {
+        Set<String> userIds = new HashSet<>();
+        for (Task task : tasks) {
+            userIds.add(task.getAuthorId());
+            userIds.addAll(task.getAssigneeIds());
+            if (task.getComments() != null) {
+                task.getComments().forEach(comment -> userIds.add(comment.getAuthorId()));
+            }
+        }
+        return userIds;
+    }
+
+    /**
+     * Загружает в кэш информацию о пользователях, которых еще нет в кэше, одним пакетным запросом.
+     * При ошибке имена будут получены по одному в {@link #getUsernameById(String)}.
+     *
+     * @param userIds идентификаторы пользователей.
+     */
+    private void prefetchUsers(Collection<String> userIds) {
+        List<String> missing = userIds.stream()
+                .filter(Objects::nonNull)
+                .filter(userId -> !userCache.containsKey(userId))
+                .collect(Collectors.toList());
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        try {
+            log.debug("Пакетный запрос информации о {} пользователях", missing.size());
+            List<UserInfoDto> users = userServiceClient.getUsersInfo(missing);
+            if (users != null) {
+                users.forEach(userInfo -> userCache.put(userInfo.getId(), userInfo));
+            }
+        } catch (Exception e) {
+            log.warn("Ошибка при пакетном получении информации о пользователях: {}", e.getMessage());
+        }
+    }
+
     /**
      * Получает имя пользователя по его идентификатору.
      *
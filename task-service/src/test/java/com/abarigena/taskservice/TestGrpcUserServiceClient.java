@@ -0,0 +1,85 @@
+package com.abarigena.taskservice;
+
+import com.abarigena.dto.grpc.UserInfo;
+import com.abarigena.dto.grpc.UserInfoRequest;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.taskservice.client.GrpcClientErrorPredicate;
+import com.abarigena.taskservice.client.GrpcUserServiceClient;
+import com.abarigena.taskservice.client.UserInfoLastKnownValues;
+import com.abarigena.taskservice.client.UserServiceClient;
+import com.abarigena.taskservice.client.UserServiceClientFallbackFactory;
+import com.abarigena.taskservice.dto.UserInfoDto;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestGrpcUserServiceClient {
+
+    private final UserInfoServiceGrpc.UserInfoServiceBlockingStub stub =
+            mock(UserInfoServiceGrpc.UserInfoServiceBlockingStub.class);
+    private final UserServiceClient feignClient = mock(UserServiceClient.class);
+    private final UserInfoLastKnownValues lastKnownValues = new UserInfoLastKnownValues(10);
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .ignoreException(new GrpcClientErrorPredicate())
+            .build());
+
+    private GrpcUserServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        when(stub.withDeadlineAfter(anyLong(), any())).thenReturn(stub);
+        client = new GrpcUserServiceClient(stub, feignClient, new UserServiceClientFallbackFactory(lastKnownValues),
+                lastKnownValues,
+                new Resilience4JCircuitBreakerFactory(circuitBreakers, TimeLimiterRegistry.ofDefaults(), null),
+                1000);
+    }
+
+    @Test
+    void getUserInfo_ShouldServeLastKnownValue_WhenDeadlineExceeded() {
+        when(stub.getUserInfo(any(UserInfoRequest.class)))
+                .thenReturn(UserInfo.newBuilder().setId("1").setUsername("alice").setEmail("a@example.com").build())
+                .thenThrow(new StatusRuntimeException(Status.DEADLINE_EXCEEDED));
+
+        assertEquals("alice", client.getUserInfo("1").getUsername());
+        assertEquals("alice", client.getUserInfo("1").getUsername());
+        verify(feignClient, never()).getUserInfo(any());
+    }
+
+    @Test
+    void getUserInfo_ShouldUseFeign_WhenGrpcIsUnavailable() {
+        when(stub.getUserInfo(any(UserInfoRequest.class))).thenThrow(new StatusRuntimeException(Status.UNAVAILABLE));
+        when(feignClient.getUserInfo("1")).thenReturn(new UserInfoDto("1", "alice", "a@example.com"));
+
+        assertEquals("alice", client.getUserInfo("1").getUsername());
+    }
+
+    @Test
+    void getUserInfo_ShouldRethrowNotFound_WithoutOpeningCircuitBreaker() {
+        when(stub.getUserInfo(any(UserInfoRequest.class))).thenThrow(new StatusRuntimeException(Status.NOT_FOUND));
+
+        for (int i = 0; i < 5; i++) {
+            StatusRuntimeException e = assertThrows(StatusRuntimeException.class, () -> client.getUserInfo("404"));
+            assertEquals(Status.Code.NOT_FOUND, e.getStatus().getCode());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED,
+                circuitBreakers.circuitBreaker("UserServiceGrpcgetUserInfo").getState());
+        verify(feignClient, never()).getUserInfo(any());
+    }
+}
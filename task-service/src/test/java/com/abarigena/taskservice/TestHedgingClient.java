@@ -0,0 +1,206 @@
+package com.abarigena.taskservice;
+
+import com.abarigena.taskservice.client.HedgingClient;
+import com.abarigena.common.loadbalancer.InstanceStatsRegistry;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestHedgingClient {
+
+    private static final Request.Options OPTIONS = new Request.Options(1, TimeUnit.SECONDS, 5, TimeUnit.SECONDS, true);
+
+    @Mock
+    private LoadBalancerClient loadBalancerClient;
+
+    @Mock
+    private DiscoveryClient discoveryClient;
+
+    private final ServiceInstance instanceA = new DefaultServiceInstance("a", "user-service", "host-a", 8011, false);
+    private final ServiceInstance instanceB = new DefaultServiceInstance("b", "user-service", "host-b", 8011, false);
+
+    private final Map<String, Long> delayByHost = new ConcurrentHashMap<>();
+    private final Map<String, Integer> statusByHost = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> callsByHost = new ConcurrentHashMap<>();
+    private final CountDownLatch slowAttemptCancelled = new CountDownLatch(1);
+    private final AtomicInteger loadBalancedCalls = new AtomicInteger();
+
+    private HedgingClient hedgingClient;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(loadBalancerClient.choose("user-service")).thenReturn(instanceA);
+        lenient().when(loadBalancerClient.reconstructURI(any(), any())).thenAnswer(invocation ->
+                LoadBalancerUriTools.reconstructURI(invocation.getArgument(0), invocation.getArgument(1)));
+        lenient().when(discoveryClient.getInstances("user-service")).thenReturn(List.of(instanceA, instanceB));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hedgingClient != null) {
+            hedgingClient.close();
+        }
+    }
+
+    @Test
+    void execute_ShouldUsePrimary_WhenPrimaryIsFast() throws Exception {
+        hedgingClient = client(10.0);
+
+        Response response = hedgingClient.execute(get(), OPTIONS);
+
+        assertEquals("host-a", body(response));
+        assertEquals(1, calls("host-a"));
+        assertEquals(0, calls("host-b"));
+    }
+
+    @Test
+    void execute_ShouldReturnHedgeResponse_WhenPrimaryIsSlow() throws Exception {
+        hedgingClient = client(100.0);
+        delayByHost.put("host-a", 2_000L);
+
+        long start = System.nanoTime();
+        Response response = hedgingClient.execute(get(), OPTIONS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("host-b", body(response));
+        assertTrue(elapsedMillis < 1_000, "ответ должен прийти до завершения медленного запроса");
+        assertTrue(slowAttemptCancelled.await(5, TimeUnit.SECONDS), "медленная попытка должна быть отменена");
+    }
+
+    @Test
+    void execute_ShouldWaitForHedge_WhenPrimaryFailsWithServerError() throws Exception {
+        hedgingClient = client(100.0);
+        delayByHost.put("host-a", 100L);
+        statusByHost.put("host-a", 503);
+        delayByHost.put("host-b", 300L);
+
+        Response response = hedgingClient.execute(get(), OPTIONS);
+
+        assertEquals(200, response.status());
+        assertEquals("host-b", body(response));
+    }
+
+    @Test
+    void execute_ShouldReturnServerError_WhenHedgeAlsoFails() throws Exception {
+        hedgingClient = client(100.0);
+        delayByHost.put("host-a", 100L);
+        statusByHost.put("host-a", 503);
+        statusByHost.put("host-b", 502);
+
+        Response response = hedgingClient.execute(get(), OPTIONS);
+
+        assertTrue(response.status() >= 500);
+        assertEquals(1, calls("host-b"));
+    }
+
+    @Test
+    void execute_ShouldNotHedge_WhenBudgetIsExhausted() throws Exception {
+        hedgingClient = client(0.0);
+        delayByHost.put("host-a", 100L);
+
+        Response response = hedgingClient.execute(get(), OPTIONS);
+
+        assertEquals("host-a", body(response));
+        assertEquals(0, calls("host-b"));
+    }
+
+    @Test
+    void execute_ShouldUseLoadBalancedClient_ForNonGetRequests() throws Exception {
+        hedgingClient = client(100.0);
+        Request post = Request.create(Request.HttpMethod.POST, "http://user-service/users/info/batch",
+                Collections.emptyMap(), "[]".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, null);
+
+        hedgingClient.execute(post, OPTIONS);
+
+        assertEquals(1, loadBalancedCalls.get());
+        assertEquals(0, calls("host-a"));
+    }
+
+    private HedgingClient client(double budgetPercent) {
+        HedgingClient.Settings settings = new HedgingClient.Settings(0.95, Duration.ofMillis(1),
+                Duration.ofMillis(20), budgetPercent, 10, 4);
+        Client loadBalanced = (request, options) -> {
+            loadBalancedCalls.incrementAndGet();
+            return response(request, "load-balanced");
+        };
+        InstanceStatsRegistry instanceStats = new InstanceStatsRegistry(new SimpleMeterRegistry(),
+                Duration.ofSeconds(10), 5, Duration.ofSeconds(30), Duration.ofMinutes(5), 50);
+        return new HedgingClient("user-service", loadBalanced, this::delegate, loadBalancerClient,
+                discoveryClient, instanceStats, settings, new SimpleMeterRegistry());
+    }
+
+    private Response delegate(Request request, Request.Options options) {
+        String host = URI.create(request.url()).getHost();
+        callsByHost.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet();
+        long delay = delayByHost.getOrDefault(host, 0L);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                slowAttemptCancelled.countDown();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+        return response(request, host, statusByHost.getOrDefault(host, 200));
+    }
+
+    private Response response(Request request, String body) {
+        return response(request, body, 200);
+    }
+
+    private Response response(Request request, String body, int status) {
+        return Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Collections.emptyMap())
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    private Request get() {
+        return Request.create(Request.HttpMethod.GET, "http://user-service/users/info/1",
+                Collections.emptyMap(), null, StandardCharsets.UTF_8, null);
+    }
+
+    private int calls(String host) {
+        AtomicInteger calls = callsByHost.get(host);
+        return calls == null ? 0 : calls.get();
+    }
+
+    private String body(Response response) throws Exception {
+        try (response) {
+            return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.abarigena.taskservice;
+
+import com.abarigena.taskservice.client.UserInfoLastKnownValues;
+import com.abarigena.taskservice.client.UserServiceClient;
+import com.abarigena.taskservice.client.UserServiceClientFallbackFactory;
+import com.abarigena.taskservice.dto.UserInfoDto;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestUserServiceClientFallbackFactory {
+
+    private UserInfoLastKnownValues lastKnownValues;
+    private UserServiceClientFallbackFactory fallbackFactory;
+
+    @BeforeEach
+    void setUp() {
+        lastKnownValues = new UserInfoLastKnownValues(2);
+        fallbackFactory = new UserServiceClientFallbackFactory(lastKnownValues);
+        lastKnownValues.remember(new UserInfoDto("1", "alice", "alice@example.com"));
+    }
+
+    @Test
+    void getUserInfo_ShouldReturnLastKnownValue_WhenServiceTimesOut() {
+        UserServiceClient fallback = fallbackFactory.create(new TimeoutException());
+
+        assertEquals("alice", fallback.getUserInfo("1").getUsername());
+    }
+
+    @Test
+    void getUserInfo_ShouldThrow_WhenNoLastKnownValue() {
+        UserServiceClient fallback = fallbackFactory.create(new TimeoutException());
+
+        assertThrows(IllegalStateException.class, () -> fallback.getUserInfo("2"));
+    }
+
+    @Test
+    void getUserInfo_ShouldRethrowClientError() {
+        FeignException notFound = new FeignException.NotFound("not found",
+                Request.create(Request.HttpMethod.GET, "/users/info/1", Collections.emptyMap(),
+                        null, StandardCharsets.UTF_8, null), null, null);
+        UserServiceClient fallback = fallbackFactory.create(notFound);
+
+        assertSame(notFound, assertThrows(FeignException.NotFound.class, () -> fallback.getUserInfo("1")));
+    }
+
+    @Test
+    void getUsersInfo_ShouldReturnOnlyKnownUsers() {
+        UserServiceClient fallback = fallbackFactory.create(new TimeoutException());
+
+        List<UserInfoDto> result = fallback.getUsersInfo(List.of("1", "2"));
+
+        assertEquals(1, result.size());
+        assertEquals("1", result.get(0).getId());
+    }
+
+    @Test
+    void lastKnownValues_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        lastKnownValues.remember(new UserInfoDto("2", "bob", "bob@example.com"));
+        lastKnownValues.get("1");
+        lastKnownValues.remember(new UserInfoDto("3", "carol", "carol@example.com"));
+
+        assertEquals(true, lastKnownValues.get("1").isPresent());
+        assertEquals(false, lastKnownValues.get("2").isPresent());
+    }
+}
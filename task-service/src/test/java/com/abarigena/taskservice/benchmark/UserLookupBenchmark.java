@@ -0,0 +1,258 @@
+package com.abarigena.taskservice.benchmark;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import com.abarigena.dto.grpc.UserInfo;
+import com.abarigena.dto.grpc.UserInfoRequest;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.dto.grpc.UsersInfoReply;
+import com.abarigena.dto.grpc.UsersInfoRequest;
+import com.abarigena.taskservice.client.UserServiceClient;
+import com.abarigena.taskservice.dto.UserInfoDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение внутренних вызовов сервиса пользователей: JSON/HTTP 1.1 через Feign и gRPC/Protobuf по HTTP/2.
+ * <p>
+ * Оба сервера поднимаются в том же процессе на loopback и отдают одинаковые данные из памяти,
+ * поэтому разница отражает стоимость транспорта и сериализации. Помимо времени на операцию
+ * печатается процессорное время (клиент + сервер) на одну операцию.
+ * </p>
+ * Запуск: {@code java -cp <test classpath> com.abarigena.taskservice.benchmark.UserLookupBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Без nodelay встроенный HttpServer упирается в задержку Nagle/delayed ACK (~40 мс на ответ).
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class UserLookupBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int PAGE_USERS = 20;
+    private static final String SERVICE_KEY = "benchmark-key";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, UserInfoDto> users = new HashMap<>();
+    private final AtomicLong operations = new AtomicLong();
+    private final OperatingSystemMXBean os = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private Server grpcServer;
+    private ManagedChannel channel;
+
+    private UserServiceClient feignClient;
+    private UserInfoServiceGrpc.UserInfoServiceBlockingStub grpcStub;
+    private List<String> pageUserIds;
+    private long cpuAtIterationStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        for (int i = 0; i < USERS; i++) {
+            String id = String.valueOf(i);
+            users.put(id, new UserInfoDto(id, "user" + i, "user" + i + "@example.com"));
+        }
+        pageUserIds = new ArrayList<>();
+        for (int i = 0; i < PAGE_USERS; i++) {
+            pageUserIds.add(String.valueOf(i * 37 % USERS));
+        }
+
+        startHttpServer();
+        startGrpcServer();
+
+        feignClient = Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder((object, bodyType, template) -> {
+                    try {
+                        template.body(objectMapper.writeValueAsBytes(object), null);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .decoder((response, type) ->
+                        objectMapper.readValue(response.body().asInputStream(), objectMapper.constructType(type)))
+                .requestInterceptor(template -> template.header(ServiceAuthKey.HEADER, SERVICE_KEY))
+                .target(UserServiceClient.class, "http://localhost:" + httpServer.getAddress().getPort());
+
+        Metadata serviceAuth = new Metadata();
+        serviceAuth.put(Metadata.Key.of(ServiceAuthKey.HEADER, Metadata.ASCII_STRING_MARSHALLER), SERVICE_KEY);
+        channel = NettyChannelBuilder.forAddress("localhost", grpcServer.getPort())
+                .usePlaintext()
+                .intercept(MetadataUtils.newAttachHeadersInterceptor(serviceAuth))
+                .build();
+        grpcStub = UserInfoServiceGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCpuMeasurement() {
+        operations.set(0);
+        cpuAtIterationStart = os.getProcessCpuTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCpu() {
+        long ops = operations.get();
+        if (ops > 0) {
+            double cpuMicrosPerOp = (os.getProcessCpuTime() - cpuAtIterationStart) / 1_000.0 / ops;
+            System.out.printf(" [cpu: %.1f us/op]", cpuMicrosPerOp);
+        }
+    }
+
+    /**
+     * Один запрос {@code GET /users/info/{userId}} через Feign.
+     */
+    @Benchmark
+    public UserInfoDto feignSingle() {
+        operations.incrementAndGet();
+        return feignClient.getUserInfo("42");
+    }
+
+    /**
+     * Один вызов {@code GetUserInfo} через gRPC.
+     */
+    @Benchmark
+    public UserInfo grpcSingle() {
+        operations.incrementAndGet();
+        return grpcStub.getUserInfo(UserInfoRequest.newBuilder().setUserId("42").build());
+    }
+
+    /**
+     * Страница задач с 20 пользователями так, как ее раньше собирал TaskService: по запросу на пользователя.
+     */
+    @Benchmark
+    public int feignPageOneByOne() {
+        operations.incrementAndGet();
+        int total = 0;
+        for (String userId : pageUserIds) {
+            total += feignClient.getUserInfo(userId).getUsername().length();
+        }
+        return total;
+    }
+
+    /**
+     * Та же страница одним пакетным запросом {@code POST /users/info/batch} через Feign.
+     */
+    @Benchmark
+    public List<UserInfoDto> feignPageBatch() {
+        operations.incrementAndGet();
+        return feignClient.getUsersInfo(pageUserIds);
+    }
+
+    /**
+     * Та же страница одним пакетным вызовом {@code GetUsersInfo} через gRPC.
+     */
+    @Benchmark
+    public UsersInfoReply grpcPageBatch() {
+        operations.incrementAndGet();
+        return grpcStub.getUsersInfo(UsersInfoRequest.newBuilder().addAllUserIds(pageUserIds).build());
+    }
+
+    private void startHttpServer() throws IOException {
+        httpExecutor = Executors.newFixedThreadPool(4);
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext("/users/info/", exchange -> {
+            try (exchange) {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    String[] ids = objectMapper.readValue(exchange.getRequestBody(), String[].class);
+                    List<UserInfoDto> result = new ArrayList<>(ids.length);
+                    for (String id : ids) {
+                        result.add(users.get(id));
+                    }
+                    writeJson(exchange, result);
+                } else {
+                    String path = exchange.getRequestURI().getPath();
+                    writeJson(exchange, users.get(path.substring(path.lastIndexOf('/') + 1)));
+                }
+            }
+        });
+        httpServer.start();
+    }
+
+    private void writeJson(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void startGrpcServer() throws IOException {
+        grpcServer = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+                .addService(new UserInfoServiceGrpc.UserInfoServiceImplBase() {
+                    @Override
+                    public void getUserInfo(UserInfoRequest request, StreamObserver<UserInfo> responseObserver) {
+                        responseObserver.onNext(toProto(users.get(request.getUserId())));
+                        responseObserver.onCompleted();
+                    }
+
+                    @Override
+                    public void getUsersInfo(UsersInfoRequest request, StreamObserver<UsersInfoReply> responseObserver) {
+                        UsersInfoReply.Builder reply = UsersInfoReply.newBuilder();
+                        for (String userId : request.getUserIdsList()) {
+                            reply.addUsers(toProto(users.get(userId)));
+                        }
+                        responseObserver.onNext(reply.build());
+                        responseObserver.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+    }
+
+    private UserInfo toProto(UserInfoDto user) {
+        return UserInfo.newBuilder()
+                .setId(user.getId())
+                .setUsername(user.getUsername())
+                .setEmail(user.getEmail())
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(UserLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,9 +1,12 @@
 package com.abarigena.userservice;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(ServiceAuthKey.class)
 public class UserServiceApplication {
 
     public static void main(String[] args) {
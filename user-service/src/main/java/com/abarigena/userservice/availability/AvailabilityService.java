@@ -0,0 +1,322 @@
+package com.abarigena.userservice.availability;
+
+import com.abarigena.common.hash.BloomFilter;
+import com.abarigena.userservice.repository.UserBatchRepository;
+import com.abarigena.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Проверка, свободны ли email и имя пользователя, для формы регистрации.
+ * <p>
+ * Форма проверяет значения по мере ввода, поэтому большинство проверок — свободные значения.
+ * Для них ответ дают фильтры Блума по всем email и именам пользователей без обращения к базе.
+ * База запрашивается только при возможном совпадении: ложноположительный ответ фильтра перепроверяется,
+ * а занятое значение подтверждается. Email сравнивается без учета регистра, как при входе.
+ * </p>
+ * <p>
+ * Фильтры строятся из таблицы пользователей при запуске и дополняются при каждой регистрации
+ * в этом экземпляре ({@link #register(String, String)}). Пользователи, созданные другими экземплярами,
+ * дочитываются раз в {@code refresh-interval} по ID больше прочитанного ранее ({@link #refresh()}); чтобы не
+ * пропустить строки, зафиксированные не в порядке ID, дочитывание перекрывает последнюю минуту.
+ * Раз в {@code rebuild-interval} фильтры пересоздаются целиком. Пока фильтры не построены или не обновлялись
+ * дольше {@code max-staleness}, все проверки идут в базу.
+ * </p>
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Насколько дочитывание повторяет уже прочитанные ID: транзакция, получившая ID раньше,
+     * могла зафиксироваться позже следующей.
+     */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final UserRepository userRepository;
+    private final UserBatchRepository userBatchRepository;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private final Duration refreshInterval;
+    private final Duration maxStaleness;
+
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Фильтры, по которым отвечают проверки; null, пока не построены.
+     */
+    private volatile Filters filters;
+
+    /**
+     * Фильтры, которые сейчас строятся: регистрации во время чтения таблицы попадают и в них.
+     */
+    private volatile Filters building;
+
+    /**
+     * Время последнего построения или дочитывания фильтров ({@link System#nanoTime()}).
+     */
+    private volatile long refreshedAt;
+
+    /**
+     * Наибольший прочитанный ID на момент каждого чтения таблицы за последние {@link #REFRESH_OVERLAP};
+     * меняется только в потоке пересоздания фильтров.
+     */
+    private final Deque<Watermark> watermarks = new ArrayDeque<>();
+
+    private record Watermark(long at, long id) {
+    }
+
+    private record Filters(BloomFilter emails, BloomFilter usernames) {
+
+        void put(String email, String username) {
+            emails.put(email);
+            usernames.put(username);
+        }
+    }
+
+    public AvailabilityService(UserRepository userRepository,
+                               UserBatchRepository userBatchRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${users.availability.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${users.availability.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${users.availability.rebuild-interval:10m}") Duration rebuildInterval,
+                               @Value("${users.availability.refresh-interval:5s}") Duration refreshInterval,
+                               @Value("${users.availability.max-staleness:30s}") Duration maxStaleness) {
+        this.userRepository = userRepository;
+        this.userBatchRepository = userBatchRepository;
+        this.meterRegistry = meterRegistry;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.refreshInterval = refreshInterval;
+        this.maxStaleness = maxStaleness;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "availability-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("users.availability.false-positive-rate", this, s -> s.estimatedFalsePositiveRate(true))
+                .description("Оценка доли ложноположительных ответов фильтра")
+                .tag("field", "email")
+                .register(meterRegistry);
+        Gauge.builder("users.availability.false-positive-rate", this, s -> s.estimatedFalsePositiveRate(false))
+                .description("Оценка доли ложноположительных ответов фильтра")
+                .tag("field", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Строит фильтры после запуска приложения и планирует их периодическое дочитывание и пересоздание.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.execute(this::rebuildSafely);
+        if (!rebuildInterval.isZero() && !rebuildInterval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::rebuildSafely, rebuildInterval.toMillis(),
+                    rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (!refreshInterval.isZero() && !refreshInterval.isNegative()) {
+            scheduler.scheduleWithFixedDelay(this::refreshSafely, refreshInterval.toMillis(),
+                    refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось дочитать новых пользователей в фильтры", e);
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Не удалось построить фильтры занятых email и имен пользователей", e);
+        }
+    }
+
+    /**
+     * Строит фильтры заново по таблице пользователей.
+     * Размер фильтров рассчитывается с запасом на рост таблицы, но не меньше {@code expected-insertions}.
+     */
+    public void rebuild() {
+        long started = System.nanoTime();
+        long size = Math.max(expectedInsertions, userRepository.count() * 2);
+        // Пользователи после этого ID дочитываются refresh(), даже если чтение таблицы их уже застало
+        long maxId = userBatchRepository.maxId();
+        Filters next = new Filters(BloomFilter.create(size, falsePositiveRate),
+                BloomFilter.create(size, falsePositiveRate));
+        building = next;
+        AtomicLong users = new AtomicLong();
+        try {
+            userBatchRepository.forEachEmailAndUsername(FETCH_SIZE, (email, username) -> {
+                next.put(normalizeEmail(email), username);
+                users.incrementAndGet();
+            });
+            filters = next;
+            watermarks.clear();
+            watermarks.add(new Watermark(started, maxId));
+            refreshedAt = started;
+        } finally {
+            building = null;
+        }
+        logger.info("Фильтры занятых email и имен пользователей построены: {} пользователей за {} мс",
+                users.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Добавляет в фильтры пользователей, созданных после последнего чтения таблицы, в том числе
+     * другими экземплярами. Читаются ID больше наибольшего, прочитанного не позже {@link #REFRESH_OVERLAP} назад.
+     */
+    public void refresh() {
+        if (filters == null || watermarks.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        Watermark from = watermarks.pollFirst();
+        while (!watermarks.isEmpty() && now - watermarks.peekFirst().at() >= REFRESH_OVERLAP.toNanos()) {
+            from = watermarks.pollFirst();
+        }
+        watermarks.addFirst(from);
+
+        long maxId = userBatchRepository.forEachUserAfter(from.id(), this::put);
+        watermarks.addLast(new Watermark(now, Math.max(maxId, watermarks.peekLast().id())));
+        refreshedAt = now;
+    }
+
+    /**
+     * Добавляет в фильтры созданного пользователя.
+     * Внутри транзакции пользователь добавляется после ее фиксации: тогда пересоздание фильтров,
+     * начавшееся раньше, получит его через {@link #building}, а начавшееся позже — прочитает из таблицы.
+     *
+     * @param email email пользователя.
+     * @param username имя пользователя.
+     */
+    public void register(String email, String username) {
+        if (email == null || username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(email, username);
+                }
+            });
+        } else {
+            put(email, username);
+        }
+    }
+
+    private void put(String email, String username) {
+        String key = normalizeEmail(email);
+        // Строящиеся фильтры читаются первыми: если их уже нет, в filters уже лежат новые
+        Filters next = building;
+        if (next != null) {
+            next.put(key, username);
+        }
+        Filters current = filters;
+        if (current != null && current != next) {
+            current.put(key, username);
+        }
+    }
+
+    /**
+     * Проверяет, свободен ли email, без учета регистра.
+     *
+     * @param email email.
+     * @return true, если пользователя с таким email нет.
+     */
+    public boolean isEmailAvailable(String email) {
+        Filters current = freshFilters();
+        if (current != null && !current.emails().mightContain(normalizeEmail(email))) {
+            checks("email", "available").increment();
+            return true;
+        }
+        return confirm("email", current != null, userRepository.existsByEmailIgnoreCase(email));
+    }
+
+    /**
+     * Проверяет, свободно ли имя пользователя.
+     *
+     * @param username имя пользователя.
+     * @return true, если пользователя с таким именем нет.
+     */
+    public boolean isUsernameAvailable(String username) {
+        Filters current = freshFilters();
+        if (current != null && !current.usernames().mightContain(username)) {
+            checks("username", "available").increment();
+            return true;
+        }
+        return confirm("username", current != null, userRepository.existsByUsername(username));
+    }
+
+    /**
+     * Фильтры, если они построены и обновлялись не дольше {@code max-staleness} назад: иначе в них
+     * могут не быть пользователи других экземпляров, и свободным значение может назвать только база.
+     */
+    private Filters freshFilters() {
+        Filters current = filters;
+        if (current == null || System.nanoTime() - refreshedAt > maxStaleness.toNanos()) {
+            return null;
+        }
+        return current;
+    }
+
+    private boolean confirm(String field, boolean filtered, boolean taken) {
+        String result = taken ? "taken" : filtered ? "false-positive" : "unfiltered";
+        checks(field, result).increment();
+        return !taken;
+    }
+
+    private Counter checks(String field, String result) {
+        return Counter.builder("users.availability.checks")
+                .tag("field", field)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private double estimatedFalsePositiveRate(boolean email) {
+        Filters current = filters;
+        if (current == null) {
+            return Double.NaN;
+        }
+        return (email ? current.emails() : current.usernames()).falsePositiveRate();
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,53 @@
+package com.abarigena.userservice.config;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import com.abarigena.userservice.grpc.GrpcServerLifecycle;
+import com.abarigena.userservice.grpc.ServiceAuthServerInterceptor;
+import com.abarigena.userservice.grpc.UserInfoGrpcService;
+import com.abarigena.userservice.service.UserService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация внутреннего gRPC сервера.
+ * Порт сервера публикуется в метаданных Eureka ({@code grpc-port}), чтобы клиенты могли найти его через discovery.
+ */
+@Configuration
+@ConditionalOnProperty(name = "grpc.server.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerConfig {
+
+    @Value("${grpc.server.port:9011}")
+    private int port;
+
+    @Value("${grpc.server.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${grpc.server.shutdown-grace-seconds:10}")
+    private long shutdownGraceSeconds;
+
+    /**
+     * Создает gRPC сервер с сервисом информации о пользователях и проверкой межсервисного ключа.
+     *
+     * @param userService    сервис пользователей.
+     * @param serviceAuthKey ключ межсервисной аутентификации.
+     * @return управляемый контекстом gRPC сервер.
+     */
+    @Bean
+    public GrpcServerLifecycle grpcServer(UserService userService, ServiceAuthKey serviceAuthKey) {
+        Server server = NettyServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(
+                        new UserInfoGrpcService(userService), new ServiceAuthServerInterceptor(serviceAuthKey)))
+                .keepAliveTime(keepAliveSeconds, TimeUnit.SECONDS)
+                .permitKeepAliveTime(keepAliveSeconds / 2, TimeUnit.SECONDS)
+                .permitKeepAliveWithoutCalls(true)
+                .build();
+        return new GrpcServerLifecycle(server, shutdownGraceSeconds);
+    }
+}
@@ -0,0 +1,74 @@
+package com.abarigena.userservice.controllers;
+
+import com.abarigena.dto.RevokedTokenDto;
+import com.abarigena.userservice.service.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Контроллер общего списка отозванных токенов.
+ * Используется только сервисом аутентификации: он отзывает токены при выходе, проверяет токены обновления
+ * и отдает список отзывов шлюзу.
+ */
+@RestController
+@RequestMapping(value = "/users/revocations")
+@Tag(name = "Отзывы токенов", description = "Внутренний API общего списка отозванных токенов")
+public class TokenRevocationController {
+
+    private final TokenRevocationService revocationService;
+
+    public TokenRevocationController(TokenRevocationService revocationService) {
+        this.revocationService = revocationService;
+    }
+
+    /**
+     * Отзывает токен.
+     *
+     * @param revocation идентификатор и время истечения токена.
+     * @return ResponseEntity без тела.
+     */
+    @PostMapping
+    @Operation(summary = "Отзыв токена", description = "Отзывает токен до истечения его срока. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "204", description = "Токен отозван")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<Void> revoke(@RequestBody RevokedTokenDto revocation) {
+        revocationService.revoke(revocation.getJti(), revocation.getExpiresAt());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param jti идентификатор токена.
+     * @return ResponseEntity с true, если токен отозван.
+     */
+    @GetMapping("/{jti}")
+    @Operation(summary = "Проверка отзыва токена", description = "Проверяет, отозван ли токен. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "200", description = "Результат проверки")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<Boolean> isRevoked(@PathVariable String jti) {
+        return ResponseEntity.ok(revocationService.isRevoked(jti));
+    }
+
+    /**
+     * Возвращает отзывы после заданного номера.
+     *
+     * @param since последний полученный номер отзыва.
+     * @param limit наибольшее число отзывов в ответе.
+     * @return ResponseEntity с отзывами по возрастанию номера.
+     */
+    @GetMapping
+    @Operation(summary = "Отозванные токены", description = "Возвращает отзывы после заданного номера. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "200", description = "Порция отзывов")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<List<RevokedTokenDto>> since(@RequestParam(defaultValue = "0") long since,
+                                                       @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(revocationService.since(since, limit));
+    }
+}
@@ -1,7 +1,12 @@
 package com.abarigena.userservice.controllers;
 
+import com.abarigena.dto.AvailabilityDto;
+import com.abarigena.dto.PasswordUpdateRequest;
+import com.abarigena.dto.UserCredentialsDto;
 import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserImportResult;
 import com.abarigena.dto.UserInfoDto;
+import com.abarigena.userservice.availability.AvailabilityService;
 import com.abarigena.userservice.security.SecurityUtils;
 import com.abarigena.userservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,10 +15,14 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * Контроллер для управления пользователями.
  * Содержит эндпоинты для создания, поиска и управления ролями пользователей.
@@ -26,10 +35,16 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final AvailabilityService availabilityService;
+    private final int maxImportBatchSize;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          AvailabilityService availabilityService,
+                          @Value("${users.import.max-batch-size:1000}") int maxImportBatchSize) {
         this.userService = userService;
+        this.availabilityService = availabilityService;
+        this.maxImportBatchSize = maxImportBatchSize;
     }
 
     /**
@@ -49,6 +64,53 @@ public class UserController {
         return ResponseEntity.ok(savedUser);
     }
 
+    /**
+     * Импортирует пакет пользователей с уже вычисленными хэшами паролей.
+     * Используется сервисом аутентификации при массовой загрузке пользователей.
+     *
+     * @param users пользователи, не больше {@code users.import.max-batch-size} за запрос.
+     * @return ResponseEntity с результатом по каждой строке.
+     */
+    @PostMapping("/import")
+    @Operation(summary = "Импорт пользователей", description = "Создает пользователей пакетом. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "200", description = "Результат импорта по каждой строке")
+    @ApiResponse(responseCode = "400", description = "Пакет больше допустимого размера")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<List<UserImportResult>> importUsers(@RequestBody List<UserDto> users) {
+        if (users.size() > maxImportBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        logger.info("Импорт {} пользователей", users.size());
+        return ResponseEntity.ok(userService.importUsers(users));
+    }
+
+    /**
+     * Проверяет, свободны ли email и имя пользователя. Доступно без аутентификации для формы регистрации.
+     *
+     * @param email проверяемый email, без учета регистра.
+     * @param username проверяемое имя пользователя.
+     * @return ResponseEntity с результатом по каждому переданному значению или 400, если не передано ни одного.
+     */
+    @GetMapping("/availability")
+    @Operation(summary = "Проверка свободных email и имени", description = "Проверяет, свободны ли email и имя пользователя для регистрации")
+    @ApiResponse(responseCode = "200", description = "Результат проверки")
+    @ApiResponse(responseCode = "400", description = "Не передан ни email, ни имя пользователя")
+    public ResponseEntity<AvailabilityDto> availability(@RequestParam(required = false) String email,
+                                                        @RequestParam(required = false) String username) {
+        boolean hasEmail = email != null && !email.isBlank();
+        boolean hasUsername = username != null && !username.isBlank();
+        if (!hasEmail && !hasUsername) {
+            return ResponseEntity.badRequest().build();
+        }
+        AvailabilityDto result = new AvailabilityDto(
+                hasEmail ? availabilityService.isEmailAvailable(email) : null,
+                hasUsername ? availabilityService.isUsernameAvailable(username) : null);
+        // Ответ устаревает с первой же регистрацией, поэтому не кэшируется
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(result);
+    }
+
     /**
      * Находит пользователя по его email.
      *
@@ -66,6 +128,26 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * Возвращает учетные данные пользователя для входа: ID, хэш пароля и, если запрошены, роли.
+     *
+     * @param email адрес электронной почты пользователя, без учета регистра.
+     * @param withRoles нужно ли возвращать роли пользователя.
+     * @return ResponseEntity с учетными данными или 404, если пользователь не найден.
+     */
+    @GetMapping("/credentials")
+    @Operation(summary = "Учетные данные пользователя", description = "Возвращает ID, хэш пароля и роли пользователя по email. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "200", description = "Учетные данные найдены")
+    @ApiResponse(responseCode = "404", description = "Пользователь не найден")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<UserCredentialsDto> findCredentials(@RequestParam String email,
+                                                              @RequestParam(defaultValue = "true") boolean withRoles) {
+        logger.debug("Запрос учетных данных пользователя: {}", email);
+        return userService.findCredentials(email, withRoles)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     /**
      * Назначает роль администратора пользователю с указанным email.
      *
@@ -83,6 +165,25 @@ public class UserController {
         return ResponseEntity.ok("Роль администратора назначена пользователю с email: " + email);
     }
 
+    /**
+     * Заменяет хэш пароля пользователя. Используется сервисом аутентификации
+     * при пересчете хэша с новой стоимостью BCrypt.
+     *
+     * @param userId идентификатор пользователя.
+     * @param request новый хэш пароля.
+     * @return ResponseEntity без тела.
+     */
+    @PutMapping("/{userId}/password")
+    @Operation(summary = "Обновление хэша пароля", description = "Заменяет хэш пароля пользователя. Только для внутренних сервисов")
+    @ApiResponse(responseCode = "204", description = "Хэш пароля обновлен")
+    @PreAuthorize("hasAnyRole('SERVICE')")
+    public ResponseEntity<Void> updatePassword(@PathVariable String userId,
+                                               @RequestBody PasswordUpdateRequest request) {
+        logger.info("Обновление хэша пароля пользователя с ID: {}", userId);
+        userService.updatePassword(userId, request.getPasswordHash());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Пример защищенного эндпоинта.
      *
@@ -127,4 +228,19 @@ public class UserController {
         UserInfoDto userDto = userService.findById(userId);
         return ResponseEntity.ok(userDto);
     }
+
+    /**
+     * Возвращает информацию о нескольких пользователях по их ID.
+     *
+     * @param userIds идентификаторы пользователей.
+     * @return ResponseEntity со списком найденных пользователей.
+     */
+    @PostMapping("/info/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasAnyRole('SERVICE')")
+    @Operation(summary = "Пакетная информация о пользователях", description = "Возвращает информацию о пользователях по списку ID")
+    @ApiResponse(responseCode = "200", description = "Информация о пользователях успешно получена")
+    public ResponseEntity<List<UserInfoDto>> getUsersInfo(@RequestBody List<String> userIds) {
+        logger.info("Пакетное получение информации о {} пользователях", userIds.size());
+        return ResponseEntity.ok(userService.findAllByIds(userIds));
+    }
 }
@@ -9,14 +9,26 @@ import java.util.Set;
  * Содержит информацию о пользователе, такую как email, имя пользователя, пароль и его роли.
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email"),
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username")
+})
 public class User {
 
+    /**
+     * Имена уникальных ограничений, по которым ошибка вставки переводится в сообщение о занятом email или username.
+     * Email без учета регистра и username дополнительно защищены уникальными индексами из {@code schema.sql}
+     * с именами {@link #EMAIL_LOWER_CONSTRAINT} и {@link #USERNAME_CONSTRAINT}.
+     */
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final String EMAIL_LOWER_CONSTRAINT = "uk_users_email_lower";
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -28,8 +40,10 @@ public class User {
     /**
      * Множество ролей пользователя.
      * Роли пользователя позволяют управлять его правами доступа.
+     * Загружаются только там, где нужны: запросы, которым нужны роли, подгружают их вместе с пользователем
+     * (см. {@code UserRepository}), а информация о пользователе читается без ролей.
      */
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,59 @@
+package com.abarigena.userservice.grpc;
+
+import io.grpc.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Управляет жизненным циклом gRPC сервера вместе с контекстом приложения.
+ * Сервер запускается после инициализации всех бинов и корректно останавливается при завершении работы.
+ */
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final Server server;
+    private final long shutdownGraceSeconds;
+    private volatile boolean running;
+
+    public GrpcServerLifecycle(Server server, long shutdownGraceSeconds) {
+        this.server = server;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+            running = true;
+            logger.info("gRPC сервер запущен на порту {}", server.getPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось запустить gRPC сервер", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        logger.info("Остановка gRPC сервера");
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,37 @@
+package com.abarigena.userservice.grpc;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Проверяет ключ межсервисной аутентификации для gRPC вызовов.
+ * Аналог проверки заголовка {@code X-Service-Auth} в {@link com.abarigena.userservice.security.GatewayAuthenticationFilter}.
+ */
+public class ServiceAuthServerInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> SERVICE_AUTH_KEY =
+            Metadata.Key.of(ServiceAuthKey.HEADER, Metadata.ASCII_STRING_MARSHALLER);
+
+    private final ServiceAuthKey serviceAuthKey;
+
+    public ServiceAuthServerInterceptor(ServiceAuthKey serviceAuthKey) {
+        this.serviceAuthKey = serviceAuthKey;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        if (!serviceAuthKey.matches(headers.get(SERVICE_AUTH_KEY))) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Отсутствует ключ межсервисной аутентификации"),
+                    new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+        return next.startCall(call, headers);
+    }
+}
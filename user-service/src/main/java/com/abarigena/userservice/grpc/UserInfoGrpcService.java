@@ -0,0 +1,128 @@
+package com.abarigena.userservice.grpc;
+
+import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserInfoDto;
+import com.abarigena.dto.grpc.FindByEmailRequest;
+import com.abarigena.dto.grpc.UserInfo;
+import com.abarigena.dto.grpc.UserInfoRequest;
+import com.abarigena.dto.grpc.UserInfoServiceGrpc;
+import com.abarigena.dto.grpc.UserRecord;
+import com.abarigena.dto.grpc.UsersInfoReply;
+import com.abarigena.dto.grpc.UsersInfoRequest;
+import com.abarigena.userservice.service.UserService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * Реализация внутреннего gRPC API сервиса пользователей.
+ * Повторяет эндпоинты {@code /users/info/{userId}}, {@code /users/info/batch} и {@code /users/{email}},
+ * но работает поверх долгоживущего HTTP/2 соединения с бинарной сериализацией.
+ * <p>
+ * Статус {@code NOT_FOUND} возвращается только для отсутствующего пользователя. Недоступность базы
+ * возвращается как {@code UNAVAILABLE}, чтобы клиент мог перейти на Feign, остальные ошибки — как {@code INTERNAL}.
+ * </p>
+ */
+public class UserInfoGrpcService extends UserInfoServiceGrpc.UserInfoServiceImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserInfoGrpcService.class);
+
+    private final UserService userService;
+
+    public UserInfoGrpcService(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Возвращает информацию о пользователе по его ID.
+     *
+     * @param request запрос с ID пользователя.
+     * @param responseObserver поток для отправки ответа.
+     */
+    @Override
+    public void getUserInfo(UserInfoRequest request, StreamObserver<UserInfo> responseObserver) {
+        logger.debug("gRPC: получение информации о пользователе с ID: {}", request.getUserId());
+        try {
+            responseObserver.onNext(toProto(userService.findById(request.getUserId())));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+        }
+    }
+
+    /**
+     * Возвращает информацию о нескольких пользователях одним ответом.
+     *
+     * @param request запрос со списком ID пользователей.
+     * @param responseObserver поток для отправки ответа.
+     */
+    @Override
+    public void getUsersInfo(UsersInfoRequest request, StreamObserver<UsersInfoReply> responseObserver) {
+        logger.debug("gRPC: пакетное получение информации о {} пользователях", request.getUserIdsCount());
+        UsersInfoReply.Builder reply = UsersInfoReply.newBuilder();
+        for (UserInfoDto userInfo : userService.findAllByIds(request.getUserIdsList())) {
+            reply.addUsers(toProto(userInfo));
+        }
+        responseObserver.onNext(reply.build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Находит пользователя по email.
+     *
+     * @param request запрос с email пользователя.
+     * @param responseObserver поток для отправки ответа.
+     */
+    @Override
+    public void findByEmail(FindByEmailRequest request, StreamObserver<UserRecord> responseObserver) {
+        logger.debug("gRPC: поиск пользователя по email: {}", request.getEmail());
+        UserDto user;
+        try {
+            user = userService.findByEmail(request.getEmail());
+        } catch (RuntimeException e) {
+            responseObserver.onError(toStatus(e).asRuntimeException());
+            return;
+        }
+
+        responseObserver.onNext(UserRecord.newBuilder()
+                .setId(user.getId())
+                .setEmail(user.getEmail())
+                .setPassword(user.getPassword())
+                .setUsername(user.getUsername())
+                .addAllRoles(user.getRoles())
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Переводит исключение сервиса в статус gRPC.
+     *
+     * @param e исключение при обработке вызова.
+     * @return {@link Status} статус ответа.
+     */
+    static Status toStatus(RuntimeException e) {
+        if (e instanceof UsernameNotFoundException || e instanceof NumberFormatException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage());
+        }
+        if (e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException) {
+            logger.warn("gRPC: база недоступна: {}", e.getMessage());
+            return Status.UNAVAILABLE.withDescription(e.getMessage()).withCause(e);
+        }
+        logger.error("gRPC: ошибка обработки вызова", e);
+        return Status.INTERNAL.withDescription(e.getMessage()).withCause(e);
+    }
+
+    private UserInfo toProto(UserInfoDto userInfo) {
+        return UserInfo.newBuilder()
+                .setId(userInfo.getId())
+                .setUsername(userInfo.getUsername())
+                .setEmail(userInfo.getEmail())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.abarigena.userservice.repository;
+
+import com.abarigena.dto.RevokedTokenDto;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Общее хранилище отозванных токенов (таблица {@code revoked_tokens}).
+ * <p>
+ * Отзывы сервиса аутентификации хранятся здесь, а не в памяти его экземпляров: отзыв, сделанный
+ * на одном экземпляре, виден остальным и переживает перезапуск. Шлюз забирает отзывы по возрастанию номера,
+ * поэтому отзывы вставляются по одному под транзакционной блокировкой: номер, выданный позже,
+ * фиксируется позже, и читатель не пропускает отзыв с меньшим номером.
+ * </p>
+ */
+@Repository
+public class TokenRevocationRepository {
+
+    /**
+     * Ключ рекомендательной блокировки PostgreSQL, упорядочивающей вставку отзывов.
+     */
+    private static final long INSERT_LOCK = 0x7265766f6b6564L;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TokenRevocationRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Сохраняет отзыв токена.
+     *
+     * @param jti идентификатор токена.
+     * @param expiresAt время истечения токена в миллисекундах.
+     * @return true, если отзыв добавлен; false, если токен уже отозван.
+     */
+    @Transactional
+    public boolean insert(String jti, long expiresAt) {
+        jdbcTemplate.query("select pg_advisory_xact_lock(:lock)", Map.of("lock", INSERT_LOCK),
+                (RowCallbackHandler) rs -> {
+                });
+        return jdbcTemplate.update("""
+                insert into revoked_tokens (jti, expires_at) values (:jti, :expiresAt)
+                on conflict (jti) do nothing""", new MapSqlParameterSource()
+                .addValue("jti", jti)
+                .addValue("expiresAt", expiresAt)) > 0;
+    }
+
+    /**
+     * Проверяет, отозван ли токен, срок которого еще не истек.
+     *
+     * @param jti идентификатор токена.
+     * @param now текущее время в миллисекундах.
+     * @return true, если токен отозван.
+     */
+    public boolean exists(String jti, long now) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from revoked_tokens where jti = :jti and expires_at > :now)",
+                Map.of("jti", jti, "now", now), Boolean.class));
+    }
+
+    /**
+     * Находит действующие отзывы с номером больше заданного.
+     *
+     * @param since последний полученный номер.
+     * @param now текущее время в миллисекундах.
+     * @param limit наибольшее число отзывов.
+     * @return отзывы по возрастанию номера.
+     */
+    public List<RevokedTokenDto> findSince(long since, long now, int limit) {
+        return jdbcTemplate.query("""
+                        select sequence, jti, expires_at from revoked_tokens
+                        where sequence > :since and expires_at > :now
+                        order by sequence
+                        limit :limit""",
+                Map.of("since", since, "now", now, "limit", limit),
+                (rs, rowNum) -> new RevokedTokenDto(rs.getLong("sequence"), rs.getString("jti"),
+                        rs.getLong("expires_at")));
+    }
+
+    /**
+     * Удаляет отзывы истекших токенов, в каком бы порядке они ни были отозваны.
+     *
+     * @param now текущее время в миллисекундах.
+     * @return число удаленных отзывов.
+     */
+    public int deleteExpired(long now) {
+        return jdbcTemplate.update("delete from revoked_tokens where expires_at <= :now", Map.of("now", now));
+    }
+}
@@ -0,0 +1,148 @@
+package com.abarigena.userservice.repository;
+
+import com.abarigena.dto.UserDto;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Пакетные операции с пользователями через JDBC для массового импорта.
+ * <p>
+ * Пользователи и их роли вставляются пакетами JDBC без создания сущностей и без проверочных
+ * SELECT на каждую строку. Вызывающий код должен выполнять методы в одной транзакции.
+ * </p>
+ */
+@Repository
+public class UserBatchRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public UserBatchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Находит уже занятые email без учета регистра, по индексу {@code uk_users_email_lower}.
+     *
+     * @param emails проверяемые email.
+     * @return множество занятых email в нижнем регистре.
+     */
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select lower(email) from users where lower(email) in (:values)",
+                Map.of("values", emails.stream().map(email -> email.toLowerCase(Locale.ROOT)).toList()),
+                String.class));
+    }
+
+    /**
+     * Находит уже занятые имена пользователей.
+     *
+     * @param usernames проверяемые имена.
+     * @return множество имен, которые уже есть в базе.
+     */
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select username from users where username in (:values)",
+                Map.of("values", usernames), String.class));
+    }
+
+    /**
+     * Вставляет пользователей одним пакетом и назначает им роль.
+     *
+     * @param users пользователи с уже вычисленными хэшами паролей.
+     * @param roleId ID роли, назначаемой всем пользователям.
+     * @return ID созданных пользователей по email.
+     */
+    public Map<String, Long> insertAll(List<UserDto> users, long roleId) {
+        if (users.isEmpty()) {
+            return Map.of();
+        }
+        SqlParameterSource[] rows = users.stream()
+                .map(user -> new MapSqlParameterSource()
+                        .addValue("email", user.getEmail())
+                        .addValue("password", user.getPassword())
+                        .addValue("username", user.getUsername()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("insert into users (email, password, username) values (:email, :password, :username)",
+                rows);
+
+        // Пакетная вставка не возвращает ключи переносимо: ID читаются одним запросом по email
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("select id, email from users where email in (:values)",
+                Map.of("values", users.stream().map(UserDto::getEmail).toList()),
+                rs -> {
+                    ids.put(rs.getString("email"), rs.getLong("id"));
+                });
+
+        SqlParameterSource[] roles = ids.values().stream()
+                .map(id -> new MapSqlParameterSource().addValue("userId", id).addValue("roleId", roleId))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("insert into user_roles (user_id, role_id) values (:userId, :roleId)", roles);
+        return ids;
+    }
+
+    /**
+     * Наибольший ID пользователя.
+     *
+     * @return ID или 0, если пользователей нет.
+     */
+    public long maxId() {
+        Long id = jdbcTemplate.getJdbcOperations().queryForObject("select max(id) from users", Long.class);
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Передает email и имя пользователей с ID больше заданного, то есть созданных после предыдущего чтения.
+     * ID выдаются по возрастанию, поэтому запрос читает только конец первичного ключа.
+     *
+     * @param afterId ID, после которого читаются пользователи.
+     * @param consumer получатель email и имени пользователя.
+     * @return наибольший прочитанный ID или {@code afterId}, если новых пользователей нет.
+     */
+    public long forEachUserAfter(long afterId, BiConsumer<String, String> consumer) {
+        long[] maxId = {afterId};
+        jdbcTemplate.query("select id, email, username from users where id > :afterId order by id",
+                Map.of("afterId", afterId),
+                rs -> {
+                    maxId[0] = Math.max(maxId[0], rs.getLong(1));
+                    consumer.accept(rs.getString(2), rs.getString(3));
+                });
+        return maxId[0];
+    }
+
+    /**
+     * Передает email и имя каждого пользователя, читая таблицу порциями, а не целиком в память.
+     * PostgreSQL читает курсором порциями по {@code fetchSize} только внутри транзакции.
+     *
+     * @param fetchSize размер порции.
+     * @param consumer получатель email и имени пользователя.
+     */
+    @Transactional(readOnly = true)
+    public void forEachEmailAndUsername(int fetchSize, BiConsumer<String, String> consumer) {
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("select email, username from users");
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getString(1), rs.getString(2));
+        });
+    }
+}
@@ -1,39 +1,130 @@
 package com.abarigena.userservice.repository;
 
+import com.abarigena.dto.UserInfoDto;
 import com.abarigena.userservice.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Репозиторий для работы с сущностью {@link User}.
- * Используется для поиска пользователей по email и username.
+ * Используется для поиска пользователей по email.
  */
 @Repository
 public interface UserRepository extends CrudRepository<User, Long> {
 
     /**
-     * Находит пользователя по его email.
+     * Находит пользователя по его email вместе с ролями.
      *
      * @param email email пользователя.
      * @return {@link Optional} пользователя.
      */
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByEmail(String email);
 
     /**
-     * Проверяет существование пользователя с таким email.
+     * Находит пользователя по ID вместе с ролями одним запросом.
+     *
+     * @param id ID пользователя.
+     * @return {@link Optional} пользователя.
+     */
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesById(Long id);
+
+    /**
+     * Находит информацию о пользователе без загрузки сущности и ролей.
+     * Читаются только ID, имя и email, которые есть в индексе {@code idx_users_info}.
+     *
+     * @param id ID пользователя.
+     * @return {@link Optional} информации о пользователе.
+     */
+    @Query("select new com.abarigena.dto.UserInfoDto(cast(u.id as String), u.username, u.email) "
+            + "from User u where u.id = :id")
+    Optional<UserInfoDto> findInfoById(@Param("id") Long id);
+
+    /**
+     * Находит информацию о нескольких пользователях одним запросом без загрузки сущностей и ролей.
+     *
+     * @param ids ID пользователей.
+     * @return информация о найденных пользователях.
+     */
+    @Query("select new com.abarigena.dto.UserInfoDto(cast(u.id as String), u.username, u.email) "
+            + "from User u where u.id in :ids")
+    List<UserInfoDto> findInfoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Проверяет, занят ли email без учета регистра, по индексу {@code uk_users_email_lower}.
      *
      * @param email email пользователя.
-     * @return {@code true}, если пользователь существует, иначе {@code false}.
+     * @return true, если пользователь с таким email есть.
      */
-    Boolean existsByEmail(String email);
+    @Query(value = "select exists(select 1 from users where lower(email) = lower(:email))", nativeQuery = true)
+    boolean existsByEmailIgnoreCase(@Param("email") String email);
 
     /**
-     * Проверяет существование пользователя с таким username.
+     * Проверяет, занято ли имя пользователя.
      *
      * @param username имя пользователя.
-     * @return {@code true}, если пользователь существует, иначе {@code false}.
+     * @return true, если пользователь с таким именем есть.
+     */
+    boolean existsByUsername(String username);
+
+    /**
+     * Строка учетных данных: ID, хэш пароля и одна из ролей пользователя.
+     */
+    interface CredentialsRow {
+        Long getId();
+
+        String getPassword();
+
+        String getRole();
+    }
+
+    /**
+     * Находит учетные данные пользователя с ролями одним запросом без загрузки сущностей.
+     * Email сравнивается без учета регистра по индексу {@code uk_users_email_lower}; если совпало
+     * несколько пользователей, первыми идут строки пользователя с точно совпадающим email.
+     *
+     * @param email email пользователя.
+     * @return по строке на каждую роль пользователя (одна строка с пустой ролью, если ролей нет).
+     */
+    @Query(value = """
+            select u.id as id, u.password as password, r.name as role
+            from users u
+            left join user_roles ur on ur.user_id = u.id
+            left join roles r on r.id = ur.role_id
+            where lower(u.email) = lower(:email)
+            order by (u.email = :email) desc, u.id""", nativeQuery = true)
+    List<CredentialsRow> findCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Находит ID и хэш пароля пользователя без ролей: одна строка по индексу {@code uk_users_email_lower}.
+     *
+     * @param email email пользователя.
+     * @return строки учетных данных с пустой ролью.
+     */
+    @Query(value = """
+            select u.id as id, u.password as password, cast(null as varchar) as role
+            from users u
+            where lower(u.email) = lower(:email)
+            order by (u.email = :email) desc, u.id""", nativeQuery = true)
+    List<CredentialsRow> findPasswordByEmail(@Param("email") String email);
+
+    /**
+     * Заменяет хэш пароля пользователя без загрузки сущности и ее ролей.
+     *
+     * @param id ID пользователя.
+     * @param password новый хэш пароля.
+     * @return число обновленных строк.
      */
-    Boolean existsByUsername(String username);
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
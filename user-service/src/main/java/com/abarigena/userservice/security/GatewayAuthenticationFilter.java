@@ -1,5 +1,6 @@
 package com.abarigena.userservice.security;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -33,6 +34,12 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
     private static final String USER_ID_HEADER = "X-User-Id";
     private static final String USER_ROLE_HEADER = "X-User-Role";
 
+    private final ServiceAuthKey serviceAuthKey;
+
+    public GatewayAuthenticationFilter(ServiceAuthKey serviceAuthKey) {
+        this.serviceAuthKey = serviceAuthKey;
+    }
+
     /**
      * Метод, который определяет, следует ли пропускать фильтрацию для текущего запроса.
      * <p>
@@ -74,8 +81,7 @@ public class GatewayAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("Обработка запроса к: {}", request.getRequestURI());
 
         // Проверяем заголовок для межсервисной коммуникации
-        String serviceAuth = request.getHeader("X-Service-Auth");
-        if (serviceAuth != null && serviceAuth.equals("internal-service-key")) {
+        if (serviceAuthKey.matches(request.getHeader(ServiceAuthKey.HEADER))) {
             logger.info("Обнаружена межсервисная аутентификация");
             // Создаем аутентификацию для сервиса с ролью SERVICE
             UsernamePasswordAuthenticationToken authentication =
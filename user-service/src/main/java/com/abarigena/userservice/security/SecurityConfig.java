@@ -1,7 +1,9 @@
 package com.abarigena.userservice.security;
 
+import com.abarigena.common.security.ServiceAuthKey;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -39,22 +41,25 @@ public class SecurityConfig {
      * </p>
      *
      * @param http объект HttpSecurity для настройки безопасности
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return настроенная цепочка фильтров безопасности
      * @throws Exception исключение, если происходит ошибка при настройке безопасности
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ServiceAuthKey serviceAuthKey) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
+                        // Проверка свободного email и имени пользователя для формы регистрации
+                        .requestMatchers(HttpMethod.GET, "/users/availability").permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(formLogin -> formLogin.disable())
                 .httpBasic(httpBasic -> httpBasic.disable())
 
-                .addFilterBefore(new GatewayAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new GatewayAuthenticationFilter(serviceAuthKey), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -62,10 +67,11 @@ public class SecurityConfig {
     /**
      * Бин для фильтра аутентификации шлюза.
      *
+     * @param serviceAuthKey ключ межсервисной аутентификации
      * @return экземпляр фильтра аутентификации шлюза
      */
     @Bean
-    public GatewayAuthenticationFilter gatewayAuthenticationFilter() {
-        return new GatewayAuthenticationFilter();
+    public GatewayAuthenticationFilter gatewayAuthenticationFilter(ServiceAuthKey serviceAuthKey) {
+        return new GatewayAuthenticationFilter(serviceAuthKey);
     }
 }
@@ -0,0 +1,89 @@
+package com.abarigena.userservice.service;
+
+import com.abarigena.dto.RevokedTokenDto;
+import com.abarigena.userservice.repository.TokenRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Общий список отозванных токенов для сервиса аутентификации.
+ * Отзыв хранится до истечения срока токена; истекшие отзывы удаляются не чаще раза в {@code prune-interval}
+ * при чтении списка.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final TokenRevocationRepository repository;
+    private final int maxBatchSize;
+    private final long pruneIntervalMillis;
+    private final AtomicLong nextPrune = new AtomicLong();
+
+    public TokenRevocationService(TokenRevocationRepository repository,
+                                  @Value("${users.revocation.max-batch-size:1000}") int maxBatchSize,
+                                  @Value("${users.revocation.prune-interval:1m}") Duration pruneInterval) {
+        this.repository = repository;
+        this.maxBatchSize = maxBatchSize;
+        this.pruneIntervalMillis = pruneInterval.toMillis();
+    }
+
+    /**
+     * Отзывает токен до истечения его срока.
+     *
+     * @param jti идентификатор токена.
+     * @param expiresAt время истечения токена в миллисекундах.
+     * @throws IllegalArgumentException если идентификатор не задан.
+     */
+    public void revoke(String jti, long expiresAt) {
+        if (jti == null || jti.isBlank()) {
+            throw new IllegalArgumentException("Token id is required");
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        if (repository.insert(jti, expiresAt)) {
+            logger.info("Токен {} отозван", jti);
+        }
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param jti идентификатор токена.
+     * @return true, если токен отозван и его срок еще не истек.
+     */
+    public boolean isRevoked(String jti) {
+        return repository.exists(jti, System.currentTimeMillis());
+    }
+
+    /**
+     * Возвращает действующие отзывы с номером больше заданного.
+     *
+     * @param since последний полученный номер; 0 — с начала списка.
+     * @param limit наибольшее число отзывов, не больше {@code users.revocation.max-batch-size}.
+     * @return отзывы по возрастанию номера.
+     */
+    public List<RevokedTokenDto> since(long since, int limit) {
+        long now = System.currentTimeMillis();
+        pruneIfDue(now);
+        return repository.findSince(Math.max(since, 0), now, Math.max(1, Math.min(limit, maxBatchSize)));
+    }
+
+    private void pruneIfDue(long now) {
+        long due = nextPrune.get();
+        if (now < due || !nextPrune.compareAndSet(due, now + pruneIntervalMillis)) {
+            return;
+        }
+        int deleted = repository.deleteExpired(now);
+        if (deleted > 0) {
+            logger.debug("Удалено {} отзывов истекших токенов", deleted);
+        }
+    }
+}
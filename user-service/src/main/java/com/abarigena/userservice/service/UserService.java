@@ -1,19 +1,32 @@
 package com.abarigena.userservice.service;
 
+import com.abarigena.dto.UserCredentialsDto;
 import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserImportResult;
 import com.abarigena.dto.UserInfoDto;
+import com.abarigena.userservice.availability.AvailabilityService;
 import com.abarigena.userservice.entity.Role;
 import com.abarigena.userservice.entity.User;
 import com.abarigena.userservice.repository.RoleRepository;
+import com.abarigena.userservice.repository.UserBatchRepository;
 import com.abarigena.userservice.repository.UserRepository;
 import jakarta.annotation.PostConstruct;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,8 +43,20 @@ public class UserService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
     /**
-     * Инициализирует роли по умолчанию, если они еще не созданы.
+     * Роли по названию. Строки ролей создаются при запуске и больше не меняются,
+     * поэтому загружаются один раз и не запрашиваются при каждой регистрации.
+     */
+    private Map<Role.RoleType, Role> rolesByName = Map.of();
+
+    /**
+     * Инициализирует роли по умолчанию, если они еще не созданы, и загружает их в память.
      * Роли администратора и пользователя создаются при запуске приложения.
      */
     @PostConstruct
@@ -46,6 +71,18 @@ public class UserService {
             roleRepository.save(adminRole);
             roleRepository.save(userRole);
         }
+
+        Map<Role.RoleType, Role> loaded = new EnumMap<>(Role.RoleType.class);
+        roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+        rolesByName = Map.copyOf(loaded);
+    }
+
+    private Role role(Role.RoleType type, String notFoundMessage) {
+        Role role = rolesByName.get(type);
+        if (role == null) {
+            throw new RuntimeException(notFoundMessage);
+        }
+        return role;
     }
 
     /**
@@ -57,15 +94,6 @@ public class UserService {
      */
     @Transactional
     public UserDto save(UserDto userDto) {
-        // Проверка существования пользователя
-        if (userRepository.existsByEmail(userDto.getEmail())) {
-            throw new RuntimeException("Email is already in use!");
-        }
-
-        if (userRepository.existsByUsername(userDto.getUsername())) {
-            throw new RuntimeException("Username is already taken!");
-        }
-
         // Создание нового пользователя
         User user = new User();
         user.setEmail(userDto.getEmail());
@@ -73,14 +101,122 @@ public class UserService {
         user.setUsername(userDto.getUsername());
 
         // По умолчанию назначаем роль пользователя
-        Role userRole = roleRepository.findByName(Role.RoleType.ROLE_USER)
-                .orElseThrow(() -> new RuntimeException("Role not found"));
+        user.setRoles(Collections.singleton(role(Role.RoleType.ROLE_USER, "Role not found")));
+
+        // Занятость email и username проверяют уникальные ограничения таблицы: INSERT выполняется сразу
+        // (ID генерируется базой), и нарушение ограничения превращается в понятную ошибку
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateUser(e);
+        }
+        availabilityService.register(saved.getEmail(), saved.getUsername());
+        return convertToDto(saved);
+    }
 
-        user.setRoles(Collections.singleton(userRole));
+    /**
+     * Переводит нарушение уникального ограничения таблицы пользователей в ошибку с понятным сообщением.
+     *
+     * @param e ошибка вставки пользователя.
+     * @return ошибка о занятом email или username, либо исходная ошибка.
+     */
+    private static RuntimeException duplicateUser(DataIntegrityViolationException e) {
+        String constraint = null;
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+                break;
+            }
+        }
+        String message = String.valueOf(e.getMostSpecificCause().getMessage());
+        // Ограничение на email, созданное до появления имен ограничений, узнается по тексту ошибки PostgreSQL
+        if (User.EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)
+                || User.EMAIL_LOWER_CONSTRAINT.equalsIgnoreCase(constraint)
+                || message.contains("(email)=") || message.contains("(lower(email")) {
+            return new RuntimeException("Email is already in use!");
+        }
+        if (User.USERNAME_CONSTRAINT.equalsIgnoreCase(constraint) || message.contains("(username)=")) {
+            return new RuntimeException("Username is already taken!");
+        }
+        return e;
+    }
 
-        User savedUser = userRepository.save(user);
+    /**
+     * Импортирует пакет пользователей с уже вычисленными хэшами паролей.
+     * <p>
+     * Занятые email и username проверяются двумя запросами на весь пакет, пользователи и их роли
+     * вставляются пакетами JDBC. Строки с занятым email или username (в том числе повторяющиеся внутри пакета)
+     * получают статус {@link UserImportResult.Status#EXISTS}, поэтому пакет можно безопасно отправить повторно.
+     * Если вставка не удалась, транзакция откатывается целиком.
+     * </p>
+     *
+     * @param users пользователи; индекс результата совпадает с позицией в списке.
+     * @return результат по каждой строке.
+     */
+    @Transactional
+    public List<UserImportResult> importUsers(List<UserDto> users) {
+        UserImportResult[] results = new UserImportResult[users.size()];
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        for (UserDto user : users) {
+            if (isValidImport(user)) {
+                emails.add(user.getEmail());
+                usernames.add(user.getUsername());
+            }
+        }
+        Set<String> existingEmails = userBatchRepository.findExistingEmails(emails);
+        Set<String> existingUsernames = userBatchRepository.findExistingUsernames(usernames);
 
-        return convertToDto(savedUser);
+        List<UserDto> accepted = new ArrayList<>();
+        Set<String> acceptedEmails = new HashSet<>();
+        Set<String> acceptedUsernames = new HashSet<>();
+        for (int i = 0; i < users.size(); i++) {
+            UserDto user = users.get(i);
+            if (!isValidImport(user)) {
+                results[i] = new UserImportResult(i, user == null ? null : user.getEmail(),
+                        UserImportResult.Status.INVALID, null,
+                        "Email, username and password are required");
+            } else if (existingEmails.contains(normalizedEmail(user))
+                    || !acceptedEmails.add(normalizedEmail(user))) {
+                results[i] = new UserImportResult(i, user.getEmail(), UserImportResult.Status.EXISTS, null,
+                        "Email is already in use!");
+            } else if (existingUsernames.contains(user.getUsername()) || !acceptedUsernames.add(user.getUsername())) {
+                acceptedEmails.remove(normalizedEmail(user));
+                results[i] = new UserImportResult(i, user.getEmail(), UserImportResult.Status.EXISTS, null,
+                        "Username is already taken!");
+            } else {
+                accepted.add(user);
+            }
+        }
+
+        Map<String, Long> ids = Map.of();
+        if (!accepted.isEmpty()) {
+            ids = userBatchRepository.insertAll(accepted, role(Role.RoleType.ROLE_USER, "Role not found").getId());
+        }
+        for (int i = 0; i < users.size(); i++) {
+            if (results[i] == null) {
+                String email = users.get(i).getEmail();
+                availabilityService.register(email, users.get(i).getUsername());
+                results[i] = new UserImportResult(i, email, UserImportResult.Status.CREATED,
+                        String.valueOf(ids.get(email)), null);
+            }
+        }
+        return List.of(results);
+    }
+
+    private static boolean isValidImport(UserDto user) {
+        return user != null
+                && user.getEmail() != null && !user.getEmail().isBlank()
+                && user.getUsername() != null && !user.getUsername().isBlank()
+                && user.getPassword() != null && !user.getPassword().isBlank();
+    }
+
+    /**
+     * Email сравнивается без учета регистра, как в уникальном индексе {@code uk_users_email_lower}.
+     */
+    private static String normalizedEmail(UserDto user) {
+        return user.getEmail().toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -92,11 +228,40 @@ public class UserService {
      */
     public UserDto findByEmail(String email) {
         User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
         return convertToDto(user);
     }
 
+    /**
+     * Находит учетные данные пользователя для входа одним запросом, без загрузки сущности.
+     *
+     * @param email email пользователя, без учета регистра.
+     * @param withRoles нужно ли возвращать роли пользователя.
+     * @return {@link UserCredentialsDto} или пустой {@link Optional}, если пользователь не найден.
+     */
+    public Optional<UserCredentialsDto> findCredentials(String email, boolean withRoles) {
+        List<UserRepository.CredentialsRow> rows = withRoles
+                ? userRepository.findCredentialsByEmail(email)
+                : userRepository.findPasswordByEmail(email);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Строки первого пользователя идут подряд: остальные совпадения по email без учета регистра отбрасываются
+        UserRepository.CredentialsRow first = rows.get(0);
+        Set<String> roles = withRoles ? new HashSet<>() : null;
+        for (UserRepository.CredentialsRow row : rows) {
+            if (!row.getId().equals(first.getId())) {
+                break;
+            }
+            if (roles != null && row.getRole() != null) {
+                roles.add(row.getRole());
+            }
+        }
+        return Optional.of(new UserCredentialsDto(first.getId().toString(), first.getPassword(), roles));
+    }
+
     /**
      * Преобразует {@link User} в {@link UserDto}.
      *
@@ -128,8 +293,11 @@ public class UserService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Role adminRole = roleRepository.findByName(Role.RoleType.ROLE_ADMIN)
-                .orElseThrow(() -> new RuntimeException("Admin role not found"));
+        Role adminRole = role(Role.RoleType.ROLE_ADMIN, "Admin role not found");
+        // Роль из кэша не совпадает по ссылке с ролями, загруженными вместе с пользователем: сравниваем по названию
+        if (user.getRoles().stream().anyMatch(role -> role.getName() == adminRole.getName())) {
+            return;
+        }
 
         Set<Role> roles = new HashSet<>(user.getRoles());
         roles.add(adminRole);
@@ -138,6 +306,23 @@ public class UserService {
         userRepository.save(user);
     }
 
+    /**
+     * Заменяет хэш пароля пользователя.
+     *
+     * @param userId ID пользователя.
+     * @param passwordHash новый хэш пароля.
+     * @throws UsernameNotFoundException если пользователь не найден.
+     */
+    @Transactional
+    public void updatePassword(String userId, String passwordHash) {
+        if (passwordHash == null || passwordHash.isBlank()) {
+            throw new IllegalArgumentException("Password hash is required");
+        }
+        if (userRepository.updatePassword(Long.valueOf(userId), passwordHash) == 0) {
+            throw new UsernameNotFoundException("Пользователь не найден с ID: " + userId);
+        }
+    }
+
     /**
      * Находит информацию о пользователе по его ID.
      *
@@ -146,10 +331,31 @@ public class UserService {
      * @throws UsernameNotFoundException если пользователь с данным ID не найден.
      */
     public UserInfoDto findById(String userId) {
-        User user = userRepository.findById(Long.valueOf(userId))
+        return userRepository.findInfoById(Long.valueOf(userId))
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден с ID: " + userId));
+    }
+
+    /**
+     * Находит информацию о нескольких пользователях одним запросом.
+     * Неизвестные и некорректные ID пропускаются.
+     *
+     * @param userIds ID пользователей.
+     * @return список {@link UserInfoDto} найденных пользователей.
+     */
+    public List<UserInfoDto> findAllByIds(Collection<String> userIds) {
+        Set<Long> ids = new HashSet<>();
+        for (String userId : userIds) {
+            try {
+                ids.add(Long.valueOf(userId));
+            } catch (NumberFormatException e) {
+                // Некорректный ID не может принадлежать ни одному пользователю
+            }
+        }
 
-        return new UserInfoDto(String.valueOf(user.getId()), user.getUsername(), user.getEmail());
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return userRepository.findInfoByIdIn(ids);
     }
 
     /**
@@ -160,7 +366,7 @@ public class UserService {
      * @throws UsernameNotFoundException если пользователь не найден.
      */
     public UserDto getCurrentUser(Long userId) {
-        User user = userRepository.findById(userId)
+        User user = userRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден с ID: " + userId));
         return convertToDto(user);
     }
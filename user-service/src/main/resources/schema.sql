@@ -0,0 +1,19 @@
+-- Email уникален без учета регистра, как и сравнивается при входе и проверке занятости;
+-- этот же индекс используется для поиска учетных данных (заменяет прежний неуникальный idx_users_email_lower)
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lower ON users (lower(email));
+DROP INDEX IF EXISTS idx_users_email_lower;
+
+-- Уникальность username не зависит от того, создал ли ограничение ddl-auto; если ограничение
+-- с этим именем уже есть, его индекс занимает имя и команда ничего не делает
+CREATE UNIQUE INDEX IF NOT EXISTS uk_users_username ON users (username);
+
+-- Информация о пользователе (ID, имя, email) для других сервисов читается только из индекса
+CREATE INDEX IF NOT EXISTS idx_users_info ON users (id) INCLUDE (username, email);
+
+-- Отозванные токены общие для всех экземпляров сервиса аутентификации и сохраняются при их перезапуске
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    sequence BIGSERIAL PRIMARY KEY,
+    jti VARCHAR(64) NOT NULL UNIQUE,
+    expires_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,162 @@
+package com.abarigena.userservice;
+
+import com.abarigena.common.hash.BloomFilter;
+import com.abarigena.userservice.availability.AvailabilityService;
+import com.abarigena.userservice.repository.UserBatchRepository;
+import com.abarigena.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        availabilityService = service(Duration.ofMinutes(1));
+    }
+
+    private AvailabilityService service(Duration maxStaleness) {
+        return new AvailabilityService(userRepository, userBatchRepository, meterRegistry,
+                1000, 0.01, Duration.ZERO, Duration.ZERO, maxStaleness);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadUsers(String... emailsAndUsernames) {
+        doAnswer(invocation -> {
+            BiConsumer<String, String> consumer = invocation.getArgument(1);
+            for (int i = 0; i < emailsAndUsernames.length; i += 2) {
+                consumer.accept(emailsAndUsernames[i], emailsAndUsernames[i + 1]);
+            }
+            return null;
+        }).when(userBatchRepository).forEachEmailAndUsername(anyInt(), any(BiConsumer.class));
+        availabilityService.rebuild();
+    }
+
+    private double checks(String field, String result) {
+        return meterRegistry.get("users.availability.checks")
+                .tag("field", field).tag("result", result).counter().count();
+    }
+
+    @Test
+    void testUnknownValues_AnsweredByFilterWithoutDatabase() {
+        loadUsers("Test@Example.com", "testuser");
+
+        for (int i = 0; i < 100; i++) {
+            availabilityService.isUsernameAvailable("free-" + i);
+        }
+
+        verify(userRepository, never()).existsByUsername(anyString());
+        // Ложноположительные ответы при таком заполнении практически исключены
+        assertEquals(100, checks("username", "available"));
+    }
+
+    @Test
+    void testTakenValues_ConfirmedByDatabase() {
+        loadUsers("Test@Example.com", "testuser");
+        when(userRepository.existsByEmailIgnoreCase("test@EXAMPLE.com")).thenReturn(true);
+        when(userRepository.existsByUsername("testuser")).thenReturn(true);
+
+        assertFalse(availabilityService.isEmailAvailable("test@EXAMPLE.com"));
+        assertFalse(availabilityService.isUsernameAvailable("testuser"));
+        assertEquals(1, checks("email", "taken"));
+        assertEquals(1, checks("username", "taken"));
+    }
+
+    @Test
+    void testFilterHit_NotInDatabase_CountedAsFalsePositive() {
+        loadUsers("test@example.com", "testuser");
+        when(userRepository.existsByUsername("testuser")).thenReturn(false);
+
+        assertTrue(availabilityService.isUsernameAvailable("testuser"));
+        assertEquals(1, checks("username", "false-positive"));
+    }
+
+    @Test
+    void testRegisteredUser_IsNotReportedAvailable() {
+        loadUsers();
+        when(userRepository.existsByUsername("new")).thenReturn(true);
+
+        availabilityService.register("New@example.com", "new");
+
+        assertFalse(availabilityService.isUsernameAvailable("new"));
+        verify(userRepository).existsByUsername("new");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUserCreatedByAnotherInstance_IsReadOnRefresh() {
+        when(userBatchRepository.maxId()).thenReturn(10L);
+        loadUsers("test@example.com", "testuser");
+        doAnswer(invocation -> {
+            BiConsumer<String, String> consumer = invocation.getArgument(1);
+            consumer.accept("Other@example.com", "other");
+            return 11L;
+        }).when(userBatchRepository).forEachUserAfter(eq(10L), any(BiConsumer.class));
+        when(userRepository.existsByEmailIgnoreCase("other@example.com")).thenReturn(true);
+
+        availabilityService.refresh();
+
+        assertFalse(availabilityService.isEmailAvailable("other@example.com"));
+        assertEquals(1, checks("email", "taken"));
+        // Следующее дочитывание перекрывает последнюю минуту и снова начинается после ID из пересоздания
+        availabilityService.refresh();
+        verify(userBatchRepository, times(2)).forEachUserAfter(eq(10L), any(BiConsumer.class));
+    }
+
+    @Test
+    void testStaleFilters_ChecksGoToDatabase() {
+        availabilityService = service(Duration.ZERO);
+        loadUsers("test@example.com", "testuser");
+        when(userRepository.existsByUsername("free")).thenReturn(false);
+
+        assertTrue(availabilityService.isUsernameAvailable("free"));
+        assertEquals(1, checks("username", "unfiltered"));
+    }
+
+    @Test
+    void testBeforeFiltersAreBuilt_ChecksGoToDatabase() {
+        when(userRepository.existsByEmailIgnoreCase("test@example.com")).thenReturn(false);
+
+        assertTrue(availabilityService.isEmailAvailable("test@example.com"));
+        assertEquals(1, checks("email", "unfiltered"));
+    }
+
+    @Test
+    void testFalsePositiveRate_GrowsWithFillAndIsReported() {
+        BloomFilter filter = BloomFilter.create(1000, 0.01);
+        assertEquals(0.0, filter.falsePositiveRate());
+        for (int i = 0; i < 1000; i++) {
+            filter.put("user-" + i);
+        }
+        assertTrue(filter.falsePositiveRate() > 0.005 && filter.falsePositiveRate() < 0.02);
+
+        loadUsers("test@example.com", "testuser");
+        double reported = meterRegistry.get("users.availability.false-positive-rate")
+                .tag("field", "email").gauge().value();
+        assertTrue(reported > 0 && reported < 0.01);
+    }
+}
@@ -0,0 +1,67 @@
+package com.abarigena.userservice;
+
+import com.abarigena.dto.RevokedTokenDto;
+import com.abarigena.userservice.repository.TokenRevocationRepository;
+import com.abarigena.userservice.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository repository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(repository, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void revoke_ShouldStoreOnlyTokensThatHaveNotExpired() {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        revocationService.revoke("active", expiresAt);
+        revocationService.revoke("expired", System.currentTimeMillis() - 1);
+
+        verify(repository).insert("active", expiresAt);
+        verify(repository, never()).insert(eq("expired"), anyLong());
+        assertThrows(IllegalArgumentException.class, () -> revocationService.revoke(" ", expiresAt));
+    }
+
+    @Test
+    void since_ShouldClampLimitAndPruneExpiredAtMostOncePerInterval() {
+        when(repository.findSince(eq(5L), anyLong(), eq(100)))
+                .thenReturn(List.of(new RevokedTokenDto(6, "a", System.currentTimeMillis() + 60_000)));
+
+        assertEquals(1, revocationService.since(5, 10_000).size());
+        revocationService.since(5, 10_000);
+
+        verify(repository, times(1)).deleteExpired(anyLong());
+        verify(repository, times(2)).findSince(eq(5L), anyLong(), eq(100));
+    }
+
+    @Test
+    void isRevoked_ShouldAskSharedTable() {
+        when(repository.exists(eq("a"), anyLong())).thenReturn(true);
+
+        assertTrue(revocationService.isRevoked("a"));
+        verify(repository, never()).findSince(anyLong(), anyLong(), anyInt());
+        verify(repository, never()).insert(anyString(), anyLong());
+    }
+}
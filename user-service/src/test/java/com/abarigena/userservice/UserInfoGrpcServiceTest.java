@@ -0,0 +1,108 @@
+package com.abarigena.userservice;
+
+import com.abarigena.common.security.ServiceAuthKey;
+import com.abarigena.dto.grpc.FindByEmailRequest;
+import com.abarigena.dto.grpc.UserInfoRequest;
+import com.abarigena.userservice.grpc.ServiceAuthServerInterceptor;
+import com.abarigena.userservice.grpc.UserInfoGrpcService;
+import com.abarigena.userservice.service.UserService;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserInfoGrpcServiceTest {
+
+    @Mock
+    private UserService userService;
+
+    @Test
+    void findByEmail_ShouldReturnNotFound_OnlyForMissingUser() {
+        when(userService.findByEmail("missing@example.com")).thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertEquals(Status.Code.NOT_FOUND, findByEmail("missing@example.com"));
+    }
+
+    @Test
+    void findByEmail_ShouldReturnUnavailable_WhenDatabaseIsDown() {
+        when(userService.findByEmail("a@example.com"))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // Клиент переходит на Feign только при UNAVAILABLE, а не считает пользователя отсутствующим
+        assertEquals(Status.Code.UNAVAILABLE, findByEmail("a@example.com"));
+    }
+
+    @Test
+    void getUserInfo_ShouldReturnInternal_ForUnexpectedErrors() {
+        when(userService.findById("1")).thenThrow(new IllegalStateException("broken"));
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        new UserInfoGrpcService(userService).getUserInfo(UserInfoRequest.newBuilder().setUserId("1").build(),
+                observer(error));
+
+        assertEquals(Status.Code.INTERNAL, Status.fromThrowable(error.get()).getCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void serviceAuthInterceptor_ShouldAcceptOnlyConfiguredKey() {
+        ServiceAuthServerInterceptor interceptor = new ServiceAuthServerInterceptor(new ServiceAuthKey("secret"));
+        Metadata.Key<String> header = Metadata.Key.of(ServiceAuthKey.HEADER, Metadata.ASCII_STRING_MARSHALLER);
+        ServerCall<Object, Object> rejected = mock(ServerCall.class);
+        ServerCall<Object, Object> accepted = mock(ServerCall.class);
+        ServerCallHandler<Object, Object> next = mock(ServerCallHandler.class);
+        Metadata wrongKey = new Metadata();
+        wrongKey.put(header, "internal-service-key");
+        Metadata rightKey = new Metadata();
+        rightKey.put(header, "secret");
+
+        interceptor.interceptCall(rejected, wrongKey, next);
+        interceptor.interceptCall(accepted, rightKey, next);
+
+        verify(rejected).close(argThat(status -> status.getCode() == Status.Code.UNAUTHENTICATED), any());
+        verify(next, never()).startCall(rejected, wrongKey);
+        verify(next).startCall(accepted, rightKey);
+    }
+
+    private Status.Code findByEmail(String email) {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        new UserInfoGrpcService(userService).findByEmail(FindByEmailRequest.newBuilder().setEmail(email).build(),
+                observer(error));
+        return Status.fromThrowable(error.get()).getCode();
+    }
+
+    private static <T> StreamObserver<T> observer(AtomicReference<Throwable> error) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                error.set(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        };
+    }
+}
@@ -1,10 +1,14 @@
 package com.abarigena.userservice;
 
+import com.abarigena.dto.UserCredentialsDto;
 import com.abarigena.dto.UserDto;
+import com.abarigena.dto.UserImportResult;
 import com.abarigena.dto.UserInfoDto;
+import com.abarigena.userservice.availability.AvailabilityService;
 import com.abarigena.userservice.entity.Role;
 import com.abarigena.userservice.entity.User;
 import com.abarigena.userservice.repository.RoleRepository;
+import com.abarigena.userservice.repository.UserBatchRepository;
 import com.abarigena.userservice.repository.UserRepository;
 import com.abarigena.userservice.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,15 +17,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +44,12 @@ class UserServiceTest {
     @Mock
     private RoleRepository roleRepository;
 
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
     @InjectMocks
     private UserService userService;
 
@@ -64,9 +82,7 @@ class UserServiceTest {
 
     @Test
     public void testSaveUser() {
-        when(userRepository.existsByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsByUsername(userDto.getUsername())).thenReturn(false);
-        when(roleRepository.findByName(Role.RoleType.ROLE_USER)).thenReturn(Optional.of(userRole));
+        loadRoles(userRole, adminRole);
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
             User savedUser = invocation.getArgument(0);
             savedUser.setId(1L);
@@ -80,43 +96,57 @@ class UserServiceTest {
         assertEquals(userDto.getEmail(), savedUser.getEmail());
         assertEquals(userDto.getUsername(), savedUser.getUsername());
 
-        verify(userRepository, times(1)).existsByEmail(userDto.getEmail());
-        verify(userRepository, times(1)).existsByUsername(userDto.getUsername());
-        verify(roleRepository, times(1)).findByName(Role.RoleType.ROLE_USER);
-        verify(userRepository, times(1)).save(any(User.class));
+        // Регистрация — одна вставка пользователя без проверочных запросов и без запроса роли
+        verify(userRepository, times(1)).save(argThat(saved -> saved.getRoles().contains(userRole)));
+        verifyNoMoreInteractions(userRepository);
+        verify(roleRepository, never()).findByName(any());
+        verify(availabilityService).register("test@example.com", "testuser");
     }
 
     @Test
     public void testSaveUserWithExistingEmail() {
-        when(userRepository.existsByEmail(userDto.getEmail())).thenReturn(true);
+        loadRoles(userRole, adminRole);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate(User.EMAIL_CONSTRAINT, "Key (email)=(test@example.com) already exists."));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             userService.save(userDto);
         });
 
         assertEquals("Email is already in use!", exception.getMessage());
+        verify(availabilityService, never()).register(any(), any());
+    }
 
-        verify(userRepository, times(1)).existsByEmail(userDto.getEmail());
-        verify(userRepository, never()).existsByUsername(anyString());
-        verify(roleRepository, never()).findByName(any());
-        verify(userRepository, never()).save(any(User.class));
+    @Test
+    public void testSaveUserWithExistingEmail_LegacyConstraintName() {
+        loadRoles(userRole, adminRole);
+        // Ограничение, созданное Hibernate до появления имен, узнается по тексту ошибки
+        when(userRepository.save(any(User.class))).thenThrow(duplicate("uk6dotkott2kjsp8vw4d0m25fb7", "Key (email)=(test@example.com) already exists."));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> userService.save(userDto));
+
+        assertEquals("Email is already in use!", exception.getMessage());
+    }
+
+    @Test
+    public void testSaveUserWithExistingEmail_DifferentCase() {
+        loadRoles(userRole, adminRole);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate(User.EMAIL_LOWER_CONSTRAINT, "Key (lower(email::text))=(test@example.com) already exists."));
+
+        Exception exception = assertThrows(RuntimeException.class, () -> userService.save(userDto));
+
+        assertEquals("Email is already in use!", exception.getMessage());
     }
 
     @Test
     public void testSaveUserWithExistingUsername() {
-        when(userRepository.existsByEmail(userDto.getEmail())).thenReturn(false);
-        when(userRepository.existsByUsername(userDto.getUsername())).thenReturn(true);
+        loadRoles(userRole, adminRole);
+        when(userRepository.save(any(User.class))).thenThrow(duplicate(User.USERNAME_CONSTRAINT, "Key (username)=(testuser) already exists."));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             userService.save(userDto);
         });
 
         assertEquals("Username is already taken!", exception.getMessage());
-
-        verify(userRepository, times(1)).existsByEmail(userDto.getEmail());
-        verify(userRepository, times(1)).existsByUsername(userDto.getUsername());
-        verify(roleRepository, never()).findByName(any());
-        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
@@ -150,15 +180,16 @@ class UserServiceTest {
     public void testAssignAdminRole() {
         user.setRoles(new HashSet<>());
 
+        loadRoles(userRole, adminRole);
         when(userRepository.findByEmail(userDto.getEmail())).thenReturn(Optional.of(user));
-        when(roleRepository.findByName(Role.RoleType.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         userService.assignAdminRole(userDto.getEmail());
 
         verify(userRepository, times(1)).findByEmail(userDto.getEmail());
-        verify(roleRepository, times(1)).findByName(Role.RoleType.ROLE_ADMIN);
+        verify(roleRepository, never()).findByName(any());
         verify(userRepository, times(1)).save(any(User.class));
+        assertTrue(user.getRoles().contains(adminRole));
     }
 
     @Test
@@ -178,8 +209,8 @@ class UserServiceTest {
 
     @Test
     public void testAssignAdminRoleAdminRoleNotFound() {
+        loadRoles(userRole);
         when(userRepository.findByEmail(userDto.getEmail())).thenReturn(Optional.of(user));
-        when(roleRepository.findByName(Role.RoleType.ROLE_ADMIN)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             userService.assignAdminRole(userDto.getEmail());
@@ -188,7 +219,6 @@ class UserServiceTest {
         assertEquals("Admin role not found", exception.getMessage());
 
         verify(userRepository, times(1)).findByEmail(userDto.getEmail());
-        verify(roleRepository, times(1)).findByName(Role.RoleType.ROLE_ADMIN);
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -198,20 +228,34 @@ class UserServiceTest {
         roles.add(userRole);
         user.setRoles(roles);
 
+        loadRoles(userRole, adminRole);
         when(userRepository.findByEmail(userDto.getEmail())).thenReturn(Optional.of(user));
-        when(roleRepository.findByName(Role.RoleType.ROLE_ADMIN)).thenReturn(Optional.of(adminRole));
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         userService.assignAdminRole(userDto.getEmail());
 
         verify(userRepository, times(1)).findByEmail(userDto.getEmail());
-        verify(roleRepository, times(1)).findByName(Role.RoleType.ROLE_ADMIN);
         verify(userRepository, times(1)).save(any(User.class));
+        assertEquals(2, user.getRoles().size());
+    }
+
+    @Test
+    public void testAssignAdminRoleToAdmin_DoesNotDuplicateRole() {
+        // Роль пользователя загружена вместе с ним и не совпадает по ссылке с ролью из кэша
+        Role loadedAdminRole = new Role(2L, Role.RoleType.ROLE_ADMIN);
+        user.setRoles(new HashSet<>(Set.of(userRole, loadedAdminRole)));
+
+        loadRoles(userRole, adminRole);
+        when(userRepository.findByEmail(userDto.getEmail())).thenReturn(Optional.of(user));
+
+        userService.assignAdminRole(userDto.getEmail());
+
+        verify(userRepository, never()).save(any(User.class));
     }
 
     @Test
     public void testFindById() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findInfoById(1L)).thenReturn(Optional.of(new UserInfoDto("1", "testuser", "test@example.com")));
 
         UserInfoDto userInfo = userService.findById("1");
 
@@ -220,12 +264,14 @@ class UserServiceTest {
         assertEquals(user.getUsername(), userInfo.getUsername());
         assertEquals(user.getEmail(), userInfo.getEmail());
 
-        verify(userRepository, times(1)).findById(1L);
+        // Информация читается проекцией без загрузки сущности и ролей
+        verify(userRepository, times(1)).findInfoById(1L);
+        verifyNoMoreInteractions(userRepository);
     }
 
     @Test
     public void testFindByIdNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findInfoById(1L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(UsernameNotFoundException.class, () -> {
             userService.findById("1");
@@ -233,7 +279,25 @@ class UserServiceTest {
 
         assertEquals("Пользователь не найден с ID: 1", exception.getMessage());
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findInfoById(1L);
+    }
+
+    @Test
+    void testFindAllByIds_SkipsInvalidIdsAndUsesProjection() {
+        when(userRepository.findInfoByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(new UserInfoDto("1", "testuser", "test@example.com")));
+
+        List<UserInfoDto> result = userService.findAllByIds(List.of("1", "2", "abc"));
+
+        assertEquals(1, result.size());
+        assertEquals("testuser", result.get(0).getUsername());
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testFindAllByIds_EmptyWithoutQuery() {
+        assertTrue(userService.findAllByIds(List.of("abc")).isEmpty());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -242,7 +306,7 @@ class UserServiceTest {
         roles.add(userRole);
         user.setRoles(roles);
 
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findWithRolesById(1L)).thenReturn(Optional.of(user));
 
         UserDto currentUser = userService.getCurrentUser(1L);
 
@@ -251,12 +315,12 @@ class UserServiceTest {
         assertEquals(user.getEmail(), currentUser.getEmail());
         assertEquals(user.getUsername(), currentUser.getUsername());
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findWithRolesById(1L);
     }
 
     @Test
     public void testGetCurrentUserNotFound() {
-        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findWithRolesById(1L)).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(UsernameNotFoundException.class, () -> {
             userService.getCurrentUser(1L);
@@ -264,6 +328,161 @@ class UserServiceTest {
 
         assertEquals("Пользователь не найден с ID: 1", exception.getMessage());
 
-        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(1)).findWithRolesById(1L);
+    }
+
+    @Test
+    void testUpdatePassword_Success() {
+        when(userRepository.updatePassword(1L, "$2a$12$hash")).thenReturn(1);
+
+        userService.updatePassword("1", "$2a$12$hash");
+
+        verify(userRepository).updatePassword(1L, "$2a$12$hash");
+    }
+
+    @Test
+    void testUpdatePassword_UserNotFound() {
+        when(userRepository.updatePassword(2L, "$2a$12$hash")).thenReturn(0);
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.updatePassword("2", "$2a$12$hash"));
+    }
+
+    @Test
+    void testFindCredentials_CollectsRolesOfFirstUser() {
+        when(userRepository.findCredentialsByEmail("Test@Example.com")).thenReturn(List.of(
+                credentials(1L, "hash", "ROLE_USER"),
+                credentials(1L, "hash", "ROLE_ADMIN"),
+                credentials(7L, "other", "ROLE_USER")));
+
+        UserCredentialsDto result = userService.findCredentials("Test@Example.com", true).orElseThrow();
+
+        assertEquals("1", result.getId());
+        assertEquals("hash", result.getPasswordHash());
+        assertEquals(Set.of("ROLE_USER", "ROLE_ADMIN"), result.getRoles());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void testFindCredentials_WithoutRoles() {
+        when(userRepository.findPasswordByEmail("test@example.com"))
+                .thenReturn(List.of(credentials(1L, "hash", null)));
+
+        UserCredentialsDto result = userService.findCredentials("test@example.com", false).orElseThrow();
+
+        assertEquals("hash", result.getPasswordHash());
+        assertNull(result.getRoles());
+        verify(userRepository, never()).findCredentialsByEmail(any());
+    }
+
+    @Test
+    void testFindCredentials_NotFound() {
+        when(userRepository.findCredentialsByEmail("missing@example.com")).thenReturn(List.of());
+
+        assertTrue(userService.findCredentials("missing@example.com", true).isEmpty());
+    }
+
+    @Test
+    void testImportUsers_InsertsNewAndReportsExistingRows() {
+        List<UserDto> users = List.of(
+                importUser("new@example.com", "new"),
+                importUser("test@example.com", "taken-email"),
+                importUser("other@example.com", "testuser"),
+                importUser("new@example.com", "new-again"),
+                importUser(" ", "blank"));
+        when(userBatchRepository.findExistingEmails(any())).thenReturn(Set.of("test@example.com"));
+        when(userBatchRepository.findExistingUsernames(any())).thenReturn(Set.of("testuser"));
+        loadRoles(userRole, adminRole);
+        when(userBatchRepository.insertAll(anyList(), eq(1L))).thenReturn(Map.of("new@example.com", 10L));
+
+        List<UserImportResult> results = userService.importUsers(users);
+
+        assertEquals(List.of(UserImportResult.Status.CREATED, UserImportResult.Status.EXISTS,
+                        UserImportResult.Status.EXISTS, UserImportResult.Status.EXISTS,
+                        UserImportResult.Status.INVALID),
+                results.stream().map(UserImportResult::getStatus).toList());
+        assertEquals("10", results.get(0).getUserId());
+        assertEquals(3, results.get(3).getIndex());
+        verify(userBatchRepository).insertAll(argThat(accepted -> accepted.size() == 1), eq(1L));
+        verify(userRepository, never()).save(any());
+        verify(availabilityService).register("new@example.com", "new");
+        verifyNoMoreInteractions(availabilityService);
+    }
+
+    @Test
+    void testImportUsers_ComparesEmailsIgnoringCase() {
+        List<UserDto> users = List.of(
+                importUser("Test@Example.com", "taken-email"),
+                importUser("new@example.com", "new"),
+                importUser("NEW@example.com", "new-again"));
+        when(userBatchRepository.findExistingEmails(any())).thenReturn(Set.of("test@example.com"));
+        when(userBatchRepository.findExistingUsernames(any())).thenReturn(Set.of());
+        loadRoles(userRole, adminRole);
+        when(userBatchRepository.insertAll(anyList(), eq(1L))).thenReturn(Map.of("new@example.com", 10L));
+
+        List<UserImportResult> results = userService.importUsers(users);
+
+        assertEquals(List.of(UserImportResult.Status.EXISTS, UserImportResult.Status.CREATED,
+                        UserImportResult.Status.EXISTS),
+                results.stream().map(UserImportResult::getStatus).toList());
+    }
+
+    @Test
+    void testImportUsers_SkipsInsert_WhenAllRowsExist() {
+        when(userBatchRepository.findExistingEmails(any())).thenReturn(Set.of("test@example.com"));
+        when(userBatchRepository.findExistingUsernames(any())).thenReturn(Set.of());
+
+        List<UserImportResult> results = userService.importUsers(List.of(importUser("test@example.com", "testuser")));
+
+        assertEquals(UserImportResult.Status.EXISTS, results.get(0).getStatus());
+        verify(userBatchRepository, never()).insertAll(any(), anyLong());
+    }
+
+    @Test
+    void testInitRoles_CreatesMissingRolesAndLoadsThemOnce() {
+        when(roleRepository.count()).thenReturn(0L);
+        when(roleRepository.findAll()).thenReturn(List.of(userRole, adminRole));
+
+        userService.initRoles();
+
+        verify(roleRepository, times(2)).save(any(Role.class));
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    private void loadRoles(Role... roles) {
+        when(roleRepository.count()).thenReturn((long) roles.length);
+        when(roleRepository.findAll()).thenReturn(List.of(roles));
+        userService.initRoles();
+    }
+
+    private static DataIntegrityViolationException duplicate(String constraint, String detail) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(detail), constraint));
+    }
+
+    private static UserDto importUser(String email, String username) {
+        UserDto user = new UserDto();
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setPassword("$2a$10$hash");
+        return user;
+    }
+
+    private static UserRepository.CredentialsRow credentials(Long id, String password, String role) {
+        return new UserRepository.CredentialsRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getPassword() {
+                return password;
+            }
+
+            @Override
+            public String getRole() {
+                return role;
+            }
+        };
     }
 }
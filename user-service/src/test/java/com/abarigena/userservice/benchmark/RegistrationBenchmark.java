@@ -0,0 +1,172 @@
+package com.abarigena.userservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение SQL, которые выполняет регистрация пользователя: прежний путь с проверочными запросами
+ * ({@code existsByEmail}, {@code existsByUsername}, {@code findByName}) перед вставкой и новый путь,
+ * где роль берется из памяти, а занятость email и username проверяют уникальные ограничения.
+ * <p>
+ * Запросы выполняются через JDBC к PostgreSQL во временных таблицах той же структуры, что и {@code users},
+ * {@code roles} и {@code user_roles}, по одной транзакции на регистрацию. Отдельно измеряется регистрация
+ * с уже занятым email: в новом пути это неудачная вставка с откатом транзакции.
+ * </p>
+ * Запуск: {@code java -cp <test classpath> com.abarigena.userservice.benchmark.RegistrationBenchmark}
+ * с PostgreSQL из {@code docker-compose} (адрес и учетные данные задаются свойствами
+ * {@code benchmark.jdbc-url}, {@code benchmark.user}, {@code benchmark.password}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z8KBTbvJGXz.AiFeVrJ9kF0K";
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private Connection connection;
+    private long userRoleId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5432/userdb"),
+                System.getProperty("benchmark.user", System.getenv("POSTGRES_USER")),
+                System.getProperty("benchmark.password", System.getenv("POSTGRES_PASSWORD")));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create temp table roles (id bigserial primary key, name varchar(255) not null unique)");
+            statement.execute("create temp table users (id bigserial primary key, email varchar(255) not null, "
+                    + "password varchar(255) not null, username varchar(255) not null, "
+                    + "constraint uk_users_email unique (email), constraint uk_users_username unique (username))");
+            statement.execute("create index on users (lower(email))");
+            statement.execute("create temp table user_roles (user_id bigint not null references users, "
+                    + "role_id bigint not null references roles, primary key (user_id, role_id))");
+            statement.execute("insert into roles (name) values ('ROLE_ADMIN'), ('ROLE_USER')");
+            try (ResultSet rs = statement.executeQuery("select id from roles where name = 'ROLE_USER'")) {
+                rs.next();
+                userRoleId = rs.getLong(1);
+            }
+            statement.execute("insert into users (email, password, username) values ('taken@example.com', 'x', 'taken')");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Прежняя регистрация: два запроса на занятость, запрос роли, вставка пользователя и роли.
+     */
+    @Benchmark
+    public long preChecked() throws SQLException {
+        long n = sequence.incrementAndGet();
+        String email = "user" + n + "@example.com";
+        String username = "user" + n;
+        if (exists("select 1 from users where email = ?", email)
+                || exists("select 1 from users where username = ?", username)) {
+            connection.rollback();
+            return -1;
+        }
+        long roleId;
+        try (PreparedStatement select = connection.prepareStatement("select id, name from roles where name = ?")) {
+            select.setString(1, "ROLE_USER");
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                roleId = rs.getLong(1);
+            }
+        }
+        long id = insertUser(email, username, roleId);
+        connection.commit();
+        return id;
+    }
+
+    /**
+     * Новая регистрация: вставка пользователя и его роли, ID роли из памяти.
+     */
+    @Benchmark
+    public long constraintChecked() throws SQLException {
+        long n = sequence.incrementAndGet();
+        long id = insertUser("user" + n + "@example.com", "user" + n, userRoleId);
+        connection.commit();
+        return id;
+    }
+
+    /**
+     * Прежняя регистрация с занятым email: отказ после первого проверочного запроса.
+     */
+    @Benchmark
+    public boolean preCheckedDuplicate() throws SQLException {
+        boolean exists = exists("select 1 from users where email = ?", "taken@example.com");
+        connection.rollback();
+        return exists;
+    }
+
+    /**
+     * Новая регистрация с занятым email: вставка нарушает ограничение, транзакция откатывается.
+     */
+    @Benchmark
+    public boolean constraintCheckedDuplicate() throws SQLException {
+        try {
+            insertUser("taken@example.com", "user" + sequence.incrementAndGet(), userRoleId);
+            connection.commit();
+            return false;
+        } catch (SQLException e) {
+            connection.rollback();
+            return "23505".equals(e.getSQLState());
+        }
+    }
+
+    private boolean exists(String sql, String value) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setString(1, value);
+            try (ResultSet rs = select.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private long insertUser(String email, String username, long roleId) throws SQLException {
+        long id;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into users (email, password, username) values (?, ?, ?) returning id")) {
+            insert.setString(1, email);
+            insert.setString(2, PASSWORD_HASH);
+            insert.setString(3, username);
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                id = rs.getLong(1);
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into user_roles (user_id, role_id) values (?, ?)")) {
+            insert.setLong(1, id);
+            insert.setLong(2, roleId);
+            insert.executeUpdate();
+        }
+        return id;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(RegistrationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}